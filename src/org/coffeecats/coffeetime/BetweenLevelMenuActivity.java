@@ -8,6 +8,7 @@
 package org.coffeecats.coffeetime;
 
 import org.coffeecats.coffeetime.R;
+import org.coffeecats.coffeetime.gamelogic.GameInfo;
 
 import android.app.AlertDialog.Builder;
 import android.app.Activity;
@@ -31,6 +32,9 @@ public class BetweenLevelMenuActivity extends SoundPlayingActivity {
 		// Change content view so that we are using mainmenulayout now!
 		setContentView(R.layout.betweenlevelmenu);
 		
+		//Warm up the next level while the player makes up their mind
+		LevelPrefetcher.prefetch(GameInfo.getLevel() + 1, this);
+		
 		//To retry a level we kill BetweenLevelMenuActivity after sending a message through MessageRouter
 		//to load the last saved game (which takes us back to the beginning of the last level)
 		Button retryLevel = (Button) findViewById(R.id.retry_level);
@@ -0,0 +1,92 @@
+/** EventBus carries the high-frequency events between the stages of the game - user taps (UI thread to
+ * simulation) and short sound effects (simulation to audio). Interactions don't need a channel: they are detected
+ * by the SimulationThread, on the simulation Looper, and handled by the GameLogicThread right there.
+ * Each (producer stage, consumer stage) pair gets its own EventChannel, a pre-allocated single-producer /
+ * single-consumer ring buffer, so these events are passed without allocating a Message and without taking
+ * the MessageRouter lock. MessageRouter uses EventBus for these events and falls back to its regular Handler
+ * messages if the event is published from some other thread or the channel is full.
+ *
+ * The low-frequency control messages (pause, suspend, level end, etc) still go through MessageRouter.
+ *
+ * @author iyulaev
+ */
+
+package org.coffeecats.coffeetime;
+
+import org.coffeecats.coffeetime.utility.EventChannel;
+
+import android.os.Looper;
+import android.util.Log;
+
+public class EventBus {
+
+	private static final String activitynametag = "EventBus";
+
+	//Types of events carried over the EventBus
+	public static final int EVENT_TAP = 0;
+	public static final int EVENT_PLAY_SFX = 1;
+
+	//How many events may be waiting in each channel
+	private static final int CHANNEL_CAPACITY = 64;
+
+	//The channels between the stages, named producer -> consumer
+	private static volatile EventChannel uiToSimulation;
+	private static volatile EventChannel simulationToAudio;
+
+	//The Looper of the stage that produces sound effects
+	private static volatile Looper simulationLooper;
+
+	/** Set up all of the channels between the game's threads. Called by MainGamePanel once it has created
+	 * the threads, and must be called from the UI thread (which is the producer for tap events).
+	 */
+	public synchronized static void connect(final InputThread inputThread, final SoundThread soundThread) {
+		simulationLooper = GameLoopers.getSimulationLooper();
+		Looper audioLooper = GameLoopers.getAudioLooper();
+
+		EventChannel.EventConsumer simulationConsumer = new EventChannel.EventConsumer() {
+			public void onEvent(int what, int arg1, int arg2) {
+				if(what == EVENT_TAP) inputThread.onUserTap(arg1, arg2);
+			}
+		};
+
+		EventChannel.EventConsumer audioConsumer = new EventChannel.EventConsumer() {
+			public void onEvent(int what, int arg1, int arg2) {
+				if(what == EVENT_PLAY_SFX) soundThread.playShortSfx(arg1);
+			}
+		};
+
+		uiToSimulation = new EventChannel("ui->simulation", CHANNEL_CAPACITY, simulationLooper, simulationConsumer);
+		simulationToAudio = new EventChannel("simulation->audio", CHANNEL_CAPACITY, audioLooper, audioConsumer);
+	}
+
+	/** Publish a user tap. Must be called from the UI thread.
+	 * @return true if the tap was published, false if it must be delivered some other way
+	 */
+	public static boolean publishTap(int x, int y) {
+		EventChannel channel = uiToSimulation;
+		if(channel == null || Looper.myLooper() != Looper.getMainLooper()) return(false);
+		return(channel.publish(EVENT_TAP, x, y));
+	}
+
+	/** Publish a request to play a short sound effect. Must be called from the simulation Looper, which is the
+	 * only stage with a channel to the audio stage.
+	 * @return true if the request was published, false if it must be delivered some other way
+	 */
+	public static boolean publishSfx(int sfx_to_play) {
+		EventChannel channel = simulationToAudio;
+		if(channel == null || Looper.myLooper() != simulationLooper) return(false);
+		return(channel.publish(EVENT_PLAY_SFX, sfx_to_play, 0));
+	}
+
+	/** Return all of the channels of this EventBus, e.g. for displaying their statistics */
+	public static EventChannel [] getChannels() {
+		return(new EventChannel [] { uiToSimulation, simulationToAudio });
+	}
+
+	/** Write the queue depth and latency statistics of each channel to the log */
+	public static void logStats() {
+		for(EventChannel channel : getChannels()) {
+			if(channel != null) Log.d(activitynametag, channel.toString());
+		}
+	}
+}
@@ -6,9 +6,12 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.coffeecats.coffeetime.gamelogic.CustomerQueueWrapper;
+import org.coffeecats.coffeetime.gamelogic.GameClock;
 import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.GameLevel;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
 import org.coffeecats.coffeetime.gamelogic.Interaction;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
 import org.coffeecats.coffeetime.gamelogic.leveldefs.GameLevel_0;
 import org.coffeecats.coffeetime.gamelogic.leveldefs.GameLevel_1;
 import org.coffeecats.coffeetime.gamelogic.leveldefs.GameLevel_2;
@@ -22,12 +25,8 @@ import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
 import org.coffeecats.coffeetime.gameobjects.GameFoodItem;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
-import org.coffeecats.coffeetime.gameobjects.objectdefs.Blender;
-import org.coffeecats.coffeetime.gameobjects.objectdefs.CoffeeMachine;
-import org.coffeecats.coffeetime.gameobjects.objectdefs.CounterTop;
-import org.coffeecats.coffeetime.gameobjects.objectdefs.EspressoMachine;
-import org.coffeecats.coffeetime.gameobjects.objectdefs.Microwave;
 import org.coffeecats.coffeetime.utility.Analytics;
+import org.coffeecats.coffeetime.utility.BitmapCache;
 
 import android.content.Context;
 import android.os.Handler;
@@ -53,7 +52,6 @@ public class GameLogicThread extends Thread {
 	private static final String activitynametag = "GameLogicThread";
 	
 	//Define types of messages accepted by GameLogicThread
-	public static final int MESSAGE_INTERACTION_EVENT = 0;
 	public static final int MESSAGE_TICK_PASSED = 1;
 	public static final int MESSAGE_LOAD_GAME = 2;
 	public static final int MESSAGE_NEXT_LEVEL = 4;
@@ -63,6 +61,7 @@ public class GameLogicThread extends Thread {
 	public static final int MESSAGE_SET_UNSUSPEND = 8;
 	public static final int MESSAGE_SET_PAUSED = 9;
 	public static final int MESSAGE_SET_UNPAUSED = 10;
+	public static final int MESSAGE_LEVEL_BUILT = 11;
 		
 	//Define types of messages accepted by OTHER threads/handlers
 	public static final int MESSAGE_LEVEL_END = -1;
@@ -81,15 +80,12 @@ public class GameLogicThread extends Thread {
 	private boolean suspended;
 	private boolean paused;
 	
-	//Keep track of the CoffeeGirl instance in this game
-	public CoffeeGirl coffeeGirl;
-	//Keep track of the customerQueue instances; only used to determine if the level has been finished
-	//and to send some data (like # of customers remaining in queue) into GameInfo
-	public CustomerQueueWrapper customerQueueWrapper;
-	//Keep track of all of the GameItems, by a name -> instance map
-	public HashMap<String, GameItem> gameItems;
-	//Keep track of all of the GameFoodItems, by a name -> instance map
-	public HashMap<String, GameFoodItem> foodItems;
+	//The CoffeeGirl, the customer queues, the GameItems (by name and by id) and the GameFoodItems of the level
+	//all live in the current World (World.current()); while a level is being loaded the setter methods below
+	//add to the World being built instead
+	
+	//Holds the result of the interaction being handled; re-used so that handling an interaction doesn't allocate
+	private final Interaction interactionResult = new Interaction();
 	
 	/*Keeps track of all of the threads; mostly just used for loading a level (since the level loader populates
 	the threads' data structures with GameItems and such */
@@ -100,6 +96,11 @@ public class GameLogicThread extends Thread {
 	//Mostly used for loading resources and such
 	Context caller;
 	
+	//Levels are built on the prefetch Looper (see buildLevel()); level_building is set from when a level build is
+	//started until it has been handed back to us, so that a level is only built once
+	private final Handler levelBuilder;
+	private boolean level_building = false;
+	
 	/** Mostly just initializes the Handler that receives and acts on in-game interactions that occur */
 	public GameLogicThread(ViewThread viewThread, InputThread inputThread, Context caller, boolean load_saved, int start_level) {
 		super();
@@ -114,36 +115,20 @@ public class GameLogicThread extends Thread {
 		GameInfo.reset();
 		GameInfo.setLevel(start_level);
 		
-		gameItems = new HashMap<String, GameItem>();
-		foodItems = new HashMap<String, GameFoodItem>();
-		
 		GameInfo.initDB(caller);
 		if(load_saved) GameInfo.loadSavedGame();
 		else GameInfo.resetCharacter();
 		
-		//Creates a Handler that will be used to process Interaction and ClockTick messages, and advance the CoffeeGirl and
-		//GameLogicThread state machines
-		handler = new Handler() {
+		//Creates a Handler that will be used to process ClockTick messages and advance the GameLogicThread state machine
+		//(interactions are handed over by the SimulationThread directly, see handleInteractionEvent()). It lives on the simulation Looper so that the state machine
+		//doesn't run on the UI thread; levels are built on the prefetch Looper (see buildLevel())
+		handler = new Handler(GameLoopers.getSimulationLooper()) {
 			@Override
 			public void handleMessage(Message msg) {
-				//Handle messages from viewThread that tell the GLT that an interaction between a GameActor and
-				//a GameItem has occured
-				if(msg.what == MESSAGE_INTERACTION_EVENT) {
-					String interactee = (String)msg.obj;
-					//Attempt interaction and see if interactee changed state
-					Interaction interactionResult = gameItems.get(interactee).onInteraction(coffeeGirl.getItemHolding());
-					
-					//If the interaction resulted in a state change, OR was successful (when interacting with CustomerQueue),
-					//change coffeegirl state
-					if(interactionResult.previous_state != -1 || interactionResult.was_success) {
-						coffeeGirlNextState(coffeeGirl.getState(), interactee, interactionResult);
-					}
-				}
-				
 				//Handle messages from timerThread that tell the GameLogicThread that a second has passed
 				//This is the main state machine for the GameLogicThread! Which controls how the game works!
 				//So this is the most important part of the game!!!
-				else if(msg.what == MESSAGE_TICK_PASSED) {
+				if(msg.what == MESSAGE_TICK_PASSED) {
 					stateMachineClockTick();
 				}
 				
@@ -175,8 +160,38 @@ public class GameLogicThread extends Thread {
 				
 				else if (msg.what == MESSAGE_SET_PAUSED) setPaused(true);
 				else if (msg.what == MESSAGE_SET_UNPAUSED) setPaused(false);
+				
+				//A level has been built on the prefetch Looper; publish it and get ready to play it
+				else if (msg.what == MESSAGE_LEVEL_BUILT) onLevelBuilt((BuiltLevel) msg.obj);
 			}
-		};		
+		};
+		
+		levelBuilder = new Handler(GameLoopers.getPrefetchLooper());
+	}
+	
+	/** Called by the SimulationThread (on the simulation Looper, in the step that detected it) when an interaction 
+	 * between CoffeeGirl and a GameItem has occured. Attempts the interaction and, if it succeeded, advances 
+	 * CoffeeGirl's state; both happen before anything else can change what she holds or who is at the counter.
+	 * @param item_id The id (see addGameItem()) of the GameItem that CoffeeGirl interacted with
+	 */
+	public void handleInteractionEvent(int item_id) {
+		World world = World.current();
+		CoffeeGirl coffeeGirl = world.coffeeGirl;
+		
+		//Ignore interactions with items that don't belong to the level that is currently loaded
+		if(item_id < 0 || item_id >= world.gameItemsById.size() || coffeeGirl == null) return;
+		
+		GameItem interactee = world.gameItemsById.get(item_id);
+		
+		//Attempt interaction and see if interactee changed state
+		interactionResult.reset();
+		interactee.onInteraction(coffeeGirl.getState(), interactionResult);
+		
+		//If the interaction resulted in a state change, OR was successful (when interacting with CustomerQueue),
+		//change coffeegirl state
+		if(interactionResult.previous_state != -1 || interactionResult.was_success) {
+			coffeeGirlNextState(coffeeGirl.getState(), interactee, interactionResult);
+		}
 	}
 	
 	/** Set whether this GameLogicThread is suspended or not. If the thread is suspended,
@@ -210,15 +225,26 @@ public class GameLogicThread extends Thread {
 	}
 	
 	/** This methods sends out a timer tick and queues itself (via handler) to be called back after a fixed number 
-	 * of milliseconds. It effectively implements the busy loop for TimerThread.
+	 * of milliseconds. It effectively implements the busy loop for TimerThread. While a level is being played the 
+	 * ticks follow the GameClock, so that the level countdown runs on game time (it stops whenever the simulation 
+	 * does, and keeps pace with the time scale); the announcements before and after a level, when no game time 
+	 * passes, tick in real time.
 	 */
 	private long lastTimerTick = -1L;
+	//The GameClock time at which the next in-play tick is due; set when the level starts
+	private long next_play_tick_ms;
 	private void callRefreshDelayed() { 
 		handler.postDelayed(
 			new Runnable() {
 				public void run() {	
 					if(!suspended) {
-						if(SystemClock.uptimeMillis() > lastTimerTick + TIMER_GRANULARITY) {
+						if(GameInfo.getGameMode() == GameInfo.MODE_MAINGAMEPANEL_INPLAY) {
+							if(GameClock.currentTimeMillis() >= next_play_tick_ms) {
+								if(!paused) stateMachineClockTick();
+								next_play_tick_ms += TIMER_GRANULARITY;
+							}
+						}
+						else if(SystemClock.uptimeMillis() > lastTimerTick + TIMER_GRANULARITY) {
 							if(!paused) stateMachineClockTick();
 							lastTimerTick = SystemClock.uptimeMillis();
 						}
@@ -236,38 +262,34 @@ public class GameLogicThread extends Thread {
 	//used to track information about the current level instance loaded
 	GameLevel currLevel;
 	
+	/** Publish how many customers are left (for the HUD), out of one snapshot of the queue statistics */
+	private void setCustomersLeft(CustomerQueueWrapper customerQueueWrapper) {
+		long queue_stats = customerQueueWrapper.getStats();
+		int served = CustomerQueueWrapper.served(queue_stats);
+
+		GameInfo.setCustomersLeft(customerQueueWrapper.left(queue_stats),
+				currLevel.customersUntilBonus() - served,
+				currLevel.customersUntilCleared() - served);
+	}
+
 	/** Updates this GameLogicThread's state machine. Should be called every time a clock tick (nominally one
 	 * real-time second) occurs
-	 * 
+	 *
 	 * @sideeffect Mucks with GameInfo and MessageRouter to update game state and inform other Threads
 	 * about the updates in the game state.
 	 */
-	public void stateMachineClockTick() {		
+	public void stateMachineClockTick() {
+		//The customer queues of the level that is currently loaded
+		CustomerQueueWrapper customerQueueWrapper = World.current().customerQueueWrapper;
+		
 		//Pre-play state - this is the state we are in before gameplay begins
 		//IF we are viewing the main panel AND we are ready to play a level, this means the
 		//game is ready for another level - load one!
 		if(GameInfo.getGameMode() == GameInfo.MODE_MAINGAMEPANEL_PREPLAY) {
 			//At the very beginning of the level, load the current level (increment previous level # by one, but at the minimum load level #1!)
-			loadLevel(GameInfo.getLevel() + 1);
-			currLevel = getLevelInstance(GameInfo.getLevel());
-			
-			//For three seconds tell the user that the evel is about to start
-			message_timer = 3;
-			
-			//Log.v(activitynametag, "GLT is loading a new level!");
-			GameInfo.setGameMode(GameInfo.MODE_MAINGAMEPANEL_PREPLAY_MESSAGE);
-			
-			GameInfo.setCustomersLeft(customerQueueWrapper.numberOfCustomersLeft(), 
-					currLevel.customersUntilBonus() - customerQueueWrapper.numberOfCustomersServed(),
-					currLevel.customersUntilCleared() - customerQueueWrapper.numberOfCustomersServed());
-			
-			MessageRouter.sendLoadLevelMusicMessage(GameInfo.getLevel());
-			
-			if(currLevel.getNewMachines() != null) 
-				MessageRouter.sendNewMachinesMessage(currLevel.getNewMachines());
-			
-			if(GameInfo.getLevel() == 0)
-				MessageRouter.sendPauseUIMessage(true);
+			//The level is built in the background; we stay in pre-play until it has been built and published, and
+			//then move on to the pre-play message (see onLevelBuilt())
+			if(!level_building) buildLevel(GameInfo.getLevel() + 1);
 		}
 		
 		//Pre-play message - this is the state we are in when we display the Level Start countdown message
@@ -281,6 +303,8 @@ public class GameLogicThread extends Thread {
 			}
 			else {
 				GameInfo.setGameMode(GameInfo.MODE_MAINGAMEPANEL_INPLAY);
+				GameClock.setPaused(false); //game time only passes during active play
+				next_play_tick_ms = GameClock.currentTimeMillis() + TIMER_GRANULARITY;
 				MessageRouter.sendAnnouncementMessage("", false); //remove the announcement message
 				
 				if(GameInfo.getLevel() == 0) {
@@ -294,17 +318,12 @@ public class GameLogicThread extends Thread {
 				MessageRouter.sendPlayLevelMusicMessage(GameInfo.getLevel());
 			}
 			
-			GameInfo.setCustomersLeft(customerQueueWrapper.numberOfCustomersLeft(), 
-					currLevel.customersUntilBonus() - customerQueueWrapper.numberOfCustomersServed(),
-					currLevel.customersUntilCleared() - customerQueueWrapper.numberOfCustomersServed());
+			setCustomersLeft(customerQueueWrapper);
 		}
 		
 		//In-game state - we are in this state when the user is playing the level
 		//If we are in play check to see if we should finish the level
 		else if(GameInfo.getGameMode() == GameInfo.MODE_MAINGAMEPANEL_INPLAY) {
-			//Update the game time in GameInfo
-			GameInfo.setAndGetGameTimeMillis(TIMER_GRANULARITY);
-			
 			GameInfo.decrementLevelTime();
 			Log.v(activitynametag, GameInfo.getLevelTime() + " seconds remaining in this level!");
 			
@@ -321,13 +340,13 @@ public class GameLogicThread extends Thread {
 					MessageRouter.sendAnnouncementMessage("Game Over", true);
 				
 				MessageRouter.sendPlayLevelEndSfxMessage();
+				EventBus.logStats();
 				
 				GameInfo.setGameMode(GameInfo.MODE_MAINGAMEPANEL_POSTPLAY_MESSAGE);
+				GameClock.setPaused(true);
 			}
 			
-			GameInfo.setCustomersLeft(customerQueueWrapper.numberOfCustomersLeft(), 
-					currLevel.customersUntilBonus() - customerQueueWrapper.numberOfCustomersServed(),
-					currLevel.customersUntilCleared() - customerQueueWrapper.numberOfCustomersServed());
+			setCustomersLeft(customerQueueWrapper);
 		}
 		
 		//Post-play state: we enter this state as soon as the level finished - we display a message indicating that
@@ -336,29 +355,32 @@ public class GameLogicThread extends Thread {
 			if(message_timer > 0) {
 				message_timer--;
 				
-				GameInfo.setCustomersLeft(customerQueueWrapper.numberOfCustomersLeft(), 
-						currLevel.customersUntilBonus() - customerQueueWrapper.numberOfCustomersServed(),
-						currLevel.customersUntilCleared() - customerQueueWrapper.numberOfCustomersServed());
+				setCustomersLeft(customerQueueWrapper);
 			}
 			//We use message_timer again to make sure we only display the post-level dialog once :)
 			else if (message_timer == 0){
+				//One snapshot of the queue statistics for everything below
+				long queue_stats = customerQueueWrapper.getStats();
+				int served = CustomerQueueWrapper.served(queue_stats);
+				int ignored = CustomerQueueWrapper.ignored(queue_stats);
+				
 				//Calculate our end-level bonus and display the level end dialog			
-				GameInfo.setAndReturnMoney(currLevel.getBonusMoney(customerQueueWrapper.numberOfCustomersServed()));
-				GameInfo.setAndReturnPoints(currLevel.getBonusPoints(customerQueueWrapper.numberOfCustomersServed()));
+				GameInfo.setAndReturnMoney(currLevel.getBonusMoney(served));
+				GameInfo.setAndReturnPoints(currLevel.getBonusPoints(served));
 				//Add on the PENALTY for the number of customer that we pissed off
-				Log.d(activitynametag, "calculated that " + customerQueueWrapper.numberOfCustomersIgnored() + " customers were unsatisfied.");
-				GameInfo.setAndReturnPoints(currLevel.getCustomerDissatisfactionPenalty(customerQueueWrapper.numberOfCustomersIgnored()));
+				Log.d(activitynametag, "calculated that " + ignored + " customers were unsatisfied.");
+				GameInfo.setAndReturnPoints(currLevel.getCustomerDissatisfactionPenalty(ignored));
 				
 				//Send all of the accrued bonuses to the level-end dialog
 				//but ONLY display this dialog if the user has actually cleared the level (by serving more customers than
 				//currLevel.customersUntilCleared())
 				//See MessageRouter.sendPostLevelDialogOpenMessage() javadocs for an explanation of the arguments given
-				if(customerQueueWrapper.numberOfCustomersServed() >= currLevel.customersUntilCleared()) {
+				if(served >= currLevel.customersUntilCleared()) {
 					MessageRouter.sendPostLevelDialogOpenMessage( GameInfo.points, GameInfo.money, 
-							GameInfo.level_points-currLevel.getBonusPoints(customerQueueWrapper.numberOfCustomersServed()), 
-							GameInfo.level_money-currLevel.getBonusMoney(customerQueueWrapper.numberOfCustomersServed()),
-							currLevel.getBonusPoints(customerQueueWrapper.numberOfCustomersServed()),
-							currLevel.getBonusMoney(customerQueueWrapper.numberOfCustomersServed()) );
+							GameInfo.level_points-currLevel.getBonusPoints(served), 
+							GameInfo.level_money-currLevel.getBonusMoney(served),
+							currLevel.getBonusPoints(served),
+							currLevel.getBonusMoney(served) );
 					//Play a yeah!
 					MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_YEAH);
 				} else
@@ -371,24 +393,27 @@ public class GameLogicThread extends Thread {
 		//Post-play state: exit the level and either pause the game & display the BetweenLevelMenu or display
 		//that the game is over
 		else if(GameInfo.getGameMode() == GameInfo.MODE_MAINGAMEPANEL_POSTPLAY) {
+			//How many customers were served, read once for everything below
+			int served = customerQueueWrapper.numberOfCustomersServed();
+			
 			if(GameInfo.getLevel() < GameInfo.MAX_GAME_LEVEL && GameInfo.getLevel() > 0) {
 				MessageRouter.sendPauseMessage(true);
 				
 				//if the level was failed (fewer customers served than required to clear)
-				if(customerQueueWrapper.numberOfCustomersServed() < currLevel.customersUntilCleared()) {
-					MessageRouter.sendLevelFailedMessage(currLevel.customersUntilCleared(), customerQueueWrapper.numberOfCustomersServed());
+				if(served < currLevel.customersUntilCleared()) {
+					MessageRouter.sendLevelFailedMessage(currLevel.customersUntilCleared(), served);
 					
 					Analytics.reportLevelFailed(GameInfo.getLevel(), 
-						customerQueueWrapper.numberOfCustomersServed(),
+						served,
 						currLevel.customersUntilCleared(),
-						((float) customerQueueWrapper.numberOfCustomersServed()) / ((float) currLevel.numberOfCustomers()));
+						((float) served) / ((float) currLevel.numberOfCustomers()));
 				}
 				//Otherwise the level was not failed!
 				else {
 					Analytics.reportLevelFinished(GameInfo.getLevel(), 
-						customerQueueWrapper.numberOfCustomersServed() == currLevel.numberOfCustomers(),
-						customerQueueWrapper.numberOfCustomersServed() >= currLevel.customersUntilBonus(), 
-						((float) customerQueueWrapper.numberOfCustomersServed()) / ((float) currLevel.numberOfCustomers()));
+						served == currLevel.numberOfCustomers(),
+						served >= currLevel.customersUntilBonus(), 
+						((float) served) / ((float) currLevel.numberOfCustomers()));
 					
 					MessageRouter.sendLevelEndMessage();
 					
@@ -396,9 +421,9 @@ public class GameLogicThread extends Thread {
 			}
 			else if(GameInfo.getLevel() == 0) {
 				Analytics.reportLevelFinished(GameInfo.getLevel(), 
-						customerQueueWrapper.numberOfCustomersServed() == currLevel.numberOfCustomers(),
-						customerQueueWrapper.numberOfCustomersServed() >= currLevel.customersUntilBonus(), 
-						((float) customerQueueWrapper.numberOfCustomersServed()) / ((float) currLevel.numberOfCustomers()));
+						served == currLevel.numberOfCustomers(),
+						served >= currLevel.customersUntilBonus(), 
+						((float) served) / ((float) currLevel.numberOfCustomers()));
 				
 				GameInfo.reset();
 				MessageRouter.sendPauseUIMessage(false);
@@ -421,99 +446,54 @@ public class GameLogicThread extends Thread {
 	/** Since CoffeeGirl interacts with all other game items, describing the CoffeeGirl state machine is done on the global level
 	 * rather than within CoffeeGirl itself. As a side effect GameInfo money and/or points may change depending on how
 	 * CoffeeGirl's state has changed. Effectively this method implements the CoffeeGirl state machine instead of having it be
-	 * encapsulated within the CoffeeGirl class.
+	 * encapsulated within the CoffeeGirl class. The state machine itself is described by InteractionTable.
 	 * @param old_state The previous state of coffee girl
-	 * @param interactedWith The ID of the GameItem CoffeeGirl interacted with
-	 * @param interactee_state The state of the GameItem that CoffeeGirl interacted with
-	 * @return What the next state should be, (if any change occurs)
+	 * @param interactee The GameItem CoffeeGirl interacted with
+	 * @param interactionResult The result of the interaction; previous_state is the state of the GameItem that CoffeeGirl 
+	 * interacted with
 	 */
-	public void coffeeGirlNextState(int old_state, String interactedWith, Interaction interactionResult) {
+	public void coffeeGirlNextState(int old_state, GameItem interactee, Interaction interactionResult) {
+		World world = World.current();
+		int kind = interactee.getItemKind();
 		int interactee_state = interactionResult.previous_state;
 		
-		//CoffeeGirl's hands are empty, she interacts with a coffeemachine that is done -> she is now carrying coffee
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.contains("CoffeeMachine") && 
-				interactee_state == CoffeeMachine.STATE_DONE) coffeeGirl.setItemHolding("coffee");
-		
-		//CoffeeGirl's hands are empty, she interacts with a microwave that is done -> she is now carrying sandwich
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.contains("Microwave") && 
-				interactee_state == Microwave.STATE_DONE) coffeeGirl.setItemHolding("sandwich");
-		
-		//CoffeeGirl's hands are empty, she interacts with a microwave that is done -> she is now carrying sandwich
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.contains("EspressoMachine") && 
-				interactee_state == EspressoMachine.STATE_DONE) coffeeGirl.setItemHolding("espresso");
-		
-		//CoffeeGirl's hands are empty, she interacts with a cupcake tray -> she is now carrying a cupcake
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.equals("CupCakeTray")) coffeeGirl.setItemHolding("cupcake");
-		
-		//CoffeeGirl's hands are empty, she interacts with a pie slice tray tray -> she is now carrying a pie slice
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.equals("PieTray")) coffeeGirl.setItemHolding("pieslice");
-		
-		//CoffeeGirl has a coffee, she interacts with blender -> she now has nothing
-		if(old_state == CoffeeGirl.STATE_CARRYING_COFFEE && 
-				interactedWith.contains("Blender")) coffeeGirl.setItemHolding("nothing");
-		
-		//CoffeeGirl's hands are empty, she interacts with a blender that is done -> she is now carrying blended drink
-		if(old_state == CoffeeGirl.STATE_NORMAL && 
-				interactedWith.contains("Blender") && 
-				interactee_state == Blender.STATE_DONE) coffeeGirl.setItemHolding("blended_drink");
-		
-		//CoffeeGirl's hands are NOT empty, she interacts with trashcan -> hands now empty, increment money and/or points
-		if(old_state != CoffeeGirl.STATE_NORMAL && 
-				interactedWith.equals("TrashCan")) {
-			GameInfo.setAndReturnPoints(foodItems.get(coffeeGirl.getItemHolding()).pointsOnInteraction(interactedWith, 0));
-			GameInfo.setAndReturnMoney(foodItems.get(coffeeGirl.getItemHolding()).moneyOnInteraction(interactedWith, 0)); 
-			coffeeGirl.setItemHolding("nothing");
-		}
-		
-		//CoffeeGirl interacts with CustomerQueue - if the interaction is successful then CoffeeGirl loses the
-		//item that she currently holds and gains some points in return
-		if(old_state != CoffeeGirl.STATE_NORMAL && 
-				interactedWith.contains("CustomerQueue") &&
-				interactionResult.was_success) {
-			MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_BLOOP); //play bloop sfx
-			GameInfo.setAndReturnPoints(interactionResult.point_result);
-			GameInfo.setAndReturnMoney(interactionResult.money_result);
-			coffeeGirl.setItemHolding("nothing");
-		}
+		int next_state = InteractionTable.nextHeldItem(kind, interactee_state, old_state);
 		
-		//CounterTop interactions
-		//If we hold nothing but the counter top has "something", we now hold that "something"
-		//If we hold "something" and the counter top has nothing, counter top now holds that "something"
-		if(interactedWith.contains("CounterTop")) {
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_COFFEE)
-				coffeeGirl.setItemHolding("coffee");
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_CUPCAKE)
-				coffeeGirl.setItemHolding("cupcake");
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_BLENDEDDRINK)
-				coffeeGirl.setItemHolding("blended_drink");
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_PIE)
-				coffeeGirl.setItemHolding("pieslice");
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_SANDWICH)
-				coffeeGirl.setItemHolding("sandwich");
-			if(old_state == CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_HOLDING_ESPRESSO)
-				coffeeGirl.setItemHolding("espresso");
+		//Default case - don't change state!
+		if(next_state == InteractionTable.NO_CHANGE) return;
+		
+		switch(InteractionTable.effect(kind, interactee_state, old_state)) {
+			//CoffeeGirl threw away what she held, increment money and/or points according to the GameFoodItem
+			case InteractionTable.EFFECT_DISPOSE:
+				GameFoodItem heldItem = world.foodItemsByState[old_state];
+				if(heldItem != null) {
+					GameInfo.setAndReturnPoints(heldItem.pointsOnInteraction(interactee.getName(), 0));
+					GameInfo.setAndReturnMoney(heldItem.moneyOnInteraction(interactee.getName(), 0));
+				}
+				break;
 			
-			if(old_state != CoffeeGirl.STATE_NORMAL && interactee_state == CounterTop.STATE_IDLE)
-				coffeeGirl.setItemHolding("nothing");
+			//CoffeeGirl served a customer; only if the interaction was successful does she lose the held item
+			case InteractionTable.EFFECT_SERVE:
+				if(!interactionResult.was_success) return;
+				MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_BLOOP); //play bloop sfx
+				GameInfo.setAndReturnPoints(interactionResult.point_result);
+				GameInfo.setAndReturnMoney(interactionResult.money_result);
+				break;
 		}
 		
-		//Default case - don't change state!
+		world.coffeeGirl.setItemHolding(next_state);
 	}
 	
 	//Game object setter methods - since GTL with access lots of game objects, we give references to GLT so that
-	//it might more easily access them
+	//it might more easily access them. They all add to the World being built (see World.building()), which the
+	//GLT only switches over to once the whole level has been loaded, so they don't need to lock anything.
 	
 	/** Sets the actor associated with this GameLogicThread
 	 * 
 	 * @param n_actor The CoffeeGirl Object that will be this game's Actor, i.e. the player-controlled character
 	 */
-	public synchronized void setActor(CoffeeGirl n_actor) {
-		coffeeGirl = n_actor;
+	public void setActor(CoffeeGirl n_actor) {
+		World.building().coffeeGirl = n_actor;
 	}
 	
 	/** Set the CustomerQueue associated with this GameLogicThread. Called by a GameLevel constructor after the
@@ -521,19 +501,24 @@ public class GameLogicThread extends Thread {
 	 * queue and advance it's state machine accordingly, i.e. finish the level when the queue is exhausted.
 	 * @param n_customerQueue
 	 */
-	public synchronized void setCustomerQueue(CustomerQueueWrapper n_customerQueueWrapper) {
-		customerQueueWrapper = n_customerQueueWrapper;
+	public void setCustomerQueue(CustomerQueueWrapper n_customerQueueWrapper) {
+		World.building().customerQueueWrapper = n_customerQueueWrapper;
 		
-		for(CustomerQueue customerQueue : customerQueueWrapper.getContainedQueues())
+		for(CustomerQueue customerQueue : n_customerQueueWrapper.getContainedQueues())
 			this.addGameItem(customerQueue);
 	}
 	
 	 /** Adds a GameItem to this TacoTime game. The GameItem will be put into the gameItems data structure 
-	  * so that it's state can be updated when an interaction occurs. 
+	  * so that it's state can be updated when an interaction occurs. The GameItem is also given an id, which
+	  * is how interaction events refer to it.
 	  * @param n_gameItem The GameItem to put into the gameItems map.
 	  */
-	public synchronized void addGameItem(GameItem n_gameItem) {
-		gameItems.put(n_gameItem.getName(), n_gameItem);
+	public void addGameItem(GameItem n_gameItem) {
+		World world = World.building();
+		world.gameItemsByName.put(n_gameItem.getName(), n_gameItem);
+		
+		n_gameItem.setItemId(world.gameItemsById.size());
+		world.gameItemsById.add(n_gameItem);
 	}
 	
 	/** This method is typically called by MainGamePanel when adding new GameFoodItems into the game. Basically 
@@ -542,7 +527,11 @@ public class GameLogicThread extends Thread {
 	 * @param associated_coffeegirl_state The associated state that CoffeeGirl will be put into when she 
 	 * receives the FoodItem.
 	 */
-	public synchronized void addNewFoodItem(GameFoodItem foodItem, int associated_coffeegirl_state) {
+	public void addNewFoodItem(GameFoodItem foodItem, int associated_coffeegirl_state) {
+		World world = World.building();
+		HashMap<String, GameFoodItem> foodItems = world.foodItems;
+		CoffeeGirl coffeeGirl = world.coffeeGirl;
+		
 		//If this is the first food item that we are adding then have CoffeeGirl be holding that food item
 		//Better hope that the first food item is "nothing"!
 		boolean doSetItemHolding = false;
@@ -552,6 +541,8 @@ public class GameLogicThread extends Thread {
 		foodItems.put(foodItem.getName(), foodItem);
 		//Set association between the new food item and an associated CoffeeGirl state
 		coffeeGirl.setItemHoldingToStateAssoc(foodItem.getName(), associated_coffeegirl_state);
+		if(associated_coffeegirl_state >= 0 && associated_coffeegirl_state < world.foodItemsByState.length)
+			world.foodItemsByState[associated_coffeegirl_state] = foodItem;
 		
 		//If CoffeeGirl's "held item" hasn't been set up yet then set it to the first foodItem that we add
 		//better hope that the first one we add is "nothing"!
@@ -564,7 +555,8 @@ public class GameLogicThread extends Thread {
 	 * 
 	 * @return A List of GameFoodItems valid for this game/level/whatever.
 	 */
-	public synchronized List<GameFoodItem> getFoodItems() {
+	public List<GameFoodItem> getFoodItems() {
+		HashMap<String, GameFoodItem> foodItems = World.building().foodItems;
 		ArrayList<GameFoodItem> retval = new ArrayList<GameFoodItem>();
 		Iterator<String> it = foodItems.keySet().iterator();
 		while(it.hasNext()) retval.add(foodItems.get(it.next()));
@@ -572,37 +564,118 @@ public class GameLogicThread extends Thread {
 		return(retval);
 	}
 	
-	/**Clears all of the gameItems, foodItems, etc in preparation to load a new level.
-	 * 
+	/** Called when a new level starts being built. The previous level's deadlines have already been dropped (see 
+	 * buildLevel()) and the gameItems, foodItems, etc of the new level go into a new World, so there is nothing to 
+	 * clear here.
 	 */
-	public synchronized void reset() {
-		coffeeGirl = null;
-		gameItems = new HashMap<String, GameItem>();
-		foodItems = new HashMap<String, GameFoodItem>();
+	public void reset() {
+		//Nothing to do; see buildLevel() and World
 	}
 	
 	// Level loader methods
-	/** Loads a new level; creates a GameLevel Object corresponding to the new level
-	 * and loads the level. Also resets game state and level max time.
+	/** A level that has been built on the prefetch Looper, on its way back to the simulation Looper to be published */
+	private static class BuiltLevel {
+		final int level_number;
+		final GameLevel level;
+		final World world;
+		
+		BuiltLevel(int level_number, GameLevel level, World world) {
+			this.level_number = level_number;
+			this.level = level;
+			this.world = world;
+		}
+	}
+	
+	/** Starts building a new level; creates a GameLevel Object corresponding to the new level and loads the level 
+	 * into a new World, off to the side. This is done on the prefetch Looper, after anything that the LevelPrefetcher
+	 * is still decoding there, so that the simulation keeps running (and the ViewThread keeps drawing) while the 
+	 * level's objects are created and their art is decoded. Once it is complete the level is handed back to us in a
+	 * MESSAGE_LEVEL_BUILT, and published by onLevelBuilt().
 	 * 
-	 * As as side effect, in GameInfo, we set the level number to levelNumber and reset the level data
+	 * The game time is paused between levels, and the GameScheduler holds the deadlines that the new level's objects 
+	 * schedule while they are built, so nothing of the new level runs before it has been published.
 	 * @param levelNumber
 	 */
-	private void loadLevel(int levelNumber) {
-		GameLevel newLevel = getLevelInstance(levelNumber);
-		if(newLevel != null)
-			newLevel.loadLevel(viewThread, gameLogicThread, inputThread, this.caller);
+	private void buildLevel(final int levelNumber) {
+		//If the LevelPrefetcher has warmed up this level while the between-level menus were up, loading it is 
+		//only cache hits
+		final LevelPrefetcher.Prefetched prefetched = LevelPrefetcher.take(levelNumber);
+		if(prefetched == null) Log.d(activitynametag, "Level " + levelNumber + " was not prefetched");
+		else if(!prefetched.isDone()) Log.d(activitynametag, "Level " + levelNumber + " is still being prefetched");
+		
+		//The deadlines that are pending belong to the previous level
+		GameScheduler.holdForNewLevel();
+		level_building = true;
+		
+		final Handler logicHandler = handler;
+		levelBuilder.post(new Runnable() {
+			public void run() {
+				World.beginBuilding();
+				GameLevel newLevel = getLevelInstance(levelNumber);
+				if(newLevel != null)
+					newLevel.loadLevel(viewThread, gameLogicThread, inputThread, caller);
+				World world = World.finishBuilding();
+				if(prefetched != null) prefetched.release();
+				
+				Message message = Message.obtain();
+				message.what = MESSAGE_LEVEL_BUILT;
+				message.obj = new BuiltLevel(levelNumber, newLevel, world);
+				logicHandler.sendMessage(message);
+			}
+		});
+	}
+	
+	/** Called (on the simulation Looper) once a level has been built: switch all of the threads over to it in one go,
+	 * by publishing its World, and start the pre-play message. The previous World is torn down by the ViewThread once
+	 * it has stopped drawing it. If we were suspended (or left pre-play) while the level was being built it is thrown
+	 * away instead, and built again the next time we are in pre-play.
+	 * 
+	 * As as side effect, in GameInfo, we set the level number to the new level and reset the level data
+	 * @param built The level that has been built
+	 */
+	private void onLevelBuilt(BuiltLevel built) {
+		level_building = false;
+		
+		if(suspended || GameInfo.getGameMode() != GameInfo.MODE_MAINGAMEPANEL_PREPLAY) {
+			Log.d(activitynametag, "Throwing away level " + built.level_number + ", which is no longer wanted");
+			World.discard(built.world);
+			return;
+		}
+		
+		World.publish(built.world);
+		GameScheduler.resume();
 		
 		//Set up the game state
-		GameInfo.setLevel(levelNumber);
+		GameInfo.setLevel(built.level_number);
 		
 		//Clear the level info (how many points/dollars we've earned this level)
 		GameInfo.levelReset();
 		
-		if(newLevel == null) 
-			Log.d(activitynametag, "newLevel was unexpectedly null! levelNumber = " + levelNumber);
+		if(built.level == null) 
+			Log.d(activitynametag, "newLevel was unexpectedly null! levelNumber = " + built.level_number);
 		else
-			GameInfo.setLevelTime(newLevel.getLevelTime());
+			GameInfo.setLevelTime(built.level.getLevelTime());
+		
+		Log.i(activitynametag, "Loaded level " + built.level_number + ", bitmap cache: " + BitmapCache.getStats());
+		
+		currLevel = getLevelInstance(GameInfo.getLevel());
+		CustomerQueueWrapper customerQueueWrapper = World.current().customerQueueWrapper;
+		
+		//For three seconds tell the user that the evel is about to start
+		message_timer = 3;
+		
+		//Log.v(activitynametag, "GLT is loading a new level!");
+		GameInfo.setGameMode(GameInfo.MODE_MAINGAMEPANEL_PREPLAY_MESSAGE);
+		
+		setCustomersLeft(customerQueueWrapper);
+		
+		MessageRouter.sendLoadLevelMusicMessage(GameInfo.getLevel());
+		
+		if(currLevel.getNewMachines() != null) 
+			MessageRouter.sendNewMachinesMessage(currLevel.getNewMachines());
+		
+		if(GameInfo.getLevel() == 0)
+			MessageRouter.sendPauseUIMessage(true);
 	}
 	
 	/** Return a new instance of a GameLevel sub-class corrsponding to level # levelNumber 
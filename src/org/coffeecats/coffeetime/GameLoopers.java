@@ -0,0 +1,92 @@
+/** GameLoopers owns the background Looper threads that the game Threads bind their Handlers to. Previously
+ * every Handler was created on the UI thread, so rendering, the game logic state machine, level loading and
+ * all MessageRouter traffic competed with touch handling and dialogs on the main Looper. Now simulation
+ * (SimulationThread, GameLogicThread and InputThread), rendering (ViewThread) and audio (SoundThread) each get their own
+ * HandlerThread, and the UI thread is left with onTouchEvent() and Activity work.
+ *
+ * @author iyulaev
+ */
+
+package org.coffeecats.coffeetime;
+
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+public class GameLoopers {
+	private static final String activitynametag = "GameLoopers";
+
+	//Names given to each of the looper threads (shows up in DDMS / traces)
+	private static final String SIMULATION_THREAD_NAME = "CoffeeTime-Simulation";
+	private static final String RENDER_THREAD_NAME = "CoffeeTime-Render";
+	private static final String AUDIO_THREAD_NAME = "CoffeeTime-Audio";
+	private static final String PREFETCH_THREAD_NAME = "CoffeeTime-Prefetch";
+
+	private static HandlerThread simulationThread;
+	private static HandlerThread renderThread;
+	private static HandlerThread audioThread;
+	private static HandlerThread prefetchThread;
+
+	/** Return the Looper that runs the game simulation, i.e. GameLogicThread and InputThread messages. Input
+	 * shares this Looper with the game logic so that taps and interactions are applied in order and never
+	 * race with a level switch.
+	 */
+	public synchronized static Looper getSimulationLooper() {
+		simulationThread = startIfNeeded(simulationThread, SIMULATION_THREAD_NAME, Process.THREAD_PRIORITY_DISPLAY);
+		return(simulationThread.getLooper());
+	}
+
+	/** Return the Looper that runs the ViewThread refresh loop (drawing to the SurfaceHolder) */
+	public synchronized static Looper getRenderLooper() {
+		renderThread = startIfNeeded(renderThread, RENDER_THREAD_NAME, Process.THREAD_PRIORITY_DISPLAY);
+		return(renderThread.getLooper());
+	}
+
+	/** Return the Looper that SoundThread handles its messages (music and sfx requests) on */
+	public synchronized static Looper getAudioLooper() {
+		audioThread = startIfNeeded(audioThread, AUDIO_THREAD_NAME, Process.THREAD_PRIORITY_AUDIO);
+		return(audioThread.getLooper());
+	}
+
+	/** Return the Looper that the LevelPrefetcher decodes the next level's bitmaps on, and that the GameLogicThread
+	 * builds the next level on, at background priority so that it never competes with the game
+	 */
+	public synchronized static Looper getPrefetchLooper() {
+		prefetchThread = startIfNeeded(prefetchThread, PREFETCH_THREAD_NAME, Process.THREAD_PRIORITY_BACKGROUND);
+		return(prefetchThread.getLooper());
+	}
+
+	/** Stop all of the looper threads. Called when the MainGamePanel is destroyed; the next game session
+	 * will start fresh looper threads the first time one of the getXLooper() methods is called.
+	 */
+	public synchronized static void quitAll() {
+		simulationThread = quit(simulationThread);
+		renderThread = quit(renderThread);
+		audioThread = quit(audioThread);
+		prefetchThread = quit(prefetchThread);
+	}
+
+	/** Start a new HandlerThread if thread has not been created or has already been quit.
+	 *
+	 * @return A running HandlerThread (either thread, or a newly created one)
+	 */
+	private static HandlerThread startIfNeeded(HandlerThread thread, String name, int priority) {
+		if(thread != null && thread.isAlive()) return(thread);
+
+		Log.d(activitynametag, "Starting looper thread " + name);
+
+		thread = new HandlerThread(name, priority);
+		thread.start();
+		return(thread);
+	}
+
+	/** Quit thread's Looper (if there is one); any messages still pending on it are dropped.
+	 *
+	 * @return null, so that the caller can clear its reference
+	 */
+	private static HandlerThread quit(HandlerThread thread) {
+		if(thread != null) thread.quit();
+		return(null);
+	}
+}
@@ -0,0 +1,151 @@
+/** Hud is the status text at the bottom of the game screen (customers left, time left, money and points) and the
+ * announcement that is drawn over the game (see ViewThread.MESSAGE_NEW_ANNOUNCEMENT). Each line is a TextLabel,
+ * which is rendered into a Bitmap only when what it shows changes; the status changes at most once a second and an
+ * announcement is rendered once when it comes in, so on every other frame drawing the HUD is a few drawBitmap()s and
+ * doesn't allocate anything.
+ *
+ * The Hud is updated and drawn by the ViewThread, on the render Looper.
+ *
+ * @author ivany
+ *
+ */
+
+package org.coffeecats.coffeetime;
+
+import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.utility.TextLabel;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+public class Hud {
+	//Set to draw the debug overlay (how many entities are active, i.e. updated and drawn, out of how many there are)
+	public static final boolean DRAW_DEBUG_OVERLAY = false;
+	
+	private static final int STATUS_TEXT_SIZE = 20;
+	private static final int ANNOUNCEMENT_ITALIC_TEXT_SIZE = 24;
+	private static final int ANNOUNCEMENT_TEXT_SIZE = 28;
+	private static final int SPACE_BETWEEN_ANNOUNCEMENT_LINES = 40;
+
+	//Which suffix the customers left label shows (see update())
+	private static final int CUSTOMERS_LEFT = 0;
+	private static final int CUSTOMERS_LEFT_CLEARED = 1;
+	private static final int CUSTOMERS_LEFT_BONUS = 2;
+
+	private final TextLabel customersLeftLabel;
+	private final TextLabel levelTimeLabel;
+	private final TextLabel moneyLabel;
+	private final TextLabel pointsLabel;
+	//The announcement is shown by one of these, depending on whether it uses the italic font
+	private final TextLabel announcementLabel;
+	private final TextLabel announcementItalicLabel;
+	//The debug overlay; only shown if DRAW_DEBUG_OVERLAY is set
+	private final TextLabel debugLabel;
+
+	public Hud() {
+		Paint moneyPaint = new Paint();
+		moneyPaint.setColor(Color.GREEN);
+		moneyPaint.setTextSize(STATUS_TEXT_SIZE);
+		Paint pointsPaint = new Paint();
+		pointsPaint.setColor(Color.BLUE);
+		pointsPaint.setTextSize(STATUS_TEXT_SIZE);
+		Paint levelTimePaint = new Paint();
+		levelTimePaint.setColor(Color.RED);
+		levelTimePaint.setTextSize(STATUS_TEXT_SIZE);
+		Paint announcementPaint = new Paint();
+		announcementPaint.setColor(0xFFDFDFDF);
+		announcementPaint.setTextSize(ANNOUNCEMENT_TEXT_SIZE);
+		announcementPaint.setTextAlign(Paint.Align.CENTER);
+		Paint announcementItalicPaint = new Paint();
+		announcementItalicPaint.setColor(0xFFCFCFCF);
+		announcementItalicPaint.setTextSize(ANNOUNCEMENT_ITALIC_TEXT_SIZE);
+		announcementItalicPaint.setTextAlign(Paint.Align.CENTER);
+		announcementItalicPaint.setTextSkewX(-0.20f);
+		Paint customersLeftPaint = new Paint();
+		customersLeftPaint.setColor(0xFFDFDFDF);
+		customersLeftPaint.setTextSize(STATUS_TEXT_SIZE);
+		Paint debugPaint = new Paint();
+		debugPaint.setColor(Color.YELLOW);
+		debugPaint.setTextSize(STATUS_TEXT_SIZE);
+
+		customersLeftLabel = new TextLabel(customersLeftPaint, "Customers Left: ",
+				"", " (level cleared)", " (bonus achieved)");
+		levelTimeLabel = new TextLabel(levelTimePaint, "Time Left: ", "");
+		moneyLabel = new TextLabel(moneyPaint, "Money: $", "");
+		pointsLabel = new TextLabel(pointsPaint, "Points: ", "");
+		announcementLabel = new TextLabel(announcementPaint);
+		announcementItalicLabel = new TextLabel(announcementItalicPaint);
+		debugLabel = new TextLabel(debugPaint, "Active entities: ", "");
+	}
+
+	/** Lay the HUD out for a canvas of the given size */
+	public void setCanvasSize(int width, int height) {
+		customersLeftLabel.setPosition(14, height-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*3);
+		levelTimeLabel.setPosition(14, height-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*2);
+		moneyLabel.setPosition(14, height-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*1);
+		pointsLabel.setPosition(14, height-15);
+		announcementLabel.setPosition(width/2, GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT) + 40);
+		announcementItalicLabel.setPosition(width/2, GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT) + 40);
+		debugLabel.setPosition(4, STATUS_TEXT_SIZE);
+	}
+	
+	/** Set the counts shown by the debug overlay (see DRAW_DEBUG_OVERLAY)
+	 * @param active How many entities are being updated and drawn
+	 * @param total How many entities there are
+	 */
+	public void setEntityCounts(int active, int total) {
+		debugLabel.setValues(active, total);
+	}
+
+	/** Set what the HUD shows; only the lines that change are rendered again
+	 *
+	 * @param money The amount of money the player has
+	 * @param points The number of points the player has
+	 * @param level_time The time left in the level
+	 * @param customers_left The number of customers left in the level
+	 * @param customers_until_bonus The number of customers left until the bonus is achieved
+	 * @param customers_until_cleared The number of customers left until the level is cleared
+	 * @param draw_announcement_message Whether an announcement is shown
+	 * @param announcementMessage The announcement; ignored if draw_announcement_message is false
+	 * @param use_italic_announcement_font Whether the announcement uses the smaller, italic font
+	 */
+	public void update(int money, int points, int level_time,
+			int customers_left, int customers_until_bonus, int customers_until_cleared,
+			boolean draw_announcement_message, String announcementMessage, boolean use_italic_announcement_font) {
+		if(customers_until_cleared > 0) customersLeftLabel.setValue(customers_until_cleared, CUSTOMERS_LEFT);
+		else if(customers_until_bonus > 0) customersLeftLabel.setValue(customers_until_bonus, CUSTOMERS_LEFT_CLEARED);
+		else customersLeftLabel.setValue(customers_left, CUSTOMERS_LEFT_BONUS);
+
+		levelTimeLabel.setValue(level_time, 0);
+		moneyLabel.setValue(money, 0);
+		pointsLabel.setValue(points, 0);
+
+		boolean shown = draw_announcement_message && announcementMessage != null;
+		announcementLabel.setText((shown && !use_italic_announcement_font) ? announcementMessage : null);
+		announcementItalicLabel.setText((shown && use_italic_announcement_font) ? announcementMessage : null);
+	}
+
+	/** Add the area of the canvas that has to be redrawn for the HUD to be up to date to dirty */
+	public void addDirtyRect(Rect dirty) {
+		customersLeftLabel.addDirtyRect(dirty);
+		levelTimeLabel.addDirtyRect(dirty);
+		moneyLabel.addDirtyRect(dirty);
+		pointsLabel.addDirtyRect(dirty);
+		announcementLabel.addDirtyRect(dirty);
+		announcementItalicLabel.addDirtyRect(dirty);
+		if(DRAW_DEBUG_OVERLAY) debugLabel.addDirtyRect(dirty);
+	}
+
+	/** Draw the HUD; the announcement goes over everything else, so this is drawn last */
+	public void draw(Canvas canvas) {
+		customersLeftLabel.draw(canvas);
+		levelTimeLabel.draw(canvas);
+		moneyLabel.draw(canvas);
+		pointsLabel.draw(canvas);
+		announcementLabel.draw(canvas);
+		announcementItalicLabel.draw(canvas);
+		if(DRAW_DEBUG_OVERLAY) debugLabel.draw(canvas);
+	}
+}
@@ -2,8 +2,9 @@ package org.coffeecats.coffeetime;
 
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
+import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.ViewObject;
 
 import android.os.Handler;
@@ -17,7 +18,9 @@ import android.util.Log;
  * 
  * This thread handles user input. It receives messages, mostly from MessageRouter, and handles 
  * them appropriately. For example, on user taps, we call handleTap() on all ViewObjects that have
- * been put into this InputThread's viewObjects array.
+ * been put into this InputThread's viewObjects array. GameItems are only told about taps that might
+ * concern them, i.e. taps near their sensitivity area (found through a GameGridIndex) or taps that
+ * should clear their queued interaction events.
  */
 public class InputThread extends Thread {
 	
@@ -41,30 +44,27 @@ public class InputThread extends Thread {
 	//game-specific input
 	public static Handler handler;
 	
-	//Here we hold all of the objects that the ViewThread must update
-	ArrayList<ViewObject> viewObjects;
+	//The objects that taps are passed on to live in the current World (World.current()); this is the World that 
+	//the last tap went to
+	private World lastWorld;
+	//The GameItems that have interaction events queued, as of the last tap
+	private final ArrayList<GameItem> itemsWithQueuedEvents = new ArrayList<GameItem>();
 	
 	//True if this thread is running and sending input results through message router
 	private static boolean paused;
 
 	/** Mostly just sets up a Handler that receives messages from the main game Activity 
-	 * and calls the handleTap() methods for all of the ViewObjects in the game screen */
+	 * and calls the handleTap() methods for all of the ViewObjects in the game screen. The Handler
+	 * runs on the simulation Looper (see GameLoopers), alongside GameLogicThread. */
 	public InputThread() {
 		super();
-		this.viewObjects = new ArrayList<ViewObject>();
 		paused = false;
 		
-		handler = new Handler() {
+		handler = new Handler(GameLoopers.getSimulationLooper()) {
 			@Override
 			public void handleMessage(Message msg) {
 				if(msg.what == MESSAGE_HANDLE_ONTAP) {					
-					//If we are paused, do not propagate user input to rest of the game
-					if(!paused) {
-						Log.d(activitynametag, "Decided we weren't paused and HANDLED the input message.");
-						handleTap(msg.arg1, msg.arg2);
-					}
-					
-					MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_TAP);
+					onUserTap(msg.arg1, msg.arg2);
 				}
 				
 				//Handle a simulated tap; don't care if we're paused or not
@@ -118,20 +118,22 @@ public class InputThread extends Thread {
 		};		
 	}
 
-	/** Add a new ViewObject to this InputThread's ViewObject data structure. All VOs added
-	 * to this InputThread will have user input passed to them via handleTap() and other
-	 * such methods.
-	 * @param nVO The new ViewObject to add to this InputThread's ViewObject sensitivity list.
+	/** Add a new ViewObject to the World being built (see World.building()). All VOs added
+	 * will have user input passed to them via handleTap() and other such methods once the World is published.
+	 * @param nVO The new ViewObject to add to the level's ViewObject sensitivity list.
 	 */
 	public void addViewObject(ViewObject nVO) {
-		viewObjects.add(nVO);
+		World world = World.building();
+		//GameItems are already indexed by ViewThread.addGameItem(), and taps are looked up in that same index
+		if(!(nVO instanceof GameItem)) world.inputViewObjects.add(nVO);
 	}
 	
-	/** Clear all VOs by creating a new viewObjects array list
-	 * Done between levels to  "reset" the game
+	/** Called when a new level starts being built (on the prefetch Looper). The level's objects go into a new World,
+	 * and the GameItems with queued events are forgotten by handleTap() once that World is published, so there is 
+	 * nothing to clear here.
 	 */
-	public synchronized void reset() {
-		viewObjects = new ArrayList<ViewObject>();
+	public void reset() {
+		//Nothing to do; see World and handleTap()
 	}
 	
 	/** Toggles the "paused" member variable. When paused is true then no handleTap calls are made and 
@@ -142,16 +144,55 @@ public class InputThread extends Thread {
 		this.paused = n_paused;
 	}
 	
+	/** Called when the user taps the screen, either via the EventBus or a HANDLE_ONTAP message. Unless we are paused 
+	 * the tap is passed on to all of the ViewObjects via handleTap(); either way a tap sound effect is played.
+	 * 
+	 * @param x The x co-ordinate of the user tap
+	 * @param y The y co-ordinate of the user tap
+	 */
+	public void onUserTap(int x, int y) {
+		//If we are paused, do not propagate user input to rest of the game
+		if(!paused) handleTap(x, y);
+		
+		MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_TAP);
+	}
+	
 	/** This method is called when a HANDLE_ONTAP message is received by this InputThread. It calls 
 	 * handleTap() for all ViewObjects present in the game so that they are aware that user input 
-	 * has occured.
+	 * has occured. For GameItems, a tap queues an event if it is in the GameItem's sensitivity area and 
+	 * clears the GameItem's events otherwise; so only the GameItems near the tap and the GameItems that have
+	 * events queued need to be told about it.
 	 * 
 	 * @param x The x co-ordinate of the user tap
 	 * @param y The y co-ordinate of the user tap
 	 */
 	public void handleTap(int x, int y) {
-		Iterator<ViewObject> it = viewObjects.iterator();
-		while(it.hasNext()) it.next().handleTap(x,y);
+		//The GameItems that had events queued belong to the previous level
+		World world = World.current();
+		if(world != lastWorld) {
+			lastWorld = world;
+			itemsWithQueuedEvents.clear();
+		}
+		
+		ArrayList<ViewObject> viewObjects = world.inputViewObjects;
+		for(int i = 0; i < viewObjects.size(); i++) viewObjects.get(i).handleTap(x,y);
+		
+		int x_gg = GameGrid.gameGridX(x);
+		int y_gg = GameGrid.gameGridY(y);
+		
+		//Clear the events of the GameItems that were tapped before but aren't now
+		for(int i = 0; i < itemsWithQueuedEvents.size(); i++) {
+			GameItem gameItem = itemsWithQueuedEvents.get(i);
+			if(!gameItem.inSensitivityArea(x_gg, y_gg)) gameItem.handleTap(x, y);
+		}
+		itemsWithQueuedEvents.clear();
+		
+		//Every GameItem that was tapped is in this cell
+		GameItem [] candidates = world.renderIndex.candidatesAt(x_gg, y_gg);
+		for(int i = 0; i < candidates.length; i++) {
+			candidates[i].handleTap(x, y);
+			if(candidates[i].hasQueuedEvents()) itemsWithQueuedEvents.add(candidates[i]);
+		}
 	}
 	
 	/** Does nothing! Everything is handled in the handler.
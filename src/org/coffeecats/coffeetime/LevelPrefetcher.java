@@ -0,0 +1,190 @@
+/** LevelPrefetcher warms up the next level while the player is still looking at the between-level menus. Loading a
+ * level (GameLevel.loadLevel()) is mostly decoding the art of the machines that the level is set up with; the
+ * prefetcher builds the TextureAtlas (the first time) and decodes the art that isn't in it into the BitmapCache on a 
+ * background Looper, so that when the level is loaded it only gets cache hits. The GameLogicThread builds the level on
+ * the same Looper (see GameLogicThread.buildLevel()), so a build that is started while the prefetch is still going
+ * simply runs after it.
+ *
+ * What a level looks like depends on the upgrades that have been bought, so a prefetch is tied to the upgrade
+ * generation it was started with (GameInfo.getUpgradesGeneration()); buying an upgrade makes it stale, and it is
+ * thrown away (and prefetch() may be called again to start over).
+ *
+ * The prefetched level is handed over with take(), which atomically swaps it out; the prefetched bitmaps stay
+ * referenced until the caller release()s it, i.e. until the level has been built and its GameItems have taken
+ * their own references.
+ *
+ * @author ivany
+ *
+ */
+
+package org.coffeecats.coffeetime;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.coffeecats.coffeetime.gamelogic.GameInfo;
+import org.coffeecats.coffeetime.utility.BitmapCache;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.util.Log;
+
+public class LevelPrefetcher {
+	private static final String activitynametag = "LevelPrefetcher";
+
+	/** A level whose bitmaps are being (or have been) decoded */
+	public static class Prefetched {
+		final int level_number;
+		final int upgrades_generation;
+
+		//The bitmaps decoded so far; guarded by this
+		private final ArrayList<Bitmap> bitmaps = new ArrayList<Bitmap>();
+		private boolean done = false;
+		private boolean released = false;
+
+		Prefetched(int level_number, int upgrades_generation) {
+			this.level_number = level_number;
+			this.upgrades_generation = upgrades_generation;
+		}
+
+		/** Decode the bitmaps of the level that aren't in the TextureAtlas, stopping early if this prefetch gets 
+		 * released meanwhile. The decoding happens outside of this Prefetched's lock, so the GLT never waits for a
+		 * decode when it takes and release()s the prefetch. */
+		void decode(Resources res, int [] drawables) {
+			for(int i = 0; i < drawables.length; i++) {
+				synchronized(this) {
+					if(released) return;
+				}
+				if(TextureAtlas.isPacked(drawables[i])) continue;
+				
+				Bitmap bitmap = BitmapCache.acquire(res, drawables[i]);
+				if(bitmap == null) continue;
+				
+				//If we were released while decoding, the bitmap goes straight back
+				boolean kept;
+				synchronized(this) {
+					kept = !released;
+					if(kept) bitmaps.add(bitmap);
+				}
+				if(!kept) {
+					BitmapCache.release(bitmap);
+					return;
+				}
+			}
+
+			synchronized(this) {
+				done = true;
+			}
+		}
+
+		/** Return true if every bitmap of the level has been decoded */
+		public synchronized boolean isDone() {
+			return(done);
+		}
+
+		/** Give the prefetched bitmaps back to the BitmapCache (they stay cached, but are no longer held on to) */
+		public synchronized void release() {
+			if(released) return;
+			released = true;
+
+			for(int i = 0; i < bitmaps.size(); i++) BitmapCache.release(bitmaps.get(i));
+			bitmaps.clear();
+		}
+
+		boolean isFor(int level_number) {
+			return(this.level_number == level_number && upgrades_generation == GameInfo.getUpgradesGeneration());
+		}
+	}
+
+	private static final AtomicReference<Prefetched> current = new AtomicReference<Prefetched>();
+
+	/** Start prefetching level level_number in the background, unless it is already being prefetched with the
+	 * current upgrades. Any other prefetch is thrown away.
+	 *
+	 * @param level_number The level that will be loaded next
+	 * @param caller A Context to get the Resources out of
+	 */
+	public static void prefetch(int level_number, Context caller) {
+		Prefetched existing = current.get();
+		if(existing != null && existing.isFor(level_number)) return;
+
+		final Prefetched prefetched = new Prefetched(level_number, GameInfo.getUpgradesGeneration());
+		final Resources res = caller.getApplicationContext().getResources();
+		final int [] drawables = levelDrawables();
+
+		Prefetched old = current.getAndSet(prefetched);
+		if(old != null) old.release();
+
+		Log.d(activitynametag, "Prefetching level " + level_number + " (" + drawables.length + " bitmaps)");
+
+		new Handler(GameLoopers.getPrefetchLooper()).post(new Runnable() {
+			public void run() {
+				TextureAtlas.build(res);
+				prefetched.decode(res, drawables);
+			}
+		});
+	}
+
+	/** Throw away whatever is being prefetched */
+	public static void invalidate() {
+		Prefetched old = current.getAndSet(null);
+		if(old != null) old.release();
+	}
+
+	/** Take the prefetched level, if it is level level_number and still matches the upgrades. The caller must
+	 * release() it once the level has been loaded.
+	 *
+	 * @param level_number The level about to be loaded
+	 * @return The prefetched level, or null if there is none for level_number
+	 */
+	public static Prefetched take(int level_number) {
+		Prefetched prefetched = current.getAndSet(null);
+		if(prefetched == null) return(null);
+
+		if(!prefetched.isFor(level_number)) {
+			prefetched.release();
+			return(null);
+		}
+
+		return(prefetched);
+	}
+
+	/** Return the drawables of everything that a level may be set up with, given the upgrades bought so far
+	 * (UPDATE FOR NEW GAMEITEM). Some early levels leave some of these out; decoding them anyway is harmless, they
+	 * just stay cached for the later levels.
+	 */
+	static int [] levelDrawables() {
+		ArrayList<Integer> drawables = new ArrayList<Integer>();
+
+		add(drawables, R.drawable.countertop,
+				R.drawable.coffeemachine_idle, R.drawable.coffeemachine, R.drawable.coffeemachine_done,
+				R.drawable.trashcan, R.drawable.cupcake_tray, R.drawable.cake_tray,
+				R.drawable.blender_idle, R.drawable.blender, R.drawable.blender_done,
+				R.drawable.microwave_inactive, R.drawable.microwave_active, R.drawable.microwave_done);
+
+		if(GameInfo.hasUpgrade("countertop"))
+			add(drawables, R.drawable.countertop_grey, R.drawable.countertop_grey_w_coffee,
+					R.drawable.countertop_grey_w_cupcake, R.drawable.countertop_grey_w_blendeddrink,
+					R.drawable.countertop_grey_w_espresso, R.drawable.countertop_grey_w_pie,
+					R.drawable.countertop_grey_w_sandwich);
+
+		if(GameInfo.hasUpgrade("espressomachine"))
+			add(drawables, R.drawable.espresso_machine_inactive, R.drawable.espresso_machine_active,
+					R.drawable.espresso_machine_done);
+
+		if(GameInfo.hasUpgrade("soundsystem"))
+			add(drawables, R.drawable.speaker_left_f0, R.drawable.speaker_left_f1,
+					R.drawable.speaker_right_f0, R.drawable.speaker_right_f1);
+
+		int [] retval = new int[drawables.size()];
+		for(int i = 0; i < retval.length; i++) retval[i] = drawables.get(i);
+		return(retval);
+	}
+
+	private static void add(ArrayList<Integer> drawables, int... r_ids) {
+		for(int r_id : r_ids) drawables.add(r_id);
+	}
+}
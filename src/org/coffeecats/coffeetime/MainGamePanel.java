@@ -8,7 +8,6 @@
 package org.coffeecats.coffeetime;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
 import org.coffeecats.coffeetime.gamelogic.GameGrid;
 import org.coffeecats.coffeetime.gameobjects.ViewObject;
@@ -39,6 +38,7 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 	
 	//The below are the UI-related threads that are involved in handling input and rendering the game
 	ViewThread viewThread;
+	SimulationThread simulationThread;
 	InputThread inputThread;
 	GameLogicThread gameLogicThread;
 	TutorialThread tutorialThread;
@@ -83,6 +83,13 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 		gameLogicThread.setSelf(gameLogicThread);
 		MessageRouter.gameLogicThread = gameLogicThread;
 		
+		//create the simulation thread, which steps the game and hands interactions to the GLT
+		simulationThread = new SimulationThread(gameLogicThread);
+		MessageRouter.simulationThread = simulationThread;
+		
+		//Wire up the lock-free channels that carry taps and sound effects between the threads
+		EventBus.connect(inputThread, soundThread);
+		
 		//Create the tutorial thread IF NECESSARY
 		if(watch_tutorial)
 			tutorialThread = new TutorialThread();
@@ -108,6 +115,7 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 	 */
 	public void destroy() {
 		soundThread.destroy();
+		GameLoopers.quitAll();
 	}
 
 	/** Not sure why this is here right now but I suppose it is to handle changes like a change
@@ -133,6 +141,7 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 			
 			//Kick off all of the threads
 			viewThread.start();
+			simulationThread.start();
 			inputThread.start();
 			gameLogicThread.start();
 			//timerThread.start();
@@ -146,6 +155,7 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 		else {
 			MessageRouter.sendSuspendTimerThreadMessage(false);
 			MessageRouter.sendSuspendViewThreadMessage(false);
+			MessageRouter.sendSuspendSimulationThreadMessage(false);
 			MessageRouter.sendSuspendSoundThreadMessage(false);
 		}
 	}
@@ -157,6 +167,7 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 		//Pause the threads that have event loops built in
 		MessageRouter.sendSuspendTimerThreadMessage(true);
 		MessageRouter.sendSuspendViewThreadMessage(true);
+		MessageRouter.sendSuspendSimulationThreadMessage(true);
 		MessageRouter.sendSuspendSoundThreadMessage(true);
 		
 		if(tutorialThread != null)
@@ -180,17 +191,18 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 	//Paint counterPaint;
 	Rect counterAreaFullRect;
 	
-	Paint moneyPaint;
-	Paint pointsPaint;
-	Paint levelTimePaint;
-	Paint customersLeftPaint;
-	
-	Paint announcementPaint;
-	Paint announcementItalicPaint;
 	//Bitmap that we will use for the background
 	Bitmap background;
 	//Bitmaps we'll use for counter top
 	Bitmap counterTopFull;
+	//The background, the grid below it and the counter top baked into one screen-sized Bitmap, so that everything 
+	//that never changes is drawn with one drawBitmap(); null if we couldn't allocate it (then they're drawn one by one)
+	Bitmap backdrop;
+	
+	//The status text and the announcement
+	final Hud hud = new Hud();
+	//Set when the next frame has to be drawn in full, e.g. because a new level started
+	private volatile boolean full_redraw = true;
 	
 	//Used for displaying toasts
 	/* private Toast t;
@@ -202,36 +214,43 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 	protected void onDraw(Canvas canvas) {
 		canvas.drawColor(Color.BLACK);
 	}
+	
+	/** Make the next frame drawn by onDraw() cover the whole canvas, rather than just what has changed */
+	public void requestFullRedraw() {
+		full_redraw = true;
+	}
+	
+	/** Work out which area of the canvas has to be redrawn for the next frame: wherever a ViewObject has changed
+	 * (see ViewObject.addDirtyRect()), and wherever the HUD has changed (see Hud.update()). Everything outside of it still
+	 * shows the last frame; the backdrop and the GameItems that haven't changed don't have to be drawn again.
+	 * 
+	 * @param dirty The Rect to add the area that has to be redrawn to
+	 * @param voAr The ViewObjects that will be drawn
+	 * @return false if the whole canvas has to be redrawn, in which case dirty means nothing
+	 */
+	protected boolean findDirtyRect(Rect dirty, ArrayList<ViewObject> voAr) {
+		if(!static_setup_done || full_redraw) return(false);
+		
+		for(int i = 0; i < voAr.size(); i++) {
+			if(!voAr.get(i).addDirtyRect(dirty)) return(false);
+		}
+		
+		hud.addDirtyRect(dirty);
+		return(true);
+	}
 
 	/** This onDraw() method will draw all of the ViewObjects in the game; it is the main onDraw() method
-	 * that gets called by the ViewThread. It can also draw announcement messages that overlay the
-	 * rest of the game.
+	 * that gets called by the ViewThread. It also draws the HUD (status text and announcement messages that 
+	 * overlay the rest of the game); the ViewThread sets what the HUD shows with hud.update() beforehand.
 	 * 
 	 * @param canvas The Canvas to draw everything onto
 	 * @param voAr An ArrayList of ViewObjects that will be drawn
-	 * @param money The amount of money the player has so that we can draw it
-	 * @param points The number of points the player has so that we can draw it
-	 * @param boolean draw_announcement_message Whether or not to draw an announcement; it is a message that
-	 * overlays everything else on the screen
-	 * @param announcementMessage The announcement message to draw; will not be drawn (and may be null) if
-	 * draw_announcement_message is set to false
 	 */
 	
-	protected void onDraw(Canvas canvas, ArrayList<ViewObject> voAr, 
-			int money, int points, 
-			boolean draw_announcement_message, String announcementMessage,
-			int level_time,
-			int customers_left,
-			int customers_until_bonus,
-			int customer_until_cleared,
-			boolean use_italic_announcement_font) {
+	protected void onDraw(Canvas canvas, ArrayList<ViewObject> voAr) {
 		
 		//Set up all of the Paint objects if we haven't done this yet! (should only happen once per game)
 		if(!static_setup_done) {
-			int status_text_size = 20;
-			int announcement_italic_text_size = 24;
-			int announcement_text_size = 28;
-			
 			gridPaint = new Paint();
 			gridPaint.setColor(0xFF2f2f2f);
 			
@@ -256,88 +275,62 @@ public class MainGamePanel extends SurfaceView implements SurfaceHolder.Callback
 					canvas.getWidth(),GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT-25),
 					false);
 			
-			moneyPaint = new Paint();
-			moneyPaint.setColor(Color.GREEN);
-			moneyPaint.setTextSize(status_text_size);
-			pointsPaint = new Paint();
-			pointsPaint.setColor(Color.BLUE);
-			pointsPaint.setTextSize(status_text_size);
-			levelTimePaint = new Paint();
-			levelTimePaint.setColor(Color.RED);
-			levelTimePaint.setTextSize(status_text_size);
-			announcementPaint = new Paint();
-			announcementPaint.setColor(0xFFDFDFDF);
-			announcementPaint.setTextSize(announcement_text_size);
-			announcementPaint.setTextAlign(Paint.Align.CENTER);
-			announcementItalicPaint = new Paint();
-			announcementItalicPaint.setColor(0xFFCFCFCF);
-			announcementItalicPaint.setTextSize(announcement_italic_text_size);
-			announcementItalicPaint.setTextAlign(Paint.Align.CENTER);
-			announcementItalicPaint.setTextSkewX(-0.20f);
-			customersLeftPaint = new Paint();
-			customersLeftPaint.setColor(0xFFDFDFDF);
-			customersLeftPaint.setTextSize(status_text_size);
+			hud.setCanvasSize(canvas.getWidth(), canvas.getHeight());
+			
+			try {
+				backdrop = Bitmap.createBitmap(canvas.getWidth(), canvas.getHeight(), Bitmap.Config.ARGB_8888);
+				drawBackdrop(new Canvas(backdrop));
+				
+				background.recycle();
+				background = null;
+				counterTopFull.recycle();
+				counterTopFull = null;
+			} catch (OutOfMemoryError e) {
+				Log.w(activitynametag, "Out of memory baking the backdrop; drawing it piece by piece");
+				backdrop = null;
+			}
 			
 			static_setup_done = true;
 		}
 		
-		canvas.drawColor(Color.BLACK);
-		
-		//Draw in a background
-		//canvas.drawBitmap(background, null, playAreaRect, null);
-		canvas.drawBitmap(background, 0,0, null);
-		canvas.drawRect(0, GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT), GameGrid.maxCanvasX(), canvas.getHeight(), gridPaint);
-		//Draw countertop 
-		canvas.drawBitmap(counterTopFull, 0,GameGrid.canvasY(25), null);
-		
-		
+		full_redraw = false;
 		
+		if(backdrop != null) canvas.drawBitmap(backdrop, 0, 0, null);
+		else drawBackdrop(canvas);
 		
 		//Draw ALL ViewObjects on the board
-		Iterator<ViewObject> it = voAr.iterator();
-		while(it.hasNext()) {
-			it.next().draw(canvas);
+		for(int i = 0; i < voAr.size(); i++) {
+			voAr.get(i).draw(canvas);
 		}
 		
+		//Draw the status text and the announcement (if there is one) on top
+		hud.draw(canvas);
 		
-		final int SPACE_BETWEEN_ANNOUNCEMENT_LINES = 40;
-		
-		//Draw information regarding how many customers are left
-		String customersLeftStr;
-		if(customer_until_cleared > 0) {
-			customersLeftStr = new String("Customers Left: " + Integer.toString(customer_until_cleared));
-		} else if (customers_until_bonus > 0) {
-			customersLeftStr = new String("Customers Left: " + Integer.toString(customers_until_bonus) + " (level cleared)");
-		} else {
-			customersLeftStr = new String("Customers Left: " + Integer.toString(customers_left) + " (bonus achieved)");
-		}
-		
-		canvas.drawText(customersLeftStr, 14, canvas.getHeight()-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*3, customersLeftPaint);
-		
-		//Draw money, points and display an announcement message IF there is an announcement
-		canvas.drawText("Time Left: " + Integer.toString(level_time), 14, canvas.getHeight()-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*2, levelTimePaint);
-		canvas.drawText("Money: $" + Integer.toString(money), 14, canvas.getHeight()-15-SPACE_BETWEEN_ANNOUNCEMENT_LINES*1, moneyPaint);
-		canvas.drawText("Points: " + Integer.toString(points), 14, canvas.getHeight()-15, pointsPaint);
-		
-		if(draw_announcement_message) {
-			canvas.drawText(announcementMessage, 
-					canvas.getWidth()/2, GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT) + 40,
-					use_italic_announcement_font?announcementItalicPaint:announcementPaint);
+		/*if(time_since_last_toast + TIME_BETWEEN_TOASTS < SystemClock.uptimeMillis()) {
+			time_since_last_toast = SystemClock.uptimeMillis();
 			
-			/*if(time_since_last_toast + TIME_BETWEEN_TOASTS < SystemClock.uptimeMillis()) {
-				time_since_last_toast = SystemClock.uptimeMillis();
-				
-				if(t != null) {
-					t.cancel();
-					t = null;
-				}
-				
-				t = Toast.makeText(context, announcementMessage, Toast.LENGTH_SHORT);
-				t.setGravity(Gravity.BOTTOM, 0, -1 * toast_position_y + toast_trim);
-				t.show();
-			}*/
-		}
+			if(t != null) {
+				t.cancel();
+				t = null;
+			}
+			
+			t = Toast.makeText(context, announcementMessage, Toast.LENGTH_SHORT);
+			t.setGravity(Gravity.BOTTOM, 0, -1 * toast_position_y + toast_trim);
+			t.show();
+		}*/
+		
+	}
+
+	/** Draw everything that never changes during a level: the background, the grid below it and the counter top */
+	private void drawBackdrop(Canvas canvas) {
+		canvas.drawColor(Color.BLACK);
 		
+		//Draw in a background
+		//canvas.drawBitmap(background, null, playAreaRect, null);
+		canvas.drawBitmap(background, 0,0, null);
+		canvas.drawRect(0, GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT), GameGrid.maxCanvasX(), canvas.getHeight(), gridPaint);
+		//Draw countertop 
+		canvas.drawBitmap(counterTopFull, 0,GameGrid.canvasY(25), null);
 	}
 
 }
@@ -16,6 +16,7 @@ import android.util.Log;
 public class MessageRouter {
 	
 	public static ViewThread viewThread;
+	public static SimulationThread simulationThread;
 	public static InputThread inputThread;
 	public static GameLogicThread gameLogicThread;
 	public static SoundThread soundThread;
@@ -24,12 +25,14 @@ public class MessageRouter {
 	public static final String activitynametag = "MessageRouter";
 	
 	/** Called when a user input tap occurs; sends the co-ordinates of the tap to the InputThread so that
-	 * it can update game state accordingly.
+	 * it can update game state accordingly. Taps go over the EventBus when possible.
 	 * 
 	 * @param x The x co-ordinate of the user tap
 	 * @param y The y co-ordinate of the user tap
 	 */
-	public synchronized static void sendInputTapMessage(int x, int y) {
+	public static void sendInputTapMessage(int x, int y) {
+		if(EventBus.publishTap(x, y)) return;
+		
 		if(inputThread != null) {
 			Message message = Message.obtain();
 			message.what = InputThread.MESSAGE_HANDLE_ONTAP;
@@ -55,21 +58,6 @@ public class MessageRouter {
 		}
 	}
 	
-	/** Called when a user input tap occurs; sends the co-ordinates of the tap to the InputThread so that
-	 * it can update game state accordingly.
-	 * 
-	 * @param x The x co-ordinate of the user tap
-	 * @param y The y co-ordinate of the user tap
-	 */
-	public synchronized static void sendInteractionEvent(String itemName) {
-		if(gameLogicThread != null) {
-			Message message = Message.obtain();
-			message.what = GameLogicThread.MESSAGE_INTERACTION_EVENT;
-			message.obj = itemName;
-			gameLogicThread.handler.sendMessage(message);
-		}
-	}
-	
 	/** This message informs the GameLogicThread that one game tick (one real-time second) has passed
 	 * 
 	 */
@@ -82,8 +70,8 @@ public class MessageRouter {
 	}
 	
 	/** This method is used to pause or unpause the game. When the game is paused, the Canvas that
-	 * represents the game is still re-drawn but all motion of GameActors ceases, GameItems are no 
-	 * longer updated, and GameLogicThread's state machine does not advance since the TimerThread
+	 * represents the game is still re-drawn but the SimulationThread stops stepping (all motion of GameActors
+	 * ceases, GameItems are no longer updated), and GameLogicThread's state machine does not advance since the TimerThread
 	 * stops sending out tick messages.
 	 * 
 	 * Called by GLT to un-pause the game when the pre-play count-down timer expires. Called by GTL
@@ -102,11 +90,11 @@ public class MessageRouter {
 			inputThread.handler.sendMessage(message);
 		}
 		
-		if(viewThread != null) {
+		if(simulationThread != null) {
 			Message message = Message.obtain();
-			if(paused) message.what = ViewThread.MESSAGE_SET_PAUSED;
-			else message.what = ViewThread.MESSAGE_SET_UNPAUSED;
-			viewThread.handler.sendMessage(message);
+			if(paused) message.what = SimulationThread.MESSAGE_SET_PAUSED;
+			else message.what = SimulationThread.MESSAGE_SET_UNPAUSED;
+			SimulationThread.handler.sendMessage(message);
 		}
 		
 		if(gameLogicThread != null) {
@@ -144,7 +132,7 @@ public class MessageRouter {
 	
 	/** Pause the timer and prevent GameLogicThread from updating game state. Mostly used to un-pause the
 	 * game after a Level gets loaded or a (saved) game gets loaded, since the game will have been puased by
-	 * sendPauseMessage(); this allows the GLT state machine to advance but prevents the ViewThread from updating 
+	 * sendPauseMessage(); this allows the GLT state machine to advance but prevents the SimulationThread from stepping 
 	 * which is intended since the pre-play count-down timer has not expired and therefore the players is 
 	 * not allowed to start playing (yet)
 	 * 
@@ -172,6 +160,19 @@ public class MessageRouter {
 		}
 	}
 	
+	/** Sends a "suspend" message to the SimulationThread. 
+	 * 
+	 * @param suspended if true, the SimulationThread stops stepping the game until it is un-suspended.
+	 */
+	public synchronized static void sendSuspendSimulationThreadMessage(boolean suspended) {
+		if(simulationThread != null) {
+			Message message = Message.obtain();
+			if(suspended) message.what = SimulationThread.MESSAGE_SET_SUSPENDED;
+			else message.what = SimulationThread.MESSAGE_SET_UNSUSPEND;
+			SimulationThread.handler.sendMessage(message);
+		}
+	}
+	
 	/** Sends a "suspend" message to the TimerThread. 
 	 * 
 	 * @param suspended if true, the TimerThread stops sending out tick messages to the rest of the program. This causes
@@ -438,8 +439,11 @@ public class MessageRouter {
 		}
 	}
 	
-	/** Sends a message to the SoundThread, telling it to play a short sfx */
-	public synchronized static void sendPlayShortSfxMessage(int sfx_to_play) {
+	/** Sends a message to the SoundThread, telling it to play a short sfx. Goes over the EventBus when called 
+	 * from the simulation Looper. */
+	public static void sendPlayShortSfxMessage(int sfx_to_play) {
+		if(EventBus.publishSfx(sfx_to_play)) return;
+		
 		if(soundThread != null) {
 			Message message = Message.obtain();
 			message.what = SoundThread.MESSAGE_PLAY_SFX;
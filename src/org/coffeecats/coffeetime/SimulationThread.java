@@ -0,0 +1,221 @@
+package org.coffeecats.coffeetime;
+
+import java.util.ArrayList;
+
+import org.coffeecats.coffeetime.gamelogic.GameClock;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gamelogic.MovementSystem;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
+import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.gameobjects.ViewObject;
+
+import android.os.Handler;
+import android.os.Message;
+
+
+/**
+ * @author ivany
+ *
+ * This Thread advances the game in fixed SIMULATION_STEPs: it advances the GameClock, fires the GameScheduler's
+ * deadlines, moves the GameActors, calls onUpdate() on every ViewObject and detects the interactions between
+ * CoffeeGirl and the GameItems. It runs on the simulation Looper (see GameLoopers), alongside GameLogicThread and
+ * InputThread, so taps, interactions, level switches and every change to the game objects happen on one thread, in
+ * order, and an interaction is handled by the GameLogicThread right away, in the same step that detected it. (Levels
+ * are built off to the side, on the prefetch Looper, and only switched to here; see World.)
+ *
+ * The ViewThread doesn't change anything; it only draws what the last step left behind (see
+ * MovementSystem.snapshot()).
+ */
+public class SimulationThread extends Thread {
+
+	private static final String activitynametag = "SimulationThread";
+
+	//Define types of messages accepted by SimulationThread
+	public static final int MESSAGE_SET_PAUSED = 0;
+	public static final int MESSAGE_SET_UNPAUSED = 1;
+	public static final int MESSAGE_SET_SUSPENDED = 2;
+	public static final int MESSAGE_SET_UNSUSPEND = 3;
+
+	//Define the fixed simulation timestep. onUpdate() is called on every ViewObject once per SIMULATION_STEP; the
+	//steps are run as the real time for them passes, and a tick that comes late runs several "catch-up" steps, but
+	//never more than MAX_SIMULATION_STEPS_PER_TICK. That is enough steps to cover MAX_CATCH_UP_MS, plus one, so that
+	//only a real stall loses game time
+	public static final int SIMULATION_RATE_HZ = 60;
+	public static final long SIMULATION_STEP_NS = 1000000000L / SIMULATION_RATE_HZ;
+	public static final double SIMULATION_STEP_MS = 1000.0 / SIMULATION_RATE_HZ;
+	public static final int MAX_CATCH_UP_MS = 250;
+	public static final int MAX_SIMULATION_STEPS_PER_TICK =
+			(int) ((MAX_CATCH_UP_MS * 1000000L + SIMULATION_STEP_NS - 1) / SIMULATION_STEP_NS) + 1;
+	//How often we check whether a step is due
+	private static final int TICK_PERIOD_MS = (int) SIMULATION_STEP_MS;
+
+	//Time of the last tick, and the amount of (real) time that hasn't yet been simulated
+	private long last_tick_time_ns;
+	private long simulation_accumulator_ns;
+
+	//This message handler will receive messages, mostly from MessageRouter, that pause and suspend the simulation
+	public static Handler handler;
+
+	//The GameLogicThread, which handles the interactions that we detect
+	private final GameLogicThread gameLogicThread;
+
+	//The objects that we update live in the current World (World.current()); this is the World that the last
+	//step was run on, so that we notice when a new level has been published
+	private World lastWorld;
+
+	//If paused is true no steps are run: nothing moves and no Interactions may occur
+	private boolean paused;
+	//If suspended is true then the tick loop is stopped until we are un-suspended
+	private boolean suspended;
+	
+	//Runs one tick and posts itself again; one Runnable for all ticks, so that ticking doesn't allocate
+	private final Runnable tickRunnable = new Runnable() {
+		public void run() {
+			if(!suspended) {
+				tick();
+				handler.postDelayed(this, TICK_PERIOD_MS);
+			}
+		}
+	};
+
+	/** Constructor for SimulationThread; sets up the Handler, on the simulation Looper.
+	 * @param gameLogicThread The GameLogicThread that interactions are handed to
+	 */
+	public SimulationThread(GameLogicThread gameLogicThread) {
+		super();
+		this.gameLogicThread = gameLogicThread;
+
+		paused = true;
+		suspended = true;
+
+		handler = new Handler(GameLoopers.getSimulationLooper()) {
+			@Override
+			public void handleMessage(Message msg) {
+				if (msg.what == MESSAGE_SET_PAUSED) setPaused(true);
+				else if (msg.what == MESSAGE_SET_UNPAUSED) setPaused(false);
+				else if (msg.what == MESSAGE_SET_SUSPENDED) setSuspended(true);
+				else if (msg.what == MESSAGE_SET_UNSUSPEND) setSuspended(false);
+			}
+		};
+
+		last_tick_time_ns = -1L;
+		simulation_accumulator_ns = 0L;
+	}
+
+	/** Run as many fixed simulation steps as have elapsed since the last tick (see stepSimulation()). A tick can
+	 * come as late as MAX_CATCH_UP_MS and still be caught up with completely; only if it came later than that (a
+	 * real stall, e.g. a long GC pause) are more than MAX_SIMULATION_STEPS_PER_TICK steps owed, and then the rest of
+	 * the backlog is dropped so that we don't spiral. Time spent paused or suspended isn't owed at all.
+	 */
+	private void tick() {
+		//A new level has been published; start its simulation from scratch
+		World world = World.current();
+		if(world != lastWorld) {
+			lastWorld = world;
+			last_tick_time_ns = -1L;
+			simulation_accumulator_ns = 0L;
+		}
+
+		long tick_time_ns = System.nanoTime();
+		long tick_elapsed_ns = (last_tick_time_ns < 0) ? 0 : (tick_time_ns - last_tick_time_ns);
+		last_tick_time_ns = tick_time_ns;
+
+		if(paused || world.actor == null) {
+			simulation_accumulator_ns = 0L;
+			return;
+		}
+
+		simulation_accumulator_ns += tick_elapsed_ns;
+
+		int steps_run = 0;
+		while(simulation_accumulator_ns >= SIMULATION_STEP_NS && steps_run < MAX_SIMULATION_STEPS_PER_TICK) {
+			simulation_accumulator_ns -= SIMULATION_STEP_NS;
+			//The step brings the game up to the real time that is still owed after it
+			stepSimulation(world, tick_time_ns - simulation_accumulator_ns);
+			steps_run++;
+		}
+
+		//Too far behind to catch up; drop the backlog (but keep the fraction of a step)
+		if(simulation_accumulator_ns >= SIMULATION_STEP_NS)
+			simulation_accumulator_ns = simulation_accumulator_ns % SIMULATION_STEP_NS;
+	}
+
+	/** Advance the game by exactly one SIMULATION_STEP: call onUpdate() on all ViewObjects so that they can calculate
+	 * their next position, then check for Interactions between the Actor and GameItems and have the GameLogicThread
+	 * handle any that occur.
+	 * @param step_time_ns The real time (System.nanoTime()) that the game has been brought up to after this step
+	 */
+	private void stepSimulation(World world, long step_time_ns) {
+		ArrayList<ViewObject> viewObjects = world.viewObjects;
+		CoffeeGirl actor = world.actor;
+
+		//Game time advances in lock-step with the simulation (GameClock ignores this while paused)
+		GameClock.advance(SIMULATION_STEP_NS);
+
+		//Fire any timed state changes (GameItem states, Customer moods, customer arrivals) that are now due
+		GameScheduler.runDueTimers(GameClock.currentTimeMillis());
+
+		//Move every GameActor towards its target, all in one go, then call onUpdate() on all ViewObjects
+		MovementSystem.step(step_time_ns);
+		for(int i = 0; i < viewObjects.size(); i++) viewObjects.get(i).onUpdate();
+
+		//Check for interactions between the Actor and any GameItems; only the GameItems near the Actor (those in the
+		//same GameGridIndex cell) can possibly be interacting with it
+		GameItem [] candidates = world.renderIndex.candidatesAt(actor.getPositionX(), actor.getPositionY());
+		for(int i = 0; i < candidates.length; i++) {
+			GameItem gameItem = candidates[i];
+
+			//IF the actor (CoffeeGirl) is within gameItem's sensitivity area
+			//AND there is an event in gameItem's queue, have the GLT handle the interaction
+			if(gameItem.inSensitivityArea(actor)) {
+				int consumed_event = gameItem.consumeEvent();
+				if(consumed_event != GameItem.EVENT_NULL) {
+					//play a short sfx indicating successful interaction (if it's not with a customer)
+					if(gameItem.getItemKind() != InteractionTable.KIND_CUSTOMERQUEUE)
+						MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_RUB);
+
+					gameLogicThread.handleInteractionEvent(gameItem.getItemId());
+				}
+			}
+		}
+	}
+
+	/** Allows the SimulationThread to be paused. When paused no GameItems get updated, nothing moves and no
+	 * interactions are allowed to take place; the ViewThread keeps drawing the last step.
+	 * @param n_paused
+	 */
+	private void setPaused(boolean n_paused) { paused = n_paused; }
+
+	/** Sets whether or not this SimulationThread should be suspended. If we set suspended to false we
+	 * start ticking again.
+	 * @param n_suspended Whether this SimulationThread should be suspended.
+	 */
+	private void setSuspended(boolean n_suspended) {
+		boolean was_suspended = suspended;
+		suspended = n_suspended;
+
+		if(was_suspended && !suspended) {
+			//The game didn't run while we were suspended, so none of that time is to be simulated
+			last_tick_time_ns = -1L;
+			simulation_accumulator_ns = 0L;
+			callTickDelayed();
+		}
+	}
+
+	/** This is the main SimulationThread loop: tickRunnable calls tick() (if we are not suspended) and then posts
+	 * itself again, TICK_PERIOD_MS later. A tick that is still pending from before a suspend is dropped, so that
+	 * there is only ever one loop.
+	 */
+	private void callTickDelayed() {
+		handler.removeCallbacks(tickRunnable);
+		handler.postDelayed(tickRunnable, TICK_PERIOD_MS);
+	}
+
+	/** The SimulationThread run() method doesn't do anything except for un-suspend this SimulationThread.
+	 */
+	@Override
+	public void run() {
+		MessageRouter.sendSuspendSimulationThreadMessage(false);
+	}
+}
@@ -121,7 +121,8 @@ public class SoundThread extends Thread {
 		
 		setSuspended(false);
 		
-		handler = new Handler() {
+		//Messages are handled on the audio Looper rather than on the UI thread
+		handler = new Handler(GameLoopers.getAudioLooper()) {
 			@Override
 			public void handleMessage(Message msg) {
 				//Handle message to play level music
@@ -344,8 +345,9 @@ public class SoundThread extends Thread {
 	 * called with parameter SFX_NOTHING, it will simply stop playing the current sound effect. Otherwise 
 	 * it will stop the current sfx AND play the sound effect called out by sfx_number.
 	 *  
+	 * Called on the audio Looper, either via the EventBus or a PLAY_SFX message.
 	 */
-	private synchronized void playShortSfx(int sfx_number) {
+	synchronized void playShortSfx(int sfx_number) {
 		if(mSoundPool == null || mAudioManager == null || mShortSfxMap == null) return;
 		
 		//Make sure we're not to play nothing, or that sfx_number is a valid short sound effect
@@ -1,4 +1,8 @@
 package org.coffeecats.coffeetime;
+import org.coffeecats.coffeetime.utility.BitmapCache;
+import org.coffeecats.coffeetime.gameobjects.SpeechBubbleCache;
+import org.coffeecats.coffeetime.utility.SpriteCompositor;
+
 import android.app.Application;
 
 /**
@@ -15,5 +19,16 @@ public class TacoTimeApplication extends Application {
     public void onCreate() {
       super.onCreate();  
     }
+    
+    @Override
+    public void onLowMemory() {
+      super.onLowMemory();
+      //Bitmaps that no level is using right now can be decoded again later
+      BitmapCache.trimUnreferenced();
+      //Actor composites are re-made the next time they are drawn
+      SpriteCompositor.clear();
+      //So are the customers' speech bubbles
+      SpeechBubbleCache.clear();
+    }
 
 }
@@ -141,6 +141,9 @@ public class UpgradeMenuActivity extends ListActivity {
 		updateMoneyDisplayed( GameInfo.setAndReturnMoney(-1 * upgrade.getUpgradeCost()) );
 		GameInfo.addUpgrade(upgrade);
 		
+		//The upgrade may change what the next level looks like; start prefetching it over
+		LevelPrefetcher.prefetch(GameInfo.getLevel() + 1, this);
+		
 		playLongTap();
 	}
 	
@@ -1,15 +1,17 @@
 package org.coffeecats.coffeetime;
 
 
-import java.util.ArrayList;
-
+import org.coffeecats.coffeetime.gamelogic.MovementSystem;
 import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.GameActor;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.ViewObject;
 
 import android.annotation.SuppressLint;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Message;
 import android.os.SystemClock;
@@ -21,10 +23,9 @@ import android.view.SurfaceHolder;
 /**
  * @author iyulaev
  *
- * This Thread is responsible for all of the in-game 2D rendering work, as well as tracking the
- * GameGrid-based position of all of the game elements and observing when they interact. Every
- * VIEW_REFRESH_PERIOD the ViewThread will call the onUpdate() method for every GameItem, and
- * then will draw the GameItem to the Canvas.
+ * This Thread is responsible for all of the in-game 2D rendering work. Every (adjustable) view refresh period
+ * it draws the GameItems and GameActors to the Canvas, as the SimulationThread left them after its last step;
+ * it doesn't update or move anything itself (see SimulationThread).
  */
 
 public class ViewThread extends Thread {
@@ -33,8 +34,6 @@ public class ViewThread extends Thread {
 	
 	//Define types of messages accepted by ViewThread
 	public static final int MESSAGE_REFRESH_VIEW = 0;
-	public static final int MESSAGE_SET_PAUSED = 1;
-	public static final int MESSAGE_SET_UNPAUSED = 2;
 	public static final int MESSAGE_NEW_ANNOUNCEMENT = 3;
 	public static final int MESSAGE_STOP_ANNOUNCEMENT = 4;
 	public static final int MESSAGE_SET_SUSPENDED = 5;
@@ -49,7 +48,7 @@ public class ViewThread extends Thread {
 	//Current calculated refresh time. We'll trim this value so that we don't end up over-loading
 	//the phone's graphics subsystem (it causes the phone to flip the fuck out for some reason)
 	private static int current_view_refresh_period;
-
+	
 	// Surface holder that can access the physical surface
 	private SurfaceHolder surfaceHolder;
 	// The actual view that handles inputs
@@ -59,16 +58,12 @@ public class ViewThread extends Thread {
 	//redraw the canvas and do other View-related things
 	public static Handler handler;
 	
-	//Here we hold all of the objects that the ViewThread must update
-	ArrayList<ViewObject> viewObjects;
-	//Here we have the Actor, the player character
-	CoffeeGirl actor;
-	//Here we hold all of the GameItems that are rendered by this ViewThread
-	ArrayList<GameItem> gameItems;
+	//The objects that the ViewThread updates and draws live in the current World (World.current()); this is the
+	//World that the last frame was drawn from, so that we notice when a new level has been published
+	private World lastWorld;
+	//The area of the canvas that has to be redrawn this frame (see MainGamePanel.findDirtyRect())
+	private final Rect dirtyRect = new Rect();
 	
-	//If paused is true then, during refreshView(), we do not call onUpdate() BUT we still re-draw the entire canvas
-	//Thus no interactions may occur and nothing moves but rendering still occurs
-	private boolean paused;
 	//If suspended is true then the event loop is stopped and we wait to be un-suspended. THis should be a relatively
 	//low-power and low computational intensity state
 	private boolean suspended;
@@ -80,7 +75,8 @@ public class ViewThread extends Thread {
 	private boolean usingItalicAnnouncement;
 
 	/** Constructor for ViewThread. Most of the work is in setting up the Message Handler, which is responsible 
-	 * for receiving messages from the GameLogicThread.
+	 * for receiving messages from the GameLogicThread. The Handler is bound to the render Looper (see GameLoopers)
+	 * so that refreshView() runs off of the UI thread.
 	 * @param surfaceHolder The SurfaceHolder for the canvas that we will be drawing to
 	 * @param gamePanel The MainGamePanel that we will be doing drawing duty for.
 	 */
@@ -89,13 +85,12 @@ public class ViewThread extends Thread {
 		this.surfaceHolder = surfaceHolder;
 		this.gamePanel = gamePanel;
 		
-		paused = true;
 		suspended = false;
 		
 		draw_announcement_message = false;
 		usingItalicAnnouncement = false;
 		
-		handler = new Handler() {
+		handler = new Handler(GameLoopers.getRenderLooper()) {
 			@SuppressLint({ "HandlerLeak" })
 			@Override
 			public void handleMessage(Message msg) {
@@ -104,9 +99,6 @@ public class ViewThread extends Thread {
 					//if(!isRefreshing) refreshView();
 				}
 				
-				else if (msg.what == MESSAGE_SET_PAUSED) setPaused(true);
-				else if (msg.what == MESSAGE_SET_UNPAUSED) setPaused(false);
-				
 				//handle announcement messages entered in by the GameLogicThread
 				else if (msg.what == MESSAGE_NEW_ANNOUNCEMENT) {
 					announcementMessage = (String) msg.obj;
@@ -126,85 +118,93 @@ public class ViewThread extends Thread {
 			}
 		};
 		
-		this.reset();
+		current_view_refresh_period = VIEW_REFRESH_PERIOD;
 	}
 
-	/** Add a ViewObject to the viewThread viewObjects ArrayList; all ViewObjects are updated and rendered by the ViewThread
-	 * @param nVO New ViewObject to add to this ViewThread's VO list.
+	/** Add a ViewObject to the World being built (see World.building()); all ViewObjects are updated by the 
+	 * SimulationThread and rendered by the ViewThread once the World is published
+	 * @param nVO New ViewObject to add to the level's VO list.
 	 */
-	public synchronized void addViewObject(ViewObject nVO) {
-		viewObjects.add(nVO);
+	public void addViewObject(ViewObject nVO) {
+		World.building().viewObjects.add(nVO);
 	}
 	
-	/** Add a Gameitem to this viewThread's gameItems Arraylist; all of the GameItems are tracked for potential interactions. As
+	/** Add a Gameitem to the World being built; all of the GameItems are tracked for potential interactions. As
 	 * as side effect all gameItems are addviewObject()'d also.
-	 * @param nGI The new GameItem to add to this threads gameItems array.
+	 * @param nGI The new GameItem to add to the level's gameItems array.
 	 */
-	public synchronized void addGameItem(GameItem nGI) {
-		gameItems.add(nGI);
-		viewObjects.add(nGI);
+	public void addGameItem(GameItem nGI) {
+		World world = World.building();
+		world.gameItems.add(nGI);
+		world.viewObjects.add(nGI);
+		world.renderIndex.add(nGI);
 	}
 	
-	/** Sets the main player Actor for this ViewThread 
-	 * @param nActor the Actor that we will specify for this ViewThread.
+	/** Sets the main player Actor of the World being built
+	 * @param nActor the Actor that we will specify for the level.
 	 * */
-	public synchronized void setActor(CoffeeGirl nActor) {
-		this.actor = nActor;
+	public void setActor(CoffeeGirl nActor) {
+		World.building().actor = nActor;
 	}
 	
-	/** Clear gameItems, viewObjects, actor - typically one between game levels to  "reset" the game 
-	 * 
+	/** Called when a new level starts loading. The level's objects go into a new World that this ViewThread only
+	 * switches to once it is published, so there is nothing to clear here; the frame timing is reset when the 
+	 * switch happens (see refreshView()).
 	 */
-	public synchronized void reset () {
-		this.viewObjects = new ArrayList<ViewObject>();
-		this.gameItems = new ArrayList<GameItem>();
-		this.actor = null;
-		current_view_refresh_period = VIEW_REFRESH_PERIOD;
+	public void reset () {
+		//Nothing to do; see World
 	}
 	
-	/** Call onUpdate() on all ViewObjects so that they can calculate their next position. Then re-draw the Canvas.
-	 * Also check for Interactions between the Actor and GameItems and send InteractionEvents through MessageRouter
-	 * to the GameLogicThread if an interaction occurs.
+	/** Re-draw the Canvas as the SimulationThread left it after its last step, with GameActor positions interpolated
+	 * between the last two steps.
+	 * 
+	 * The simulation runs on the simulation Looper while refreshView() runs on the render Looper, so refreshView() 
+	 * only reads what the simulation publishes: the GameActors are drawn from a copy of their positions that is taken
+	 * under the MovementSystem lock (MovementSystem.snapshot()), the GameItems from their atomic state words, and the 
+	 * Customers from what their CustomerQueue and they themselves publish at the end of each step. Every frame is 
+	 * drawn from one World (World.current()), which a level load never changes.
 	 */
 	private void refreshView() {
 		long start_refresh_time = SystemClock.uptimeMillis();
 		
-		//If we are "paused" then no viewObjects should be updated; thier positions should remain static and
-		//no Interactions are to occur
-		if(!paused) {
-			//Call onUpdate() on all ViewObjects
-			for(int i = 0; i < viewObjects.size(); i++) viewObjects.get(i).onUpdate();
-			
-			//Check for interactions between the Actor and any ViewObjects
-			for(int i = 0; i < gameItems.size(); i++) {
-				//IF the actor (CoffeeGirl) is within gameItems(i)'s sensitivity area
-				//AND there is an event in gameItems(i)'s queue, send a message to the GameLogic thread
-				if(gameItems.get(i).inSensitivityArea(actor)) {				
-					int consumed_event = gameItems.get(i).consumeEvent();
-					//Notify the GLT (via MessageRouter) if an Interaction generates some non-null event
-					if(consumed_event != GameItem.EVENT_NULL) {
-						//play a short sfx indicating successful interaction (if it's not with a customer)
-						if(!gameItems.get(i).getName().contains("Customer"))
-							MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_RUB); 
-						
-						MessageRouter.sendInteractionEvent(gameItems.get(i).getName());
-					}
-				}
-			}
+		//A new level has been published; draw all of it. We won't draw the World(s) before it again, so they can be
+		//torn down now
+		World world = World.current();
+		if(world != lastWorld) {
+			lastWorld = world;
+			World.releaseRetired(world);
+			gamePanel.requestFullRedraw();
+			current_view_refresh_period = VIEW_REFRESH_PERIOD;
+		}
+		
+		//Take the positions of the GameActors as of the last step, and work out how far between the last two steps
+		//this frame is
+		GameActor.setInterpolationAlpha(MovementSystem.snapshot(System.nanoTime()));
+		
+		//Bring the HUD up to date; only what has changed gets rendered again
+		gamePanel.hud.update(GameInfo.setAndReturnMoney(0), GameInfo.setAndReturnPoints(0),
+				GameInfo.getLevelTime(),
+				GameInfo.getCustomersLeftForLevel(),
+				GameInfo.getCustomersLeftForBonus(),
+				GameInfo.getCustomersLeftForCleared(),
+				draw_announcement_message, announcementMessage, drawItalicAnnoucement());
+		if(Hud.DRAW_DEBUG_OVERLAY) countEntities(world);
+		
+		//Only redraw the part of the canvas that has changed; if nothing has, skip the frame altogether
+		dirtyRect.setEmpty();
+		boolean dirty_known = gamePanel.findDirtyRect(dirtyRect, world.viewObjects);
+		if(dirty_known && dirtyRect.isEmpty()) {
+			updateViewRefreshPeriod(SystemClock.uptimeMillis() - start_refresh_time);
+			return;
 		}
 		
 		//FINALLY Redraw canvas
 		Canvas canvas = null;
 		try { 
-			canvas = this.surfaceHolder.lockCanvas();
-			this.gamePanel.onDraw(canvas, viewObjects, 
-					GameInfo.setAndReturnMoney(0), GameInfo.setAndReturnPoints(0),
-					draw_announcement_message, announcementMessage,
-					GameInfo.getLevelTime(),
-					GameInfo.getCustomersLeftForLevel(),
-					GameInfo.getCustomersLeftForBonus(),
-					GameInfo.getCustomersLeftForCleared(),
-					drawItalicAnnoucement());
+			//lockCanvas(dirtyRect) leaves everything outside of dirtyRect as it was in the last frame and clips 
+			//drawing to dirtyRect (which it may grow, e.g. to the whole canvas after the surface was re-created)
+			canvas = dirty_known ? this.surfaceHolder.lockCanvas(dirtyRect) : this.surfaceHolder.lockCanvas();
+			this.gamePanel.onDraw(canvas, world.viewObjects);
 
 		} catch(Exception e) {;} 
 		finally {
@@ -215,6 +215,26 @@ public class ViewThread extends Thread {
 		updateViewRefreshPeriod(SystemClock.uptimeMillis() - start_refresh_time);
 	}
 	
+	/** Count how many entities there are in world, and how many of them are active (updated and drawn), for the 
+	 * debug overlay. The Customers are counted by their CustomerQueue, which only updates and draws the visible ones.
+	 */
+	private void countEntities(World world) {
+		int active = 0, total = 0;
+		
+		for(int i = 0; i < world.viewObjects.size(); i++) {
+			ViewObject viewObject = world.viewObjects.get(i);
+			active++;
+			total++;
+			
+			if(viewObject instanceof CustomerQueue) {
+				active += ((CustomerQueue) viewObject).getActiveCustomerCount();
+				total += ((CustomerQueue) viewObject).getCustomerCount();
+			}
+		}
+		
+		gamePanel.hud.setEntityCounts(active, total);
+	}
+	
 	/** Set whether the announcement message should be displayed or not
 	 * 
 	 * @param newSetting
@@ -236,19 +256,17 @@ public class ViewThread extends Thread {
 	}
 	private synchronized boolean drawItalicAnnoucement() { return usingItalicAnnouncement; }
 	
-	/** Allows the ViewThread to be paused. When the ViewThread is paused stuff still gets drawn to the canvas but
-	 * no GameItems get updated and no interactions are allowed to take place.
-	 * @param n_paused
-	 */
-	public void setPaused(boolean n_paused) { paused = n_paused; }
-	
 	/** Sets whether or not this ViewThread should be suspended. If we set suspended to false we 
 	 * launch a notification to wake the ViewThread back up.
 	 * @param n_suspended Whether this ViewThread should be suspended.
 	 */
 	private void setSuspended(boolean n_suspended) {		
 		this.suspended = n_suspended;
-		if(!suspended) callRefreshDelayed();
+		if(!suspended) {
+			//The surface may have been re-created while we were suspended; it doesn't have the last frame on it
+			gamePanel.requestFullRedraw();
+			callRefreshDelayed();
+		}
 	}
 	
 	/** Used to dynamically change the view refresh period. Basically, we adjust by (at most)
@@ -280,8 +298,7 @@ public class ViewThread extends Thread {
 	
 	/**This is the main ViewThread loop. Basically we call refreshView() (if we are not suspended) and then, once again,
 	 * if we are not suspended, we post a callback to handler to call callRefreshDelayed() again in ViewThread.
-	 * VIEW_REFRESH_PERIOD ms. Every time that refreshView() is called the canvas gets redrawn and position-related
-	 * things (like interactions) get evaluated.
+	 * VIEW_REFRESH_PERIOD ms. Every time that refreshView() is called the canvas gets redrawn.
 	 */
 	private void callRefreshDelayed() { 
 		handler.postDelayed(
@@ -0,0 +1,175 @@
+/** World holds everything that makes up one loaded level: the actor, the GameItems (with the spatial index that the
+ * render and input stages look them up through), the other ViewObjects, the food items and the customer queues.
+ *
+ * A level is built into a fresh World off to the side (see beginBuilding() and building(); the add methods of
+ * ViewThread, InputThread and GameLogicThread all add to the World being built) while the render, input and logic
+ * stages keep using the current one. Once the level is complete it is published with publish(), which is a single
+ * volatile reference swap; the stages pick up the new World the next time they call current(). A published World
+ * is never changed again, so the stages don't need to lock anything to read it.
+ *
+ * A level is built on the prefetch Looper (see GameLogicThread.buildLevel()), so that loading it never holds up the
+ * simulation: beginBuilding(), building() and finishBuilding() are only called from the thread that is building the
+ * level, and nothing else touches the World being built. The built World is handed to the simulation Looper in a
+ * Message, which publishes it there (publish()), or throws it away (discard()) if it isn't wanted any more.
+ *
+ * The World that publish() replaces may still be on its way to the screen: the ViewThread draws on the render Looper
+ * and only picks up the new World at its next frame. So a replaced World is retired rather than torn down, and the
+ * ViewThread tears it down (releaseRetired()) once it has switched to a newer one and can't draw it any more.
+ *
+ * @author ivany
+ *
+ */
+
+package org.coffeecats.coffeetime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.coffeecats.coffeetime.gamelogic.CustomerQueueWrapper;
+import org.coffeecats.coffeetime.gamelogic.GameGridIndex;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.GameFoodItem;
+import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.gameobjects.ViewObject;
+
+import android.util.Log;
+
+public class World {
+	private static final String activitynametag = "World";
+
+	//The World that the stages are using, and the one being built (null if no level is being loaded); building is
+	//only touched by the thread building the level
+	private static volatile World current = new World();
+	private static World building = null;
+	//The Worlds that publish() has replaced but that haven't been torn down yet (see releaseRetired())
+	private static final ArrayList<World> retired = new ArrayList<World>();
+
+	//Simulation and render stages (SimulationThread and ViewThread): every ViewObject that gets updated and drawn, the
+	//GameItems, and the GameItems indexed by their sensitivity areas for finding interactions with the actor. The
+	//input stage looks taps up in the same index; it is read-only once the World is published, and lookups don't
+	//write anything.
+	final ArrayList<ViewObject> viewObjects = new ArrayList<ViewObject>();
+	final ArrayList<GameItem> gameItems = new ArrayList<GameItem>();
+	final GameGridIndex renderIndex = new GameGridIndex();
+	CoffeeGirl actor;
+
+	//Input stage (InputThread): the ViewObjects other than GameItems that are told about every tap (the GameItems
+	//are found through renderIndex)
+	final ArrayList<ViewObject> inputViewObjects = new ArrayList<ViewObject>();
+
+	//Logic stage (GameLogicThread): the GameItems by name and by id (the id of a GameItem is its index in
+	//gameItemsById), the GameFoodItems by name and by the CoffeeGirl state they are associated with, and the
+	//customer queues
+	final HashMap<String, GameItem> gameItemsByName = new HashMap<String, GameItem>();
+	final ArrayList<GameItem> gameItemsById = new ArrayList<GameItem>();
+	final HashMap<String, GameFoodItem> foodItems = new HashMap<String, GameFoodItem>();
+	final GameFoodItem [] foodItemsByState = new GameFoodItem[InteractionTable.HELD_ITEM_COUNT];
+	CoffeeGirl coffeeGirl;
+	CustomerQueueWrapper customerQueueWrapper;
+
+	/** Return the World that the render, input and logic stages should be using */
+	public static World current() {
+		return(current);
+	}
+
+	/** Start building a new World for the level that is about to be loaded; whatever was being built before is
+	 * thrown away */
+	public static World beginBuilding() {
+		building = new World();
+		return(building);
+	}
+
+	/** Return the World being built. If no level is being loaded (beginBuilding() hasn't been called) a new World
+	 * is started, so that adding to it never fails.
+	 */
+	static World building() {
+		if(building == null) {
+			Log.w(activitynametag, "Adding to a World without beginBuilding() first");
+			beginBuilding();
+		}
+		return(building);
+	}
+
+	/** Finish building the World that beginBuilding() started; it is returned, to be handed over to the simulation
+	 * Looper and published there.
+	 * @return The World that has been built
+	 */
+	public static World finishBuilding() {
+		World built = building();
+		building = null;
+		return(built);
+	}
+
+	/** Publish a World that has been built, so that all stages switch over to it; called on the simulation Looper.
+	 * The World that was current until now is retired; it is torn down by releaseRetired() once the ViewThread is
+	 * done drawing it.
+	 * @param built The World returned by finishBuilding()
+	 * @return The World that was current until now
+	 */
+	public static World publish(World built) {
+		World previous = current;
+		if(built == null) return(previous);
+
+		current = built;
+		synchronized(retired) {
+			retired.add(previous);
+		}
+		return(previous);
+	}
+
+	/** Throw away a World that has been built but won't be published; it has never been drawn, so it is torn down
+	 * right away
+	 * @param built The World returned by finishBuilding()
+	 */
+	public static void discard(World built) {
+		if(built == null) return;
+		built.releaseBitmaps();
+		built.releaseActors();
+	}
+
+	/** Tear down every retired World except drawing: give their bitmaps back to the BitmapCache and their actors'
+	 * MovementSystem slots back. Called by the ViewThread (on the render Looper) when it has switched to a new World,
+	 * since from then on it doesn't draw the older ones any more; drawing is the World it has switched to, which may
+	 * itself have been replaced (and retired) in the meantime.
+	 * @param drawing The World the ViewThread is drawing
+	 */
+	public static void releaseRetired(World drawing) {
+		ArrayList<World> released = new ArrayList<World>();
+		synchronized(retired) {
+			for(int i = retired.size() - 1; i >= 0; i--) {
+				if(retired.get(i) != drawing) released.add(retired.remove(i));
+			}
+		}
+
+		//The previous level's bitmaps stay cached, but may now be dropped if the next level needs the memory; its
+		//actors' MovementSystem slots are free for the next level's customers
+		for(int i = 0; i < released.size(); i++) {
+			released.get(i).releaseBitmaps();
+			released.get(i).releaseActors();
+		}
+	}
+
+	/** Give the bitmaps of this World's GameItems back to the BitmapCache, once the World is no longer current */
+	private void releaseBitmaps() {
+		for(int i = 0; i < gameItemsById.size(); i++) gameItemsById.get(i).releaseBitmaps();
+	}
+
+	/** Give the MovementSystem slots of this World's GameActors (CoffeeGirl and every Customer) back, once the World
+	 * is no longer current */
+	private void releaseActors() {
+		if(actor != null) actor.releaseMotion();
+		if(coffeeGirl != null) coffeeGirl.releaseMotion();
+		if(customerQueueWrapper != null) {
+			List<CustomerQueue> customerQueues = customerQueueWrapper.getContainedQueues();
+			for(int i = 0; i < customerQueues.size(); i++) customerQueues.get(i).releaseCustomers();
+		}
+	}
+	
+	/** Return the customer queues of this World (null if there are none) */
+	public CustomerQueueWrapper getCustomerQueueWrapper() {
+		return(customerQueueWrapper);
+	}
+}
@@ -1,107 +1,129 @@
 /** This class contains one or multiple CustomerQueues, and uses a bit of logic to present
  * a single interface to GLT for checking how many customers are left in the queues, etc.
- * 
+ *
  * It's a Composite pattern if you care about Design Patterns.
+ *
+ * The statistics of all of the queues (how many customers were served, how many have left the front of their
+ * queue, how many queues have finished) are kept in a single AtomicLong that the CustomerQueues update the moment
+ * something happens (see onCustomerLeft() and onQueueFinished()). getStats() returns all of them as one consistent
+ * snapshot in O(1), no matter how many queues there are; unpack it with served(), left(), ignored() and finished().
  */
 
 package org.coffeecats.coffeetime.gamelogic;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
 
-import android.util.Log;
+public class CustomerQueueWrapper {
+	//Layout of the packed statistics: customers served, customers that have left the front of their queue (served or
+	//not), and queues that have finished
+	private static final int COUNT_BITS = 24;
+	private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+	private static final int SERVED_SHIFT = 0;
+	private static final int DEPARTED_SHIFT = COUNT_BITS;
+	private static final int FINISHED_SHIFT = 2 * COUNT_BITS;
 
+	private final ArrayList<CustomerQueue> customerQueues;
+	private final AtomicLong stats = new AtomicLong(0L);
+	//How many customers there are in all of the queues put together
+	private volatile int total_customers;
 
-public class CustomerQueueWrapper {
-	final int EXPECTED_MAX_CUSTOMERQUEUES = 4;
-	
-	ArrayList<CustomerQueue> customerQueues;
-	
-	public CustomerQueueWrapper() {
-		customerQueues = new ArrayList<CustomerQueue>(EXPECTED_MAX_CUSTOMERQUEUES);
+	/** Creates a new CustomerQueueWrapper containing the (argument-provided) CustomerQueues; there may be any number
+	 * of them
+	 *
+	 * @param queues The CustomerQueues to add to this wrapper
+	 */
+	public CustomerQueueWrapper(CustomerQueue... queues) {
+		customerQueues = new ArrayList<CustomerQueue>(queues.length);
+		for(CustomerQueue customerQueue : queues) addCustomerQueue(customerQueue);
 	}
-	
-	/** Creates a new CustomerQueueWrapper containing a single (argument-provided) CustomerQueue
-	 * 
+
+	/** Adds another CustomerQueue to this CustomerQueueWrapper composite object. Queues are added while the level is
+	 * built, before any of their customers can have left.
+	 *
 	 * @param customerQueue The CustomerQueue to add to this wrapper
 	 */
-	public CustomerQueueWrapper(CustomerQueue customerQueue) {
-		this();
-		this.addCustomerQueue(customerQueue);
+	public synchronized void addCustomerQueue(CustomerQueue customerQueue) {
+		customerQueues.add(customerQueue);
+		total_customers += customerQueue.getQueueLength();
+		customerQueue.setWrapper(this);
 	}
-	
-	/** Creates a new CustomerQueueWrapper containing two (argument-provided) CustomerQueues
-	 * 
-	 * @param customerQueue1 The first CustomerQueue to add to this wrapper
-	 * @param customerQueue2 The second CustomerQueue to add to this wrapper
+
+	/** Called by a CustomerQueue when the customer at its front has left the queue
+	 * @param served Whether the customer's order was satisfied (otherwise they lost patience)
 	 */
-	public CustomerQueueWrapper(CustomerQueue customerQueue1, CustomerQueue customerQueue2) {
-		this(customerQueue1);
-		this.addCustomerQueue(customerQueue2);
+	public void onCustomerLeft(boolean served) {
+		stats.addAndGet((1L << DEPARTED_SHIFT) + (served ? (1L << SERVED_SHIFT) : 0L));
 	}
-	
-	
-	/** Adds another CustomerQueue to this CustomerQueueWrapper composite object
-	 * 
-	 * @param customerQueue The CustomerQueue to add to this wrapper
-	 */
-	public void addCustomerQueue(CustomerQueue customerQueue) {
-		customerQueues.add(customerQueue);
+
+	/** Called by a CustomerQueue (once) when its last customer has been served */
+	public void onQueueFinished() {
+		stats.addAndGet(1L << FINISHED_SHIFT);
+	}
+
+	/** Return a snapshot of the statistics of all of the queues, to be unpacked with served(), left(), ignored() and
+	 * finished() */
+	public long getStats() {
+		return(stats.get());
+	}
+
+	/** Return the number of customers served in ALL of the CustomerQueues, out of a snapshot from getStats() */
+	public static int served(long stats) {
+		return((int) ((stats >>> SERVED_SHIFT) & COUNT_MASK));
 	}
-	
+
+	/** Return the number of customers ignored (who left because they lost patience) in ALL of the CustomerQueues, out
+	 * of a snapshot from getStats() */
+	public static int ignored(long stats) {
+		return(departed(stats) - served(stats));
+	}
+
+	/** Return the number of customers remaining in ALL of the CustomerQueues, out of a snapshot from getStats() */
+	public int left(long stats) {
+		return(total_customers - departed(stats));
+	}
+
+	/** Return true iff all of the member queues have finished, according to a snapshot from getStats() */
+	public boolean finished(long stats) {
+		return((int) ((stats >>> FINISHED_SHIFT) & COUNT_MASK) >= customerQueues.size());
+	}
+
+	private static int departed(long stats) {
+		return((int) ((stats >>> DEPARTED_SHIFT) & COUNT_MASK));
+	}
+
 	/** Calculate the number of customers remaining in ALL of the CustomerQueues contained by
 	 * this composite
 	 */
-	public synchronized int numberOfCustomersLeft() {
-		int retval = 0;
-		
-		for(CustomerQueue cq : customerQueues) {
-			retval += cq.numberOfCustomersLeft();
-		}
-		
-		return(retval);
+	public int numberOfCustomersLeft() {
+		return(left(getStats()));
 	}
-	
+
 	/** Calculate the number of customers served in ALL of the CustomerQueues contained by
 	 * this composite
 	 */
-	public synchronized int numberOfCustomersServed() {
-		int retval = 0;
-		
-		for(CustomerQueue cq : customerQueues) {
-			retval += cq.numberOfCustomersServed();
-		}
-		
-		return(retval);
+	public int numberOfCustomersServed() {
+		return(served(getStats()));
 	}
-	
+
 	/** Returns true iff all of the member queues have finished
 	 */
-	public synchronized boolean isFinished() {
-		for(CustomerQueue cq : customerQueues) {
-			if(!cq.isFinished()) return false;
-		}
-		
-		return(true);
+	public boolean isFinished() {
+		return(finished(getStats()));
 	}
-	
+
 	/** Calculate the number of customers ignored in ALL of the CustomerQueues contained by
 	 * this composite
 	 */
-	public synchronized int numberOfCustomersIgnored() {
-		int retval = 0;
-		
-		for(CustomerQueue cq : customerQueues) {
-			retval += cq.numberOfCustomersIgnored();
-		}
-		
-		return(retval);
+	public int numberOfCustomersIgnored() {
+		return(ignored(getStats()));
 	}
-	
+
 	/** Returns a List of the CustomerQueues contained by this CustomerQueueWrapper. Note that this
-	 * List is the udnerlying data structure so whoever grabs it should definitely NOT modify the 
+	 * List is the udnerlying data structure so whoever grabs it should definitely NOT modify the
 	 * List!
 	 */
 	public List<CustomerQueue> getContainedQueues() {
@@ -0,0 +1,102 @@
+package org.coffeecats.coffeetime.gamelogic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.coffeecats.coffeetime.simulation.SimulationClock;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+/** GameClock keeps track of the total ACTIVE play time for this game. It is shared by all of the game
+ * entities (GameItem state transitions, Customer moods, CustomerQueue spawning) in place of the old
+ * GameInfo.currentTimeMillis(), which only advanced once per second and took the GameInfo class lock.
+ *
+ * The clock is advanced by the SimulationThread on every simulation step, and only while it is not paused;
+ * the GameLogicThread un-pauses it when a level starts and pauses it when the level finishes. Reads never
+ * block, so it is safe to call from any thread. A time scale can be set to speed up or slow down the game
+ * (1.0 is real time). The clock that the game time is started from on reset() can be replaced (setBaseClock()), e.g.
+ * so that the game logic can be driven off the device.
+ *
+ * @author ivany
+ *
+ */
+public class GameClock {
+	private static final String activitynametag = "GameClock";
+	
+	private static final long NANOS_PER_MILLI = 1000000L;
+	public static final float DEFAULT_TIME_SCALE = 1.0f;
+
+	//game time, in nanoseconds
+	private static final AtomicLong game_time_ns = new AtomicLong(0L);
+	//when paused, advance() does nothing
+	private static volatile boolean paused = true;
+	//how much game time passes per unit of real time
+	private static volatile float time_scale = DEFAULT_TIME_SCALE;
+
+	//The default base clock; only touches SystemClock once it is actually used
+	private static final SimulationClock UPTIME_CLOCK = new SimulationClock() {
+		public long currentTimeMillis() { return(SystemClock.uptimeMillis()); }
+	};
+	//what the game time is started from on reset()
+	private static volatile SimulationClock baseClock = UPTIME_CLOCK;
+	//The game time, for the parts of the game that run on a SimulationClock (see getSimulationClock())
+	private static final SimulationClock GAME_CLOCK = new SimulationClock() {
+		public long currentTimeMillis() { return(GameClock.currentTimeMillis()); }
+	};
+
+	/** Set the clock that the game time is started from on reset(); null restores the default (SystemClock uptime) */
+	public static void setBaseClock(SimulationClock n_baseClock) {
+		baseClock = (n_baseClock == null) ? UPTIME_CLOCK : n_baseClock;
+	}
+
+	/** Reset the game clock; called when GameInfo is reset. The clock is left paused. */
+	public static void reset() {
+		paused = true;
+		time_scale = DEFAULT_TIME_SCALE;
+		game_time_ns.set(baseClock.currentTimeMillis() * NANOS_PER_MILLI);
+	}
+
+	/** Advance the game clock by real_elapsed_ns (scaled by the time scale), unless the clock is paused.
+	 * Called by the SimulationThread once per simulation step.
+	 * @param real_elapsed_ns The amount of real time that has elapsed, in nanoseconds
+	 */
+	public static void advance(long real_elapsed_ns) {
+		if(paused) return;
+
+		float scale = time_scale;
+		if(scale == DEFAULT_TIME_SCALE) game_time_ns.addAndGet(real_elapsed_ns);
+		else game_time_ns.addAndGet((long) (real_elapsed_ns * scale));
+	}
+
+	/** Return the current total ACTIVE play time for this game, in nanoseconds */
+	public static long nanoTime() {
+		return(game_time_ns.get());
+	}
+
+	/** Return the current total ACTIVE play time for this game, in milliseconds */
+	public static long currentTimeMillis() {
+		return(game_time_ns.get() / NANOS_PER_MILLI);
+	}
+
+	/** Return a SimulationClock that reads the game time; the game rules shared with the headless simulation
+	 * (ItemStateMachine, CustomerOrder, CustomerLine) run on this in the game */
+	public static SimulationClock getSimulationClock() {
+		return(GAME_CLOCK);
+	}
+
+	/** Pause or un-pause the game clock. While paused no game time passes. */
+	public static void setPaused(boolean n_paused) { paused = n_paused; }
+	public static boolean isPaused() { return(paused); }
+
+	/** Set how fast game time passes relative to real time.
+	 * @param n_time_scale The new time scale; 1.0 is real time, 2.0 is double speed, and so on. Must be >= 0.
+	 */
+	public static void setTimeScale(float n_time_scale) {
+		if(n_time_scale < 0.0f) {
+			Log.w(activitynametag, "Ignoring negative time scale " + n_time_scale);
+			return;
+		}
+		time_scale = n_time_scale;
+	}
+	public static float getTimeScale() { return(time_scale); }
+}
@@ -1,7 +1,5 @@
 package org.coffeecats.coffeetime.gamelogic;
 
-import android.util.Log;
-
 /** This class is used to translate from real, on-screen co-ordinates to the internal
  * game grid. The virtual game grid is used to detect interactions and place objects, and is
  * translated to the real canvas pixel positions during the rendering process.
@@ -42,7 +40,6 @@ public class GameGrid {
 		//Set scaling factor so that the gamegrid's real size is less than the total screen size
 		scaling_factor = (f_canvas_width/GAMEGRID_WIDTH < f_canvas_height/GAMEGRID_HEIGHT) ? 
 				(f_canvas_width/GAMEGRID_WIDTH) : (f_canvas_height/GAMEGRID_HEIGHT);
-		Log.v("balls", "Scaling factor choice was " + scaling_factor);
 				
 		//we assume that the phone aspect ratio, in portrait mode, is greater than
 		//160/140 (probably a decent assumption)
@@ -96,6 +93,20 @@ public class GameGrid {
 		return( (int) (((float)gamegrid_y) * scaling_factor) );
 	}
 	
+	/** Same as canvasX(int) but for a fractional game grid coordinate, i.e. an interpolated GameActor position
+	 * that lies between two grid points.
+	 */
+	public static int canvasX(float gamegrid_x) {
+		return( (int) (gamegrid_x * scaling_factor) );
+	}
+	
+	/** Same as canvasY(int) but for a fractional game grid coordinate, i.e. an interpolated GameActor position
+	 * that lies between two grid points.
+	 */
+	public static int canvasY(float gamegrid_y) {
+		return( (int) (gamegrid_y * scaling_factor) );
+	}
+	
 	/** Return the maximum canvas x dimensions that is mapped to this GameGrid. It is assumed that
 	 * the minimum canvas x dimension is 0 (mapping to GameGrid 0)
 	 *  
@@ -0,0 +1,85 @@
+package org.coffeecats.coffeetime.gamelogic;
+
+import org.coffeecats.coffeetime.gameobjects.GameItem;
+
+/** GameGridIndex is a uniform-grid spatial index over the GameGrid. The GameGrid is divided into square cells and each
+ * cell keeps an array of the GameItems whose sensitivity area overlaps it, so to find out which GameItems a point
+ * (CoffeeGirl's position, or a tap) might be in, only the few GameItems in that point's cell have to be checked rather
+ * than every GameItem in the level.
+ *
+ * The index is built as GameItems are added (i.e. when a level is loaded); GameItems don't move so it never has to be
+ * updated after that. Queries don't allocate and don't write anything (there's no scratch state), so once the index
+ * has been built and safely published (it is part of a World, see World.publish()) any number of threads can query
+ * it at the same time; the SimulationThread and the InputThread share the World's index. Only add() and clear() aren't
+ * thread-safe, and they are only called while the World is being built.
+ *
+ * @author ivany
+ *
+ */
+public class GameGridIndex {
+	//The width and height of each cell, in GameGrid units
+	public static final int CELL_SIZE = 8;
+
+	private static final int CELLS_X = GameGrid.GAMEGRID_WIDTH / CELL_SIZE + 1;
+	private static final int CELLS_Y = GameGrid.GAMEGRID_HEIGHT / CELL_SIZE + 1;
+
+	private static final GameItem [] NO_ITEMS = new GameItem[0];
+
+	//The GameItems overlapping each cell, indexed by (cell_y * CELLS_X + cell_x); arrays are always exactly full
+	private GameItem [][] cells;
+
+	/** Create a new, empty GameGridIndex */
+	public GameGridIndex() {
+		clear();
+	}
+
+	/** Remove all of the GameItems from this index (done between levels) */
+	public void clear() {
+		cells = new GameItem[CELLS_X * CELLS_Y][];
+		for(int i = 0; i < cells.length; i++) cells[i] = NO_ITEMS;
+	}
+
+	/** Add a GameItem to this index; it is put into every cell that its sensitivity area overlaps
+	 * @param item The GameItem to add
+	 */
+	public void add(GameItem item) {
+		int min_cell_x = cellX(item.getSensitivityMinX());
+		int max_cell_x = cellX(item.getSensitivityMaxX());
+		int min_cell_y = cellY(item.getSensitivityMinY());
+		int max_cell_y = cellY(item.getSensitivityMaxY());
+
+		for(int cell_y = min_cell_y; cell_y <= max_cell_y; cell_y++) {
+			for(int cell_x = min_cell_x; cell_x <= max_cell_x; cell_x++) {
+				int cell = cell_y * CELLS_X + cell_x;
+
+				GameItem [] newCell = new GameItem[cells[cell].length + 1];
+				System.arraycopy(cells[cell], 0, newCell, 0, cells[cell].length);
+				newCell[cells[cell].length] = item;
+				cells[cell] = newCell;
+			}
+		}
+	}
+
+	/** Return the GameItems whose sensitivity area MIGHT contain the point (x, y); the caller still has to check
+	 * inSensitivityArea() for each one. The returned array must not be modified.
+	 *
+	 * @param x The GameGrid x co-ordinate
+	 * @param y The GameGrid y co-ordinate
+	 * @return The candidate GameItems (possibly an empty array, never null)
+	 */
+	public GameItem [] candidatesAt(int x, int y) {
+		return(cells[cellY(y) * CELLS_X + cellX(x)]);
+	}
+
+	private static int cellX(int x) {
+		if(x < 0) return(0);
+		if(x >= CELLS_X * CELL_SIZE) return(CELLS_X - 1);
+		return(x / CELL_SIZE);
+	}
+
+	private static int cellY(int y) {
+		if(y < 0) return(0);
+		if(y >= CELLS_Y * CELL_SIZE) return(CELLS_Y - 1);
+		return(y / CELL_SIZE);
+	}
+}
@@ -7,7 +7,6 @@ import org.coffeecats.coffeetime.utility.ServerAnnouncement;
 
 
 import android.content.Context;
-import android.os.SystemClock;
 import android.util.Log;
 
 /**The GameInfo class keeps track of high-level global game data, such as how many points and how
@@ -38,12 +37,17 @@ public class GameInfo {
 	public static final int MAX_GAME_LEVEL=24;
 	private static int level;
 	private static int levelTime;
+	//The seed that the current level's customers (and their orders) are generated from; see GameLevel.loadLevel()
+	private static long level_seed = 0;
 	private static int customersLeftforLevel;
 	private static int customersLeftforCleared;
 	private static int customersLeftforBonus;
 	
 	//This string array represents the various upgrades that the user has bought 
 	private static ArrayList<String> upgradesBought;
+	//Bumped every time upgradesBought changes, so that anything derived from the upgrades (like a prefetched level, 
+	//see LevelPrefetcher) can tell that it is out of date
+	private static int upgrades_generation = 0;
 	
 	//State information regarding what "view state" we are currently in
 	//This defines the states that the GameLogicThread can be in
@@ -60,20 +64,7 @@ public class GameInfo {
 	private static boolean new_server_announcement = false;
 	private static ServerAnnouncement serverAnnouncement;
 	
-	/*game time, only gets incremented  by the TimerThread
-	only gets incremented during active play; if the game is paused for some reason no incrementing
-	will occur
-	
-	A note on GameInfo.currentTimeMillis() vs System.currentTimeMillis() - the former only updates when
-	the game is running (TimerThread sending out ticks) AND the GLT is in the MODE_MAINGAMEPANEL_INPLAY
-	state. The granularity of these upgrades is roughly once every second. Thus, 
-	GameInfo.currentTimeMillis() is appropriate to use when, for example, we are using it to track time
-	between state transitions for items that occur on the scale of several seconds. For doing things 
-	like adjusting rate of motion for the time between frame updates (like for GameActor) is it probably 
-	inappropriate since the GameInfo.game_time_millis variable will update too slow.
-	
-	*/
-	private static long game_time_millis;
+	//Game time (total ACTIVE play time) is kept by GameClock
 	
 	
 	/** Increment money and return the new value. Can be used to simply get the value of money
@@ -98,6 +89,11 @@ public class GameInfo {
 		return points;
 	}
 	
+	/** Set the seed that the current level's customers are generated from */
+	public static synchronized void setLevelSeed(long n_level_seed) { level_seed = n_level_seed; }
+	/** Return the seed that the current level's customers are generated from */
+	public static synchronized long getLevelSeed() { return(level_seed); }
+	
 	/** Set the current level of the game; each level gives a different set of machines and a different 
 	 * array of customers.
 	 * 
@@ -166,13 +162,14 @@ public class GameInfo {
 		setLevel(0);
 		
 		upgradesBought = new ArrayList<String>();
+		upgrades_generation++;
 		
 		money = 0;
 		points = 0;
 		
 		levelReset();
 		
-		game_time_millis = SystemClock.uptimeMillis();
+		GameClock.reset();
 	}
 	
 	
@@ -242,6 +239,7 @@ public class GameInfo {
 		for(String s : upgradesLoaded) {
 			if(s!=null && s.length()>1) upgradesBought.add(s);
 		}
+		upgrades_generation++;
 	}
 	
 	/** Saves game state for this character. Takes the GameInfo data, puts it into myCharacter, and saves
@@ -277,10 +275,16 @@ public class GameInfo {
 	public static synchronized void addUpgrade(GameUpgrade upgrade) {
 		if(upgradesBought == null) upgradesBought = new ArrayList<String>();
 		upgradesBought.add(upgrade.getName());
+		upgrades_generation++;
 		
 		Log.d(activitynametag, "Bought upgrade " + upgrade.getName());
 	}
 	
+	/** Return a number that changes every time the list of bought upgrades does */
+	public static synchronized int getUpgradesGeneration() {
+		return(upgrades_generation);
+	}
+	
 	/** Check if we've already bought the GameUpgrade upgrade
 	 * 
 	 * @param upgrade The upgrade to check if we've bought
@@ -296,6 +300,9 @@ public class GameInfo {
 	 * @return true if in this game we've aquired an upgrade with name upgradeName, else false
 	 */
 	public static synchronized boolean hasUpgrade(String upgradeName) {
+		//No character has been loaded (e.g. when a level is set up outside of the game)
+		if(upgradesBought == null) return(false);
+		
 		for(int count = 0 ; count < upgradesBought.size(); count++) {
 			if(upgradesBought.get(count).equals(upgradeName)) return(true);
 		}
@@ -311,16 +318,6 @@ public class GameInfo {
 	
 	
 	
-	/** Return the current total ACTIVE play time for this game, in milliseconds */
-	public static synchronized long currentTimeMillis() {
-		return setAndGetGameTimeMillis(0); 
-	}
-	
-	/** Increment and return the current total ACTIVE play time for this game, in milliseconds */
-	public static synchronized long setAndGetGameTimeMillis(long increment) {
-		game_time_millis += increment;
-		return(game_time_millis);
-	}
 	
 	
 	/** Query GameInfo to see if there is a new serverAnnoucement. If there is, return it
@@ -1,6 +1,6 @@
 /** This class implements the data that represents game setup for a particular level. 
- * level-global parameters will be set up by the constructor, the Threads will have their data
- * cleared, and new game elements will be added to complete the level setup.
+ * level-global parameters will be set up by the constructor (they are kept in LevelDefinition, which doesn't need
+ * Android), the Threads will have their data cleared, and new game elements will be added to complete the level setup.
  */
 
 package org.coffeecats.coffeetime.gamelogic;
@@ -10,42 +10,22 @@ import java.util.ArrayList;
 import org.coffeecats.coffeetime.GameLogicThread;
 import org.coffeecats.coffeetime.InputThread;
 import org.coffeecats.coffeetime.ViewThread;
+import org.coffeecats.coffeetime.simulation.LevelDefinition;
 
 import android.content.Context;
+import android.util.Log;
 
 
-public class GameLevel {
-	//What level number is this
-	protected int level_number;
-	
-	//How long is the customer queue for this level
-	protected int customerQueue_length;
-	//what is the time limit for the level (in seconds)
-	protected int time_limit_sec;
-	
-	//multipliers for money and points for this level
-	protected float point_mult,money_mult;
-	//bonus money/points for clearing the level within the alotted time
-	protected int point_bonus, money_bonus;
-	//If we don't clear it in time, what is the bonus then?
-	protected float point_bonus_derating, money_bonus_derating;
-	
-	//how impatient are the customers
-	//2.0 will cause their "patience" to tick down twice as fast
-	protected float customer_impatience;
-	//what is the maximum number of items a customer can order
-	//should never be greater than 3
-	protected int customer_max_order_size;
-
-	protected int customer_dissatisfaction_penalty = 10;
-	
-	protected float proportion_customers_until_cleared = 0.7f;
-	protected float proportion_customers_until_bonus = 0.85f;
+public class GameLevel extends LevelDefinition {
+	private static final String activitynametag = "GameLevel";
 	
 	protected ArrayList<ArrayList<Integer>> newMachines = null;
 	protected static boolean have_shown_espresso_machine = false;
 	
-	protected float customer_impatience_modifier_for_2_lines = 1.1f;
+	//The seed that this level's customers are generated from; picked when the level is loaded unless it has been
+	//set (e.g. to replay a particular run of the level)
+	private long level_seed;
+	private boolean level_seed_set = false;
 	
 	/** Set up this level; add all GameItems and such to the Threads, set up the Customers and such
 	 * with the per-level parameters.
@@ -57,47 +37,23 @@ public class GameLevel {
 		vT.reset();
 		gLT.reset();
 		iT.reset();
+		
+		if(!level_seed_set) level_seed = System.nanoTime() ^ (((long) level_number) << 48);
+		GameInfo.setLevelSeed(level_seed);
+		Log.i(activitynametag, "Loading level " + level_number + " with seed " + level_seed);
 	}
 	
-	/** Return the number of clock ticks that should be alloted for completing this level.
-	 * 
-	 * @return The number of clock ticks that should be alloted for completing this level.
+	/** Fix the seed that this level's customers are generated from, so that loading the level replays a particular 
+	 * earlier run of it (the seed is logged whenever a level is loaded)
+	 * @param n_level_seed The seed to use
 	 */
-	public int getLevelTime() {
-		return this.time_limit_sec;
-	}
-	
-	/** Return the bonus point total for this level, given that the level was cleared in time (iff 
-	 * cleared_level_in_time was true)
-	 * @param cleared_level_in_time Was the level cleared in time?
-	 * @return Level end bonus points
-	 */
-	public int getBonusPoints(int customers_served) { 
-		return ((customers_served >= customersUntilBonus()) ? point_bonus : ((int) (point_bonus * point_bonus_derating) )); 
-	}
-	
-	/** Return the bonus money total for this level, given that the level was cleared in time (iff 
-	 * cleared_level_in_time was true)
-	 * @param cleared_level_in_time Was the level cleared in time?
-	 * @return Level end bonus money
-	 */
-	public int getBonusMoney(int customers_served) { 
-		return ((customers_served >= customersUntilBonus()) ? money_bonus : ((int) (money_bonus * money_bonus_derating) )); 
-	}
-	
-	public int getCustomerDissatisfactionPenalty(int customers_unsatisfied) {
-		return (-1 * customers_unsatisfied * customer_dissatisfaction_penalty);
-	}
-	
-	public int customersUntilBonus() {
-		return ((int)(proportion_customers_until_bonus * customerQueue_length));
-	}
-	
-	public int customersUntilCleared() {
-		return ((int)(proportion_customers_until_cleared * customerQueue_length));
+	public void setLevelSeed(long n_level_seed) {
+		level_seed = n_level_seed;
+		level_seed_set = true;
 	}
 	
-	public int numberOfCustomers() { return customerQueue_length; }
+	/** Return the seed that this level's customers were (or will be) generated from */
+	public long getLevelSeed() { return level_seed; }
 	
 	public ArrayList<ArrayList<Integer>> getNewMachines() {
 		return newMachines;
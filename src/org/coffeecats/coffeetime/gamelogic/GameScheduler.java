@@ -0,0 +1,87 @@
+package org.coffeecats.coffeetime.gamelogic;
+
+import org.coffeecats.coffeetime.simulation.DeadlineQueue;
+
+/** GameScheduler is a discrete-event scheduler keyed on game time (GameClock). Anything with a time-based transition -
+ * GameItem states like CoffeeMachine "brewing", Customer moods, CustomerQueue customer spawns - schedules a deadline here
+ * instead of checking the clock on every simulation step, and is only called back (via onTimer()) once that deadline
+ * has passed. An idle machine or a customer waiting at the back of the line therefore costs nothing per step.
+ *
+ * The deadlines are kept in one DeadlineQueue, which describes how they are stored and locked. Deadlines can't be
+ * cancelled; whoever gets called back must check that the deadline is still relevant (e.g. that the GameItem is still
+ * in the state that the deadline was scheduled for).
+ *
+ * runDueTimers() is called by the SimulationThread on each simulation step, on the simulation Looper. A level is built
+ * off the simulation Looper (see GameLogicThread.buildLevel()), and its GameItems and customer queues schedule their
+ * first deadlines while it is being built; so the deadlines are held (holdForNewLevel()) from just before the level is
+ * built until it has been published (resume()), and none of them can call back into a level that isn't complete yet.
+ *
+ * @author ivany
+ *
+ */
+public class GameScheduler {
+	/** Implemented by anything that schedules deadlines on the GameScheduler */
+	public interface Timed extends DeadlineQueue.Timed {
+		/** Called (on the simulation Looper) once a deadline scheduled by this object has passed.
+		 * @param now_ms The current game time, in ms (see GameClock)
+		 */
+		public void onTimer(long now_ms);
+	}
+
+	//Used as a deadline when nothing has been scheduled
+	public static final long NO_DEADLINE = DeadlineQueue.NO_DEADLINE;
+
+	private static final DeadlineQueue queue = new DeadlineQueue();
+	//While true, runDueTimers() doesn't call anything back (a new level is being built, see holdForNewLevel())
+	private static volatile boolean held = false;
+
+	/** Schedule timer.onTimer() to be called once the game time reaches deadline_ms
+	 *
+	 * @param timer The object to call back
+	 * @param deadline_ms The game time (GameClock.currentTimeMillis()) to call back at
+	 */
+	public static void schedule(Timed timer, long deadline_ms) {
+		queue.schedule(timer, deadline_ms);
+	}
+
+	/** Call back everything whose deadline is at or before now_ms, earliest deadline first. Called by the
+	 * SimulationThread once per simulation step, after the GameClock has been advanced.
+	 * @param now_ms The current game time, in ms
+	 */
+	public static void runDueTimers(long now_ms) {
+		if(held) return;
+		queue.runDueTimers(now_ms);
+	}
+
+	/** Remove every deadline; called when a new level is loaded, since the deadlines refer to the old level's
+	 * GameItems and Customers */
+	public static void clear() {
+		queue.clear();
+	}
+
+	/** Remove every deadline (they belong to the previous level) and hold the ones that are scheduled from now on
+	 * until resume() is called; called on the simulation Looper just before a new level is built. The game time
+	 * doesn't pass between levels, so the held deadlines are just as due when the level is published as when they
+	 * were scheduled. */
+	public static void holdForNewLevel() {
+		queue.clear();
+		held = true;
+	}
+
+	/** Start running deadlines again; called on the simulation Looper once the new level has been published */
+	public static void resume() {
+		held = false;
+	}
+
+	/** Return the DeadlineQueue behind the GameScheduler, for the game rules shared with the headless simulation
+	 * (ItemStateMachine, CustomerOrder, CustomerLine), which schedule their deadlines on a DeadlineQueue. They are
+	 * held and run just like the ones scheduled through schedule(). */
+	public static DeadlineQueue getDeadlineQueue() {
+		return(queue);
+	}
+
+	/** Return how many deadlines are currently scheduled */
+	public static int getScheduledCount() {
+		return(queue.getScheduledCount());
+	}
+}
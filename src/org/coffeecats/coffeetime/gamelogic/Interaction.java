@@ -22,4 +22,13 @@ public class Interaction {
 	public Interaction(int prev_state) {
 		this.previous_state = prev_state;
 	}
+	
+	/** Reset this Interaction to an unsuccessful interaction with no state change, so that the same Interaction 
+	 * can be re-used for every interaction instead of allocating a new one. */
+	public void reset() {
+		this.point_result = 0;
+		this.money_result = 0;
+		this.was_success = false;
+		this.previous_state = -1;
+	}
 }
@@ -0,0 +1,136 @@
+package org.coffeecats.coffeetime.gamelogic;
+
+import org.coffeecats.coffeetime.simulation.ShopRules;
+
+/** InteractionTable describes the CoffeeGirl state machine, i.e. what CoffeeGirl ends up holding after she
+ * interacts with a GameItem. The rules are compiled once into flat lookup tables indexed by
+ * (item kind, state the item was in, item CoffeeGirl held) so that resolving an interaction is a couple of
+ * array reads, rather than a chain of String comparisons on the item's name.
+ *
+ * The "held item" index is CoffeeGirl's state (ShopRules.HELD_NOTHING for "nothing", ShopRules.HELD_COFFEE for
+ * "coffee", and so on) since each GameFoodItem is associated with exactly one CoffeeGirl state (see
+ * GameLogicThread.addNewFoodItem()). The rules only refer to ShopRules, not to the game objects, so the headless
+ * LevelSimulation can use them without any of the Android classes.
+ *
+ * @author ivany
+ *
+ */
+public class InteractionTable {
+	//Kinds of GameItems, set by each GameItem subclass (UPDATE FOR NEW GAMEITEM)
+	public static final int KIND_NONE = 0;
+	public static final int KIND_COFFEEMACHINE = 1;
+	public static final int KIND_MICROWAVE = 2;
+	public static final int KIND_ESPRESSOMACHINE = 3;
+	public static final int KIND_CUPCAKETRAY = 4;
+	public static final int KIND_PIETRAY = 5;
+	public static final int KIND_BLENDER = 6;
+	public static final int KIND_TRASHCAN = 7;
+	public static final int KIND_CUSTOMERQUEUE = 8;
+	public static final int KIND_COUNTERTOP = 9;
+	public static final int KIND_COUNT = 10;
+
+	//Upper bounds on the GameItem states and held items that the tables cover
+	public static final int MAX_ITEM_STATES = 8;
+	public static final int HELD_ITEM_COUNT = ShopRules.HELD_ITEM_COUNT;
+
+	//Returned by nextHeldItem() when CoffeeGirl keeps holding what she holds
+	public static final int NO_CHANGE = -1;
+
+	//Side effects of an interaction, returned by effect()
+	public static final int EFFECT_NONE = 0;
+	//The held item gets thrown away; money and points are awarded according to the GameFoodItem
+	public static final int EFFECT_DISPOSE = 1;
+	//The held item is served to a customer; money and points are awarded according to the Interaction. Only applies
+	//if the Interaction was successful.
+	public static final int EFFECT_SERVE = 2;
+
+	//Used when adding rules, to match any item state
+	private static final int ANY_STATE = -1;
+
+	private static final int [] nextHeldItemTable = new int[KIND_COUNT * MAX_ITEM_STATES * HELD_ITEM_COUNT];
+	private static final int [] effectTable = new int[KIND_COUNT * MAX_ITEM_STATES * HELD_ITEM_COUNT];
+
+	static {
+		java.util.Arrays.fill(nextHeldItemTable, NO_CHANGE);
+
+		//CoffeeGirl's hands are empty, she interacts with a machine that is done -> she is now carrying its product
+		addRule(KIND_COFFEEMACHINE, ShopRules.MACHINE_DONE, ShopRules.HELD_NOTHING, ShopRules.HELD_COFFEE, EFFECT_NONE);
+		addRule(KIND_MICROWAVE, ShopRules.MACHINE_DONE, ShopRules.HELD_NOTHING, ShopRules.HELD_SANDWICH, EFFECT_NONE);
+		addRule(KIND_ESPRESSOMACHINE, ShopRules.MACHINE_DONE, ShopRules.HELD_NOTHING, ShopRules.HELD_ESPRESSO, EFFECT_NONE);
+		addRule(KIND_BLENDER, ShopRules.MACHINE_DONE, ShopRules.HELD_NOTHING, ShopRules.HELD_BLENDEDDRINK, EFFECT_NONE);
+
+		//CoffeeGirl's hands are empty, she interacts with a tray -> she is now carrying whatever is on the tray
+		addRule(KIND_CUPCAKETRAY, ANY_STATE, ShopRules.HELD_NOTHING, ShopRules.HELD_CUPCAKE, EFFECT_NONE);
+		addRule(KIND_PIETRAY, ANY_STATE, ShopRules.HELD_NOTHING, ShopRules.HELD_PIESLICE, EFFECT_NONE);
+
+		//CoffeeGirl has a coffee, she interacts with blender -> she now has nothing
+		addRule(KIND_BLENDER, ANY_STATE, ShopRules.HELD_COFFEE, ShopRules.HELD_NOTHING, EFFECT_NONE);
+
+		for(int held = 0; held < HELD_ITEM_COUNT; held++) {
+			if(held == ShopRules.HELD_NOTHING) continue;
+
+			//CoffeeGirl's hands are NOT empty, she interacts with trashcan -> hands now empty, increment money and/or points
+			addRule(KIND_TRASHCAN, ANY_STATE, held, ShopRules.HELD_NOTHING, EFFECT_DISPOSE);
+			//CoffeeGirl interacts with CustomerQueue - if the interaction is successful then CoffeeGirl loses the
+			//item that she currently holds and gains some points in return
+			addRule(KIND_CUSTOMERQUEUE, ANY_STATE, held, ShopRules.HELD_NOTHING, EFFECT_SERVE);
+			//If we hold "something" and the counter top has nothing, counter top now holds that "something"
+			addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_IDLE, held, ShopRules.HELD_NOTHING, EFFECT_NONE);
+		}
+
+		//If we hold nothing but the counter top has "something", we now hold that "something"
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_COFFEE, ShopRules.HELD_NOTHING, ShopRules.HELD_COFFEE, EFFECT_NONE);
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_CUPCAKE, ShopRules.HELD_NOTHING, ShopRules.HELD_CUPCAKE, EFFECT_NONE);
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_BLENDEDDRINK, ShopRules.HELD_NOTHING, ShopRules.HELD_BLENDEDDRINK, EFFECT_NONE);
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_PIE, ShopRules.HELD_NOTHING, ShopRules.HELD_PIESLICE, EFFECT_NONE);
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_SANDWICH, ShopRules.HELD_NOTHING, ShopRules.HELD_SANDWICH, EFFECT_NONE);
+		addRule(KIND_COUNTERTOP, ShopRules.COUNTERTOP_HOLDING_ESPRESSO, ShopRules.HELD_NOTHING, ShopRules.HELD_ESPRESSO, EFFECT_NONE);
+	}
+
+	/** Add a rule to the tables. Only called from the static initializer.
+	 *
+	 * @param kind The kind of GameItem this rule applies to
+	 * @param item_state The state the GameItem was in (ANY_STATE to match all states)
+	 * @param held_item What CoffeeGirl was holding (her state)
+	 * @param next_held_item What CoffeeGirl holds after the interaction
+	 * @param effect Any side effects of the interaction (EFFECT_*)
+	 */
+	private static void addRule(int kind, int item_state, int held_item, int next_held_item, int effect) {
+		int first_state = (item_state == ANY_STATE) ? 0 : item_state;
+		int last_state = (item_state == ANY_STATE) ? MAX_ITEM_STATES-1 : item_state;
+
+		for(int state = first_state; state <= last_state; state++) {
+			nextHeldItemTable[index(kind, state, held_item)] = next_held_item;
+			effectTable[index(kind, state, held_item)] = effect;
+		}
+	}
+
+	private static int index(int kind, int item_state, int held_item) {
+		return( ((kind * MAX_ITEM_STATES) + item_state) * HELD_ITEM_COUNT + held_item );
+	}
+
+	private static boolean inRange(int kind, int item_state, int held_item) {
+		return( kind >= 0 && kind < KIND_COUNT &&
+				item_state >= 0 && item_state < MAX_ITEM_STATES &&
+				held_item >= 0 && held_item < HELD_ITEM_COUNT );
+	}
+
+	/** Look up what CoffeeGirl will hold after interacting with a GameItem
+	 *
+	 * @param kind The kind (KIND_*) of the GameItem interacted with
+	 * @param item_state The state the GameItem was in when the interaction occured (Interaction.previous_state)
+	 * @param held_item The item CoffeeGirl held, as a CoffeeGirl state
+	 * @return The item CoffeeGirl holds after the interaction (as a CoffeeGirl state), or NO_CHANGE
+	 */
+	public static int nextHeldItem(int kind, int item_state, int held_item) {
+		if(!inRange(kind, item_state, held_item)) return(NO_CHANGE);
+		return(nextHeldItemTable[index(kind, item_state, held_item)]);
+	}
+
+	/** Look up the side effect (EFFECT_*) of CoffeeGirl interacting with a GameItem; arguments are the same
+	 * as for nextHeldItem() */
+	public static int effect(int kind, int item_state, int held_item) {
+		if(!inRange(kind, item_state, held_item)) return(EFFECT_NONE);
+		return(effectTable[index(kind, item_state, held_item)]);
+	}
+}
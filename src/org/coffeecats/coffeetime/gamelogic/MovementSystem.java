@@ -0,0 +1,233 @@
+package org.coffeecats.coffeetime.gamelogic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.coffeecats.coffeetime.SimulationThread;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+
+import android.util.Log;
+
+/** MovementSystem moves every GameActor (CoffeeGirl and the Customers). The position, the target and the speed of
+ * all of the actors are kept side by side in plain arrays, one slot per actor, and step() moves all of them in a
+ * single loop once per simulation step; a GameActor only holds its slot number and reads its position out of here.
+ *
+ * Positions are kept in fixed point (FRACTION_BITS bits of fraction) on the GameGrid, so a step is integer math
+ * apart from one square root for each actor that is actually walking somewhere, and the result doesn't depend on
+ * floating point rounding. Targets are whole GameGrid positions, packed x/y into one long (see packTarget()) in an
+ * AtomicLongArray, so that they can be set from any thread (CoffeeGirl's is set by the InputThread) without a lock.
+ *
+ * There are MAX_ACTORS slots. A slot is taken when a GameActor is created (on whichever Looper builds it) and given
+ * back once the World that the GameActor belongs to is torn down (see World.releaseRetired()). The actors are moved
+ * on the simulation Looper (by the SimulationThread), and everything that writes a slot shares one lock with step().
+ *
+ * The render Looper never reads the positions that step() is writing: before drawing a frame the ViewThread takes a
+ * copy of every position as of the last step (snapshot()), under the same lock, and draws the frame from that copy.
+ *
+ * @author ivany
+ *
+ */
+public class MovementSystem {
+	private static final String activitynametag = "MovementSystem";
+
+	//How many actors there can be at once; the current level and the one being loaded, with all of their customers
+	public static final int MAX_ACTORS = 1024;
+
+	//Positions are in fixed point with this many bits of fraction
+	public static final int FRACTION_BITS = 16;
+	private static final int ONE = 1 << FRACTION_BITS;
+	private static final int HALF = ONE >> 1;
+
+	//Move rates are in GameGrid units per UNIT_INTERVAL_MS
+	public static final double UNIT_INTERVAL_MS = ShopRules.MOVE_RATE_INTERVAL_MS;
+
+	//The current position, the position as of the previous step (to interpolate the drawn position between the
+	//two), and how far the actor may move in one step; all in fixed point
+	private static final int [] pos_x = new int[MAX_ACTORS];
+	private static final int [] pos_y = new int[MAX_ACTORS];
+	private static final int [] prev_x = new int[MAX_ACTORS];
+	private static final int [] prev_y = new int[MAX_ACTORS];
+	private static final int [] step_length = new int[MAX_ACTORS];
+	//The target of each actor, packed
+	private static final AtomicLongArray targets = new AtomicLongArray(MAX_ACTORS);
+	//Whether each slot is moved by step(): it belongs to a GameActor that is visible
+	private static final boolean [] active = new boolean[MAX_ACTORS];
+	//The real time (System.nanoTime()) that the last step brought the game up to
+	private static long last_step_time_ns = 0L;
+
+	//The copy of the positions that the render Looper draws the current frame from (see snapshot()); only used on
+	//the render Looper
+	private static final int [] drawn_x = new int[MAX_ACTORS];
+	private static final int [] drawn_y = new int[MAX_ACTORS];
+	private static final int [] drawn_prev_x = new int[MAX_ACTORS];
+	private static final int [] drawn_prev_y = new int[MAX_ACTORS];
+
+	//Slots [0, slot_end) have been handed out at some point; the ones that have been given back since are on the
+	//free list
+	private static int slot_end = 0;
+	private static final int [] freeSlots = new int[MAX_ACTORS];
+	private static int free_count = 0;
+
+	/** Take a slot for a new actor, standing at (x, y) with nowhere to go
+	 * @param x The GameGrid x position
+	 * @param y The GameGrid y position
+	 * @param move_rate How fast the actor walks, in GameGrid units per UNIT_INTERVAL_MS
+	 * @return The slot; if every slot is taken, the last one is shared (and the actors in it stand still)
+	 */
+	public static synchronized int allocate(int x, int y, int move_rate) {
+		int slot;
+		if(free_count > 0) slot = freeSlots[--free_count];
+		else if(slot_end < MAX_ACTORS - 1) slot = slot_end++;
+		else {
+			Log.w(activitynametag, "All " + MAX_ACTORS + " actor slots are taken; the new actor won't move");
+			slot = MAX_ACTORS - 1;
+			active[slot] = false;
+			return(slot);
+		}
+
+		place(slot, x, y);
+		setMoveRate(slot, move_rate);
+		active[slot] = true;
+		return(slot);
+	}
+
+	/** Give a slot back, once the actor that had it is gone for good */
+	public static synchronized void release(int slot) {
+		if(slot >= MAX_ACTORS - 1) return;
+		active[slot] = false;
+		freeSlots[free_count++] = slot;
+	}
+
+	/** Move every active actor one simulation step towards its target. Called by the SimulationThread once per
+	 * simulation step, before the ViewObjects are updated.
+	 * @param step_time_ns The real time (System.nanoTime()) that this step brings the game up to
+	 */
+	public static synchronized void step(long step_time_ns) {
+		last_step_time_ns = step_time_ns;
+		for(int i = 0; i < slot_end; i++) {
+			if(!active[i]) continue;
+
+			int x = pos_x[i];
+			int y = pos_y[i];
+			prev_x[i] = x;
+			prev_y[i] = y;
+
+			long target = targets.get(i);
+			int target_x = unpackX(target);
+			int target_y = unpackY(target);
+
+			//Already standing on the target (to the nearest whole position)
+			if(target_x == round(x) && target_y == round(y)) continue;
+
+			int dx = (target_x << FRACTION_BITS) - x;
+			int dy = (target_y << FRACTION_BITS) - y;
+			long distance_sq = ((long) dx)*dx + ((long) dy)*dy;
+			long step = step_length[i];
+
+			//Close enough to get there in this step
+			if(distance_sq <= step*step) {
+				pos_x[i] = target_x << FRACTION_BITS;
+				pos_y[i] = target_y << FRACTION_BITS;
+				continue;
+			}
+
+			long distance = (long) Math.sqrt((double) distance_sq);
+			pos_x[i] = x + (int) ((dx * step) / distance);
+			pos_y[i] = y + (int) ((dy * step) / distance);
+		}
+	}
+
+	/** Copy every actor's position, as of the last step, for the render Looper to draw a frame from; the
+	 * getInterpolatedX()/getInterpolatedY() and getDrawnX()/getDrawnY() methods read the copy. Called by the ViewThread
+	 * before each frame is drawn.
+	 * @param frame_time_ns The real time (System.nanoTime()) of the frame
+	 * @return How far (0.0 - 1.0) the frame is between the previous and the last step
+	 */
+	public static synchronized float snapshot(long frame_time_ns) {
+		System.arraycopy(pos_x, 0, drawn_x, 0, slot_end);
+		System.arraycopy(pos_y, 0, drawn_y, 0, slot_end);
+		System.arraycopy(prev_x, 0, drawn_prev_x, 0, slot_end);
+		System.arraycopy(prev_y, 0, drawn_prev_y, 0, slot_end);
+
+		//The frame is drawn as far between the previous and the last step as it is past the last step
+		float alpha = ((float) (frame_time_ns - last_step_time_ns)) / ((float) SimulationThread.SIMULATION_STEP_NS);
+		return(Math.max(0.0f, Math.min(1.0f, alpha)));
+	}
+
+	/** Put the actor in slot at (x, y) right away, with nowhere to go and nothing to interpolate */
+	public static synchronized void place(int slot, int x, int y) {
+		pos_x[slot] = prev_x[slot] = x << FRACTION_BITS;
+		pos_y[slot] = prev_y[slot] = y << FRACTION_BITS;
+		targets.set(slot, packTarget(x, y));
+	}
+
+	/** Set how fast the actor in slot walks, in GameGrid units per UNIT_INTERVAL_MS */
+	public static synchronized void setMoveRate(int slot, int move_rate) {
+		step_length[slot] = (int) Math.round((SimulationThread.SIMULATION_STEP_MS / UNIT_INTERVAL_MS) * move_rate * ONE);
+	}
+
+	/** Set whether the actor in slot is moved by step() (hidden actors aren't) */
+	public static synchronized void setActive(int slot, boolean n_active) {
+		active[slot] = n_active;
+	}
+
+	/** Set the position that the actor in slot walks towards; may be called from any thread */
+	public static void setTarget(int slot, int target_x, int target_y) {
+		targets.set(slot, packTarget(target_x, target_y));
+	}
+
+	/** Return the target of the actor in slot, packed; unpack it with unpackX() and unpackY() */
+	public static long getTarget(int slot) {
+		return(targets.get(slot));
+	}
+
+	/** Return the GameGrid x position of the actor in slot, to the nearest whole position; simulation Looper only */
+	public static int getX(int slot) {
+		return(round(pos_x[slot]));
+	}
+
+	/** Return the GameGrid y position of the actor in slot, to the nearest whole position; simulation Looper only */
+	public static int getY(int slot) {
+		return(round(pos_y[slot]));
+	}
+
+	/** Return the GameGrid x position of the actor in slot as of the last snapshot(), to the nearest whole position;
+	 * render Looper only */
+	public static int getDrawnX(int slot) {
+		return(round(drawn_x[slot]));
+	}
+
+	/** Return the GameGrid y position of the actor in slot as of the last snapshot(), to the nearest whole position;
+	 * render Looper only */
+	public static int getDrawnY(int slot) {
+		return(round(drawn_y[slot]));
+	}
+
+	/** Return the GameGrid x position of the actor in slot, alpha (0.0 - 1.0) of the way from the previous step to
+	 * the last one, as of the last snapshot(); render Looper only */
+	public static float getInterpolatedX(int slot, float alpha) {
+		return((drawn_prev_x[slot] + (drawn_x[slot] - drawn_prev_x[slot]) * alpha) / ONE);
+	}
+
+	/** Return the GameGrid y position of the actor in slot, alpha (0.0 - 1.0) of the way from the previous step to
+	 * the last one, as of the last snapshot(); render Looper only */
+	public static float getInterpolatedY(int slot, float alpha) {
+		return((drawn_prev_y[slot] + (drawn_y[slot] - drawn_prev_y[slot]) * alpha) / ONE);
+	}
+
+	public static int unpackX(long target) {
+		return((int) (target >> 32));
+	}
+
+	public static int unpackY(long target) {
+		return((int) target);
+	}
+
+	private static long packTarget(int target_x, int target_y) {
+		return((((long) target_x) << 32) | (target_y & 0xFFFFFFFFL));
+	}
+
+	//Round a fixed point position to the nearest whole position (halves round up, like Math.round())
+	private static int round(int fixed) {
+		return((fixed + HALF) >> FRACTION_BITS);
+	}
+}
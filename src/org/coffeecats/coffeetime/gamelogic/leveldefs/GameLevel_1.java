@@ -11,6 +11,7 @@ import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.GameLevel;
 import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueueLayout;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemBlendedDrink;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemCoffee;
@@ -189,7 +190,7 @@ public class GameLevel_1 extends GameLevel {
 		CustomerQueue custQueue2 = null;
 		if(TESTING_MODE) {
 			custQueue2 = new CustomerQueue(caller, 
-				CustomerQueue.X_POS + CustomerQueue.DISTANCE_TO_QUEUE_TWO, 
+				CustomerQueueLayout.queueX(1, 2), 
 				CustomerQueue.Y_POS_FROM_GG_TOP, 
 				GameItem.ORIENTATION_NORTH, 
 				customerQueue_length, point_mult, money_mult, 
@@ -11,6 +11,7 @@ import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.GameLevel;
 import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueueLayout;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemBlendedDrink;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemCoffee;
@@ -37,6 +38,7 @@ public class GameLevel_5 extends GameLevel {
 	public GameLevel_5() {
 		this.level_number = 5;
 		this.customerQueue_length = 36;
+		this.customer_queue_count = 2;
 		this.point_mult = 1.5f;
 		this.money_mult = 1.5f;
 		this.customer_impatience = 0.65f * customer_impatience_modifier_for_2_lines;
@@ -159,28 +161,16 @@ public class GameLevel_5 extends GameLevel {
 		gameLogicThread.addNewFoodItem(new FoodItemPieSlice(caller), CoffeeGirl.STATE_CARRYING_PIESLICE);
 		gameLogicThread.addNewFoodItem(new FoodItemSandwich(caller), CoffeeGirl.STATE_CARRYING_SANDWICH);
 		
-		CustomerQueue custQueue = new CustomerQueue(caller, CustomerQueue.X_POS, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH,  
-				customerQueue_length/2, point_mult, money_mult, 
+		//Two lines, each with its own half of the customers
+		CustomerQueueLayout queueLayout = new CustomerQueueLayout(caller, customer_queue_count, customer_queue_policy, 
+				customerQueue_length, point_mult, money_mult, 
 				customer_impatience, customer_max_order_size, 
 				gameLogicThread.getFoodItems());
+		for(CustomerQueue custQueue : queueLayout.getQueues()) {
+			viewThread.addGameItem(custQueue);
+			inputThread.addViewObject(custQueue);
+		}
 		
-		CustomerQueue custQueue2 = new CustomerQueue(caller, 
-				CustomerQueue.X_POS + CustomerQueue.DISTANCE_TO_QUEUE_TWO, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH, 
-				customerQueue_length/2, point_mult, money_mult, 
-				customer_impatience, customer_max_order_size, 
-				gameLogicThread.getFoodItems(), 2);
-			viewThread.addGameItem(custQueue2);
-			inputThread.addViewObject(custQueue2);
-		
-		viewThread.addGameItem(custQueue2);
-		inputThread.addViewObject(custQueue2);
-		viewThread.addGameItem(custQueue);
-		inputThread.addViewObject(custQueue);
-		
-		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(custQueue, custQueue2));
+		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(queueLayout.getQueues()));
 	}
 }
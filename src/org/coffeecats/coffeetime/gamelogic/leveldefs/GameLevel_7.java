@@ -11,6 +11,7 @@ import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.GameLevel;
 import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueueLayout;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemBlendedDrink;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemCoffee;
@@ -39,6 +40,7 @@ public class GameLevel_7 extends GameLevel {
 	public GameLevel_7() {
 		this.level_number = 7;
 		this.customerQueue_length = 45;
+		this.customer_queue_count = 2;
 		this.point_mult = 1.6f;
 		this.money_mult = 1.6f;
 		this.customer_impatience = 0.75f * customer_impatience_modifier_for_2_lines;
@@ -176,28 +178,16 @@ public class GameLevel_7 extends GameLevel {
 		if(GameInfo.hasUpgrade("espressomachine"))
 			gameLogicThread.addNewFoodItem(new FoodItemEspresso(caller), CoffeeGirl.STATE_CARRYING_ESPRESSO);
 		
-		CustomerQueue custQueue = new CustomerQueue(caller, CustomerQueue.X_POS, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH,  
-				customerQueue_length/2, point_mult, money_mult, 
+		//Two lines, each with its own half of the customers
+		CustomerQueueLayout queueLayout = new CustomerQueueLayout(caller, customer_queue_count, customer_queue_policy, 
+				customerQueue_length, point_mult, money_mult, 
 				customer_impatience, customer_max_order_size, 
 				gameLogicThread.getFoodItems());
+		for(CustomerQueue custQueue : queueLayout.getQueues()) {
+			viewThread.addGameItem(custQueue);
+			inputThread.addViewObject(custQueue);
+		}
 		
-		CustomerQueue custQueue2 = new CustomerQueue(caller, 
-				CustomerQueue.X_POS + CustomerQueue.DISTANCE_TO_QUEUE_TWO, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH, 
-				customerQueue_length/2, point_mult, money_mult, 
-				customer_impatience, customer_max_order_size, 
-				gameLogicThread.getFoodItems(), 2);
-			viewThread.addGameItem(custQueue2);
-			inputThread.addViewObject(custQueue2);
-		
-		
-		viewThread.addGameItem(custQueue2);
-		inputThread.addViewObject(custQueue2);
-		viewThread.addGameItem(custQueue);
-		inputThread.addViewObject(custQueue);
-		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(custQueue, custQueue2));
+		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(queueLayout.getQueues()));
 	}
 }
@@ -11,6 +11,7 @@ import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.GameLevel;
 import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.CustomerQueue;
+import org.coffeecats.coffeetime.gameobjects.CustomerQueueLayout;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemBlendedDrink;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemCoffee;
@@ -37,18 +38,8 @@ import org.coffeecats.coffeetime.R;
 
 public class GameLevel_n extends GameLevel {
 	public GameLevel_n(int n) {
-		this.level_number = n;
-		this.customerQueue_length = 40 + 5*n;
-		this.point_mult = 1.6f + 0.2f*n;
-		this.money_mult = 1.6f + 0.1f*n;
-		this.customer_impatience = (.3f + 0.05f*n) * customer_impatience_modifier_for_2_lines;
-		this.time_limit_sec = 3 * 60 + (4*5*n) ;
-		this.customer_max_order_size = 3;
-		
-		this.point_bonus = 125+ 15*n;
-		this.money_bonus = 100 + 10*n;
-		this.point_bonus_derating = 0.3f - 0.05f*n;
-		this.money_bonus_derating = 0.3f - 0.05f*n;
+		//The parameters are a formula of n; see LevelDefinition
+		defineEndless(n);
 		
 		if(GameInfo.hasUpgrade("espressomachine") && !have_shown_espresso_machine) {
 			newMachines = new ArrayList<ArrayList<Integer>>();
@@ -176,28 +167,19 @@ public class GameLevel_n extends GameLevel {
 		if(GameInfo.hasUpgrade("espressomachine"))
 			gameLogicThread.addNewFoodItem(new FoodItemEspresso(caller), CoffeeGirl.STATE_CARRYING_ESPRESSO);
 		
-		CustomerQueue custQueue = new CustomerQueue(caller, CustomerQueue.X_POS, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH,  
-				customerQueue_length/2, point_mult, money_mult, 
+		//Two lines, fed by one stream of customers who join the shorter line (QUEUE_POLICY_SHORTEST_QUEUE, see
+		//LevelDefinition.defineEndless()). Endless levels used to give each line its own half of the customers, so a
+		//line that was served quickly ran dry while the other one backed up; now the quicker line gets more customers,
+		//and odd customer counts no longer drop a customer
+		CustomerQueueLayout queueLayout = new CustomerQueueLayout(caller, customer_queue_count, customer_queue_policy, 
+				customerQueue_length, point_mult, money_mult, 
 				customer_impatience, customer_max_order_size, 
 				gameLogicThread.getFoodItems());
+		for(CustomerQueue custQueue : queueLayout.getQueues()) {
+			viewThread.addGameItem(custQueue);
+			inputThread.addViewObject(custQueue);
+		}
 		
-		CustomerQueue custQueue2 = new CustomerQueue(caller, 
-				CustomerQueue.X_POS + CustomerQueue.DISTANCE_TO_QUEUE_TWO, 
-				CustomerQueue.Y_POS_FROM_GG_TOP, 
-				GameItem.ORIENTATION_NORTH, 
-				customerQueue_length/2, point_mult, money_mult, 
-				customer_impatience, customer_max_order_size, 
-				gameLogicThread.getFoodItems(), 2);
-			viewThread.addGameItem(custQueue2);
-			inputThread.addViewObject(custQueue2);
-		
-		viewThread.addGameItem(custQueue2);
-		inputThread.addViewObject(custQueue2);
-		viewThread.addGameItem(custQueue);
-		inputThread.addViewObject(custQueue);
-		
-		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(custQueue, custQueue2));
+		gameLogicThread.setCustomerQueue(new CustomerQueueWrapper(queueLayout.getQueues()));
 	}
 }
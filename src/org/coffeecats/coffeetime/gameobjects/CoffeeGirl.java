@@ -7,8 +7,10 @@ import org.coffeecats.coffeetime.gamelogic.GameInfo;
 import org.coffeecats.coffeetime.gamelogic.State;
 import org.coffeecats.coffeetime.gameobjects.upgradedefs.FastShoesUpgrade;
 import org.coffeecats.coffeetime.gameobjects.upgradedefs.FasterShoesUpgrade;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
+import org.coffeecats.coffeetime.utility.Sprite;
 import org.coffeecats.coffeetime.utility.Utility;
 
 import org.coffeecats.coffeetime.R;
@@ -29,17 +31,17 @@ import android.util.Log;
 public class CoffeeGirl extends GameActor {
 	private static final String activitynametag = "CoffeeGirl";
 	
-	/*The default moverate, in terms of the GameGrid vector length that may be traversed during each 100ms */  
-	private static int DEFAULT_COFFEEGIRL_MOVERATE = 8;
+	/*The default moverate, in terms of the GameGrid vector length that may be traversed during each 200ms */  
+	private static final int DEFAULT_COFFEEGIRL_MOVERATE = ShopRules.COFFEEGIRL_MOVE_RATE;
 	
-	//Defines for states that CoffeeGirl can be in
-	public static final int STATE_NORMAL = 0;
-	public static final int STATE_CARRYING_COFFEE = 1;
-	public static final int STATE_CARRYING_CUPCAKE = 2;
-	public static final int STATE_CARRYING_BLENDEDDRINK = 3;
-	public static final int STATE_CARRYING_PIESLICE = 4;
-	public static final int STATE_CARRYING_SANDWICH = 5;
-	public static final int STATE_CARRYING_ESPRESSO = 6;
+	//Defines for states that CoffeeGirl can be in; each is what she holds (see ShopRules)
+	public static final int STATE_NORMAL = ShopRules.HELD_NOTHING;
+	public static final int STATE_CARRYING_COFFEE = ShopRules.HELD_COFFEE;
+	public static final int STATE_CARRYING_CUPCAKE = ShopRules.HELD_CUPCAKE;
+	public static final int STATE_CARRYING_BLENDEDDRINK = ShopRules.HELD_BLENDEDDRINK;
+	public static final int STATE_CARRYING_PIESLICE = ShopRules.HELD_PIESLICE;
+	public static final int STATE_CARRYING_SANDWICH = ShopRules.HELD_SANDWICH;
+	public static final int STATE_CARRYING_ESPRESSO = ShopRules.HELD_ESPRESSO;
 	
 	/** Default constructor for a coffeegirl object.
 	 * 
@@ -52,13 +54,13 @@ public class CoffeeGirl extends GameActor {
 		//Check if we have the "fast shoes" upgrade and change moverate if necessary
 		if(GameInfo.hasUpgrade(FastShoesUpgrade.UPGRADE_NAME)) {
 			Log.d(activitynametag, "CoffeeGirl detected that " + FastShoesUpgrade.UPGRADE_NAME + " has been bought.");
-			this.move_rate = (int) (((double) this.move_rate) * 1.11);
+			setMoveRate((int) (((double) this.move_rate) * ShopRules.FAST_SHOES_FACTOR));
 		} else {
 			Log.d(activitynametag, "CoffeeGirl did not detect that " + FastShoesUpgrade.UPGRADE_NAME + " has been bought.");
 		}
 		
 		if(GameInfo.hasUpgrade(FasterShoesUpgrade.UPGRADE_NAME)) {
-			this.move_rate = (int) (((double) this.move_rate) * 1.21);
+			setMoveRate((int) (((double) this.move_rate) * ShopRules.FASTER_SHOES_FACTOR));
 		}
 		
 		//Add a state for each thing that CoffeeGirl may carry
@@ -92,59 +94,57 @@ public class CoffeeGirl extends GameActor {
 		new_x_gg = GameGrid.constrainX(new_x_gg);
 		new_y_gg = GameGrid.constrainY(new_y_gg);
 		
-		setLocked();
-		target_x = new_x_gg;
-		target_y = new_y_gg;
-		unLock();
+		setTarget(new_x_gg, new_y_gg);
 	}
 	
+	/** The "hands" depend on whether the CoffeeGirl is holding any GameFoodItems or not; they are drawn together with
+	 * the rest of the sprite (see GameActor.draw())
+	 */
+	@Override
+	protected Bitmap getHandsBitmap(int vector_x, int vector_y) {
+		if(gameActorSprite == null) return(null);
+		return(gameActorSprite.getHandsBitmap(vector_x, vector_y, itemHolding.equals("nothing")?0:1));
+	}
+	
+	//Where the held item was drawn; only used by draw(), on the render Looper
+	private final Rect heldItemRect = new Rect();
+	
 	public void draw(Canvas canvas) {
 		super.draw(canvas);
 		
 		if(isVisible()) {
 			if(USING_NEW_SPRITES && gameActorSprite != null) {
-				int vector_x = target_x - x;
-				int vector_y = target_y - y;
-				
-				//Draw the appropriate "hands" onto the game sprite; these depend on whether the CoffeeGirl is holding
-				//any GameFoodItems or not
-				Bitmap handsBitmap = gameActorSprite.getHandsBitmap(vector_x, vector_y, itemHolding.equals("nothing")?0:1);
-				this.draw(canvas, handsBitmap);
+				long target = getTarget();
+				int vector_x = targetX(target) - getDrawnPositionX();
+				int vector_y = targetY(target) - getDrawnPositionY();
 				
 				//Figure out the direction heading and draw the currently-held item as appropriate into the game character area
-				Bitmap foodItemBitmap = gameActorSprite.getHeldItemBitmap(itemHolding);
+				Sprite foodItemSprite = gameActorSprite.getHeldItemSprite(itemHolding);
 				int direction_heading = Utility.calculateHeadingDirection(vector_x, vector_y);
+				int item_x;
 				
 				switch(direction_heading) {
 				
 					case DirectionBitmapMap.DIRECTION_EAST:
-						canvas.drawBitmap(foodItemBitmap, 
-								GameGrid.canvasX(x) - (foodItemBitmap.getWidth() / 2) + 15, 
-								GameGrid.canvasY(y) - (foodItemBitmap.getHeight() / 2), 
-								null);
+						item_x = getDrawnCanvasX() + 15;
 						break;
 						
 					case DirectionBitmapMap.DIRECTION_WEST:
-						canvas.drawBitmap(foodItemBitmap, 
-								GameGrid.canvasX(x) - (foodItemBitmap.getWidth() / 2) - 15, 
-								GameGrid.canvasY(y) - (foodItemBitmap.getHeight() / 2), 
-								null);
+						item_x = getDrawnCanvasX() - 15;
 						break;
 					
 					case DirectionBitmapMap.DIRECTION_NORTH:
-						canvas.drawBitmap(foodItemBitmap, 
-								GameGrid.canvasX(x) - (foodItemBitmap.getWidth() / 2), 
-								GameGrid.canvasY(y) - (foodItemBitmap.getHeight() / 2), 
-								null); 
+						item_x = getDrawnCanvasX(); 
 						break;
 						
 					default:
-						canvas.drawBitmap(foodItemBitmap, 
-								GameGrid.canvasX(x) - (foodItemBitmap.getWidth() / 2) + 15, 
-								GameGrid.canvasY(y) - (foodItemBitmap.getHeight() / 2), 
-								null); 
+						item_x = getDrawnCanvasX() + 15; 
 						break;
 				}
+				
+				foodItemSprite.draw(canvas, item_x, getDrawnCanvasY());
+				foodItemSprite.getBounds(item_x, getDrawnCanvasY(), heldItemRect);
+				extendDrawnArea(heldItemRect.left, heldItemRect.top, heldItemRect.right, heldItemRect.bottom);
 			}
 		}
 	}
@@ -156,9 +156,10 @@ public class CoffeeGirl extends GameActor {
 	
 
 	// Since CoffeeGirl's state is coupled to what items she is holding, we define these associations below
-	private String itemHolding; //the item that CoffeeGirl holds
+	private volatile String itemHolding; //the item that CoffeeGirl holds; changed by the GLT, read by draw()
 	private HashMap<String, State> itemToStateMap; //A map between GameFoodItems that CoffeeGirl may hold and
 		//the relevant CoffeeGirl states
+	private String [] stateToItemMap; //The reverse of itemToStateMap, indexed by CoffeeGirl state
 	
 	/** Set an association between a particular GameFoodItem and a CoffeeGirl state. Called by the GLT.
 	 * 
@@ -168,6 +169,9 @@ public class CoffeeGirl extends GameActor {
 	public void setItemHoldingToStateAssoc(String item, int state) {
 		if(itemToStateMap == null) itemToStateMap = new HashMap<String, State>();
 		itemToStateMap.put(item, validStates.get(state));
+		
+		if(stateToItemMap == null) stateToItemMap = new String[validStates.size()];
+		if(state >= 0 && state < stateToItemMap.length) stateToItemMap[state] = item;
 	}
 	
 	/** Set this CoffeeGirl to be holding the GameFoodItem named newItem. As a side effect CoffeeGirl's 
@@ -179,6 +183,20 @@ public class CoffeeGirl extends GameActor {
 		setState(itemToStateMap.get(newItem).state_idx);
 	}
 	
+	/** Set this CoffeeGirl to be holding whatever GameFoodItem is associated with CoffeeGirl state new_state 
+	 * (see setItemHoldingToStateAssoc()). Used by the GLT, which works with states rather than item names.
+	 * @param new_state The CoffeeGirl state (STATE_*) to go into
+	 */
+	public synchronized void setItemHolding(int new_state) {
+		if(stateToItemMap == null || new_state < 0 || new_state >= stateToItemMap.length || stateToItemMap[new_state] == null) {
+			Log.w(activitynametag, "No GameFoodItem is associated with state " + new_state);
+			return;
+		}
+		
+		itemHolding = stateToItemMap[new_state];
+		setState(new_state);
+	}
+	
 	/** Return the name of the GameFoodItem that CoffeeGirl is holding 
 	 * 
 	 * @return String representing the GameFoodItem that CoffeeGirl currently holds.
@@ -8,12 +8,12 @@ package org.coffeecats.coffeetime.gameobjects;
 
 import java.util.Arrays;
 
+import org.coffeecats.coffeetime.utility.BitmapCache;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 
 import org.coffeecats.coffeetime.R;
 
@@ -34,61 +34,61 @@ public class CoffeeGirlSprite extends GameSprite {
 		Bitmap tempBitmap;
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_girl_north_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_girl_north_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_girl_south_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_girl_south_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_girl_east_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_girl_east_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_girl_west_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_girl_west_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 				
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_head_all);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_head_all);
 		headBitmap = new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap));
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_body_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_body_east);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_body_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_body_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		
 		feetBitmap = new DirectionBitmapMap(true, default_direction);
 		CircularList<Bitmap> northSouthList = new CircularList<Bitmap>( Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f1),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f2)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f1),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f2)
 			));
 		feetBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, northSouthList);
 		feetBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, northSouthList);
 		feetBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_east_f1)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_east_f1)
 			)));
 		feetBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_west_f1)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_west_f1)
 			)));
 		
 		handsBitmapEmpty = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_front_empty);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_front_empty);
 		handsBitmapEmpty.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_east_empty);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_east_empty);
 		handsBitmapEmpty.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_west_empty);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_west_empty);
 		handsBitmapEmpty.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 
 		handsBitmapEmpty.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1));
 		
 		handsBitmapHolding = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_front_holding);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_front_holding);
 		handsBitmapHolding.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_east_holding);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_east_holding);
 		handsBitmapHolding.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_west_holding);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_west_holding);
 		handsBitmapHolding.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));	
 		
 		handsBitmapHolding.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1));
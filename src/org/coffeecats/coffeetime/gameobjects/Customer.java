@@ -1,15 +1,19 @@
 package org.coffeecats.coffeetime.gameobjects;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import org.coffeecats.coffeetime.gamelogic.GameGrid;
-import org.coffeecats.coffeetime.gamelogic.GameInfo;
+import org.coffeecats.coffeetime.gamelogic.GameClock;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
 import org.coffeecats.coffeetime.gamelogic.Interaction;
-import org.coffeecats.coffeetime.gameobjects.fooditemdefs.FoodItemCoffee;
+import org.coffeecats.coffeetime.simulation.CustomerOrder;
+import org.coffeecats.coffeetime.simulation.OrderGenerator;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+import org.coffeecats.coffeetime.utility.BitmapCache;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 import org.coffeecats.coffeetime.MessageRouter;
 import org.coffeecats.coffeetime.R;
@@ -17,10 +21,8 @@ import org.coffeecats.coffeetime.SoundThread;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Rect;
-import android.graphics.drawable.NinePatchDrawable;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -28,6 +30,9 @@ import android.util.Log;
  * CoffeeGirl gets these items for Customer and the requirements are marked off. When all requirements are done, 
  * the customer transitions to finished and the next customer approaches the counter.
  * 
+ * The order, what serving it is worth and the customer's mood are kept by a CustomerOrder, the same one that the
+ * headless LevelSimulation serves its customers with; the Customer walks, gets drawn and keeps the GameActor states.
+ * 
  * @author ivany
  *
  */
@@ -46,22 +51,24 @@ public class Customer extends GameActor {
 	public static int STATE_SERVED = 4;
 	public static int STATE_FINISHED = 5;
 	
-	//Define waiting time and correpsonding mood
-	private int seconds_between_pissed_off;
-	public static int SECONDS_BW_PO_STARTING = 15;
-	private int curr_mood;
-	private long mood_last_updated; //time (in seconds) when mood was last updated
+	//Define waiting time (the mood itself is kept by order, see startMoodTimer())
+	public static final int SECONDS_BW_PO_STARTING = ShopRules.SECONDS_BW_PO_STARTING;
 	
 	//Define queue position (customer's position in CustomerQueue)
 	private int queue_position;
 	
 	public static int DEFAULT_MAX_ORDER_SIZE = 2;
-	private int max_order_size; //The maximum order size that a customer can have
-	private static final int [] order_weights = {3,2,1};
-	int queue_number; //the queue that this customer resides in (of the two possible queues in later levels)
+	//How far to the right of the first queue this customer's queue is (see CustomerQueueLayout)
+	private final int queue_offset_x;
+	
+	//Define Sprite used to represent tear drop
+	private static Sprite tearDropSprite = null;
 	
-	//Define Bitmap used to represent tear drop
-	private static Bitmap tearDropBMP = null;
+	//The bitmaps for the customer states, shared by all Customers (see initStatesStatic())
+	private static DirectionBitmapMap waitingDBM = null;
+	private static DirectionBitmapMap waitingOkDBM = null;
+	private static DirectionBitmapMap waitingAngryDBM = null;
+	private static DirectionBitmapMap happyDBM = null;
 	
 	//Instance counter
 	private static int instanceCount = 0;
@@ -71,7 +78,8 @@ public class Customer extends GameActor {
 	private boolean has_cheered = false;
 
 
-	/** Initialize a new Customer.
+	/** Initialize a new Customer. Customers are pooled by their CustomerQueue, so this only happens a handful of 
+	 * times per level; each time a Customer is (re-)used for someone new it is set up by respawn().
 	 * 
 	 * @param caller The calling Context for fetching bitmaps and such.
 	 * @param move_rate The moverate for this customer (default should be Customer.DEFAULT_CUSTOMER_MOVERATE)
@@ -80,154 +88,92 @@ public class Customer extends GameActor {
 	 * @param point_mult = level-dependent multiplier for points
 	 * @param money_mult = level-dependent multiplier for money
 	 * @param impatience How quickly this customer becomes impatient
-	 * @param foodItemChoices The menu of GameFoodItem choices that this customer may select from
+	 * @param foodItemMenu The menu of GameFoodItems that this customer's order refers to (by index)
+	 * @param queue_offset_x How far to the right of the first queue (CustomerQueue.X_POS) this customer's queue is
+	 * @param orderGenerator The OrderGenerator of this customer's queue, which generates the order and the other 
+	 * random properties of this customer
 	 */
 	public Customer(Context caller, int move_rate, int starting_queue_position, 
-			float point_mult, float money_mult, float impatience, int max_order_size,
-			List<GameFoodItem> foodItemChoices, int queue_number, List<Integer> foodItemCounts) {
-			
-		super(caller, move_rate, location_start_x + ((queue_number==2) ? CustomerQueue.DISTANCE_TO_QUEUE_TWO : 0), location_start_y, true);
-		
-		queue_position = starting_queue_position;
-		visible = false;
-		
-		this.queue_number = queue_number;
-		
-		//Generate this customer's order size
-		Random random = new Random();
-		this.max_order_size = max_order_size;
-
-		int order_weight_sum = 0;
-		for(int i = 0; i < ((max_order_size<order_weights.length)?max_order_size:order_weights.length); i++) 
-			order_weight_sum += order_weights[i];
-		
-		int order_bin = random.nextInt(order_weight_sum);
-		
-		int order_cumulative_size = 0;
-		customerOrderSize = -1;
-		for(int i = 0; i < order_weights.length; i++) {
-			order_cumulative_size += order_weights[i];
-			
-			if(order_bin < order_cumulative_size) {
-				customerOrderSize = i+1;
-				break;
-			}
-		}
-		
-		if(customerOrderSize == -1 || customerOrderSize > max_order_size) {
-			Log.w(activitynametag, "Customer order size calculation went astray!");
-			customerOrderSize = max_order_size;
-		}
-		
-		
-		//Generate this customer's food item order
-		customerOrder = new ArrayList<GameFoodItem>();
-		
-		//We set up the "bins" for determining each menu item
-		//The size of the bin will be the orderProbability of each GameFoodItem
-		//If we pick a random integer, and it is between bin[i-1] and bin[i], we pick foodItemChoices.get(i)
-		//Thus, items with higher orderProbability will be more likely to be chosen
-		/*float [] order_bins = new float[foodItemChoices.size()];
-		for(int i = 0; i < foodItemChoices.size(); i++) {
-			if(i == 0)
-				order_bins[i] = 0 + foodItemChoices.get(i).getOrderProbability();
-			else
-				order_bins[i] = order_bins[i-1] + foodItemChoices.get(i).getOrderProbability();
-		}
-		
-		for(int i = 0; i <= customerOrderSize; i++) {
-			//Normalize the random number we pick to the range of the bins
-			float item_choice_f = random.nextFloat() * order_bins[order_bins.length-1];
-			
-			int item_choice = 0;
-			while(order_bins[item_choice] < item_choice_f && item_choice < order_bins.length) item_choice++;
-			customerOrder.add(foodItemChoices.get(item_choice).clone());
-		}*/
-		
-		for(int i = 0; i < customerOrderSize; i++) {
-			int total_food_items_avail = 0;
-			for(Integer count : foodItemCounts) total_food_items_avail += count;
-			
-			int item_picked;
-			if(total_food_items_avail <= 0) {
-				Log.d(activitynametag, "Somehow zero items were available, hmm...");
-				item_picked = -1;
-			}
-			else item_picked = random.nextInt(total_food_items_avail);
-			
-			int item_picked_idx = 1; //start at 1 because 0 is "nothing"
-			int cumulative_items = 0;
+			float point_mult, float money_mult, float impatience,
+			List<GameFoodItem> foodItemMenu, int queue_offset_x, OrderGenerator orderGenerator) {
 			
-			while(item_picked_idx < foodItemCounts.size() &&
-					cumulative_items + foodItemCounts.get(item_picked_idx) < item_picked) {
-				cumulative_items += foodItemCounts.get(item_picked_idx);
-				item_picked_idx++;
+		super(caller, move_rate, location_start_x + queue_offset_x, location_start_y, true);
+		
+		this.queue_offset_x = queue_offset_x;
+		this.foodItemMenu = foodItemMenu;
+		
+		//The order refers to the menu by index; serving only needs what CoffeeGirl holds for each item
+		int [] menuHeldItems = new int[foodItemMenu.size()];
+		for(int i = 0; i < menuHeldItems.length; i++) menuHeldItems[i] = foodItemMenu.get(i).getHeldItem();
+		order = new CustomerOrder(GameClock.getSimulationClock(), GameScheduler.getDeadlineQueue(), menuHeldItems) {
+			@Override
+			protected boolean isWaitingAtFront() {
+				return(getQueuePosition() == 0 && (getState() == STATE_INLINE_HAPPY || getState() == STATE_INLINE_OK));
 			}
 			
-			if(item_picked_idx > foodItemCounts.size() || item_picked < 0) {
-				Log.w(activitynametag, "Customer hit an invalid code section; picking food items didn't go so well.");
-				customerOrder.add(new FoodItemCoffee()); //if something goes wrong, pick coffee, that one is always available on all levels
-			}
-			else {
-				Log.d(activitynametag, "Customer " + starting_queue_position + " picked item idx = " + item_picked_idx + " which was the " + item_picked + "th item.");
-				
-				customerOrder.add(foodItemChoices.get(item_picked_idx).clone());
-				
-				foodItemCounts.set(item_picked_idx, foodItemCounts.get(item_picked_idx)-1);
-				
-				if(foodItemCounts.get(item_picked_idx) <= 0) {
-					foodItemCounts.remove(item_picked_idx);
-					foodItemChoices.remove(item_picked_idx);
-				}
+			@Override
+			protected void onMoodChanged(int new_mood) {
+				if(new_mood == CustomerOrder.MOOD_OK) setState(STATE_INLINE_OK);
 			}
-		}
-		
-		//Generate this customer's "point multiplier"
-		moneyMultiplier = money_mult * random.nextFloat() + 1.0f;
-		pointsMultiplier = point_mult * random.nextFloat() + 1.0f;
-		
-		//Generate impatience with a random factor
-		float seconds_between_po_divisor = (random.nextFloat() + 1.0f) * impatience;
-		seconds_between_pissed_off = (int) (((float)SECONDS_BW_PO_STARTING) / seconds_between_po_divisor);
-		
-		
-		
-		
-		
-		//Initialize all of the states that this Customer can have
-		Bitmap tempBitmap;
+		};
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_waiting);
-		this.addState("hidden", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		//Initialize all of the states that this Customer can have; the bitmaps are shared by all Customers
+		initStatesStatic(caller);
+		this.addState("hidden", waitingDBM);
+		this.addState("inline_happy", waitingDBM);
+		this.addState("inline_ok", waitingOkDBM);
+		this.addState("inline_angry", waitingAngryDBM);
+		this.addState("served", happyDBM);
+		this.addState("finished", waitingDBM);
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_waiting);
-		this.addState("inline_happy", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		//Load a new CustomerSprite and set this instance's gAS to that
+		gameActorSprite = new CustomerSprite(caller);
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_waiting_ok);
-		this.addState("inline_ok", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		instance_index = instanceCount++;
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_waiting_angry);
-		this.addState("inline_angry", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		respawn(starting_queue_position, point_mult, money_mult, impatience, orderGenerator);
+	}
+	
+	/** Decode the bitmaps shared by all Customers, if that hasn't been done yet */
+	private static synchronized void initStatesStatic(Context caller) {
+		if(waitingDBM != null) return;
+		
+		waitingDBM = new DirectionBitmapMap(new CircularList<Bitmap>(1,
+				BitmapCache.acquire(caller.getResources(), R.drawable.customer_waiting)));
+		waitingOkDBM = new DirectionBitmapMap(new CircularList<Bitmap>(1,
+				BitmapCache.acquire(caller.getResources(), R.drawable.customer_waiting_ok)));
+		waitingAngryDBM = new DirectionBitmapMap(new CircularList<Bitmap>(1,
+				BitmapCache.acquire(caller.getResources(), R.drawable.customer_waiting_angry)));
+		happyDBM = new DirectionBitmapMap(new CircularList<Bitmap>(1,
+				BitmapCache.acquire(caller.getResources(), R.drawable.customer_happy)));
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_happy);
-		this.addState("served", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		//Load the teardrop
+		tearDropSprite = TextureAtlas.sprite(caller.getResources(), R.drawable.customer_tear_drop);
+	}
+	
+	/** Turn this Customer into a brand new (hidden) customer at the back of the line: a new order, mood and look, 
+	 * standing at the entrance. Called by the constructor, and by the CustomerQueue when it takes this Customer 
+	 * out of its pool for the next person in line.
+	 * 
+	 * @param starting_queue_position The queue position of this customer
+	 * @param point_mult = level-dependent multiplier for points
+	 * @param money_mult = level-dependent multiplier for money
+	 * @param impatience How quickly this customer becomes impatient
+	 * @param orderGenerator The OrderGenerator of this customer's queue
+	 */
+	public synchronized void respawn(int starting_queue_position, float point_mult, float money_mult, float impatience,
+			OrderGenerator orderGenerator) {
+		queue_position = starting_queue_position;
+		setVisible(false);
+		has_cheered = false;
 		
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_waiting);
-		this.addState("finished", new DirectionBitmapMap(new CircularList<Bitmap>(1,tempBitmap)));
+		//Generate this customer's order, multipliers and impatience (a mood timer left over from before is ignored)
+		order.respawn(orderGenerator, point_mult, money_mult, impatience);
+		publishOrder();
 		
 		setState(STATE_HIDDEN);
-		
-		
-		
-		
-		//Load a new CustomerSprite and set this instance's gAS to that
-		gameActorSprite = new CustomerSprite(caller);
-		
-		//Load the teardrop
-		if(tearDropBMP == null)
-			tearDropBMP = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_tear_drop);
-		
-		instance_index = instanceCount++;
+		placeAt(location_start_x + queue_offset_x, location_start_y);
+		((CustomerSprite) gameActorSprite).respawn();
 	}
 
 	@Override
@@ -237,7 +183,14 @@ public class Customer extends GameActor {
 	
 	/** These methods have to do with getting the position in the queue and advancing the queue */
 	public synchronized int getQueuePosition() { return queue_position; }
-	public synchronized void decQueuePosition() { queue_position--; } 
+	/** Set the queue position; done by the CustomerQueue when this customer shows up at the end of the line */
+	public synchronized void setQueuePosition(int n_queue_position) { queue_position = n_queue_position; }
+	public synchronized void decQueuePosition() { 
+		queue_position--; 
+		
+		//If we just got to the front of the line, start getting impatient
+		if(queue_position == 0 && (getState() == STATE_INLINE_HAPPY || getState() == STATE_INLINE_OK)) startMoodTimer();
+	} 
 	
 	//Define the starting location of customers, the position if they're first or second,  
 	//and the exit location of customers
@@ -257,15 +210,11 @@ public class Customer extends GameActor {
 		super.setState(new_state);
 		
 		if(new_state == STATE_INLINE_HAPPY && old_state != STATE_INLINE_HAPPY) {
-			x = location_start_x + ((queue_number==2) ? CustomerQueue.DISTANCE_TO_QUEUE_TWO : 0);
-			y = location_start_y;
+			placeAt(location_start_x + queue_offset_x, location_start_y);
 		}
 		
 		else if(new_state == STATE_SERVED || new_state == STATE_ANGRY) {
-			setLocked();
-			this.target_x = locations_exit_x;	
-			this.target_y = locations_exit_y;
-			unLock();
+			setTarget(locations_exit_x, locations_exit_y);
 		}
 	}
 	
@@ -281,37 +230,19 @@ public class Customer extends GameActor {
 		//then advance to the in-line state
 		if(this.isVisible() && getState() == STATE_HIDDEN) {
 			setState(STATE_INLINE_HAPPY);
-			mood_last_updated = GameInfo.currentTimeMillis() / 1000;
+			if(getQueuePosition() == 0) startMoodTimer();
 		}
 		
 		//If state is "in line" make sure that we are standing in the appropriate part of the line
 		if(this.getState() == STATE_INLINE_HAPPY || this.getState() == STATE_INLINE_OK) {
-			setLocked();
-			this.target_x = locations_queue_x[getQueuePosition()] + ((queue_number==2) ? CustomerQueue.DISTANCE_TO_QUEUE_TWO : 0);			
-			this.target_y = locations_queue_y[getQueuePosition()];
-			unLock();
+			int queue_position = getQueuePosition();
+			setTarget(locations_queue_x[queue_position] + queue_offset_x, locations_queue_y[queue_position]);
 			
 			//If we are presently in line and at the front of the queue, check if our dependencies have been met
 			//if they have then we can transition to served
 			if(orderSatisfied()) setState(STATE_SERVED);
 			
-			//If we are not at the front of the line, don't get angry
-			else if(getQueuePosition() > 0) {
-				mood_last_updated = GameInfo.currentTimeMillis()/1000;
-			}
-			
-			//Update mood? If we are at the front of the line...and it's been that long...
-			else if(mood_last_updated + seconds_between_pissed_off < GameInfo.currentTimeMillis()/1000) {
-				mood_last_updated = GameInfo.currentTimeMillis()/1000;
-				
-				if(this.getState() == STATE_INLINE_HAPPY) {
-					setState(STATE_INLINE_OK);
-				}
-				else if(this.getState() == STATE_INLINE_OK) {
-					//setState(STATE_ANGRY);
-					Log.d(activitynametag, "Customer state transitioned to ANGRY");
-				}
-			}
+			//Mood is updated by the GameScheduler (see startMoodTimer()) rather than checked here on every update
 		}
 		
 		//If we have been served and have advanced to the exit location then set state to finished
@@ -321,7 +252,7 @@ public class Customer extends GameActor {
 				MessageRouter.sendPlayShortSfxMessage(SoundThread.SFX_CUSTOMER_SERVED);
 			}
 			
-			if(x == locations_exit_x && y == locations_exit_y) {
+			if(getPositionX() == locations_exit_x && getPositionY() == locations_exit_y) {
 				setState(STATE_FINISHED);
 			}
 		}
@@ -330,114 +261,123 @@ public class Customer extends GameActor {
 		//if(this.getState() == STATE_FINISHED) ;
 	}
 	
+	/** Start (or re-start) the countdown until this customer's mood gets worse. Only customers at the front of the 
+	 * line get impatient; the GameScheduler runs the countdown (see CustomerOrder.onTimer()), and once it runs out 
+	 * while we are still waiting at the front of the line we go from STATE_INLINE_HAPPY to STATE_INLINE_OK.
+	 */
+	private void startMoodTimer() {
+		order.startMoodTimer();
+	}
+	
+	/** Customers' hands are always empty; they are drawn together with the rest of the sprite (see GameActor.draw()) */
+	@Override
+	protected Bitmap getHandsBitmap(int vector_x, int vector_y) {
+		if(gameActorSprite == null) return(null);
+		return(gameActorSprite.getHandsBitmap(vector_x, vector_y, 0));
+	}
+	
 	/** Called when the customer needs to be drawn. Apart from drawing the customer icon we also
 	 * draw the customer's order, using icons and a speech bubble (which is a 9patch drawing)
 	 */
+	//Re-used by draw(), on the render Looper
+	private final Rect extentRect = new Rect();
+	
 	public void draw(Canvas canvas) {		
 		super.draw(canvas);
 		
-		int drawn_x = GameGrid.canvasX(x);
-		int drawn_y = GameGrid.canvasY(y);
+		long order = shownOrder;
+		
+		int drawn_x = getDrawnCanvasX();
+		int drawn_y = getDrawnCanvasY();
+		
+		//if(isVisible()) Log.d(activitynametag, "Drawing customer " + instance_index + " positions = " + targetX(getTarget()) + ", " + targetY(getTarget()));
 		
-		//if(isVisible()) Log.d(activitynametag, "Drawing customer " + instance_index + " positions = " + target_x + ", " + target_y);
+		//The tear drop's top-left corner goes at (-18, -4) from the Customer's position
+		int teardrop_x = drawn_x - 18 + tearDropSprite.getWidth()/2;
+		int teardrop_y = drawn_y - 4 + tearDropSprite.getHeight()/2;
 		
-		//Hack to draw in hands correctly for customers
-		if(this.USING_NEW_SPRITES) {
-			int vector_x = target_x - x;
-			int vector_y = target_y - y;
-			this.draw(canvas, gameActorSprite.getHandsBitmap(vector_x, vector_y, 0));
+		//The tear drop and the speech bubble come and go; count the largest bubble we may draw (and the tear drop) as
+		//drawn all the time, so that they are always inside our dirty rect (see GameActor.addDirtyRect())
+		if(isVisible()) {
+			tearDropSprite.getBounds(teardrop_x, teardrop_y, extentRect);
+			extendDrawnArea(extentRect.left, extentRect.top, extentRect.right, extentRect.bottom);
+			extendDrawnArea(drawn_x + 32/2 + 2, drawn_y - SpeechBubbleCache.BUBBLE_HEIGHT, 
+					drawn_x + 32/2 + 2 + SpeechBubbleCache.BUBBLE_WIDTH + 
+					(SpeechBubbleCache.ICON_WIDTH*(OrderGenerator.MAX_ORDER_SIZE-1)), 
+					drawn_y + SpeechBubbleCache.BUBBLE_HEIGHT);
 		}
 		
 		//Draw a "tear drop" if the customer is getting unhappy
 		if(isVisible() && (this.getState() == STATE_INLINE_OK || this.getState() == STATE_ANGRY)) {
-			canvas.drawBitmap(tearDropBMP, GameGrid.canvasX(this.x) - 18, GameGrid.canvasY(this.y) - 4,null);
+			tearDropSprite.draw(canvas, teardrop_x, teardrop_y);
 		}
 		
 		
-		//draw the order using a 9patch speech bubble, if this Customer is visible and is waiting for their order
-		//to be fulfilled
+		//draw the order in a speech bubble, if this Customer is visible and is waiting for their order to be fulfilled.
+		//The bubble (with the order's icons in it) is rendered once per order and served items, see SpeechBubbleCache
 		if(isVisible() && (this.getState() == STATE_INLINE_HAPPY || this.getState() == STATE_INLINE_OK)) {
-			int ICON_WIDTH = 20 + 10; //10 is for padding
-			int BUBBLE_WIDTH = 54;
-			int BUBBLE_HEIGHT = 32;
-			
-			/*TODO: this might not be great for performance (due to GC performance?)
-			We can probably avoid re-drawing the speechBubble if no order items have been fulfilled AND the Customer
-			hasn't moved since the last time draw() was called.*/
-			NinePatchDrawable speechBubble = (NinePatchDrawable)caller.getResources().getDrawable(R.drawable.speech_bubble_sm);
-
-			int bubble_left =  GameGrid.canvasX(this.x) + 32/2 + 2; //32 is bitmap width, +2 at the end for padding :) 
-			int bubble_top = GameGrid.canvasY(this.y) - speechBubble.getMinimumHeight()/2;
-			int bubble_right = bubble_left + BUBBLE_WIDTH + (ICON_WIDTH*(customerOrderSize-1));
-			int bubble_bottom = bubble_top + BUBBLE_HEIGHT;
-			
-			speechBubble.setBounds(bubble_left, bubble_top, bubble_right, bubble_bottom);
-			speechBubble.draw(canvas);
+			Bitmap bubble = SpeechBubbleCache.getBubble(caller.getResources(), foodItemMenu, (int) (order >>> 32), 
+					(int) order);
 			
-			//Now draw the actual food items in the bubble!
-			int foodicon_x = bubble_left + 34 - 6; //this puts is right in the middle of the area for the left-most icon
-				//within the speech bubble; I don't know why the (-6) looks better but it does
-			int foodicon_y = (bubble_top + bubble_bottom) / 2;
-			
-			//Draw an icon for each food item on the customer's order
-			for(int i = 0; i < customerOrderSize; i++) {
-				Bitmap foodBitmap;
-				
-				if(customerOrder.get(i).isSatisfied()) 
-					foodBitmap = customerOrder.get(i).getBitmapInactive();
-				else 
-					foodBitmap = customerOrder.get(i).getBitmapActive();
-				
-				//Calculate adjusted positions based on the size of the icons
-				int foodicon_adjusted_x = foodicon_x - customerOrder.get(i).getBitmapInactive().getWidth()/2;
-				int foodicon_adjusted_y = foodicon_y - customerOrder.get(i).getBitmapInactive().getHeight()/2;				
-				canvas.drawBitmap(foodBitmap,foodicon_adjusted_x,foodicon_adjusted_y,null);
-
-				foodicon_x += ICON_WIDTH;
+			if(bubble != null) {
+				int bubble_left =  drawn_x + 32/2 + 2; //32 is bitmap width, +2 at the end for padding :) 
+				int bubble_top = drawn_y - SpeechBubbleCache.getAnchorY();
+				canvas.drawBitmap(bubble, bubble_left, bubble_top, null);
 			}
-			
 		}
 	}
 	
-	//Customer order tracking variables
-	int customerOrderSize;
-	ArrayList<GameFoodItem> customerOrder;
-	float moneyMultiplier;
-	float pointsMultiplier;
+	//Customer order tracking; the order is packed into an int by OrderGenerator, and refers to foodItemMenu by index
+	private final CustomerOrder order;
+	//The order and its satisfied mask as one word (the order in the high 32 bits), published whenever either of them 
+	//changes; the simulation changes them, and draw() (on the render Looper) only reads this
+	private volatile long shownOrder;
+	List<GameFoodItem> foodItemMenu;
+	
+	/** Return the GameFoodItem for item i of this customer's order */
+	private GameFoodItem orderItem(int i) {
+		return(foodItemMenu.get(order.getMenuItem(i)));
+	}
+	
+	/** Publish the order and its satisfied mask for draw() */
+	private void publishOrder() {
+		shownOrder = (((long) order.getOrder()) << 32) | (order.getSatisfiedMask() & 0xFFFFFFFFL);
+	}
 	
 	/** Used to set the customerOrder to a single particular menu option. This will be used by the game tutorial
 	 * in order to set the Customer orders to something predictable
 	 */
-	public void setCustomerOrder(GameFoodItem theItem) {
-		customerOrder.clear();
-		customerOrder.add(theItem);
-		customerOrderSize = 1;
+	public synchronized void setCustomerOrder(GameFoodItem theItem) {
+		for(int i = 0; i < foodItemMenu.size(); i++) {
+			if(foodItemMenu.get(i).getHeldItem() == theItem.getHeldItem()) {
+				order.setSingleItemOrder(i);
+				publishOrder();
+				return;
+			}
+		}
+		
+		Log.w(activitynametag, "Can't set customer order to " + theItem.getName() + ", it is not on the menu");
 	}
 	
 	/** Called when an interaction occurs with this Customer
-	 * @param itemInteracted the name of the FoodItem that the interacter (CoffeeGirl) held when interacting with
-	 * this customer.
-	 * @return true if the interaction filled a dependency i.e. fufilled a customer's order request, otherwise false
+	 * @param held_item What the interacter (CoffeeGirl) held when interacting with this customer (ShopRules.HELD_*)
+	 * @param result The Interaction to write the result into; was_success is set if the interaction filled a dependency 
+	 * i.e. fufilled a customer's order request, otherwise it is left alone
 	 */
-	public Interaction onInteraction(String itemInteracted) {
-		for(int i = 0; i < customerOrderSize; i++) {
-			if(customerOrder.get(i).getName().equals(itemInteracted) && 
-					(! customerOrder.get(i).isSatisfied())) {
-				customerOrder.get(i).setSatisfied();
-				
-				//return CustomerInteraction object specifying that the interaction was successful, 
-				//and also specifying the number of points and money that results
-				Interaction retval = new Interaction();
-				retval.was_success = true;
-				retval.money_result = (int) (moneyMultiplier * ((float) customerOrder.get(i).moneyOnInteraction("Customer", 0)));
-				retval.point_result = (int) (pointsMultiplier * ((float) customerOrder.get(i).pointsOnInteraction("Customer", 0)));
-				
-				return(retval);
-			}
-		}
+	public synchronized void onInteraction(int held_item, Interaction result) {
+		int menu_item = order.serve(held_item);
+		
+		//If no dependency was filled the Interaction is left as a failed one
+		if(menu_item < 0) return;
 		
-		//If no dependency was filled (we haven't returned yet) return a new, failed (by default) Interaction
-		return(new Interaction());
+		publishOrder();
+		GameFoodItem foodItem = foodItemMenu.get(menu_item);
+		
+		//fill in the Interaction specifying that the interaction was successful, 
+		//and also specifying the number of points and money that results
+		result.was_success = true;
+		result.money_result = order.money(foodItem.moneyOnInteraction("Customer", 0));
+		result.point_result = order.points(foodItem.pointsOnInteraction("Customer", 0));
 	}
 	
 	/** Checks to see if this Customer's order has been satisfied
@@ -445,10 +385,7 @@ public class Customer extends GameActor {
 	 * @return true if this Customer's order has been satisfies (and he can GTFO), false otherwise
 	 */
 	public synchronized boolean orderSatisfied() {
-		for(int i = 0; i < customerOrderSize; i++) {
-			if(! customerOrder.get(i).isSatisfied()) return(false);
-		}
-		return(true);
+		return(order.isSatisfied());
 	}
 	
 	/** Returns a simple string representation of this Customer and his/her order.
@@ -461,12 +398,12 @@ public class Customer extends GameActor {
 		retvalBuilder.append("Customer #");
 		retvalBuilder.append(queue_position);
 		retvalBuilder.append(", has ");
-		retvalBuilder.append(customerOrderSize);
+		retvalBuilder.append(order.getOrderSize());
 		retvalBuilder.append(" items in order: {");
 		
-		for(int i = 0; i < customerOrderSize; i++) {
-			retvalBuilder.append(customerOrder.get(i).getName());
-			if(i != customerOrderSize-1) retvalBuilder.append(",");
+		for(int i = 0; i < order.getOrderSize(); i++) {
+			retvalBuilder.append(orderItem(i).getName());
+			if(i != order.getOrderSize()-1) retvalBuilder.append(",");
 		}
 		
 		retvalBuilder.append("}");
@@ -8,6 +8,9 @@
  * the countertop, and passes some interactions and update events between the queue of customers and the CoffeeGirl
  * GameActor.
  * 
+ * When customers show up, and how many have shown up, left and been served, is kept by a CustomerLine, the same one
+ * that the headless LevelSimulation fills its lines with; the CustomerQueue keeps the Customers themselves.
+ * 
  * */
 
 package org.coffeecats.coffeetime.gameobjects;
@@ -15,8 +18,16 @@ package org.coffeecats.coffeetime.gameobjects;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.coffeecats.coffeetime.gamelogic.CustomerQueueWrapper;
+import org.coffeecats.coffeetime.gamelogic.GameClock;
 import org.coffeecats.coffeetime.gamelogic.GameInfo;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
 import org.coffeecats.coffeetime.gamelogic.Interaction;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.simulation.CustomerLine;
+import org.coffeecats.coffeetime.simulation.OrderGenerator;
+import org.coffeecats.coffeetime.simulation.SeededRandom;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import org.coffeecats.coffeetime.R;
 
@@ -27,27 +38,73 @@ import android.util.Log;
 
 public class CustomerQueue extends GameItem {
 	//Number of customers that are in states INLINE to SERVED
-	public static final int QUEUE_VISIBLE_LENGTH = 2;
+	public static final int QUEUE_VISIBLE_LENGTH = ShopRules.QUEUE_VISIBLE_LENGTH;
 	//Time between customer appearance
-	public static final int TIME_BETWEEN_CUSTOMERS_MS = 2000;
-	private long time_since_last_customer;
+	public static final int TIME_BETWEEN_CUSTOMERS_MS = ShopRules.TIME_BETWEEN_CUSTOMERS_MS;
 	
 	//Define position of customer queue
-	public static final int X_POS = 33;
-	public static final int DISTANCE_TO_QUEUE_TWO = 41;
+	public static final int X_POS = ShopRules.QUEUE_X;
+	//Where further queues go is up to CustomerQueueLayout
 	//public static final int Y_POS_FROM_GG_BOTTOM = 40;
-	public static final int Y_POS_FROM_GG_TOP = 32;
+	public static final int Y_POS_FROM_GG_TOP = ShopRules.QUEUE_Y;
+	
+	//The size of the counter on the GameGrid
+	public static final int COUNTER_WIDTH = ShopRules.COUNTER_WIDTH;
+	public static final int COUNTER_HEIGHT = ShopRules.COUNTER_HEIGHT;
 	
 	private static final String activitynametag = "CustomerQueue";
 	
 	int queue_length;
-	ArrayList<Customer> customerList;
-	//Customers processed indicates how many customers go through the queue
-	int customers_processed;
-	//Customers_satisfied indicates how many customers had their orders satisfied
-	int customers_satisfied;
+	
+	//Customers are only created when they show up at the end of the line, out of a pool of Customer objects that 
+	//are re-used once a customer has walked out (see showNextCustomer() and onUpdate()), so the number of Customer objects 
+	//(and their bitmaps) doesn't grow with the length of the queue
+	public static final int CUSTOMER_POOL_SIZE = 4;
+	private final Customer [] customerPool = new Customer[CUSTOMER_POOL_SIZE];
+	private int customers_pooled;
+	private final Context caller;
+	private final List<GameFoodItem> foodItemMenu;
+	private final OrderGenerator orderGenerator;
+	private final float point_mult, money_mult, impatience;
+	
+	//Orders set by setCustomerOrder() for customers that haven't shown up yet, indexed by customer number
+	private GameFoodItem [] orderOverrides;
+	//The last customer of the queue, once it has shown up (see isFinished())
+	private volatile Customer lastCustomer;
+	
+	//When customers show up, and how many have shown up (line.getShown()), left the front of the line 
+	//(line.getDeparted()) and been served so far. Only the simulation Looper changes it; the counts are also read by 
+	//other threads (e.g. for the GLT's statistics).
+	private final CustomerLine line;
+	//The active window: the customers that have shown up and haven't left yet (walking out, in line, walking in), 
+	//kept in a ring buffer indexed by their number in the queue. Customers [window_start, line.getShown()) are in the
+	//window, and customer line.getDeparted() is at the front of the line (if it has shown up). Only the simulation 
+	//Looper changes these.
+	private static final int INITIAL_WINDOW_CAPACITY = 8;
+	private volatile Customer [] window;
+	private int window_start;
+	//The active set: the customers in the window that are visible (they join when they show up and leave once they
+	//have walked out), in queue order. Only these are updated and drawn, so the customers that are done cost nothing.
+	//Only used on the simulation Looper; the render Looper draws shownCustomers, a copy that is published whenever 
+	//the active set changes (which is only when a customer shows up or walks out)
+	private final ArrayList<Customer> activeCustomers = new ArrayList<Customer>(INITIAL_WINDOW_CAPACITY);
+	private static final Customer [] NO_CUSTOMERS = new Customer[0];
+	private volatile Customer [] shownCustomers = NO_CUSTOMERS;
+	//Where the active customers were drawn by the last draw(); only used on the render Looper
+	private final Rect lastCustomersRect = new Rect();
+	
+	//The CustomerQueueWrapper that keeps the statistics of this queue (and the level's other queues)
+	private volatile CustomerQueueWrapper wrapper;
+	//Whether the wrapper has been told that this queue has finished
+	private boolean finished_reported = false;
+	//The CustomerQueueLayout that sends this queue its customers, and this queue's index in it; null if the
+	//customers show up on their own (see CustomerLine)
+	private final CustomerQueueLayout layout;
+	private final int layout_index;
 	
 	int queue_number;
+	//How far to the right of the first queue (X_POS) this queue is; its customers line up that much further right
+	private final int offset_x;
 	
 	/** Create a new CustomerQueue. We will probably only be creating one queue per game level.
 	 * 
@@ -69,198 +126,352 @@ public class CustomerQueue extends GameItem {
 			int queue_length, float point_mult, float money_mult, 
 			float impatience, int max_items_in_order, 
 			List<GameFoodItem> foodItemMenuGlobal, int queue_number) {
+		this(caller, x_pos, y_pos, orientation, queue_length, point_mult, money_mult, impatience, max_items_in_order, 
+				foodItemMenuGlobal, queue_number, null, 0, COUNTER_WIDTH);
+	}
+	
+	/** Create a new CustomerQueue whose customers are sent by a CustomerQueueLayout (if layout isn't null) rather
+	 * than showing up on their own; see the constructor above for the rest of the parameters.
+	 * 
+	 * @param layout The CustomerQueueLayout that sends this queue its customers, or null
+	 * @param layout_index This queue's index in the layout
+	 * @param counter_width The width of the counter on the GameGrid; narrower than COUNTER_WIDTH when the layout has 
+	 * to fit many lines side by side (see ShopRules.counterWidth())
+	 */
+	CustomerQueue(Context caller, int x_pos, int y_pos, int orientation, 
+			int queue_length, float point_mult, float money_mult, 
+			float impatience, int max_items_in_order, 
+			List<GameFoodItem> foodItemMenuGlobal, int queue_number, 
+			CustomerQueueLayout layout, int layout_index, int counter_width) {
 		//public GameItem(Context caller, String name, int r_bitmap, int x_pos, int y_pos, int orientation, int gg_width, int gg_height)
-		super(caller, "CustomerQueue" + Integer.toString(queue_number), R.drawable.countertop, x_pos, y_pos, orientation, 20, 17);
+		super(caller, "CustomerQueue" + Integer.toString(queue_number), R.drawable.countertop, x_pos, y_pos, orientation, 
+				counter_width, COUNTER_HEIGHT);
+		setItemKind(InteractionTable.KIND_CUSTOMERQUEUE);
 		
 		//Create and fill up the CustomerQueue
 		this.queue_length = queue_length;
 		this.queue_number = queue_number;
+		this.offset_x = x_pos - X_POS;
+		this.layout = layout;
+		this.layout_index = layout_index;
+		this.caller = caller;
+		this.point_mult = point_mult;
+		this.money_mult = money_mult;
+		this.impatience = impatience;
 		
-		List<GameFoodItem> foodItemMenu = new ArrayList<GameFoodItem>(foodItemMenuGlobal.size());
-		for(GameFoodItem gfi : foodItemMenuGlobal) foodItemMenu.add(gfi);
-		List<Integer> foodItemCounts = generateFoodItemCounts(foodItemMenu, max_items_in_order * queue_length);
+		foodItemMenu = new ArrayList<GameFoodItem>(foodItemMenuGlobal);
 		
-		String foodICDebug = "CustomerQueue generated foodItemCounts {";
-		for(Integer count : foodItemCounts) { foodICDebug += count; foodICDebug += ", "; }
-		foodICDebug += "}";
+		//Every queue in the level gets its own OrderGenerator, seeded from the level seed so that the level's 
+		//customers can be replayed exactly
+		float [] orderProbabilities = new float[foodItemMenu.size()];
+		for(int i = 0; i < orderProbabilities.length; i++) orderProbabilities[i] = foodItemMenu.get(i).getOrderProbability();
 		
-		Log.d(activitynametag, foodICDebug);
+		long queue_seed = OrderGenerator.queueSeed(GameInfo.getLevelSeed(), queue_number);
+		orderGenerator = new OrderGenerator(new SeededRandom(queue_seed), orderProbabilities, 
+				max_items_in_order, queue_length);
 		
-		foodICDebug = "CustomerQueue corresponding items were {";
-		for(GameFoodItem gfi : foodItemMenu) { foodICDebug += gfi; foodICDebug += ", "; }
-		foodICDebug += "}";
+		customers_pooled = 0;
 		
-		Log.d(activitynametag, foodICDebug);
+		window = new Customer[INITIAL_WINDOW_CAPACITY];
+		window_start = 0;
 		
-		customerList = new ArrayList<Customer>(queue_length);
-		for(int i = 0; i < queue_length; i++) {
-			customerList.add(new Customer(caller, 
-					Customer.DEFAULT_CUSTOMER_MOVERATE, 
-					i, 
-					point_mult, 
-					money_mult, 
-					impatience, 
-					max_items_in_order, 
-					foodItemMenu,
-					queue_number,
-					foodItemCounts));
-		}
+		//The customers show up on their own, unless the layout sends them
+		line = new CustomerLine(GameClock.getSimulationClock(), GameScheduler.getDeadlineQueue(), queue_length, 
+				layout == null) {
+			@Override
+			protected void onCustomerArrived(int customer_index) {
+				showNextCustomer(customer_index);
+			}
+			
+			@Override
+			protected void onCustomerLeft(boolean was_served) {
+				advanceQueue();
+			}
+		};
 		
-		for(int i = 0; i < queue_length; i++) {
-			Log.v(activitynametag, customerList.get(i).toString());
+		//The first customer shows up right away, unless the layout sends them
+		line.start();
+	}
+	
+	public CustomerQueue(Context caller, int x_pos, int y_pos, int orientation, 
+			int queue_length, float point_mult, float money_mult, 
+			float impatience, int max_items_in_order, 
+			List<GameFoodItem> foodItemMenu) {
+		this(caller, x_pos,  y_pos, orientation, queue_length, point_mult, money_mult, impatience, max_items_in_order, foodItemMenu, 1);
+	}
+	
+	/** Used to set the food item order for a particular customer. Tutorial uses this method to set 
+	 * the customer orders to something predictable.
+	 * 
+	 */
+	public synchronized void setCustomerOrder(int customer_index, GameFoodItem theItem) {
+		if(customer_index < 0 || customer_index >= queue_length) {
+			Log.w(activitynametag, "Can't set the order of customer " + customer_index + ", " + this.getName() + 
+					" only has " + queue_length + " customers");
+			return;
 		}
 		
-		time_since_last_customer = 0;
+		//The customer has already shown up
+		if(customer_index < line.getShown()) {
+			Customer customer = (customer_index >= window_start) ? windowCustomer(customer_index) : null;
+			if(customer != null) customer.setCustomerOrder(theItem);
+			return;
+		}
 		
-		customers_satisfied = 0;
-		customers_processed = 0;
+		//Otherwise remember the order until the customer does show up
+		if(orderOverrides == null || orderOverrides.length <= customer_index) {
+			GameFoodItem [] newOverrides = new GameFoodItem[customer_index+1];
+			if(orderOverrides != null) System.arraycopy(orderOverrides, 0, newOverrides, 0, orderOverrides.length);
+			orderOverrides = newOverrides;
+		}
+		orderOverrides[customer_index] = theItem;
 	}
 	
-	/** Used to determine how many of each food item can be served from a particular CustomerQueue. The math is pretty 
-	 * straight-forward: given a maximum number of items (usually queue_length * max_order_size), determine how many items
-	 * should be ordered based on GameFoodItem.orderProbability. We create a List of integers that reflects the item 
-	 * count for each item in foodItemMenu
+	/** Add the next customer to the end of the line; called by the line when they show up. The Customer is re-used 
+	 * out of the pool if there is one, otherwise a new one is created.
+	 * @param customer_index The number of the customer in this queue
 	 */
-	public ArrayList<Integer> generateFoodItemCounts(List<GameFoodItem> foodItemMenu, int total_number_of_items) {
-		float total_probability = 0.0f;
+	private synchronized void showNextCustomer(int customer_index) {
+		int queue_position = customer_index - line.getDeparted();
+		Customer customer;
 		
-		for(GameFoodItem fi : foodItemMenu) total_probability += fi.orderProbability;
-		
-		ArrayList<Integer> returned = new ArrayList<Integer>(foodItemMenu.size());
+		if(customers_pooled > 0) {
+			customer = customerPool[--customers_pooled];
+			customerPool[customers_pooled] = null;
+			customer.respawn(queue_position, point_mult, money_mult, impatience, orderGenerator);
+		} else {
+			customer = new Customer(caller, Customer.DEFAULT_CUSTOMER_MOVERATE, queue_position, point_mult, money_mult, 
+					impatience, foodItemMenu, offset_x, orderGenerator);
+		}
 		
-		for(GameFoodItem fi : foodItemMenu) {
-			returned.add( ((int) ((fi.orderProbability/total_probability) * ((float) total_number_of_items))) + 1);
+		if(orderOverrides != null && customer_index < orderOverrides.length && orderOverrides[customer_index] != null) {
+			customer.setCustomerOrder(orderOverrides[customer_index]);
+			orderOverrides[customer_index] = null;
 		}
 		
-		//The zero-th index is food item "nothing" so it should never get picked
-		returned.set(0, 0);
+		//With a layout the queue doesn't know which of its customers will be the last (see CustomerQueueLayout)
+		if(layout == null && customer_index == queue_length-1) lastCustomer = customer;
 		
-		return(returned);
+		Log.v(activitynametag, this.getName() + " customer " + customer_index + ": " + customer.toString());
+		pushWindow(customer_index, customer);
+		customer.setVisible(true);
+		activeCustomers.add(customer);
+		publishActiveCustomers();
 	}
 	
-	public CustomerQueue(Context caller, int x_pos, int y_pos, int orientation, 
-			int queue_length, float point_mult, float money_mult, 
-			float impatience, int max_items_in_order, 
-			List<GameFoodItem> foodItemMenu) {
-		this(caller, x_pos,  y_pos, orientation, queue_length, point_mult, money_mult, impatience, max_items_in_order, foodItemMenu, 1);
+	/** Publish a copy of the active set for the render Looper to draw */
+	private void publishActiveCustomers() {
+		shownCustomers = activeCustomers.toArray(new Customer[activeCustomers.size()]);
 	}
 	
-	/** Used to set the food item order for a particular customer. Tutorial uses this method to set 
-	 * the customer orders to something predictable.
-	 * 
-	 */
-	public void setCustomerOrder(int customer_index, GameFoodItem theItem) {
-		customerList.get(customer_index).setCustomerOrder(theItem);
+	/** Add the next customer to the end of the line right away; used by the CustomerQueueLayout, which decides when
+	 * customers show up and which line they join */
+	void admitCustomer(long now_ms) {
+		line.admit(now_ms);
 	}
 	
-	/** Decrement the queue position for each customer, effective advancing the line */
-	private void advanceQueue() {
-		for(int i = 0; i < queue_length; i++) {
-			customerList.get(i).decQueuePosition();
+	/** Put a Customer that has walked out back into the pool, if there is room left in it; otherwise the Customer is
+	 * dropped, and gives its MovementSystem slot back */
+	private synchronized void releaseCustomer(Customer customer) {
+		if(customer == lastCustomer) return; //isFinished() still needs it
+		if(customers_pooled < CUSTOMER_POOL_SIZE) customerPool[customers_pooled++] = customer;
+		else customer.releaseMotion();
+	}
+	
+	/** Return customer number idx out of the active window; idx must be in [window_start, line.getShown()) */
+	private Customer windowCustomer(int idx) {
+		Customer [] w = window;
+		return(w[idx & (w.length-1)]);
+	}
+	
+	/** Add customer number customer_index (the one after the last) to the end of the active window, growing the ring 
+	 * buffer if it is full */
+	private void pushWindow(int customer_index, Customer customer) {
+		if(customer_index - window_start == window.length) {
+			Customer [] newWindow = new Customer[window.length * 2];
+			for(int i = window_start; i < customer_index; i++) newWindow[i & (newWindow.length-1)] = windowCustomer(i);
+			window = newWindow;
 		}
 		
-		customers_processed++;
+		window[customer_index & (window.length-1)] = customer;
+	}
+	
+	/** Decrement the queue position for each customer in the active window, effectively advancing the line (the
+	 * customers who haven't shown up yet get their position when they do); called by the line once the customer at 
+	 * the front has left it. The line then schedules the next customer to show up. */
+	private void advanceQueue() {
+		int window_end = line.getShown();
+		for(int i = window_start; i < window_end; i++) {
+			windowCustomer(i).decQueuePosition();
+		}
 	}
 	
 	/** Get the customer at the front of the queue
 	 * 
-	 * @return Customer with queue position 0.
+	 * @return Customer with queue position 0, or null if the next customer hasn't shown up yet (or there are no more)
 	 */
 	private Customer head() {
-		for(int i = 0; i < queue_length; i++) {
-			if(customerList.get(i).getQueuePosition() == 0)
-				return customerList.get(i);
-		}
-		
-		//Happens when the queue is empty
-		return null;
+		int idx = line.getDeparted();
+		if(idx >= line.getShown()) return null;
+		return windowCustomer(idx);
 	}
 	
-	/** Called by ViewThread when we are to update the state of this CustomerQueue. Aside from doing the typical
+	/** Return how many customers have shown up in this line so far, and how many of them are still in it; used by
+	 * the CustomerQueueLayout to check its books (simulation Looper only) */
+	int customersShown() { return(line.getShown()); }
+	int customersWaiting() { return(line.getWaiting()); }
+	
+	/** Called by the SimulationThread when we are to update the state of this CustomerQueue. Aside from doing the typical
 	 * GameItem updates (like trying to change state; since the CustomerQueue itself is stateless this is moot) it
-	 * will also update queue positions and visibility for the Customers in the queue.
+	 * will also update queue positions and visibility for the Customers in the queue. Only the active customers
+	 * (the visible ones) are updated, so this costs the same no matter how long the level's queue is.
 	 * 
 	 */
 	public void onUpdate() {
 		super.onUpdate();
 		
-		//Call update for all of the customers
-		for(int i = 0; i < queue_length; i++) {
-			customerList.get(i).onUpdate();
+		//Call update for all of the customers that are on screen
+		for(int i = 0; i < activeCustomers.size(); i++) {
+			activeCustomers.get(i).onUpdate();
 		}
 		
 		//Advance the queue if customer at position 0 has finished
-		if(head() != null && (head().getState() == Customer.STATE_ANGRY || head().getState() == Customer.STATE_SERVED || head().getState() == Customer.STATE_FINISHED)) {
-			if(head().getState() == Customer.STATE_SERVED) {
-				customers_satisfied++;
-				Log.d(activitynametag, this.getName() + " has served " + customers_satisfied + " customers.");
-			}
-			advanceQueue(); 
+		Customer head = head();
+		if(head != null && (head.getState() == Customer.STATE_ANGRY || head.getState() == Customer.STATE_SERVED || head.getState() == Customer.STATE_FINISHED)) {
+			boolean served = (head.getState() == Customer.STATE_SERVED);
+			line.customerLeft(served); 
+			if(served) Log.d(activitynametag, this.getName() + " has served " + line.getServed() + " customers.");
+			
+			CustomerQueueWrapper w = wrapper;
+			if(w != null) w.onCustomerLeft(served);
+			if(layout != null) layout.onCustomerLeft(layout_index, served);
 		}
-				
 		
-		//Toggle customer visibility
-		for(int i = 0; i < queue_length; i++) {
-			//Hide everything with queue position <0
-			if(customerList.get(i).getQueuePosition() < 0 &&
-					customerList.get(i).getState() == Customer.STATE_FINISHED) 
-				customerList.get(i).setVisible(false);
-					
-			
-			//Set the next customer that should be visible to visible IF sufficient time has passed
-			//and the customer's position is between 0 (front of the line) and the last visible position
-			if(!customerList.get(i).isVisible() && 
-					(customerList.get(i).getQueuePosition()>=0 && 
-					customerList.get(i).getQueuePosition()<QUEUE_VISIBLE_LENGTH) && 
-					GameInfo.currentTimeMillis() > time_since_last_customer+TIME_BETWEEN_CUSTOMERS_MS){
-				customerList.get(i).setVisible(true);
-				time_since_last_customer = GameInfo.currentTimeMillis();
-				
-				i = queue_length; //end loop
+		//Hide the customers that have walked out, and drop them from the active set and the active window
+		boolean active_changed = false;
+		for(int i = activeCustomers.size() - 1; i >= 0; i--) {
+			Customer customer = activeCustomers.get(i);
+			if(customer.getState() == Customer.STATE_FINISHED) {
+				customer.setVisible(false);
+				activeCustomers.remove(i);
+				active_changed = true;
 			}
 		}
-		
+		if(active_changed) publishActiveCustomers();
+		while(window_start < line.getDeparted() && !windowCustomer(window_start).isVisible()) {
+			releaseCustomer(windowCustomer(window_start));
+			window[window_start & (window.length-1)] = null;
+			window_start++;
+		}
 	}
 	
 	/** Draws this CustomerQueue and also calls draw for all Customers in Queue*/
 	public void draw(Canvas canvas) {
 		super.draw(canvas);
 		
-		for(int i = 0; i < queue_length; i++) {
-			customerList.get(i).draw(canvas);
+		Customer [] shown = shownCustomers;
+		lastCustomersRect.setEmpty();
+		for(int i = 0; i < shown.length; i++) {
+			shown[i].draw(canvas);
+			shown[i].addDrawnRect(lastCustomersRect);
+		}
+	}
+	
+	/** The Customers in the queue have to be redrawn where they are now and also where they were last drawn, which
+	 * covers the Customers that have left the queue since; see ViewObject
+	 */
+	@Override
+	public boolean addDirtyRect(Rect dirty) {
+		boolean known = super.addDirtyRect(dirty);
+		
+		Customer [] shown = shownCustomers;
+		dirty.union(lastCustomersRect);
+		for(int i = 0; i < shown.length; i++) {
+			if(!shown[i].addDirtyRect(dirty)) known = false;
 		}
+		return(known);
+	}
+	
+	/** Give the MovementSystem slots of all of this queue's Customers back, once the level is torn down */
+	public synchronized void releaseCustomers() {
+		for(int i = window_start; i < line.getShown(); i++) windowCustomer(i).releaseMotion();
+		for(int i = 0; i < customers_pooled; i++) customerPool[i].releaseMotion();
+		if(lastCustomer != null) lastCustomer.releaseMotion();
 	}
 	
-	/** Called when CoffeeGirl interacts with this GameItem; basically she interacts directly with the 
-	 * head of the queue 
+	/** Return how many Customers are active (visible, and so updated and drawn); only for the debug overlay */
+	public int getActiveCustomerCount() {
+		return(shownCustomers.length);
+	}
+	
+	/** Return how many Customer objects this CustomerQueue holds, in the active window and in the pool; only for the 
+	 * debug overlay */
+	public synchronized int getCustomerCount() {
+		return((line.getShown() - window_start) + customers_pooled);
+	}
+	
+	/** Called (by the GLT, on the simulation Looper) when CoffeeGirl interacts with this GameItem; basically she 
+	 * interacts directly with the head of the queue. The customers are updated on the simulation Looper too, so the 
+	 * head is served right here, in the same step that CoffeeGirl reached the counter, and result is filled in by 
+	 * the head (see Customer.onInteraction()). The CustomerQueue itself is stateless, so previous_state is always 0.
 	 * 
-	 * @return The Interaction object describing the result of CoffeeGirl's interaction with this CustomerQueue
+	 * @param held_item What CoffeeGirl holds, as the associated CoffeeGirl state (ShopRules.HELD_*)
+	 * @param result The Interaction object to write the result of CoffeeGirl's interaction with this CustomerQueue into
 	 * 
 	 * */
-	public Interaction onInteraction(String foodItem) {
-		if(head() != null)
-			return(head().onInteraction(foodItem));
-		else
-			return new Interaction();
+	@Override
+	public void onInteraction(int held_item, Interaction result) {
+		result.previous_state = 0;
+		
+		Customer head = head();
+		if(head == null) return;
+		
+		head.onInteraction(held_item, result);
+		if(head == lastCustomer && head.orderSatisfied()) reportFinished();
+	}
+	
+	/** Tell the wrapper that this queue has finished (see isFinished()), unless it has been told already */
+	synchronized void reportFinished() {
+		CustomerQueueWrapper w = wrapper;
+		if(finished_reported || w == null) return;
+		
+		finished_reported = true;
+		w.onQueueFinished();
+	}
+	
+	/** Set the CustomerQueueWrapper that keeps the statistics of this queue; called by the wrapper */
+	public void setWrapper(CustomerQueueWrapper n_wrapper) {
+		wrapper = n_wrapper;
 	}
 	
+	/** Return how many customers this queue has in total (with a CustomerQueueLayout, its share of the level's
+	 * customers) */
+	public int getQueueLength() { return queue_length; }
+	
 	/** Return true if the last Customer (and by extension every other customer) in this queue has been served
 	 * 
 	 * @return True if the last Customer has been served, otherwise false.
 	 */
 	public boolean isFinished() {
-		if(customerList.get(queue_length-1).orderSatisfied()) return true;
+		if(layout != null) return isFinishReported();
+		Customer last = lastCustomer;
+		if(last != null && last.orderSatisfied()) return true;
 		return false;
 	}
+	
+	private synchronized boolean isFinishReported() {
+		return(finished_reported);
+	}
+	
 	/** Returns the number of customers that left the queue not because their order was satisfied, but because
 	 * they lost patience 
 	 * @return
 	 */
-	public int numberOfCustomersIgnored() { return (customers_processed - customers_satisfied); }
+	public int numberOfCustomersIgnored() { return (line.getDeparted() - line.getServed()); }
 	
 	/** Return the number of customers that were satisfied */
-	public int numberOfCustomersServed() { return (customers_satisfied); }
+	public int numberOfCustomersServed() { return (line.getServed()); }
 	
 	/** Return how many customers are remaining in the queue */
-	public int numberOfCustomersLeft() { return queue_length - customers_processed; }
+	public int numberOfCustomersLeft() { return queue_length - line.getDeparted(); }
 }
@@ -0,0 +1,189 @@
+package org.coffeecats.coffeetime.gameobjects;
+
+import java.util.List;
+
+import org.coffeecats.coffeetime.gamelogic.GameClock;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
+import org.coffeecats.coffeetime.simulation.CustomerArrivals;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+
+import android.content.Context;
+import android.util.Log;
+
+/** CustomerQueueLayout sets up the customer lines of a level: it places any number of CustomerQueues (a counter
+ * each, with its line of customers) side by side along the top of the GameGrid, narrowing the counters when there are
+ * too many lines for them to fit at full width, and decides which line each arriving customer joins. There are two ways of doing that (the policy):
+ *
+ * POLICY_SEPARATE_LINES: every line gets an equal share of the level's customers, who show up on their own, the
+ * way a CustomerQueue always has.
+ *
+ * POLICY_SHORTEST_QUEUE: the customers arrive at the shop one at a time, as many per second as separate lines
+ * would have, and join the line with the fewest customers waiting in it (lines that are equally short take turns),
+ * so the lines that are served quickly get more customers. If every line is full the customer waits for the first
+ * one that has room. The arrivals are run by a CustomerArrivals, the same one that the headless LevelSimulation
+ * sends its customers with.
+ *
+ * The layout keeps its books as it goes: every customer it sends to a line has to turn up in that line, and has to
+ * leave it again before the line can finish. Once every customer has arrived and left it checks that they all add
+ * up, and that every line whose last customer was served has finished (see checkAccounts()); if anything doesn't
+ * add up it says so in the log.
+ *
+ * The layout is built along with the level, on the prefetch Looper, and the first arrival is only scheduled at the end
+ * of the constructor; the GameScheduler holds it until the level has been published (see
+ * GameScheduler.holdForNewLevel()). After that the layout is only used on the simulation Looper: the arrivals are run
+ * by the GameScheduler and onCustomerLeft() is called from CustomerQueue.onUpdate(), both by the SimulationThread, and
+ * nothing else touches the arrivals or the books. So none of them need a lock or to be volatile; don't call into the
+ * layout from any other thread (the renderer only ever draws the CustomerQueues).
+ *
+ * @author ivany
+ *
+ */
+public class CustomerQueueLayout {
+	private static final String activitynametag = "CustomerQueueLayout";
+
+	public static final int POLICY_SEPARATE_LINES = ShopRules.QUEUE_POLICY_SEPARATE_LINES;
+	public static final int POLICY_SHORTEST_QUEUE = ShopRules.QUEUE_POLICY_SHORTEST_QUEUE;
+
+	//The most lines a level can have (a line is a bit in an int mask, and more than this don't fit on the GameGrid)
+	public static final int MAX_QUEUES = ShopRules.MAX_QUEUES;
+	//How far apart the counters are, if there's room for it (see ShopRules.queueX())
+	public static final int QUEUE_SPACING = ShopRules.QUEUE_SPACING;
+
+	private final CustomerQueue [] queues;
+	private final int policy;
+
+	//POLICY_SHORTEST_QUEUE only (null otherwise), and only touched on the simulation Looper (see above): sends the
+	//customers to the lines, and keeps count of how many are waiting in each
+	private final CustomerArrivals arrivals;
+	//Whether the last customer that left each line was served (a line that hasn't had any customers counts as served)
+	private final boolean [] last_left_served;
+	//The books: how many customers the level has (how many were sent to a line and have left one since is counted by
+	//the arrivals)
+	private final int customer_count;
+
+	/** Create the CustomerQueues of a level.
+	 *
+	 * @param caller The calling Context, for extracting resources and such
+	 * @param queue_count How many lines there are (at most MAX_QUEUES)
+	 * @param policy Which line arriving customers join (POLICY_SEPARATE_LINES or POLICY_SHORTEST_QUEUE)
+	 * @param customer_count How many customers the level has in total; with POLICY_SEPARATE_LINES every line gets
+	 * customer_count/queue_count of them
+	 * @param point_mult The point multiplier for customer order completions
+	 * @param money_mult The money multiplier for customer order completions
+	 * @param impatience How quickly the customers' mood degrades as they wait
+	 * @param max_items_in_order The maximum number of items that can be in any Customer's order
+	 * @param foodItemMenu A List of FoodItems that the Customers can create their random order from
+	 */
+	public CustomerQueueLayout(Context caller, int queue_count, int policy, int customer_count,
+			float point_mult, float money_mult, float impatience, int max_items_in_order,
+			List<GameFoodItem> foodItemMenu) {
+		if(queue_count < 1 || queue_count > MAX_QUEUES) {
+			Log.w(activitynametag, "Can't lay out " + queue_count + " customer queues, using " +
+					Math.max(1, Math.min(queue_count, MAX_QUEUES)));
+			queue_count = Math.max(1, Math.min(queue_count, MAX_QUEUES));
+		}
+
+		this.policy = policy;
+		this.customer_count = customer_count;
+		queues = new CustomerQueue[queue_count];
+		last_left_served = new boolean[queue_count];
+		if(policy == POLICY_SHORTEST_QUEUE) {
+			arrivals = new CustomerArrivals(GameClock.getSimulationClock(), GameScheduler.getDeadlineQueue(), 
+					queue_count, customer_count) {
+				@Override
+				protected void onAdmit(int line, long now_ms) {
+					queues[line].admitCustomer(now_ms);
+				}
+				
+				@Override
+				protected void onLastArrival() {
+					//That was the last customer; the lines that are already done are finished now
+					for(int i = 0; i < queues.length; i++) checkFinished(i);
+				}
+			};
+		}
+		else arrivals = null;
+
+		for(int i = 0; i < queue_count; i++) {
+			//Separate lines drop the remainder, as the levels always have; with one shop-wide stream of customers the
+			//remainder is spread over the first lines, so that the lines' lengths add up to the level's customers
+			int line_customers = customer_count / queue_count;
+			if(policy == POLICY_SHORTEST_QUEUE && i < customer_count % queue_count) line_customers++;
+
+			queues[i] = new CustomerQueue(caller, queueX(i, queue_count), CustomerQueue.Y_POS_FROM_GG_TOP,
+					GameItem.ORIENTATION_NORTH, line_customers, point_mult, money_mult,
+					impatience, max_items_in_order, foodItemMenu, i+1,
+					(policy == POLICY_SHORTEST_QUEUE) ? this : null, i, ShopRules.counterWidth(queue_count));
+
+			if(policy == POLICY_SHORTEST_QUEUE) last_left_served[i] = true;
+		}
+
+		//The first customer arrives right away
+		if(policy == POLICY_SHORTEST_QUEUE) arrivals.start();
+	}
+
+	/** Return the GameGrid X position of the counter of line index (0 for the left-most) out of queue_count lines */
+	public static int queueX(int index, int queue_count) {
+		return(ShopRules.queueX(index, queue_count));
+	}
+
+	/** Returns the CustomerQueues, left-most first; they still have to be added to the level (and to a
+	 * CustomerQueueWrapper). This is the underlying array, so don't modify it! */
+	public CustomerQueue [] getQueues() {
+		return(queues);
+	}
+
+	/** Called by a CustomerQueue when the customer at its front has left the line (POLICY_SHORTEST_QUEUE only); if a
+	 * customer is waiting for room, the arrivals send them to this line
+	 * @param queue_index The index of the CustomerQueue in this layout
+	 * @param served Whether the customer's order was satisfied
+	 */
+	void onCustomerLeft(int queue_index, boolean served) {
+		if(arrivals.getLength(queue_index) <= 0) {
+			Log.w(activitynametag, "A customer left line " + queue_index + ", which nobody was sent to");
+			return;
+		}
+
+		last_left_served[queue_index] = served;
+		arrivals.customerLeft(queue_index);
+
+		if(arrivals.getLength(queue_index) != queues[queue_index].customersWaiting()) {
+			Log.w(activitynametag, "Line " + queue_index + " has " + queues[queue_index].customersWaiting() +
+					" customers waiting, but " + arrivals.getLength(queue_index) + " were sent to it");
+		}
+
+		if(arrivals.getCustomersToArrive() <= 0) {
+			checkFinished(queue_index);
+			if(arrivals.getCustomersLeft() == arrivals.getCustomersAdmitted()) checkAccounts();
+		}
+	}
+
+	/** Once every customer has arrived, a line is finished when nobody is left in it and the last customer that left
+	 * it was served (the same as a CustomerQueue with its own customers, see CustomerQueue.isFinished()) */
+	private void checkFinished(int queue_index) {
+		if(arrivals.getLength(queue_index) == 0 && last_left_served[queue_index]) queues[queue_index].reportFinished();
+	}
+
+	/** Once every customer has arrived and left, check that the books balance: every customer of the level was sent
+	 * to a line, turned up in it and left it again, and every line whose last customer was served has finished */
+	private void checkAccounts() {
+		int shown = 0;
+		for(int i = 0; i < queues.length; i++) {
+			shown += queues[i].customersShown();
+			if(arrivals.getLength(i) != 0 || queues[i].customersWaiting() != 0) {
+				Log.w(activitynametag, "Line " + queues[i].getName() + " still has " + queues[i].customersWaiting() +
+						" customers waiting after everyone has left");
+			}
+			if(last_left_served[i] && !queues[i].isFinished()) {
+				Log.w(activitynametag, "Line " + queues[i].getName() + " served its last customer but hasn't finished");
+			}
+		}
+
+		int admitted = arrivals.getCustomersAdmitted();
+		int left = arrivals.getCustomersLeft();
+		if(admitted != customer_count || left != admitted || shown != admitted) {
+			Log.w(activitynametag, "The customers don't add up: " + customer_count + " in the level, " +
+					admitted + " sent to a line, " + shown + " turned up, " + left + " left");
+		}
+	}
+}
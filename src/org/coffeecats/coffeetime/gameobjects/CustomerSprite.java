@@ -5,12 +5,12 @@ import java.util.Arrays;
 import java.util.Random;
 
 import org.coffeecats.coffeetime.R;
+import org.coffeecats.coffeetime.utility.BitmapCache;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 
 public class CustomerSprite extends GameSprite {
 	
@@ -41,8 +41,20 @@ public class CustomerSprite extends GameSprite {
 	@Override
 	protected void initSprite(Context caller) {
 		initSpriteStatic(caller);
-		
-		//Figure out which DBMs we are to use for this particular CustomerSprite instance
+		pickAppearance();
+	}
+	
+	/** Give this CustomerSprite a new random look; called by Customer when it is re-used (see Customer.respawn()) 
+	 * so that a pooled customer doesn't come back looking like the last person it played.
+	 */
+	public void respawn() {
+		initialized_customer_sprites += 439l;
+		pickAppearance();
+		last_time_drawn = -1L;
+	}
+	
+	/** Figure out which (static, shared) DBMs we are to use for this particular CustomerSprite instance */
+	private void pickAppearance() {
 		Random random = new Random(System.currentTimeMillis() + initialized_customer_sprites);
 		int gender = random.nextInt(2);
 		
@@ -93,46 +105,46 @@ public class CustomerSprite extends GameSprite {
 		girlHairDBMs = new ArrayList<DirectionBitmapMap>();
 		
 		DirectionBitmapMap hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_bun_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_bun_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_bun_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_bun_east);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_bun_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_bun_west);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_bun_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_bun_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_bun_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_bun_east);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_bun_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_bun_west);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_hair_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_hair_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_hair_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_hair_east);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_brown_hair_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_brown_hair_west);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_hair_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_hair_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_hair_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_hair_east);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_black_hair_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_black_hair_west);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlHairDBMs.add(hairBitmap);
 		
@@ -142,31 +154,31 @@ public class CustomerSprite extends GameSprite {
 		girlBodyDBMs = new ArrayList<DirectionBitmapMap>();
 		
 		DirectionBitmapMap bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_businesswoman_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_businesswoman_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_businesswoman_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_businesswoman_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_businesswoman_body_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_businesswoman_body_east);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlBodyDBMs.add(bodyBitmap);
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_dress_north_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_dress_north_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_dress_east_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_dress_east_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlBodyDBMs.add(bodyBitmap);
 		
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_kimono_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_kimono_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_kimono_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_kimono_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_kimono_body_east_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_kimono_body_east_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		girlBodyDBMs.add(bodyBitmap);
@@ -176,7 +188,7 @@ public class CustomerSprite extends GameSprite {
 		girlArmDBMs = new ArrayList<DirectionBitmapMap>();
 		
 		DirectionBitmapMap armBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_girl_kimonoarms_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_girl_kimonoarms_south);
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
@@ -184,7 +196,7 @@ public class CustomerSprite extends GameSprite {
 		girlArmDBMs.add(armBitmap);
 		
 		armBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_hand_front_empty);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_hand_front_empty);
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
 		armBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
@@ -197,57 +209,57 @@ public class CustomerSprite extends GameSprite {
 		boyHairDBMs = new ArrayList<DirectionBitmapMap>();
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_east);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_brown_west);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_combover_hair_black_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_combover_hair_black_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_hair_north);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_professor_hair_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_professor_hair_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyHairDBMs.add(hairBitmap);
 		
 		hairBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_ox_hair_north_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_ox_hair_north_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_ox_hair_north_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_ox_hair_north_south);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_east_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_boy_west_hair);
 		hairBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyHairDBMs.add(hairBitmap);
 		
@@ -257,50 +269,50 @@ public class CustomerSprite extends GameSprite {
 		boyBodyDBMs = new ArrayList<DirectionBitmapMap>();
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_east_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_east_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyBodyDBMs.add(bodyBitmap);
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_kungfu_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_kungfu_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_kungfu_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_kungfu_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_kungfu_body_east_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_kungfu_body_east_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyBodyDBMs.add(bodyBitmap);
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_hakama_body_east_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_hakama_body_east_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyBodyDBMs.add(bodyBitmap);
 		
 		bodyBitmap = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_body_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_body_north);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_body_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_body_south);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_body_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_body_east);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_boy_businessman_body_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_boy_businessman_body_west);
 		bodyBitmap.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		boyBodyDBMs.add(bodyBitmap);
 		
 		
 				
 		boyArmDBM = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_all_arms);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_all_arms);
 		boyArmDBM.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
 		boyArmDBM.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
 		boyArmDBM.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
@@ -311,30 +323,30 @@ public class CustomerSprite extends GameSprite {
 		
 		
 		headDBM = new DirectionBitmapMap(true, default_direction);
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_both_head_north);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_both_head_north);
 		headDBM.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_both_head_south);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_both_head_south);
 		headDBM.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_both_head_east);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_both_head_east);
 		headDBM.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(1,tempBitmap));
-		tempBitmap = BitmapFactory.decodeResource(caller.getResources(), R.drawable.customer_both_head_west);
+		tempBitmap = BitmapCache.acquire(caller.getResources(), R.drawable.customer_both_head_west);
 		headDBM.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(1,tempBitmap));
 		
 		feetDBM = new DirectionBitmapMap(true, default_direction);
 		CircularList<Bitmap> northSouthList = new CircularList<Bitmap>( Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f1),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f2)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f1),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_northsouth_f2)
 			));
 		feetDBM.setDirectionList(DirectionBitmapMap.DIRECTION_NORTH, northSouthList);
 		feetDBM.setDirectionList(DirectionBitmapMap.DIRECTION_SOUTH, northSouthList);
 		feetDBM.setDirectionList(DirectionBitmapMap.DIRECTION_EAST, new CircularList<Bitmap>(Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_east_f1)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_east_f1)
 			)));
 		feetDBM.setDirectionList(DirectionBitmapMap.DIRECTION_WEST, new CircularList<Bitmap>(Arrays.asList(
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.coffeegirl_both_feet_west_f1)
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_eastwest_f0),
+				BitmapCache.acquire(caller.getResources(), R.drawable.coffeegirl_both_feet_west_f1)
 			)));
 		
 		static_init_done = true;
@@ -1,21 +1,21 @@
 package org.coffeecats.coffeetime.gameobjects;
 
 import java.util.ArrayList;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.MovementSystem;
 import org.coffeecats.coffeetime.gamelogic.State;
+import org.coffeecats.coffeetime.utility.BitmapCache;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
+import org.coffeecats.coffeetime.utility.SpriteCompositor;
 
 import org.coffeecats.coffeetime.R;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.SystemClock;
 import android.util.Log;
 
@@ -34,18 +34,18 @@ public abstract class GameActor implements ViewObject {
 	//Bitmap of this CoffeeGirl
 	protected DirectionBitmapMap bitmapmap;
 
-	//represents (interpolated) current position (on the GameGrid)
-	protected int x, y; 
-	//represents a more precise current position on the GameGrid
-	private float x_real, y_real;
-	//represents the position we move towards
-	protected int target_x, target_y;
-	
-	//Define the move rate, in pixels per UNIT_INTERVAL_MS ms
+	//The slot that holds this GameActor's position, target and speed in the MovementSystem, which moves all of the
+	//GameActors at once; and whether the slot has been given back (see releaseMotion())
+	private final int motion_slot;
+	private boolean motion_released = false;
+	
+	//Define the move rate, in GameGrid units per MovementSystem.UNIT_INTERVAL_MS ms
 	protected int move_rate;
-	final double UNIT_INTERVAL_MS = 200.0; 
-	//Represents the last time we performed an onUpdate() operation
-	protected long time_of_last_update;
+	
+	//How far the renderer is between the previous and the current simulation step (0.0 - 1.0). Set by the 
+	//ViewThread before every frame is drawn, along with the positions it is drawn from (MovementSystem.snapshot()), so
+	//that GameActors are drawn at an interpolated position
+	private static volatile float interpolation_alpha = 1.0f;
 	
 	//Represents the last time that we DREW this GameActor
 	protected long last_time_drawn;
@@ -55,21 +55,22 @@ public abstract class GameActor implements ViewObject {
 	protected final boolean USING_NEW_SPRITES;
 	//This GameActor's sprite
 	protected GameSprite gameActorSprite;
+	//The sprite layers (body, head, hair, feet, hands) being drawn; only used by draw(), on the render Looper
+	private final Bitmap [] spriteLayers = new Bitmap[SpriteCompositor.MAX_LAYERS];
 	
+	//The area around the drawn position that this GameActor draws into, relative to the drawn position. It only ever
+	//grows (a Customer's speech bubble comes and goes), so that one Rect covers everything this GameActor may draw
+	private final Rect drawnExtent = new Rect();
+	//Whether this GameActor was drawn in the last frame, and where; only used on the render Looper
+	private boolean drawn_last_frame = false;
+	private int last_drawn_x, last_drawn_y;
+	private final Rect scratchRect = new Rect();
 	
-	//lock
-	private boolean locked;
 	//Calling context, for getting resources later on
 	protected Context caller;
 	
-	//define whether this GameActor should be drawn
-	protected boolean visible;
-	
-	private Lock myLock;
-	
-	/** These methods are used to lock and unlock the GameActor's internal variables, like position */
-	protected synchronized void setLocked(){ myLock.lock(); }
-	protected synchronized void unLock() { myLock.unlock(); }
+	//define whether this GameActor should be drawn; set on the simulation Looper, read by the render Looper
+	protected volatile boolean visible;
 	
 	private static int instance_count = 0;
 	private int instance_idx = 0;
@@ -91,16 +92,8 @@ public abstract class GameActor implements ViewObject {
 	 * @param starting_y The starting y location on the GameGrid
 	 */
 	public GameActor(Context caller, int move_rate, int starting_x, int starting_y, boolean use_new_sprite) {
-		//Set starting position to middle of canvas
-		x = starting_x;
-		x_real = starting_x;
-		y = starting_y;
-		y_real = starting_y;
-		
-		target_x=x; target_y=y;
+		motion_slot = MovementSystem.allocate(starting_x, starting_y, move_rate);
 		
-		time_of_last_update = -1;
-		locked = false;
 		this.caller = caller;
 		
 		this.move_rate = move_rate;
@@ -111,74 +104,91 @@ public abstract class GameActor implements ViewObject {
 		
 		bitmapmap = new DirectionBitmapMap(false);
 		bitmapmap.setDirectionList(0, new CircularList<Bitmap>(1,
-				BitmapFactory.decodeResource(caller.getResources(), R.drawable.blender)));
-		
-		myLock = new ReentrantLock();
+				BitmapCache.acquire(caller.getResources(), R.drawable.blender)));
 		
 		instance_idx = instance_count++;
 	}
 
-	/** onUpdate() gets called when GameActor needs to be updated by ViewThread
-	 * 
+	/** onUpdate() gets called when GameActor needs to be updated by the SimulationThread, once per fixed simulation
+	 * step (SimulationThread.SIMULATION_STEP_MS). The GameActor has already been moved towards its target for this step by
+	 * then: the MovementSystem moves every GameActor in one go, before the ViewObjects are updated.
 	 */
-	@SuppressLint("FloatMath")
 	public void onUpdate() {
-		//If we aren't visible there's no need to do motion calculation, just exit
-		if(!visible) return;
-		
-		setLocked();
-		int target_x = this.target_x;			
-		int target_y = this.target_y;
-		unLock();
-		
-		/* =-=-= CALCULATE MOTION VECTOR AND APPLY IT TO CHANGE POSITION! =-=-= */
-		float max_dist_moved; //the maximum distance we can move this onUpdate()
-		
-		//If we haven't even moved yet then just assume we can't move and calculate again on the next frame
-		if(time_of_last_update < 0)	{
-			max_dist_moved = 0.0f;
-		}
-		//Otherwise, assume we can move move_rate * (time since last update / 100ms) pixels
-		else {
-			double unit_intervals_since_moved = ( (double)(SystemClock.uptimeMillis() - time_of_last_update) ) / UNIT_INTERVAL_MS;
-			max_dist_moved = (float) ( unit_intervals_since_moved * ((float)move_rate) );
-		}
-		
-		//If we're not at our target position move towards it at move_rate
-		if(target_x != x || target_y != y) {
-			//Calculate distance to target
-			float distance = (float) Math.sqrt((target_x - x_real)*(target_x - x_real) + (target_y - y_real)*(target_y - y_real));
-			
-			//Log.d("GameActor", "Customer " + instance_idx + " has distance=" + distance + " target_y=" + target_y + " y=" + y + " yreal=" + y_real);
-			
-			//Calculate the length of our vector motion
-			float vector_length = Math.min( max_dist_moved, distance );
-			
-			//If the distance to the target is less than the maximum distance we're allowed to move, just
-			//move straight to the target
-			if(distance <= max_dist_moved) {
-				x = target_x;
-				y = target_y;
-				x_real = x;
-				y_real = y;
-			} else {
-				float vector_x, vector_y;
-				//Scale vectors by the distance that we are to traverse
-				vector_x = ((float)(target_x - x_real)) * vector_length/distance;
-				vector_y = ((float)(target_y - y_real)) * vector_length/distance;
-				
-				x_real += vector_x;
-				y_real += vector_y;
-				x = (int) Math.round(x_real); 
-				y = (int) Math.round(y_real);
-				
-				//Log.d("GameActor", "Customer " + instance_idx + " now y=" + y + " yreal=" + y_real);
-			}
-		}
-		
-		time_of_last_update = SystemClock.uptimeMillis();
+		;
+	}
+	
+	/** Put this GameActor at (new_x, new_y) right away, with no motion and nothing left to interpolate; used when
+	 * an actor is re-used for someone new (see Customer.respawn())
+	 * @param new_x The new x location on the GameGrid
+	 * @param new_y The new y location on the GameGrid
+	 */
+	protected void placeAt(int new_x, int new_y) {
+		MovementSystem.place(motion_slot, new_x, new_y);
+	}
+	
+	/** Set the position that this GameActor moves towards; may be called from any thread
+	 * @param new_x The target x location on the GameGrid
+	 * @param new_y The target y location on the GameGrid
+	 */
+	protected void setTarget(int new_x, int new_y) {
+		MovementSystem.setTarget(motion_slot, new_x, new_y);
+	}
+	
+	/** Return the position that this GameActor moves towards, as one word; unpack it with targetX() and targetY() */
+	protected long getTarget() {
+		return(MovementSystem.getTarget(motion_slot));
+	}
+	
+	protected static int targetX(long target) {
+		return(MovementSystem.unpackX(target));
+	}
+	
+	protected static int targetY(long target) {
+		return(MovementSystem.unpackY(target));
+	}
+	
+	/** Set how fast this GameActor walks, in GameGrid units per MovementSystem.UNIT_INTERVAL_MS */
+	protected void setMoveRate(int n_move_rate) {
+		move_rate = n_move_rate;
+		MovementSystem.setMoveRate(motion_slot, n_move_rate);
+	}
+	
+	/** Give this GameActor's MovementSystem slot back; called once the World it belongs to is torn down, after which
+	 * this GameActor doesn't move any more */
+	public synchronized void releaseMotion() {
+		if(motion_released) return;
+		motion_released = true;
+		MovementSystem.release(motion_slot);
 	}
 
+	/** Set how far (0.0 - 1.0) the current frame is between the previous and the current simulation step. 
+	 * Called by the ViewThread before drawing, with what MovementSystem.snapshot() returned; all GameActors are drawn
+	 * at the position interpolated by this amount.
+	 * @param alpha The fraction of a simulation step that has elapsed since the last step was run
+	 */
+	public static void setInterpolationAlpha(float alpha) {
+		interpolation_alpha = alpha;
+	}
+	
+	/** Return the canvas x coordinate at which this GameActor should be drawn, interpolated between the 
+	 * previous and the current simulation step.
+	 */
+	protected int getDrawnCanvasX() {
+		return(GameGrid.canvasX(MovementSystem.getInterpolatedX(motion_slot, interpolation_alpha)));
+	}
+	
+	/** Return the canvas y coordinate at which this GameActor should be drawn, interpolated between the 
+	 * previous and the current simulation step.
+	 */
+	protected int getDrawnCanvasY() {
+		return(GameGrid.canvasY(MovementSystem.getInterpolatedY(motion_slot, interpolation_alpha)));
+	}
+	
+	/** Return the GameGrid position of this GameActor as of the last step the ViewThread took a snapshot of; the
+	 * render Looper uses these rather than getPositionX() and getPositionY(), which the simulation is changing */
+	protected int getDrawnPositionX() { return(MovementSystem.getDrawnX(motion_slot)); }
+	protected int getDrawnPositionY() { return(MovementSystem.getDrawnY(motion_slot)); }
+
 	/** handleTap() is called by InputThread on user input, it does nothing for GameActor */
 	public void handleTap(int x, int y) {
 		;
@@ -188,27 +198,39 @@ public abstract class GameActor implements ViewObject {
 	 * @param canvas The canvas that this CoffeeGirl is to be drawn.
 	 * */
 	public void draw(Canvas canvas) {		
+		drawn_last_frame = isVisible();
+		last_drawn_x = getDrawnCanvasX();
+		last_drawn_y = getDrawnCanvasY();
+		
 		if(isVisible()) {
 			if(USING_NEW_SPRITES) {
 				if(gameActorSprite != null) {
-					Bitmap headBitmap = gameActorSprite.getHeadBitmap(target_x - x, target_y - y);
-					Bitmap hairBitmap = gameActorSprite.getHairBitmap(target_x - x, target_y - y);
-					Bitmap bodyBitmap = gameActorSprite.getBodyBitmap(target_x - x, target_y - y);
-					Bitmap feetBitmap = gameActorSprite.getFeetBitmap(target_x - x, target_y - y);
+					long target = getTarget();
+					int vector_x = targetX(target) - getDrawnPositionX();
+					int vector_y = targetY(target) - getDrawnPositionY();
+					
+					spriteLayers[0] = gameActorSprite.getBodyBitmap(vector_x, vector_y);
+					spriteLayers[1] = gameActorSprite.getHeadBitmap(vector_x, vector_y);
+					spriteLayers[2] = gameActorSprite.getHairBitmap(vector_x, vector_y);
+					spriteLayers[3] = gameActorSprite.getFeetBitmap(vector_x, vector_y);
+					spriteLayers[4] = getHandsBitmap(vector_x, vector_y);
 					
-					this.draw(canvas, bodyBitmap);
-					this.draw(canvas, headBitmap);
-					this.draw(canvas, hairBitmap);
-					this.draw(canvas, feetBitmap);
+					//Draw all of the layers in one go; if the composite couldn't be made, draw them one by one
+					Bitmap composite = SpriteCompositor.getComposite(spriteLayers, spriteLayers.length);
+					if(composite != null) this.draw(canvas, composite);
+					else for(int i = 0; i < spriteLayers.length; i++) this.draw(canvas, spriteLayers[i]);
 				} 
 			} else {
 				Bitmap bitmap;
+				long target = getTarget();
+				int vector_x = targetX(target) - getDrawnPositionX();
+				int vector_y = targetY(target) - getDrawnPositionY();
 				
 				if(SystemClock.uptimeMillis() > last_time_drawn + SPRITE_FRAME_PERIOD_MS ) {
-					bitmap = bitmapmap.getDirectionList(target_x - x, target_y - y).getNext();
+					bitmap = bitmapmap.getDirectionList(vector_x, vector_y).getNext();
 					last_time_drawn = SystemClock.uptimeMillis();
 				} else {
-					bitmap = bitmapmap.getDirectionList(target_x - x, target_y - y).getCurrent();
+					bitmap = bitmapmap.getDirectionList(vector_x, vector_y).getCurrent();
 				}
 			
 				this.draw(canvas, bitmap);
@@ -216,14 +238,60 @@ public abstract class GameActor implements ViewObject {
 		} 
 	}
 	
+	/** Return the Bitmap of this GameActor's "hands" for the given heading, which is drawn on top of the other 
+	 * sprite layers; null if the hands aren't drawn. 
+	 */
+	protected Bitmap getHandsBitmap(int vector_x, int vector_y) {
+		return(null);
+	}
+	
 	protected void draw(Canvas canvas, Bitmap bitmap) {
 		if(isVisible() && bitmap != null) {
-			int drawn_x = GameGrid.canvasX(x);
-			int drawn_y = GameGrid.canvasY(y);
-			canvas.drawBitmap(bitmap, drawn_x - (bitmap.getWidth() / 2), drawn_y - (bitmap.getHeight() / 2), null);
+			int drawn_x = getDrawnCanvasX();
+			int drawn_y = getDrawnCanvasY();
+			int left = drawn_x - (bitmap.getWidth() / 2);
+			int top = drawn_y - (bitmap.getHeight() / 2);
+			canvas.drawBitmap(bitmap, left, top, null);
+			extendDrawnArea(left, top, left + bitmap.getWidth(), top + bitmap.getHeight());
 		}
 	}
 	
+	/** Subclasses that draw more than the sprite (e.g. a held item or a speech bubble) call this with the area of the
+	 * canvas they draw into (or may draw into), so that it gets redrawn when this GameActor moves
+	 */
+	protected void extendDrawnArea(int left, int top, int right, int bottom) {
+		int drawn_x = getDrawnCanvasX();
+		int drawn_y = getDrawnCanvasY();
+		scratchRect.set(left - drawn_x, top - drawn_y, right - drawn_x, bottom - drawn_y);
+		drawnExtent.union(scratchRect);
+	}
+	
+	/** Add the area of the canvas that this GameActor was drawn into in the last frame to out (nothing if it 
+	 * wasn't drawn)
+	 */
+	public void addDrawnRect(Rect out) {
+		if(!drawn_last_frame || drawnExtent.isEmpty()) return;
+		scratchRect.set(drawnExtent);
+		scratchRect.offset(last_drawn_x, last_drawn_y);
+		out.union(scratchRect);
+	}
+	
+	/** GameActors animate even when standing still, so a visible GameActor is always redrawn: both where it was 
+	 * drawn in the last frame and where it is about to be drawn. See ViewObject.
+	 */
+	public boolean addDirtyRect(Rect dirty) {
+		//We don't know how large we are until we have been drawn once
+		if(isVisible() && drawnExtent.isEmpty()) return(false);
+		
+		addDrawnRect(dirty);
+		if(isVisible()) {
+			scratchRect.set(drawnExtent);
+			scratchRect.offset(getDrawnCanvasX(), getDrawnCanvasY());
+			dirty.union(scratchRect);
+		}
+		return(true);
+	}
+	
 	
 	
 	
@@ -233,8 +301,8 @@ public abstract class GameActor implements ViewObject {
 	public boolean isActor() { return true; }
 	public boolean isItem() { return false;	}
 	public abstract String getName();
-	public int getPositionX() {	return x; }
-	public int getPositionY() {	return y; }
+	public int getPositionX() {	return MovementSystem.getX(motion_slot); }
+	public int getPositionY() {	return MovementSystem.getY(motion_slot); }
 	
 	
 	
@@ -274,13 +342,9 @@ public abstract class GameActor implements ViewObject {
 	 * @param new_state The index of the new state to set this GameItem's State to.
 	 */
 	protected synchronized void setState(int new_state) {
-		setLocked(); 
-		
 		currentState = validStates.get(new_state);
 		current_state_idx = new_state;
 		this.bitmapmap = currentState.bitmap;
-		
-		unLock();
 	}
 	
 	/** Accessor method for current_state_idx; return index of the current state.
@@ -297,6 +361,7 @@ public abstract class GameActor implements ViewObject {
 	 */
 	public void setVisible(boolean visibility) {
 		visible = visibility;
+		if(!motion_released) MovementSystem.setActive(motion_slot, visibility);
 	}
 	
 	/** Determine whether this GameActor is currently visible (and will be drawn to the canvas)
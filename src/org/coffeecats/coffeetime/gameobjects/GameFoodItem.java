@@ -1,6 +1,6 @@
 package org.coffeecats.coffeetime.gameobjects;
 
-import android.graphics.Bitmap;
+import org.coffeecats.coffeetime.utility.Sprite;
 
 /** GameFoodItem is simply a container class that describes a food item and how many points it
  * is worth when given to a customer, or when thrown out
@@ -12,21 +12,27 @@ public abstract class GameFoodItem {
 	/**The name for this GameFoodItem*/
 	private String foodItemName;
 	
+	/**What CoffeeGirl holds when she carries this GameFoodItem (ShopRules.HELD_*); this is how the game tells the
+	 * items apart, the name is only for showing and logging*/
+	private final int held_item;
+	
 	/**The (weighed) probability of this food item being ordered; normalized to 1
 	 */
 	protected float orderProbability;
 	
-	/** Constructor for this GameFoodItem; just set the name.
+	/** Constructor for this GameFoodItem; just set the name and what CoffeeGirl holds when she carries it.
 	 * 
 	 * @param name The name of this GameFoodItem.
+	 * @param held_item What CoffeeGirl holds when she carries this GameFoodItem (ShopRules.HELD_*)
 	 * @param n_is_satisfied Whether this GameFoodItem has been satisfied (in the context of a Customer
 	 * order that has been satisfied by CoffeeGirl).
 	 */
-	public GameFoodItem(String name) {
-		this(name, false);
+	public GameFoodItem(String name, int held_item) {
+		this(name, held_item, false);
 	}
-	public GameFoodItem(String name, boolean n_is_satisfied) {
+	public GameFoodItem(String name, int held_item, boolean n_is_satisfied) {
 		foodItemName = name;
+		this.held_item = held_item;
 		is_satisfied = n_is_satisfied;
 		orderProbability = 1.0f;
 	}
@@ -34,6 +40,9 @@ public abstract class GameFoodItem {
 	/** Return the name of this GameFoodItem */
 	public String getName() { return foodItemName; }
 	
+	/** Return what CoffeeGirl holds when she carries this GameFoodItem (one of ShopRules.HELD_*) */
+	public int getHeldItem() { return held_item; }
+	
 	/** Calculate the number of points when coffeeGirl interacts with interactedWith, after
 	 * having waited for waitTime seconds.
 	 * @param interactedWith The GameItem that CoffeGirl interacted with while holding this GameFoodItem
@@ -60,17 +69,17 @@ public abstract class GameFoodItem {
 	/** Create a deep copy of the existing GameFoodItem */
 	public abstract GameFoodItem clone() ;
 	
-	/** Returns a bitmap representation of this food item (for drawing to the screen, f.ex.) when
+	/** Returns a sprite representation of this food item (for drawing to the screen, f.ex.) when
 	 * the food item is "active", i.e. when the colors are not desaturated 
-	 * @return Bitmap to use when drawing this food item
+	 * @return Sprite to use when drawing this food item
 	 */
-	public abstract Bitmap getBitmapActive();
+	public abstract Sprite getSpriteActive();
 	
-	/** Returns a bitmap representation of this food item (for drawing to the screen, f.ex.) when
+	/** Returns a sprite representation of this food item (for drawing to the screen, f.ex.) when
 	 * the food item is "inactive", i.e. when the colors are desaturated and the icon is ghosted 
-	 * @return Bitmap to use when drawing this food item, when it is inactive
+	 * @return Sprite to use when drawing this food item, when it is inactive
 	 */
-	public abstract Bitmap getBitmapInactive();
+	public abstract Sprite getSpriteInactive();
 	
 	/**Return this GameFoodItem's order probability */
 	public float getOrderProbability() { return orderProbability; }
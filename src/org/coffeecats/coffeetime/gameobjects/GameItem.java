@@ -1,19 +1,24 @@
 package org.coffeecats.coffeetime.gameobjects;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.coffeecats.coffeetime.gamelogic.GameGrid;
-import org.coffeecats.coffeetime.gamelogic.GameInfo;
+import org.coffeecats.coffeetime.gamelogic.GameClock;
+import org.coffeecats.coffeetime.gamelogic.GameScheduler;
 import org.coffeecats.coffeetime.gamelogic.Interaction;
-import org.coffeecats.coffeetime.gamelogic.State;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.simulation.AssetSource;
+import org.coffeecats.coffeetime.simulation.ItemStateMachine;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.util.Log;
 
 /** GameItems in general are non-player interactive items, like CoffeeMachine. They are ViewObjects so
@@ -40,6 +45,11 @@ public class GameItem implements ViewObject {
 	
 	//The "name" of this game item
 	private String itemName;
+	//The id of this game item, assigned by the GameLogicThread when the item is added to the level (-1 until then)
+	private int item_id = -1;
+	//The kind of game item this is (InteractionTable.KIND_*), used by the GameLogicThread to look up the result of
+	//interacting with it
+	private int item_kind = InteractionTable.KIND_NONE;
 	//Represents the orientation; NORTH will have the item's sensitivity area to the SOUTH of the item's bitmap position
 	private int orientation;
 	//represents current position
@@ -52,16 +62,24 @@ public class GameItem implements ViewObject {
 	//by the GameLogic engine, will occur!
 	private int sensitivity_xmin, sensitivity_xmax;
 	private int sensitivity_ymin, sensitivity_ymax;
-	//represents the interaction queue
-	private int [] interactionQueue;
-	private int interactionQueueLength;
+	//represents the interaction queue; every queued event is EVENT_DEFAULT, so the queue is just how many are queued.
+	//Events are queued and cleared by taps and consumed by the SimulationThread, all on the simulation Looper; the
+	//count is still only ever changed with a compare-and-set that keeps it within [0, INTERACTION_QUEUE_SIZE]
+	private final AtomicInteger interactionQueueLength = new AtomicInteger(0);
 	static final int INTERACTION_QUEUE_SIZE = 8;
 	
-	//bitmap (what this GameItem looks like) (may be modified when state changes)
-	protected Bitmap bitmap;
+	//sprite (what this GameItem looks like) (replaced by the sprite of the current state, if this GameItem has states)
+	protected Sprite sprite;
+	
+	//The sprite drawn by the last draw(), and where; used to work out whether this GameItem has to be redrawn
+	private Sprite lastDrawnSprite;
+	private final Rect lastDrawnRect = new Rect();
+	private final Rect currentRect = new Rect();
 	
 	//Context where we were called from, only used to load bitmaps and other resources
 	Context caller;
+	//Where the Sprites of this GameItem (and its states) are loaded from
+	private final AssetSource<Sprite> sprites;
 	
 	//lock
 	boolean locked;
@@ -82,10 +100,9 @@ public class GameItem implements ViewObject {
 	 * @param gg_height The height of this item on the GameGrid. Also dictates the height of the GameGrid
 	 */
 	public GameItem(Context caller, String name, int r_bitmap, int x_pos, int y_pos, int orientation, int gg_width, int gg_height) {
-		//Initialize variables to some values
-		current_state_idx = 0;
-		//Default bitmap is the one provided
-		bitmap = BitmapFactory.decodeResource(caller.getResources(), r_bitmap);
+		//Default sprite is the one provided
+		sprites = TextureAtlas.assetSource(caller.getResources());
+		sprite = sprites.load(r_bitmap);
 		//Save caller, for loading future resources
 		this.caller = caller;
 		//Set GameItem ID
@@ -129,10 +146,6 @@ public class GameItem implements ViewObject {
 		
 		Log.d(activitynametag, "Item: " + name + ", sensitivity = (" + sensitivity_xmin + ", " + sensitivity_xmax + 
 				", " + sensitivity_ymin + ", " + sensitivity_ymax + ")");
-		
-		//Initialize the interaction queue
-		interactionQueue = new int[INTERACTION_QUEUE_SIZE];
-		interactionQueueLength = 0;
 	}
 	
 	/** Used to determine if a given point location is within this GameItem's "sensitivity 
@@ -162,6 +175,12 @@ public class GameItem implements ViewObject {
 		return inSensitivityArea(vO.getPositionX(), vO.getPositionY());
 	}
 	
+	/** Accessor methods for the bounds of the sensitivity area, in GameGrid co-ordinates; used by GameGridIndex */
+	public int getSensitivityMinX() { return sensitivity_xmin; }
+	public int getSensitivityMaxX() { return sensitivity_xmax; }
+	public int getSensitivityMinY() { return sensitivity_ymin; }
+	public int getSensitivityMaxY() { return sensitivity_ymax; }
+	
 	/**Accessor method for class variable orientation */
 	public int getOrientation() { return orientation; }
 	
@@ -190,7 +209,24 @@ public class GameItem implements ViewObject {
 		
 		int draw_x = GameGrid.canvasX(x);
 		int draw_y = GameGrid.canvasY(y);
-		canvas.drawBitmap(bitmap, draw_x - (bitmap.getWidth() / 2), draw_y - (bitmap.getHeight() / 2), null);
+		Sprite drawnSprite = getCurrentSprite();
+		drawnSprite.draw(canvas, draw_x, draw_y);
+		
+		lastDrawnSprite = drawnSprite;
+		drawnSprite.getBounds(draw_x, draw_y, lastDrawnRect);
+	}
+	
+	/** A GameItem only has to be redrawn when it changes state (i.e. its sprite changes); see ViewObject */
+	public boolean addDirtyRect(Rect dirty) {
+		if(lastDrawnSprite == null) return(false);
+		
+		Sprite drawnSprite = getCurrentSprite();
+		if(drawnSprite != lastDrawnSprite) {
+			dirty.union(lastDrawnRect);
+			drawnSprite.getBounds(GameGrid.canvasX(x), GameGrid.canvasY(y), currentRect);
+			dirty.union(currentRect);
+		}
+		return(true);
 	}
 	
 	/** called when a tap (user input) occurs somewhere on the canvas. Note that the coordinates provided as 
@@ -214,8 +250,12 @@ public class GameItem implements ViewObject {
 	 * GameItem or its sensitivity area is tapped. When CoffeeGirl enters a GameItem's sensitivity area the 
 	 * queue is checked for pending interactions; an interaction only occurs if a pending interaction is in the queue. */
 	private void queueEvent() {
-		interactionQueue[interactionQueueLength] = EVENT_DEFAULT;
-		interactionQueueLength++;
+		//A full queue drops the event
+		while(true) {
+			int length = interactionQueueLength.get();
+			if(length >= INTERACTION_QUEUE_SIZE) break;
+			if(interactionQueueLength.compareAndSet(length, length + 1)) break;
+		}
 		
 		//Log.v(activitynametag+"."+this.getName(), "Queued interaction event.");
 	}
@@ -225,7 +265,7 @@ public class GameItem implements ViewObject {
 	 * CoffeeGirl cannot interact with a GameItem even if the sensitivity area is entered.
 	 */
 	private void clearEvents() {
-		interactionQueueLength = 0;
+		interactionQueueLength.set(0);
 	}
 	
 	/** 
@@ -235,13 +275,16 @@ public class GameItem implements ViewObject {
 	 * EVENT_NULL signifying that no event has been queued.
 	 */
 	public int consumeEvent() {
-		if(interactionQueueLength > 0) {
-			interactionQueueLength--;
-			return(EVENT_DEFAULT);
+		while(true) {
+			int length = interactionQueueLength.get();
+			if(length <= 0) return EVENT_NULL;
+			if(interactionQueueLength.compareAndSet(length, length - 1)) return(EVENT_DEFAULT);
 		}
-		else return EVENT_NULL;
 	}
 	
+	/** Return true if there is at least one interaction event queued for this GameItem */
+	public boolean hasQueuedEvents() { return(interactionQueueLength.get() > 0); }
+	
 	/** These methods are used to lock and unlock the GameItem's internal variables, like position*/
 	/*public synchronized boolean setLocked(){ while(locked); locked = true; return(locked); }	
 	public synchronized void unLock() { locked = false; }*/
@@ -253,39 +296,59 @@ public class GameItem implements ViewObject {
 	public int getPositionX() { return x; }
 	public int getPositionY() { return y; }
 	
-	/** Called when a ViewUpdate occurs. Since the ViewThread is responsible for detecting and signaling
-	 * interactions the onUpdate() for a GameItem, right now, does nothing. Later it might change bitmaps
-	 * or something like that
+	/** Set the id of this GameItem; called by the GameLogicThread when the item is added to the level. The id
+	 * is used to refer to this item in interaction events, see EventBus.
+	 * @param n_item_id The new id for this GameItem
 	 */
-	public void onUpdate() { tryChangeState(false); }
-	
-	
-	
+	public void setItemId(int n_item_id) { item_id = n_item_id; }
+	/** Return the id of this GameItem, or -1 if it hasn't been added to a level */
+	public int getItemId() { return item_id; }
 	
+	/** Set the kind of this GameItem; called by the constructors of the GameItem sub-classes.
+	 * @param n_item_kind One of InteractionTable.KIND_*
+	 */
+	protected void setItemKind(int n_item_kind) { item_kind = n_item_kind; }
+	/** Return the kind of this GameItem (one of InteractionTable.KIND_*) */
+	public int getItemKind() { return item_kind; }
 	
+	/** Called on every simulation step. Since the SimulationThread is responsible for detecting and signaling
+	 * interactions, and time-based state changes are scheduled on the GameScheduler (see ItemStateMachine), the onUpdate() 
+	 * for a GameItem, right now, does nothing. Later it might change bitmaps or something like that
+	 */
+	public void onUpdate() { ; }
 	
 	/* THIS SECTION USED TO DEFINE THE STATE MACHINE FOR THIS GAMEITEM
-	 * The state machine is accessed by the GameLogic thread, to attempt to change this GameItem's state
-	 * Also it deals with returning the results of interactions (i.e. when the state has changed as a
-	 * result of an interaction with a GameActor)
+	 * The state machine itself is an ItemStateMachine, the same one that the headless LevelSimulation runs its stations
+	 * on. It runs on the GameClock and schedules its time-based transitions on the GameScheduler's queue, and is also
+	 * advanced by the GameLogic thread (onInteraction(), for transitions caused by CoffeeGirl); see ItemStateMachine for
+	 * how the two are kept apart without a lock. The GameItem adds the names and Sprites of the states, and its
+	 * sub-classes can change the rules (nextState()) and the side effects (onChangeStatePlaySfx()).
 	 */
 	
+	//Used as the required input of a state if CoffeeGirl may hold anything at all
+	public static final int INPUT_ANY = ItemStateMachine.INPUT_ANY;
+	//Returned by nextState() if the state should not change
+	protected static final int NO_STATE_CHANGE = ItemStateMachine.NO_STATE_CHANGE;
 	
-	/** Called when we determine that an interaction between the Actor and this GameItem 
-	 * has occured (by GameLogicThread) 
-	 * @param coffeeGirlHendItem The name of the GameFoodItem that CoffeeGirl currently holds
-	 * @return The previous state IF we transitioned to a new state, else (-1). */
-	public Interaction onInteraction(String coffeeGirlHeldItem) { return tryChangeState(true, coffeeGirlHeldItem); }
-	
-	//Valid states of this GameItem
-	protected ArrayList<State<Bitmap>> validStates;
-	//The index of the current state of this GameItem
-	protected int current_state_idx;
-	//The current State that this game item is in
-	protected State <Bitmap> currentState;
-	//The time that the current state was entered; mostly used to determine when the State can be transitioned of
-	//of if the State is delay sensitive
-	private long time_of_state_transition;
+	private static final int INITIAL_STATE_CAPACITY = 4;
+	
+	//The names and Sprites of the states of this GameItem; state i is described by entry i of each array, and by 
+	//state i of stateMachine
+	private String [] stateNames = new String[INITIAL_STATE_CAPACITY];
+	private Sprite [] stateSprites = new Sprite[INITIAL_STATE_CAPACITY];
+	
+	private final ItemStateMachine stateMachine = new ItemStateMachine(GameClock.getSimulationClock(), 
+			GameScheduler.getDeadlineQueue()) {
+		@Override
+		protected int nextState(int state_idx, long time_since_state_transition, boolean has_interacted, int held_item) {
+			return(GameItem.this.nextState(state_idx, time_since_state_transition, has_interacted, held_item));
+		}
+		
+		@Override
+		protected void onStateChanged(int old_state, int next_state) {
+			onChangeStatePlaySfx(old_state, next_state);
+		}
+	};
 	
 	/** Used when this GameItem is constructed, to add states to this GameItem 
 	 * Assumption is that this is called during construction not from all of the various threads
@@ -294,90 +357,92 @@ public class GameItem implements ViewObject {
 	 * @param state_delay_ms The delay until this state may be exited, ignored unless time_sensitive is set to true
 	 * @param r_bitmap the resource identifier of the Bitmap representing the GameItem when it is in this State
 	 * @param input_sensitive Whether interactions with CoffeeGirl must occur to exit this state
-	 * @param requiredInput The required GameFoodItem that CoffeeGirl must be holding when she interacts with this state, 
-	 * if any
+	 * @param required_input The GameFoodItem that CoffeeGirl must be holding when she interacts with this state, given
+	 * as the CoffeeGirl state associated with it (CoffeeGirl.STATE_*), or INPUT_ANY
 	 * @param time_sensitive Whether this State requires that some amount of time elapse before we can exit it
 	 * 
 	 * */
-	protected int addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, String requiredInput, boolean time_sensitive) {
-		if(validStates == null) validStates = new ArrayList<State<Bitmap>>();
-		
-		State <Bitmap> newState = new State<Bitmap>();
-		newState.stateName = stateName;
-		newState.bitmap = BitmapFactory.decodeResource(caller.getResources(), r_bitmap);
-		newState.state_delay_ms = state_delay_ms;
-		newState.input_sensitive = input_sensitive;
-		newState.time_sensitive = time_sensitive;
-		newState.requiredInput = requiredInput;
-		
-		validStates.add(newState);
+	protected int addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, int required_input, boolean time_sensitive) {
+		int state_idx = stateMachine.getStateCount();
+		if(state_idx == stateNames.length) {
+			int new_capacity = stateNames.length * 2;
+			stateNames = Arrays.copyOf(stateNames, new_capacity);
+			stateSprites = Arrays.copyOf(stateSprites, new_capacity);
+		}
 		
-		if(currentState == null) setState(0);	
+		stateNames[state_idx] = stateName;
+		stateSprites[state_idx] = sprites.load(r_bitmap);
 		
-		//Return the index of the newly added state
-		return(validStates.indexOf(newState));
+		//Return the index of the newly added state (the first one is entered right away)
+		return(stateMachine.addState(state_delay_ms, r_bitmap, input_sensitive, required_input, time_sensitive));
 	}
 	protected int addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive) {
-		return addState(stateName, state_delay_ms, r_bitmap, input_sensitive, "null", time_sensitive);
+		return addState(stateName, state_delay_ms, r_bitmap, input_sensitive, INPUT_ANY, time_sensitive);
 	}
 	
-	/** Called by onInteraction only. Used to (try) to transition states. If enough time has passed and/or an interaction has occured 
-	 * the state may change.
-	 * @param has_interacted true if tryChangeState() was called as a response to a user interaction else false
-	 * @param input A String representing the name of the current GameFoodItem that CoffeeGirl is holding (if any)
-	 * @return The previous state if state changed, otherwise (-1)
+	/** Called when we determine that an interaction between the Actor and this GameItem 
+	 * has occured (by GameLogicThread). The result is written into result, which the caller may re-use between calls;
+	 * result.previous_state is set to the previous state IF we transitioned to a new state, else (-1).
+	 * @param held_item The GameFoodItem that CoffeeGirl currently holds, as the associated CoffeeGirl state
+	 * @param result The Interaction to write the result into
 	 */
-	private synchronized Interaction tryChangeState(boolean has_interacted, String input) {
-		//If we haven't even added any states, return that state changed from 0 to 0
-		//This is for "stateless" things like TrashCan
-		if(validStates == null) return(new Interaction(0));
-		//by default we do not change state; we first check to see if all conditions for changing state were met
-		
-		long time_since_state_transition = GameInfo.currentTimeMillis()-time_of_state_transition;
-		if(currentState.time_sensitive && (time_since_state_transition > currentState.state_delay_ms)) return(doChangeState());
-		
-		if(currentState.input_sensitive && has_interacted) {
-			//If the current state requires an input item and the provided item is what is required
-			//OR no input is required, the change state
-			if((currentState.requiredInput.equals("null")) || (currentState.requiredInput.equals(input))) 
-				return(doChangeState());
-		}
-
-		return(new Interaction(-1));		
-	}
-	private synchronized Interaction tryChangeState(boolean has_interacted) {
-		return(tryChangeState(has_interacted, "null"));
+	public void onInteraction(int held_item, Interaction result) {
+		result.previous_state = stateMachine.tryChangeState(true, held_item);
 	}
 	
-	/** Change the state of this GameItem to the next valid state and return the relevant
-	 * Interaction object describing the state change.
+	/** Describes the state machine of this GameItem: determine what state we go to next, if any. By default a GameItem
+	 * follows the usual rules (see ItemStateMachine.defaultNextState()): it advances from state n to state (n+1) (or 
+	 * wraps) once its delay has passed (if time-sensitive) or once it has been interacted with while CoffeeGirl holds the
+	 * required input (if input-sensitive). GameItems with a different state machine, like CounterTop, override this. 
+	 * Must not change any state itself.
+	 * 
+	 * @param state_idx The current state
+	 * @param time_since_state_transition How long (in ms of game time) we've been in the current state
+	 * @param has_interacted true if this is a response to a user interaction else false
+	 * @param held_item The GameFoodItem CoffeeGirl is holding (as a CoffeeGirl state), INPUT_ANY if there was no interaction
+	 * @return The next state, or NO_STATE_CHANGE
 	 */
-	private synchronized Interaction doChangeState() {
-		//At this point we've determined that a state change can occur
-		int next_state = (current_state_idx+1 < validStates.size()) ? current_state_idx+1 : 0;
-		int old_state = current_state_idx;
-		setState(next_state);
-		
-		//perform side effects
-		onChangeStatePlaySfx(old_state, next_state);
-		
-		return(new Interaction(old_state));
+	protected int nextState(int state_idx, long time_since_state_transition, boolean has_interacted, int held_item) {
+		return(stateMachine.defaultNextState(state_idx, time_since_state_transition, has_interacted, held_item));
 	}
 	
-	/** Change the state to something else.
+	/** Change the state to something else, unconditionally.
 	 * 
 	 * @param new_state The index of the new state to set this GameItem's State to.
 	 */
-	protected synchronized void setState(int new_state) {
-		currentState = validStates.get(new_state);
-		current_state_idx = new_state;
-		time_of_state_transition = GameInfo.currentTimeMillis();
-		this.bitmap = currentState.bitmap;
+	protected void setState(int new_state) {
+		stateMachine.setState(new_state);
+	}
+	
+	/** Return the index of the state that this GameItem is currently in */
+	protected int getStateIdx() {
+		return(stateMachine.getState());
+	}
+	
+	/** Return the name of the state that this GameItem is currently in, or null if this GameItem has no states */
+	public String getStateName() {
+		if(stateMachine.getStateCount() == 0) return(null);
+		return(stateNames[getStateIdx()]);
+	}
+	
+	/** Return the Sprite that should currently be drawn for this GameItem */
+	protected Sprite getCurrentSprite() {
+		if(stateMachine.getStateCount() == 0) return(sprite);
+		return(stateSprites[getStateIdx()]);
+	}
+	
+	/** Give this GameItem's Sprites back to the TextureAtlas; called by the GameLogicThread when the level this 
+	 * GameItem belongs to is torn down. GameItems that take more Sprites than the default and state ones should 
+	 * override this (and call super.releaseBitmaps()).
+	 */
+	public void releaseBitmaps() {
+		TextureAtlas.release(sprite);
+		for(int i = 0; i < stateMachine.getStateCount(); i++) TextureAtlas.release(stateSprites[i]);
 	}
 	
 	/** This method is used to do something, like play a sound effect, when a state change occurs. For
 	 * typical GameItems it does nothing but it allows GameItems to override it so that something does,
-	 * in fact, occur.
+	 * in fact, occur. Called from whichever thread made the state change.
 	 * 
 	 * @param old_state The state idx we transitioned from.
 	 * @param next_state The state idx we transitioned to.
@@ -10,6 +10,7 @@ import java.util.TreeMap;
 import org.coffeecats.coffeetime.gameobjects.fooditemdefs.*;
 import org.coffeecats.coffeetime.utility.CircularList;
 import org.coffeecats.coffeetime.utility.DirectionBitmapMap;
+import org.coffeecats.coffeetime.utility.Sprite;
 
 import android.content.Context;
 import android.graphics.Bitmap;
@@ -22,8 +23,8 @@ public abstract class GameSprite {
 	protected DirectionBitmapMap feetBitmap;
 	protected DirectionBitmapMap handsBitmapHolding;
 	protected DirectionBitmapMap handsBitmapEmpty;
-	//Map of held item name -> held item bitmap
-	protected TreeMap< String, Bitmap > heldItemMap;
+	//Map of held item name -> held item sprite
+	protected TreeMap< String, Sprite > heldItemMap;
 	
 	//Represents the last time that we DREW this GameSprite
 	protected long last_time_drawn;
@@ -34,32 +35,32 @@ public abstract class GameSprite {
 		last_time_drawn = -1L;
 		
 		
-		//Load a map of held item name -> held item bitmap, for returning (and later drawing)
+		//Load a map of held item name -> held item sprite, for returning (and later drawing)
 		//the item that the GameActor holds
-		heldItemMap = new TreeMap<String, Bitmap>();
+		heldItemMap = new TreeMap<String, Sprite>();
 		
 		if(do_init_helditems) {
 		
 			FoodItemBlendedDrink fbd = new FoodItemBlendedDrink(caller);
-			heldItemMap.put(fbd.getName(), fbd.getBitmapActive());
+			heldItemMap.put(fbd.getName(), fbd.getSpriteActive());
 			
 			FoodItemCoffee fic = new FoodItemCoffee(caller);
-			heldItemMap.put(fic.getName(), fic.getBitmapActive());
+			heldItemMap.put(fic.getName(), fic.getSpriteActive());
 			
 			FoodItemCupcake ficc = new FoodItemCupcake(caller);
-			heldItemMap.put(ficc.getName(), ficc.getBitmapActive());
+			heldItemMap.put(ficc.getName(), ficc.getSpriteActive());
 			
 			FoodItemEspresso fio = new FoodItemEspresso(caller);
-			heldItemMap.put(fio.getName(), fio.getBitmapActive());
+			heldItemMap.put(fio.getName(), fio.getSpriteActive());
 			
 			FoodItemPieSlice fips = new FoodItemPieSlice(caller);
-			heldItemMap.put(fips.getName(), fips.getBitmapActive());
+			heldItemMap.put(fips.getName(), fips.getSpriteActive());
 			
 			FoodItemSandwich fis = new FoodItemSandwich(caller);
-			heldItemMap.put(fis.getName(), fis.getBitmapActive());
+			heldItemMap.put(fis.getName(), fis.getSpriteActive());
 			
 			FoodItemNothing fin = new FoodItemNothing(caller);
-			heldItemMap.put(fin.getName(), fin.getBitmapActive());
+			heldItemMap.put(fin.getName(), fin.getSpriteActive());
 			
 		}
 	}
@@ -126,10 +127,10 @@ public abstract class GameSprite {
 		return(getAppropriateBitmap(vector_x==0 && vector_y==0, handList));
 	}
 	
-	/** Gets the appropriate Bitmap for the GameFoodItem that is held by the GameActor. Requires 
+	/** Gets the appropriate Sprite for the GameFoodItem that is held by the GameActor. Requires 
 	 * that the name of the GameFoodItem be provided.
 	 */
-	public Bitmap getHeldItemBitmap(String itemHoldingName) {
+	public Sprite getHeldItemSprite(String itemHoldingName) {
 		return(heldItemMap.get(itemHoldingName));
 	}
 }
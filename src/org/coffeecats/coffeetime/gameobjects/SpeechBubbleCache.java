@@ -0,0 +1,182 @@
+package org.coffeecats.coffeetime.gameobjects;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.coffeecats.coffeetime.R;
+import org.coffeecats.coffeetime.simulation.OrderGenerator;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.NinePatchDrawable;
+import android.util.Log;
+
+/** SpeechBubbleCache renders the speech bubble that a waiting Customer shows their order in (the 9patch bubble with
+ * an icon for every item of the order, greyed out once the item has been served) into a Bitmap, so that a Customer's
+ * bubble is drawn with a single drawBitmap() instead of laying out the 9patch and drawing every icon each frame.
+ *
+ * A bubble only depends on the order (which items, see OrderGenerator) and on which of them have been served, so
+ * (order, satisfied mask) is the key; a bubble is rendered again only when an item of the order is served, and
+ * customers with the same order share one bubble. Bubbles are kept in a bounded cache, least recently used ones are
+ * dropped first. Orders refer to the menu by index, so the cache starts over whenever it is asked for a bubble on a
+ * different menu (i.e. when a new level starts).
+ *
+ * Like SpriteCompositor, bubbles are only rendered and drawn on the render Looper, so bubbles that are evicted are
+ * recycle()d straight away.
+ *
+ * @author ivany
+ *
+ */
+public class SpeechBubbleCache {
+	private static final String activitynametag = "SpeechBubbleCache";
+
+	//The layout of a bubble: the bubble for a one-item order, and how much wider it gets for every other item
+	public static final int BUBBLE_WIDTH = 54;
+	public static final int BUBBLE_HEIGHT = 32;
+	public static final int ICON_WIDTH = 20 + 10; //10 is for padding
+	//Where the center of the left-most icon goes, from the left of the bubble; I don't know why (-6) looks better
+	//but it does
+	private static final int FIRST_ICON_X = 34 - 6;
+
+	//The most bubbles that are kept around; more than there are distinct orders with distinct served items on a menu
+	private static final int MAX_BUBBLES = 64;
+
+	/** The order, and which of its items have been served, that a bubble shows */
+	private static class Key {
+		int order;
+		int satisfied_mask;
+
+		@Override
+		public int hashCode() {
+			return(31 * order + satisfied_mask);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return(false);
+			Key other = (Key) o;
+			return(other.order == order && other.satisfied_mask == satisfied_mask);
+		}
+	}
+
+	private static final LinkedHashMap<Key, Bitmap> bubbles = new LinkedHashMap<Key, Bitmap>(MAX_BUBBLES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Bitmap> eldest) {
+			if(size() <= MAX_BUBBLES) return(false);
+
+			eldest.getValue().recycle();
+			return(true);
+		}
+	};
+
+	//Re-used to look bubbles up, so that a cache hit doesn't allocate anything
+	private static final Key probe = new Key();
+	//The menu that the cached bubbles were rendered for (every CustomerQueue has its own copy of the level's menu, so
+	//menus are compared item by item)
+	private static List<GameFoodItem> bubblesMenu = null;
+	//The 9patch the bubbles are drawn with, and how far above the Customer's position the top of a bubble goes
+	private static NinePatchDrawable speechBubble = null;
+	private static int anchor_y = BUBBLE_HEIGHT / 2;
+
+	//Metrics
+	private static long hits = 0;
+	private static long misses = 0;
+
+	/** Return the bubble for an order, rendering it if it hasn't been rendered yet.
+	 *
+	 * @param res The Resources to load the 9patch out of
+	 * @param menu The menu that order refers to
+	 * @param order The order, as packed by OrderGenerator
+	 * @param satisfied_mask Bit i is set if item i of the order has been served
+	 * @return The bubble, or null if it couldn't be rendered
+	 */
+	public static synchronized Bitmap getBubble(Resources res, List<GameFoodItem> menu, int order, int satisfied_mask) {
+		if(!sameMenu(menu, bubblesMenu)) {
+			clear();
+			bubblesMenu = menu;
+		}
+
+		probe.order = order;
+		probe.satisfied_mask = satisfied_mask;
+		Bitmap bubble = bubbles.get(probe);
+		if(bubble != null) {
+			hits++;
+			return(bubble);
+		}
+
+		misses++;
+
+		bubble = render(res, menu, order, satisfied_mask);
+		if(bubble == null) return(null);
+
+		Key key = new Key();
+		key.order = order;
+		key.satisfied_mask = satisfied_mask;
+		bubbles.put(key, bubble);
+
+		return(bubble);
+	}
+
+	/** Return how far above the Customer's position the top of its bubble is drawn */
+	public static synchronized int getAnchorY() {
+		return(anchor_y);
+	}
+
+	/** Drop every bubble, e.g. when the system is low on memory. Like SpriteCompositor.clear() this may be called
+	 * from any thread, so the bubbles are left for the garbage collector rather than recycle()d.
+	 */
+	public static synchronized void clear() {
+		bubbles.clear();
+	}
+
+	/** Return a one-line summary of the cache metrics, for the log */
+	public static synchronized String getStats() {
+		return("hits=" + hits + " misses=" + misses + ", cached=" + bubbles.size());
+	}
+
+	private static boolean sameMenu(List<GameFoodItem> menu, List<GameFoodItem> other) {
+		if(menu == other) return(true);
+		if(menu == null || other == null || menu.size() != other.size()) return(false);
+		for(int i = 0; i < menu.size(); i++) if(menu.get(i) != other.get(i)) return(false);
+		return(true);
+	}
+
+	private static Bitmap render(Resources res, List<GameFoodItem> menu, int order, int satisfied_mask) {
+		if(speechBubble == null) {
+			speechBubble = (NinePatchDrawable) res.getDrawable(R.drawable.speech_bubble_sm);
+			anchor_y = speechBubble.getMinimumHeight() / 2;
+		}
+
+		int order_size = OrderGenerator.orderSize(order);
+		int width = BUBBLE_WIDTH + (ICON_WIDTH * (order_size - 1));
+
+		Bitmap bubble;
+		try {
+			bubble = Bitmap.createBitmap(width, BUBBLE_HEIGHT, Bitmap.Config.ARGB_8888);
+		} catch (OutOfMemoryError e) {
+			Log.w(activitynametag, "Out of memory rendering a " + width + "x" + BUBBLE_HEIGHT + " bubble");
+			return(null);
+		}
+
+		Canvas canvas = new Canvas(bubble);
+		speechBubble.setBounds(0, 0, width, BUBBLE_HEIGHT);
+		speechBubble.draw(canvas);
+
+		//Draw an icon for each food item on the order, right in the middle of its area within the bubble
+		int foodicon_x = FIRST_ICON_X;
+		for(int i = 0; i < order_size; i++) {
+			GameFoodItem foodItem = menu.get(OrderGenerator.orderItem(order, i));
+
+			if((satisfied_mask & (1 << i)) != 0) foodItem.getSpriteInactive().draw(canvas, foodicon_x, BUBBLE_HEIGHT / 2);
+			else foodItem.getSpriteActive().draw(canvas, foodicon_x, BUBBLE_HEIGHT / 2);
+
+			foodicon_x += ICON_WIDTH;
+		}
+
+		return(bubble);
+	}
+}
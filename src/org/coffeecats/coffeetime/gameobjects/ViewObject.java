@@ -7,6 +7,7 @@ package org.coffeecats.coffeetime.gameobjects;
 
 
 import android.graphics.Canvas;
+import android.graphics.Rect;
 
 /** ViewObject in TacoTime is any object that can be drawn to the screen somehow. Generally 
  * ViewObjects must also inhabit the GameGrid. Otherwise ViewObjects are generally actors 
@@ -32,6 +33,15 @@ public interface ViewObject {
 	 */
 	public void draw(Canvas canvas);
 	
+	/** Add the area of the canvas that has to be redrawn for this ViewObject to be up to date onto dirty, i.e. 
+	 * where it was last drawn and where it will be drawn now, if anything about it has changed since it was last 
+	 * drawn. Called by the ViewThread right before each frame is drawn.
+	 * @param dirty The area of the canvas to be redrawn, in canvas co-ordinates; grown to include this ViewObject
+	 * @return false if the area isn't known (e.g. this ViewObject hasn't been drawn yet), in which case the whole 
+	 * canvas is redrawn
+	 */
+	public boolean addDirtyRect(Rect dirty);
+	
 	/** Used to determine whether this ViewObject is an actor or not 
 	 * return true if this character is a game character, otherwise false
 	 */
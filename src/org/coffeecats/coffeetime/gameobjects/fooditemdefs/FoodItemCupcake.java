@@ -1,12 +1,13 @@
 package org.coffeecats.coffeetime.gameobjects.fooditemdefs;
 
 import org.coffeecats.coffeetime.gameobjects.GameFoodItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 import org.coffeecats.coffeetime.R;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.util.Log;
 
 /** Describes the Cupcake food item. Mostly we just define the number of points and amount of money that
@@ -15,32 +16,34 @@ import android.util.Log;
 
 public class FoodItemCupcake extends GameFoodItem {
 	
-	private static boolean bitmaps_initialized = false;
-	private static Bitmap bitmapInactive;
-	private static Bitmap bitmapActive;
+	private static boolean sprites_initialized = false;
+	private static Sprite spriteInactive;
+	private static Sprite spriteActive;
 	
 	private static final String activitynametag = "FoodItemCupcake";
 	
 	public FoodItemCupcake() {
-		super("cupcake");
+		super("cupcake", ShopRules.HELD_CUPCAKE);
+		orderProbability = ShopRules.orderProbability(ShopRules.HELD_CUPCAKE);
 	}
 	
 	public FoodItemCupcake(Context caller) {
-		super("cupcake");
+		super("cupcake", ShopRules.HELD_CUPCAKE);
+		orderProbability = ShopRules.orderProbability(ShopRules.HELD_CUPCAKE);
 		
-		if(!bitmaps_initialized) {
-			bitmaps_initialized = true;
-			bitmapInactive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_cupcake_grey);
-			bitmapActive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_cupcake);
+		if(!sprites_initialized) {
+			sprites_initialized = true;
+			spriteInactive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_cupcake_grey);
+			spriteActive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_cupcake);
 			
-			Log.d(activitynametag, "Initializing Bitmaps for " + activitynametag);
+			Log.d(activitynametag, "Initializing Sprites for " + activitynametag);
 		}
 	}
 
 	@Override
 	public int pointsOnInteraction(String interactedWith, int waitTime) {
-		if(interactedWith.equals("TrashCan")) return(-5);
-		if(interactedWith.equals("Customer")) return(5);
+		if(interactedWith.equals("TrashCan")) return(ShopRules.trashPoints(ShopRules.HELD_CUPCAKE));
+		if(interactedWith.equals("Customer")) return(ShopRules.servePoints(ShopRules.HELD_CUPCAKE));
 		
 		Log.e("FoodItemCoffee", "Tried to do pointsOnInteraction but interactedWith not recognized => " + interactedWith);
 		return(0);
@@ -48,8 +51,8 @@ public class FoodItemCupcake extends GameFoodItem {
 
 	@Override
 	public int moneyOnInteraction(String interactedWith, int waitTime) {
-		if(interactedWith.equals("TrashCan")) return(0);
-		if(interactedWith.equals("Customer")) return(5);
+		if(interactedWith.equals("TrashCan")) return(ShopRules.trashMoney(ShopRules.HELD_CUPCAKE));
+		if(interactedWith.equals("Customer")) return(ShopRules.serveMoney(ShopRules.HELD_CUPCAKE));
 		
 		Log.e("FoodItemCoffee", "Tried to do moneyOnInteraction but interactedWith not recognized => " + interactedWith);
 		return(0);
@@ -57,6 +60,6 @@ public class FoodItemCupcake extends GameFoodItem {
 	
 	public FoodItemCupcake clone() { return new FoodItemCupcake(); }
 	
-	public Bitmap getBitmapInactive() { return bitmapInactive; }
-	public Bitmap getBitmapActive() { return bitmapActive; }
+	public Sprite getSpriteInactive() { return spriteInactive; }
+	public Sprite getSpriteActive() { return spriteActive; }
 }
@@ -1,12 +1,13 @@
 package org.coffeecats.coffeetime.gameobjects.fooditemdefs;
 
 import org.coffeecats.coffeetime.gameobjects.GameFoodItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 import org.coffeecats.coffeetime.R;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.util.Log;
 
 /** Describes the Coffee food item. Mostly we just define the number of points and amount of money that
@@ -15,32 +16,34 @@ import android.util.Log;
 
 public class FoodItemEspresso extends GameFoodItem {
 	
-	private static boolean bitmaps_initialized = false;
-	private static Bitmap bitmapInactive;
-	private static Bitmap bitmapActive;
+	private static boolean sprites_initialized = false;
+	private static Sprite spriteInactive;
+	private static Sprite spriteActive;
 	
 	private static final String activitynametag = "FoodItemCoffee";
 	
 	public FoodItemEspresso() {
-		super("espresso");
+		super("espresso", ShopRules.HELD_ESPRESSO);
+		orderProbability = ShopRules.orderProbability(ShopRules.HELD_ESPRESSO);
 	}
 	
 	public FoodItemEspresso(Context caller) {
-		super("espresso");
+		super("espresso", ShopRules.HELD_ESPRESSO);
+		orderProbability = ShopRules.orderProbability(ShopRules.HELD_ESPRESSO);
 		
-		if(!bitmaps_initialized) {
-			bitmaps_initialized = true;
-			bitmapInactive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_espresso_grey);
-			bitmapActive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_espresso);
+		if(!sprites_initialized) {
+			sprites_initialized = true;
+			spriteInactive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_espresso_grey);
+			spriteActive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_espresso);
 			
-			Log.d(activitynametag, "Initializing Bitmaps for " + activitynametag);
+			Log.d(activitynametag, "Initializing Sprites for " + activitynametag);
 		}
 	}
 
 	@Override
 	public int pointsOnInteraction(String interactedWith, int waitTime) {
-		if(interactedWith.equals("TrashCan")) return(-10);
-		if(interactedWith.equals("Customer")) return(25);
+		if(interactedWith.equals("TrashCan")) return(ShopRules.trashPoints(ShopRules.HELD_ESPRESSO));
+		if(interactedWith.equals("Customer")) return(ShopRules.servePoints(ShopRules.HELD_ESPRESSO));
 		
 		Log.e("FoodItemCoffee", "Tried to do pointsOnInteraction but interactedWith not recognized => " + interactedWith);
 		return(0);
@@ -48,8 +51,8 @@ public class FoodItemEspresso extends GameFoodItem {
 
 	@Override
 	public int moneyOnInteraction(String interactedWith, int waitTime) {
-		if(interactedWith.equals("TrashCan")) return(0);
-		if(interactedWith.equals("Customer")) return(12);
+		if(interactedWith.equals("TrashCan")) return(ShopRules.trashMoney(ShopRules.HELD_ESPRESSO));
+		if(interactedWith.equals("Customer")) return(ShopRules.serveMoney(ShopRules.HELD_ESPRESSO));
 		
 		Log.e("FoodItemCoffee", "Tried to do moneyOnInteraction but interactedWith not recognized => " + interactedWith);
 		return(0);
@@ -57,6 +60,6 @@ public class FoodItemEspresso extends GameFoodItem {
 	
 	public FoodItemEspresso clone() { return new FoodItemEspresso(); }
 	
-	public Bitmap getBitmapInactive() { return bitmapInactive; }
-	public Bitmap getBitmapActive() { return bitmapActive; }
+	public Sprite getSpriteInactive() { return spriteInactive; }
+	public Sprite getSpriteActive() { return spriteActive; }
 }
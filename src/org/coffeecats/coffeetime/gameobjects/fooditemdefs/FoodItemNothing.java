@@ -1,10 +1,11 @@
 package org.coffeecats.coffeetime.gameobjects.fooditemdefs;
 
 import org.coffeecats.coffeetime.gameobjects.GameFoodItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.util.Log;
 
 import org.coffeecats.coffeetime.R;
@@ -15,27 +16,27 @@ import org.coffeecats.coffeetime.R;
 
 public class FoodItemNothing extends GameFoodItem {
 	
-	private static boolean bitmaps_initialized = false;
-	private static Bitmap bitmapInactive;
-	private static Bitmap bitmapActive;
+	private static boolean sprites_initialized = false;
+	private static Sprite spriteInactive;
+	private static Sprite spriteActive;
 	
 	private static final String activitynametag = "FoodItemNothing";
 	
 	public FoodItemNothing() {
-		super("nothing");
+		super("nothing", ShopRules.HELD_NOTHING);
 		orderProbability = 0.0f;
 	}
 
 	public FoodItemNothing(Context caller) {
-		super("nothing");
+		super("nothing", ShopRules.HELD_NOTHING);
 		orderProbability = 0.0f;
 		
-		if(!bitmaps_initialized) {
-			bitmaps_initialized = true;
-			//bitmapInactive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_nothing);
-			bitmapActive = BitmapFactory.decodeResource(caller.getResources(), R.drawable.fooditem_nothing);
+		if(!sprites_initialized) {
+			sprites_initialized = true;
+			//spriteInactive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_nothing);
+			spriteActive = TextureAtlas.sprite(caller.getResources(), R.drawable.fooditem_nothing);
 			
-			Log.d(activitynametag, "Initializing Bitmaps for " + activitynametag);
+			Log.d(activitynametag, "Initializing Sprites for " + activitynametag);
 		}
 	}
 	
@@ -51,6 +52,6 @@ public class FoodItemNothing extends GameFoodItem {
 
 	public FoodItemNothing clone() { return (new FoodItemNothing()); }
 	
-	public Bitmap getBitmapInactive() { return bitmapActive; }
-	public Bitmap getBitmapActive() { return bitmapActive; }
+	public Sprite getSpriteInactive() { return spriteActive; }
+	public Sprite getSpriteActive() { return spriteActive; }
 }
@@ -1,7 +1,9 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import org.coffeecats.coffeetime.MessageRouter;
 import org.coffeecats.coffeetime.R;
@@ -17,16 +19,20 @@ import android.content.Context;
 
 public class Blender extends GameItem {
 	
-	//Define all of the state indices
-	public static final int STATE_IDLE=0;
-	public static final int STATE_BLENDING=1;
-	public static final int STATE_DONE=2;
+	//Define all of the state indices (see ShopRules)
+	public static final int STATE_IDLE = ShopRules.MACHINE_IDLE;
+	public static final int STATE_BLENDING = ShopRules.MACHINE_WORKING;
+	public static final int STATE_DONE = ShopRules.MACHINE_DONE;
+	
+	//Define state delays
+	public static final int BLEND_TIME_MS = ShopRules.BLENDER_BLEND_TIME_MS;
+	public static final int DONE_TIME_MS = ShopRules.BLENDER_DONE_TIME_MS;
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_PADDING_LEFT - 14;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP + 40;
+	public static int DEFAULT_XPOS = ShopRules.BLENDER_X;
+	public static int DEFAULT_YPOS = ShopRules.BLENDER_Y;
 	
-	public static int Y_DIST_TO_SECOND_BLENDER = 20;
+	public static int Y_DIST_TO_SECOND_BLENDER = ShopRules.BLENDER_SECOND_DY;
 	
 	public static int instanceCount = 0;
 	
@@ -44,12 +50,13 @@ public class Blender extends GameItem {
 	 */
 	public Blender(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "Blender" + (++instanceCount), r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_BLENDER);
 		
 		//Add states that describe behavior of coffee machine
 		//super.addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive)
-		this.addState("idle", 0, R.drawable.blender_idle, true, "coffee", false);
-		state_idx_blending = this.addState("blending", 1000, R.drawable.blender, false, true);
-		state_idx_done = this.addState("done", 7500, R.drawable.blender_done, true, "nothing", true);
+		this.addState("idle", 0, R.drawable.blender_idle, true, CoffeeGirl.STATE_CARRYING_COFFEE, false);
+		state_idx_blending = this.addState("blending", BLEND_TIME_MS, R.drawable.blender, false, true);
+		state_idx_done = this.addState("done", DONE_TIME_MS, R.drawable.blender_done, true, CoffeeGirl.STATE_NORMAL, true);
 	}
 	
 	protected void onChangeStatePlaySfx(int old_state, int new_state) {
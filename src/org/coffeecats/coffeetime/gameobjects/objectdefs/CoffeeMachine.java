@@ -1,8 +1,10 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
 import org.coffeecats.coffeetime.gamelogic.GameInfo;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import org.coffeecats.coffeetime.MessageRouter;
 import org.coffeecats.coffeetime.R;
@@ -19,18 +21,20 @@ import android.util.Log;
 
 public class CoffeeMachine extends GameItem {
 	
-	//Define all of the state indices
-	public static final int STATE_IDLE=0;
-	public static final int STATE_BREWING=1;
-	public static final int STATE_DONE=2;
+	//Define all of the state indices (see ShopRules)
+	public static final int STATE_IDLE = ShopRules.MACHINE_IDLE;
+	public static final int STATE_BREWING = ShopRules.MACHINE_WORKING;
+	public static final int STATE_DONE = ShopRules.MACHINE_DONE;
 	
 	//Define state delays
-	public static final int BREW_TIME_MS = 2500;
+	public static final int BREW_TIME_MS = ShopRules.COFFEEMACHINE_BREW_TIME_MS;
+	public static final int QUICK_BREW_SAVING_MS = ShopRules.COFFEEMACHINE_QUICK_BREW_SAVING_MS;
+	public static final int DONE_TIME_MS = ShopRules.COFFEEMACHINE_DONE_TIME_MS;
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_PADDING_LEFT - 14;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP;
-	public static int Y_DIST_TO_SECOND_MACHINE = 20;
+	public static int DEFAULT_XPOS = ShopRules.COFFEEMACHINE_X;
+	public static int DEFAULT_YPOS = ShopRules.COFFEEMACHINE_Y;
+	public static int Y_DIST_TO_SECOND_MACHINE = ShopRules.COFFEEMACHINE_SECOND_DY;
 	
 	//keep track of how many coffee machines are instantiated (so we can name them appropriately)
 	public static int instanceCount = 0;
@@ -49,15 +53,16 @@ public class CoffeeMachine extends GameItem {
 	 */
 	public CoffeeMachine(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "CoffeeMachine" + (++instanceCount), r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_COFFEEMACHINE);
 		
 		int brew_time = BREW_TIME_MS;
-		if(GameInfo.hasUpgrade("quickbrewing")) brew_time -= 1000;
+		if(GameInfo.hasUpgrade("quickbrewing")) brew_time -= QUICK_BREW_SAVING_MS;
 		
 		//Add states that describe behavior of coffee machine
 		//super.addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive)
 		this.addState("idle", 0, R.drawable.coffeemachine_idle, true, false);
 		state_idx_brewing = this.addState("brewing", brew_time, R.drawable.coffeemachine, false, true);
-		state_idx_done = this.addState("done", 10000, R.drawable.coffeemachine_done, true, "nothing", true);
+		state_idx_done = this.addState("done", DONE_TIME_MS, R.drawable.coffeemachine_done, true, CoffeeGirl.STATE_NORMAL, true);
 	}
 	
 	protected void onChangeStatePlaySfx(int old_state, int new_state) {
@@ -8,9 +8,10 @@
 
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
-import org.coffeecats.coffeetime.gamelogic.Interaction;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import android.content.Context;
 
@@ -18,21 +19,21 @@ import org.coffeecats.coffeetime.R;
 
 
 public class CounterTop extends GameItem {
-	//Define all of the state indices
-	public static final int STATE_IDLE=0;
-	public static final int STATE_HOLDING_COFFEE=1;
-	public static final int STATE_HOLDING_CUPCAKE=2;
-	public static final int STATE_HOLDING_BLENDEDDRINK=3;
-	public static final int STATE_HOLDING_ESPRESSO=4;
-	public static final int STATE_HOLDING_PIE=5;
-	public static final int STATE_HOLDING_SANDWICH=6;
+	//Define all of the state indices (see ShopRules)
+	public static final int STATE_IDLE = ShopRules.COUNTERTOP_IDLE;
+	public static final int STATE_HOLDING_COFFEE = ShopRules.COUNTERTOP_HOLDING_COFFEE;
+	public static final int STATE_HOLDING_CUPCAKE = ShopRules.COUNTERTOP_HOLDING_CUPCAKE;
+	public static final int STATE_HOLDING_BLENDEDDRINK = ShopRules.COUNTERTOP_HOLDING_BLENDEDDRINK;
+	public static final int STATE_HOLDING_ESPRESSO = ShopRules.COUNTERTOP_HOLDING_ESPRESSO;
+	public static final int STATE_HOLDING_PIE = ShopRules.COUNTERTOP_HOLDING_PIE;
+	public static final int STATE_HOLDING_SANDWICH = ShopRules.COUNTERTOP_HOLDING_SANDWICH;
 	
 	//keep track of how many coffee machines are instantiated
 	public static int instanceCount = 0;
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_PADDING_LEFT + 20;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_HEIGHT - GameGrid.GAMEGRID_PADDING_BOTTOM + 8;
+	public static int DEFAULT_XPOS = ShopRules.COUNTERTOP_X;
+	public static int DEFAULT_YPOS = ShopRules.COUNTERTOP_Y;
 	
 	/** Constructor for CoffeeMachine mostly mimics a game items, except it sets the name by itself. Also it sets up
 	 * all of the CoffeeMachine states and the associated bitmaps; the bitmap provided as an argument is just a "default" bitmap
@@ -45,6 +46,7 @@ public class CounterTop extends GameItem {
 	 */
 	public CounterTop(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "CounterTop" + (++instanceCount), r_bitmap, x_pos, y_pos, orientation, 20, 15);
+		setItemKind(InteractionTable.KIND_COUNTERTOP);
 		
 		//Add states that describe behavior of coffee machine
 		//super.addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive)
@@ -57,91 +59,39 @@ public class CounterTop extends GameItem {
 		this.addState("holding_sandwich", 2000, R.drawable.countertop_grey_w_sandwich, true, false);
 	}
 	
-	/** Called by onInteraction only. Used to (try) to transition states. We define the state machine for CounterTop explicitly 
-	 * here since the state transitions will be based on what GameFoodItem the CoffeeGirl is holding. Thus the tryChangeState() for
-	 * GameItem is overridden.
+	//The state we go into when CoffeeGirl puts down what she holds, indexed by CoffeeGirl state
+	private static final int [] heldItemToState = new int[] {
+		NO_STATE_CHANGE,			//CoffeeGirl.STATE_NORMAL
+		STATE_HOLDING_COFFEE,		//CoffeeGirl.STATE_CARRYING_COFFEE
+		STATE_HOLDING_CUPCAKE,		//CoffeeGirl.STATE_CARRYING_CUPCAKE
+		STATE_HOLDING_BLENDEDDRINK,	//CoffeeGirl.STATE_CARRYING_BLENDEDDRINK
+		STATE_HOLDING_PIE,			//CoffeeGirl.STATE_CARRYING_PIESLICE
+		STATE_HOLDING_SANDWICH,		//CoffeeGirl.STATE_CARRYING_SANDWICH
+		STATE_HOLDING_ESPRESSO		//CoffeeGirl.STATE_CARRYING_ESPRESSO
+	};
+	
+	/** We define the state machine for CounterTop explicitly here since the state transitions will be based on what 
+	 * GameFoodItem the CoffeeGirl is holding. Thus the nextState() for GameItem is overridden.
 	 * 
-	 * @param has_interacted true if tryChangeState() was called as a response to a user interaction else false
-	 * @param input A String representing the name of the current GameFoodItem that CoffeeGirl is holding (if any)
-	 * @return The previous state if state changed, otherwise (-1)
+	 * See GameItem.nextState() for a description of the arguments
+	 * @return The next state, or NO_STATE_CHANGE
 	 */
-	//@Override
-	private synchronized Interaction tryChangeState(boolean has_interacted, String input) {
-		//If we haven't even added any states, return that state changed from 0 to 0
-		//This is for "stateless" things like TrashCan
-		if(validStates == null) return(new Interaction(0));
-		//by default we do not change state; we first check to see if all conditions for changing state were met
-		
-		if(!has_interacted) return(new Interaction(-1));
+	@Override
+	protected int nextState(int state_idx, long time_since_state_transition, boolean has_interacted, int held_item) {
+		if(!has_interacted) return(NO_STATE_CHANGE);
 		
 		//If CoffeeGirl provides is with "nothing" but we are holding something, we now hold nothing
 		//GLT is responsible for changing CoffeeGirl state to now be holding something
-		if(input.equals("nothing")) {
-			if( !(current_state_idx == STATE_IDLE) ) {
-				int old_state = current_state_idx;
-				setState(STATE_IDLE);
-				return(new Interaction(old_state));
-			}
+		if(held_item == CoffeeGirl.STATE_NORMAL) {
+			if(state_idx != STATE_IDLE) return(STATE_IDLE);
 		}
 		//If we hold nothing but coffeegirl holds something, we now will hold that something
 		//GLT is expected to update CoffeeGirl state appropriately
-		else {
-			if(input.equals("coffee")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_COFFEE);
-					return(new Interaction(old_state));
-				}
-			}
-			if(input.equals("cupcake")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_CUPCAKE);
-					return(new Interaction(old_state));
-				}
-			}
-			if(input.equals("blended_drink")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_BLENDEDDRINK);
-					return(new Interaction(old_state));
-				}
-			}
-			if(input.equals("pieslice")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_PIE);
-					return(new Interaction(old_state));
-				}
-			}
-			if(input.equals("sandwich")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_SANDWICH);
-					return(new Interaction(old_state));
-				}
-			}
-			if(input.equals("espresso")) {
-				if( current_state_idx == STATE_IDLE ) {
-					int old_state = current_state_idx;
-					setState(STATE_HOLDING_ESPRESSO);
-					return(new Interaction(old_state));
-				}
-			}
+		else if(state_idx == STATE_IDLE && held_item >= 0 && held_item < heldItemToState.length) {
+			return(heldItemToState[held_item]);
 		}
 		
 		//Default case - invalid/no interaction
-		return(new Interaction(-1));
+		return(NO_STATE_CHANGE);
 	}
-	
-	/** Override onUpdate, onInteraction() so that our custom tryChangeState() state machine is employed */
-	@Override
-	public void onUpdate() { tryChangeState(false, "null"); }
-	
-	/** Called when we determine that an interaction between the Actor and this GameItem 
-	 * has occured (by GameLogicThread) 
-	 * @param coffeeGirlHendItem The name of the GameFoodItem that CoffeeGirl currently holds
-	 * @return The previous state IF we transitioned to a new state, else (-1). */
-	@Override
-	public Interaction onInteraction(String coffeeGirlHeldItem) { return tryChangeState(true, coffeeGirlHeldItem); }
 }
@@ -1,7 +1,8 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import android.content.Context;
 
@@ -10,10 +11,11 @@ import android.content.Context;
 public class CupCakeTray extends GameItem {
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13; //113;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP + 20;//80;
+	public static int DEFAULT_XPOS = ShopRules.CUPCAKETRAY_X; //113;
+	public static int DEFAULT_YPOS = ShopRules.CUPCAKETRAY_Y;//80;
 	
 	public CupCakeTray(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "CupCakeTray", r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_CUPCAKETRAY);
 	}
 }
@@ -1,7 +1,9 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import org.coffeecats.coffeetime.MessageRouter;
 import org.coffeecats.coffeetime.R;
@@ -17,20 +19,21 @@ import android.content.Context;
 
 public class EspressoMachine extends GameItem {
 	
-	//Define all of the state indices
-	public static final int STATE_IDLE=0;
-	public static final int STATE_BREWING=1;
-	public static final int STATE_DONE=2;
+	//Define all of the state indices (see ShopRules)
+	public static final int STATE_IDLE = ShopRules.MACHINE_IDLE;
+	public static final int STATE_BREWING = ShopRules.MACHINE_WORKING;
+	public static final int STATE_DONE = ShopRules.MACHINE_DONE;
 	
 	//Define state delays
-	public static final int BREW_TIME_MS = 2500;
+	public static final int BREW_TIME_MS = ShopRules.ESPRESSOMACHINE_BREW_TIME_MS;
+	public static final int DONE_TIME_MS = ShopRules.ESPRESSOMACHINE_DONE_TIME_MS;
 	
 	//keep track of how many coffee machines are instantiated (so we can name them appropriately)
 	public static int instanceCount = 0;
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT - 20;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_HEIGHT - GameGrid.GAMEGRID_PADDING_BOTTOM + 8;
+	public static int DEFAULT_XPOS = ShopRules.ESPRESSOMACHINE_X;
+	public static int DEFAULT_YPOS = ShopRules.ESPRESSOMACHINE_Y;
 	
 	private int state_idx_brewing;
 	private int state_idx_done;
@@ -46,6 +49,7 @@ public class EspressoMachine extends GameItem {
 	 */
 	public EspressoMachine(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "EspressoMachine" + (++instanceCount), r_bitmap, x_pos, y_pos, orientation, 20, 17);
+		setItemKind(InteractionTable.KIND_ESPRESSOMACHINE);
 		
 		int brew_time = BREW_TIME_MS;
 		
@@ -53,7 +57,7 @@ public class EspressoMachine extends GameItem {
 		//super.addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive)
 		this.addState("idle", 0, R.drawable.espresso_machine_inactive, true, false);
 		state_idx_brewing = this.addState("brewing", brew_time, R.drawable.espresso_machine_active, false, true);
-		state_idx_done = this.addState("done", 10000, R.drawable.espresso_machine_done, true, "nothing", true);
+		state_idx_done = this.addState("done", DONE_TIME_MS, R.drawable.espresso_machine_done, true, CoffeeGirl.STATE_NORMAL, true);
 	}
 	
 	protected void onChangeStatePlaySfx(int old_state, int new_state) {
@@ -1,7 +1,9 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+import org.coffeecats.coffeetime.gameobjects.CoffeeGirl;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import org.coffeecats.coffeetime.MessageRouter;
 import org.coffeecats.coffeetime.R;
@@ -18,20 +20,21 @@ import android.content.Context;
 
 public class Microwave extends GameItem {
 	
-	//Define all of the state indices
-	public static final int STATE_IDLE=0;
-	public static final int STATE_BREWING=1;
-	public static final int STATE_DONE=2;
+	//Define all of the state indices (see ShopRules)
+	public static final int STATE_IDLE = ShopRules.MACHINE_IDLE;
+	public static final int STATE_BREWING = ShopRules.MACHINE_WORKING;
+	public static final int STATE_DONE = ShopRules.MACHINE_DONE;
 	
 	//Define state delays
-	public static final int BAKE_TIME_MS = 4000;
+	public static final int BAKE_TIME_MS = ShopRules.MICROWAVE_BAKE_TIME_MS;
+	public static final int DONE_TIME_MS = ShopRules.MICROWAVE_DONE_TIME_MS;
 	
 	//keep track of how many coffee machines are instantiated (so we can name them appropriately)
 	public static int instanceCount = 0;
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13; //113
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP + 2;//40;
+	public static int DEFAULT_XPOS = ShopRules.MICROWAVE_X; //113
+	public static int DEFAULT_YPOS = ShopRules.MICROWAVE_Y;//40;
 	
 	//State indexes for states we need to pay attention to, to play an sfx appropriately
 	private int state_idx_baking;
@@ -48,6 +51,7 @@ public class Microwave extends GameItem {
 	 */
 	public Microwave(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "Microwave" + (++instanceCount), r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_MICROWAVE);
 		
 		int bake_time = BAKE_TIME_MS;
 		//if(GameInfo.hasUpgrade("quickbrewing")) brew_time -= 1000;
@@ -56,7 +60,7 @@ public class Microwave extends GameItem {
 		//super.addState(String stateName, int state_delay_ms, int r_bitmap, boolean input_sensitive, boolean time_sensitive)
 		this.addState("idle", 0, R.drawable.microwave_inactive, true, false);
 		state_idx_baking = this.addState("baking", bake_time, R.drawable.microwave_active, false, true);
-		state_idx_done = this.addState("done", 10000, R.drawable.microwave_done, true, "nothing", true);
+		state_idx_done = this.addState("done", DONE_TIME_MS, R.drawable.microwave_done, true, CoffeeGirl.STATE_NORMAL, true);
 	}
 	
 	protected void onChangeStatePlaySfx(int old_state, int new_state) {
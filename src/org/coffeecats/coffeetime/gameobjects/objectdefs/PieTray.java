@@ -1,7 +1,8 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import android.content.Context;
 
@@ -10,10 +11,11 @@ import android.content.Context;
 public class PieTray extends GameItem {
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13; //113;
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP + 40; //60
+	public static int DEFAULT_XPOS = ShopRules.PIETRAY_X; //113;
+	public static int DEFAULT_YPOS = ShopRules.PIETRAY_Y; //60
 	
 	public PieTray(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "PieTray", r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_PIETRAY);
 	}
 }
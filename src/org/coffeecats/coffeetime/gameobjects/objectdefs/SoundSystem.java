@@ -3,11 +3,12 @@ package org.coffeecats.coffeetime.gameobjects.objectdefs;
 import org.coffeecats.coffeetime.gamelogic.GameGrid;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
 import org.coffeecats.coffeetime.utility.CircularList;
+import org.coffeecats.coffeetime.utility.Sprite;
+import org.coffeecats.coffeetime.utility.TextureAtlas;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
+import android.graphics.Rect;
 import android.os.SystemClock;
 
 import org.coffeecats.coffeetime.R;
@@ -15,9 +16,14 @@ import org.coffeecats.coffeetime.R;
 /** This is a TrashCan. It is a GameItem. It is used for disposing of things for a (small) point penalty. */
 
 public class SoundSystem extends GameItem {
-	private CircularList<Bitmap> leftBitMapList;
-	private CircularList<Bitmap> rightBitMapList;
+	private CircularList<Sprite> leftBitMapList;
+	private CircularList<Sprite> rightBitMapList;
+	//The sprites in the two lists above, so that they can be given back to the TextureAtlas
+	private Sprite [] speakerFrames;
 	private long timeSinceUpdate;
+	//Where the two speakers were last drawn
+	private final Rect leftRect = new Rect();
+	private final Rect rightRect = new Rect();
 	
 	private static final int FRAME_RATE_MS = 500;
 	private static final int OFFSET_FROM_EDGES = 7;
@@ -28,20 +34,33 @@ public class SoundSystem extends GameItem {
 	public SoundSystem(Context caller) {
 		super(caller, "SoundSystem", R.drawable.speaker_left_f0, 1, 1, GameItem.ORIENTATION_NORTH, 1, 1);
 		
-		leftBitMapList = new CircularList<Bitmap>(2);
-		rightBitMapList = new CircularList<Bitmap>(2);
+		leftBitMapList = new CircularList<Sprite>(2);
+		rightBitMapList = new CircularList<Sprite>(2);
 		
-		leftBitMapList.add(BitmapFactory.decodeResource(caller.getResources(), R.drawable.speaker_left_f0));
-		leftBitMapList.add(BitmapFactory.decodeResource(caller.getResources(), R.drawable.speaker_left_f1));
+		speakerFrames = new Sprite[] {
+				TextureAtlas.sprite(caller.getResources(), R.drawable.speaker_left_f0),
+				TextureAtlas.sprite(caller.getResources(), R.drawable.speaker_left_f1),
+				TextureAtlas.sprite(caller.getResources(), R.drawable.speaker_right_f0),
+				TextureAtlas.sprite(caller.getResources(), R.drawable.speaker_right_f1) };
 		
-		rightBitMapList.add(BitmapFactory.decodeResource(caller.getResources(), R.drawable.speaker_right_f0));
-		rightBitMapList.add(BitmapFactory.decodeResource(caller.getResources(), R.drawable.speaker_right_f1));
+		leftBitMapList.add(speakerFrames[0]);
+		leftBitMapList.add(speakerFrames[1]);
+		
+		rightBitMapList.add(speakerFrames[2]);
+		rightBitMapList.add(speakerFrames[3]);
 		
 		timeSinceUpdate = -1;
 	}
 	
+	@Override
+	public void releaseBitmaps() {
+		super.releaseBitmaps();
+		
+		for(int i = 0; i < speakerFrames.length; i++) TextureAtlas.release(speakerFrames[i]);
+	}
+	
 	/** Draws this GameItem to the Canvas canvas. We override the superclass method because SoundSystem will 
-	 * actually draw two bitmaps, one on the left and one on the right bottom corners of the screen
+	 * actually draw two sprites, one on the left and one on the right bottom corners of the screen
 	 * @param canvas The Canvas to draw this GameItem onto
 	 */
 	@Override
@@ -52,12 +71,27 @@ public class SoundSystem extends GameItem {
 		int draw_y_r = GameGrid.canvasY(GameGrid.GAMEGRID_HEIGHT - OFFSET_FROM_EDGES);
 		
 		if(SystemClock.uptimeMillis() > FRAME_RATE_MS + timeSinceUpdate) {
-			canvas.drawBitmap(leftBitMapList.getNext(), draw_x_l - (bitmap.getWidth() / 2), draw_y_l - (bitmap.getHeight() / 2), null);
-			canvas.drawBitmap(rightBitMapList.getNext(), draw_x_r - (bitmap.getWidth() / 2), draw_y_r - (bitmap.getHeight() / 2), null);
+			leftBitMapList.getNext().draw(canvas, draw_x_l, draw_y_l);
+			rightBitMapList.getNext().draw(canvas, draw_x_r, draw_y_r);
 			timeSinceUpdate = SystemClock.uptimeMillis();
 		} else {
-			canvas.drawBitmap(leftBitMapList.getCurrent(), draw_x_l - (bitmap.getWidth() / 2), draw_y_l - (bitmap.getHeight() / 2), null);
-			canvas.drawBitmap(rightBitMapList.getCurrent(), draw_x_r - (bitmap.getWidth() / 2), draw_y_r - (bitmap.getHeight() / 2), null);
+			leftBitMapList.getCurrent().draw(canvas, draw_x_l, draw_y_l);
+			rightBitMapList.getCurrent().draw(canvas, draw_x_r, draw_y_r);
+		}
+		
+		leftBitMapList.getCurrent().getBounds(draw_x_l, draw_y_l, leftRect);
+		rightBitMapList.getCurrent().getBounds(draw_x_r, draw_y_r, rightRect);
+	}
+	
+	/** The speakers only have to be redrawn when they move on to their next frame */
+	@Override
+	public boolean addDirtyRect(Rect dirty) {
+		if(timeSinceUpdate < 0) return(false);
+		
+		if(SystemClock.uptimeMillis() > FRAME_RATE_MS + timeSinceUpdate) {
+			dirty.union(leftRect);
+			dirty.union(rightRect);
 		}
+		return(true);
 	}
 }
@@ -1,7 +1,8 @@
 package org.coffeecats.coffeetime.gameobjects.objectdefs;
 
-import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
 import org.coffeecats.coffeetime.gameobjects.GameItem;
+import org.coffeecats.coffeetime.simulation.ShopRules;
 
 import android.content.Context;
 
@@ -12,12 +13,13 @@ import org.coffeecats.coffeetime.R;
 public class TrashCan extends GameItem {
 	
 	//Defines for default X and Y positions;
-	public static int DEFAULT_XPOS = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 10; //110
-	public static int DEFAULT_YPOS = GameGrid.GAMEGRID_PADDING_TOP + 60;//100;
+	public static int DEFAULT_XPOS = ShopRules.TRASHCAN_X; //110
+	public static int DEFAULT_YPOS = ShopRules.TRASHCAN_Y;//100;
 	
 	/** Constructor for TrashCan; TrashCan is stateless
 	 */
 	public TrashCan(Context caller, int r_bitmap, int x_pos, int y_pos, int orientation) {
 		super(caller, "TrashCan", r_bitmap, x_pos, y_pos, orientation, 15, 20);
+		setItemKind(InteractionTable.KIND_TRASHCAN);
 	}
 }
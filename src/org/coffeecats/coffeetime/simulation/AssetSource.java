@@ -0,0 +1,14 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** Resolves asset handles (R.drawable ids) into whatever the platform draws with. The simulation only ever passes
+ * the integer handles around; on the device they are resolved into Bitmaps, and the headless simulation doesn't
+ * resolve them at all.
+ *
+ * @author ivany
+ *
+ * @param <T> The type of the loaded asset (e.g. Bitmap)
+ */
+public interface AssetSource<T> {
+	/** Return the asset for handle, or null if it can't be loaded */
+	public T load(int handle);
+}
@@ -0,0 +1,146 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** CustomerArrivals sends a level's customers to its lines with QUEUE_POLICY_SHORTEST_QUEUE: they arrive at the shop
+ * one at a time, as many per second as separate lines would have, and join the line with the fewest customers waiting
+ * in it (lines that are equally short take turns). If every line is full the customer waits for the first one that
+ * has room. It runs on a SimulationClock and a DeadlineQueue, so the game's CustomerQueueLayout and the headless
+ * LevelSimulation send their customers by exactly the same rules.
+ *
+ * A line never has more than QUEUE_VISIBLE_LENGTH customers waiting in it, so there is a bitmask of the lines for
+ * every length. Finding the shortest line, and moving a line to another length when a customer joins or leaves it, are
+ * a handful of bit operations, so every arrival and departure costs the same no matter how many lines there are.
+ *
+ * Whoever holds the arrivals admits the customers into the lines (onAdmit()) and tells it when a customer has left
+ * one (customerLeft()). Only used on one thread (the simulation Looper, in the game), so nothing here is locked.
+ *
+ * @author ivany
+ *
+ */
+public class CustomerArrivals implements DeadlineQueue.Timed {
+	private final SimulationClock clock;
+	private final DeadlineQueue deadlines;
+	private final int line_count;
+
+	//How many customers have yet to arrive, and the time between two arrivals
+	private int customers_to_arrive;
+	private final long arrival_interval_ms;
+	//Set when a customer arrived while every line was full; they join the first line that has room
+	private boolean waiting_for_room = false;
+	//How many customers are waiting in each line, and for every length the mask of the lines that have that many
+	private final int [] lengths;
+	private final int [] lengthMasks = new int[ShopRules.QUEUE_VISIBLE_LENGTH + 1];
+	//Where the search for the next line starts, among lines that are equally short; makes them take turns
+	private int next_turn = 0;
+	//How many customers were sent to a line, and how many have left one since
+	private int customers_admitted = 0;
+	private int customers_left = 0;
+
+	/** Create a new CustomerArrivals
+	 *
+	 * @param clock Where the time comes from
+	 * @param deadlines Where the next arrival is scheduled
+	 * @param line_count How many lines there are (at most ShopRules.MAX_QUEUES)
+	 * @param customer_count How many customers the level has in total
+	 */
+	public CustomerArrivals(SimulationClock clock, DeadlineQueue deadlines, int line_count, int customer_count) {
+		this.clock = clock;
+		this.deadlines = deadlines;
+		this.line_count = line_count;
+		this.customers_to_arrive = customer_count;
+		this.arrival_interval_ms = ShopRules.TIME_BETWEEN_CUSTOMERS_MS / line_count;
+
+		lengths = new int[line_count];
+		lengthMasks[0] = (line_count >= 32) ? -1 : (1 << line_count) - 1;
+	}
+
+	/** Start sending customers; the first one arrives right away */
+	public void start() {
+		deadlines.schedule(this, clock.currentTimeMillis());
+	}
+
+	/** Called by the DeadlineQueue when the next customer arrives */
+	public void onTimer(long now_ms) {
+		if(customers_to_arrive <= 0) return;
+
+		int line = shortestLine();
+		if(line < 0) {
+			//Every line is full; the customer joins the first line that a customer leaves (see customerLeft())
+			waiting_for_room = true;
+			return;
+		}
+
+		admit(line, now_ms);
+	}
+
+	/** Called when the customer at the front of line has left it; if a customer is waiting for room, they join it
+	 * @return false if no customer was waiting in line (the customer wasn't sent there), true otherwise
+	 */
+	public boolean customerLeft(int line) {
+		if(lengths[line] <= 0) return(false);
+
+		setLength(line, lengths[line] - 1);
+		customers_left++;
+
+		if(customers_to_arrive > 0 && waiting_for_room) {
+			waiting_for_room = false;
+			admit(line, clock.currentTimeMillis());
+		}
+		return(true);
+	}
+
+	/** Send the next customer to line, and schedule the one after that */
+	private void admit(int line, long now_ms) {
+		onAdmit(line, now_ms);
+		setLength(line, lengths[line] + 1);
+		customers_admitted++;
+		next_turn = line + 1;
+
+		customers_to_arrive--;
+		if(customers_to_arrive > 0) {
+			deadlines.schedule(this, now_ms + arrival_interval_ms);
+			return;
+		}
+
+		onLastArrival();
+	}
+
+	/** Called when a customer joins line; whoever holds the arrivals lets them show up in it (CustomerLine.admit()).
+	 * Does nothing by default. */
+	protected void onAdmit(int line, long now_ms) {
+		;
+	}
+
+	/** Called once the last customer of the level has joined a line. Does nothing by default. */
+	protected void onLastArrival() {
+		;
+	}
+
+	/** Return the index of the line with the fewest customers waiting that still has room, taking turns among
+	 * equally short lines, or -1 if every line is full */
+	private int shortestLine() {
+		for(int length = 0; length < ShopRules.QUEUE_VISIBLE_LENGTH; length++) {
+			int mask = lengthMasks[length];
+			if(mask == 0) continue;
+
+			int after_turn = (next_turn < line_count) ? (mask & (-1 << next_turn)) : 0;
+			return(Integer.numberOfTrailingZeros((after_turn != 0) ? after_turn : mask));
+		}
+		return(-1);
+	}
+
+	/** Move line to the mask of lines with length customers waiting */
+	private void setLength(int line, int length) {
+		lengthMasks[lengths[line]] &= ~(1 << line);
+		lengths[line] = length;
+		lengthMasks[length] |= 1 << line;
+	}
+
+	/** Return how many customers are waiting in line, according to the arrivals */
+	public int getLength(int line) { return(lengths[line]); }
+	/** Return how many customers have yet to arrive */
+	public int getCustomersToArrive() { return(customers_to_arrive); }
+	/** Return how many customers have been sent to a line */
+	public int getCustomersAdmitted() { return(customers_admitted); }
+	/** Return how many customers have left a line */
+	public int getCustomersLeft() { return(customers_left); }
+}
@@ -0,0 +1,117 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** CustomerLine holds the rules of one line of customers: how many customers it has, when the next one shows up at the
+ * end of it, and how many have shown up, left and been served so far. It is the part of a CustomerQueue that doesn't
+ * walk or get drawn, and runs on a SimulationClock and a DeadlineQueue, so the game's CustomerQueue (on the GameClock
+ * and the GameScheduler's queue) and the headless LevelSimulation (on a ManualClock and its own DeadlineQueue) fill
+ * their lines by exactly the same rules.
+ *
+ * Customers show up either on their own (QUEUE_POLICY_SEPARATE_LINES): the next one does once TIME_BETWEEN_CUSTOMERS_MS
+ * have passed since the last one and there is room in the visible part of the line; or when they are sent, by a
+ * CustomerArrivals (QUEUE_POLICY_SHORTEST_QUEUE, see admit()).
+ *
+ * Customer number i of the line (counting from 0) is at the front of the line once getDeparted() == i. Whoever holds
+ * the line hears about customers showing up (onCustomerArrived()) and leaving (onCustomerLeft()). The line is only
+ * used on one thread (the simulation Looper, in the game); the counters are volatile so that other threads can read
+ * them.
+ *
+ * @author ivany
+ *
+ */
+public class CustomerLine implements DeadlineQueue.Timed {
+	private final SimulationClock clock;
+	private final DeadlineQueue deadlines;
+
+	//How many customers this line has in total, and whether they show up on their own
+	private final int line_customers;
+	private final boolean arrives_by_itself;
+
+	//How many customers have shown up, how many of those have left the front of the line, and how many of those
+	//were served
+	private volatile int shown = 0;
+	private volatile int departed = 0;
+	private volatile int served = 0;
+	//When the last customer showed up; the first customer shows up right away
+	private long last_arrival_ms = -ShopRules.TIME_BETWEEN_CUSTOMERS_MS - 1;
+
+	/** Create a new CustomerLine
+	 *
+	 * @param clock Where the time comes from
+	 * @param deadlines Where the next customer's arrival is scheduled
+	 * @param line_customers How many customers this line has in total
+	 * @param arrives_by_itself true if the customers show up on their own, false if they are sent (see admit())
+	 */
+	public CustomerLine(SimulationClock clock, DeadlineQueue deadlines, int line_customers, boolean arrives_by_itself) {
+		this.clock = clock;
+		this.deadlines = deadlines;
+		this.line_customers = line_customers;
+		this.arrives_by_itself = arrives_by_itself;
+	}
+
+	/** Start the line; if the customers show up on their own, the first one does right away */
+	public void start() {
+		if(arrives_by_itself) deadlines.schedule(this, clock.currentTimeMillis());
+	}
+
+	/** Called by the DeadlineQueue when the next customer may be due to show up. The next customer shows up IF
+	 * sufficient time has passed and there is room in the visible part of the line; if one does show up, check again
+	 * once TIME_BETWEEN_CUSTOMERS_MS has passed.
+	 */
+	public void onTimer(long now_ms) {
+		if(!arrives_by_itself) return;
+
+		//Too early (e.g. the line advanced right after a customer showed up); check again later
+		if(now_ms <= last_arrival_ms + ShopRules.TIME_BETWEEN_CUSTOMERS_MS) {
+			deadlines.schedule(this, last_arrival_ms + ShopRules.TIME_BETWEEN_CUSTOMERS_MS + 1);
+			return;
+		}
+
+		if(shown < line_customers && shown - departed < ShopRules.QUEUE_VISIBLE_LENGTH) {
+			admit(now_ms);
+			deadlines.schedule(this, last_arrival_ms + ShopRules.TIME_BETWEEN_CUSTOMERS_MS + 1);
+		}
+	}
+
+	/** The next customer shows up at the end of the line; called by onTimer(), or by whoever sends the customers */
+	public void admit(long now_ms) {
+		onCustomerArrived(shown);
+		shown = shown + 1;
+		last_arrival_ms = now_ms;
+	}
+
+	/** The customer at the front of the line leaves it. Since this frees up a spot in the visible part of the line,
+	 * the next customer is due to show up (as soon as TIME_BETWEEN_CUSTOMERS_MS has passed since the last one did).
+	 * @param was_served Whether the customer's order was satisfied
+	 */
+	public void customerLeft(boolean was_served) {
+		departed = departed + 1;
+		if(was_served) served = served + 1;
+		onCustomerLeft(was_served);
+
+		if(arrives_by_itself) deadlines.schedule(this, Math.max(clock.currentTimeMillis(),
+				last_arrival_ms + ShopRules.TIME_BETWEEN_CUSTOMERS_MS + 1));
+	}
+
+	/** Called when customer number customer_index shows up at the end of the line, before getShown() counts them;
+	 * there are (customer_index - getDeparted()) customers ahead of them. Does nothing by default. */
+	protected void onCustomerArrived(int customer_index) {
+		;
+	}
+
+	/** Called when the customer at the front of the line has left it, once the counters have been updated and before
+	 * the next customer is scheduled. Does nothing by default. */
+	protected void onCustomerLeft(boolean was_served) {
+		;
+	}
+
+	/** Return how many customers this line has in total */
+	public int getLineCustomers() { return(line_customers); }
+	/** Return how many customers have shown up so far */
+	public int getShown() { return(shown); }
+	/** Return how many customers have left the front of the line so far */
+	public int getDeparted() { return(departed); }
+	/** Return how many customers left the line with their order satisfied */
+	public int getServed() { return(served); }
+	/** Return how many customers are waiting in the line */
+	public int getWaiting() { return(shown - departed); }
+}
@@ -0,0 +1,175 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** CustomerOrder holds the rules of one customer: what they ordered (out of an OrderGenerator), which of the items
+ * have been served so far, what serving them is worth, and how the customer's mood gets worse while they wait at the
+ * front of their line. It is the part of a Customer that doesn't walk or get drawn, and runs on a SimulationClock and a
+ * DeadlineQueue, so the game's Customer (on the GameClock and the GameScheduler's queue) and the headless
+ * LevelSimulation (on a ManualClock and its own DeadlineQueue) serve their customers by exactly the same rules.
+ *
+ * The order refers to the menu by index (see OrderGenerator); the menu is given as the held item (ShopRules.HELD_*)
+ * of every entry, which is all that serving needs. A CustomerOrder is re-used for every customer that its Customer
+ * plays (see respawn()).
+ *
+ * Whoever holds the CustomerOrder says whether the customer is waiting at the front of their line (isWaitingAtFront())
+ * and hears about their mood getting worse (onMoodChanged()). Except for onTimer(), which is run by the DeadlineQueue,
+ * the caller takes care of locking.
+ *
+ * @author ivany
+ *
+ */
+public class CustomerOrder implements DeadlineQueue.Timed {
+	//Customer moods
+	public static final int MOOD_HAPPY = 0;
+	public static final int MOOD_OK = 1;
+
+	private final SimulationClock clock;
+	private final DeadlineQueue deadlines;
+	//The held item of every menu entry
+	private final int [] menuHeldItems;
+
+	//The order, packed by OrderGenerator; bit i of satisfied_mask is set once item i of the order has been served
+	private int order;
+	private int satisfied_mask;
+	private float money_multiplier, points_multiplier;
+
+	//Define waiting time and correpsonding mood
+	private int seconds_between_pissed_off;
+	private int mood = MOOD_HAPPY;
+	private long mood_deadline_ms = DeadlineQueue.NO_DEADLINE; //when mood will next get worse
+
+	/** Create a new CustomerOrder; it has no order until respawn() is called
+	 *
+	 * @param clock Where the time for the mood comes from
+	 * @param deadlines Where the mood countdown is scheduled
+	 * @param menuHeldItems The held item (ShopRules.HELD_*) of every menu entry, indexed like the menu
+	 */
+	public CustomerOrder(SimulationClock clock, DeadlineQueue deadlines, int [] menuHeldItems) {
+		this.clock = clock;
+		this.deadlines = deadlines;
+		this.menuHeldItems = menuHeldItems;
+	}
+
+	/** Start over for a new customer: a new order, multipliers and impatience, all drawn out of orderGenerator (in
+	 * that order), and a happy mood.
+	 *
+	 * @param orderGenerator The OrderGenerator of the customer's line
+	 * @param point_mult The level's point multiplier
+	 * @param money_mult The level's money multiplier
+	 * @param impatience How quickly the customer becomes impatient
+	 */
+	public void respawn(OrderGenerator orderGenerator, float point_mult, float money_mult, float impatience) {
+		//Generate this customer's order; the OrderGenerator keeps track of how many of each item are left to order
+		order = orderGenerator.nextOrder();
+		satisfied_mask = 0;
+
+		//Generate this customer's "point multiplier"
+		money_multiplier = ShopRules.customerMultiplier(money_mult, orderGenerator.nextFloat());
+		points_multiplier = ShopRules.customerMultiplier(point_mult, orderGenerator.nextFloat());
+
+		//Generate impatience with a random factor
+		seconds_between_pissed_off = ShopRules.secondsBetweenPissedOff(impatience, orderGenerator.nextFloat());
+
+		mood = MOOD_HAPPY;
+		mood_deadline_ms = DeadlineQueue.NO_DEADLINE; //a mood timer left over from before is ignored by onTimer()
+	}
+
+	/** Replace the order with just menu entry menu_index (used by the tutorial) */
+	public void setSingleItemOrder(int menu_index) {
+		order = OrderGenerator.singleItemOrder(menu_index);
+		satisfied_mask = 0;
+	}
+
+	/** Return the order, packed by OrderGenerator */
+	public int getOrder() { return(order); }
+	/** Return the mask of the items of the order that have been served */
+	public int getSatisfiedMask() { return(satisfied_mask); }
+	/** Return how many items there are in the order */
+	public int getOrderSize() { return(OrderGenerator.orderSize(order)); }
+	/** Return the menu index of item i of the order */
+	public int getMenuItem(int i) { return(OrderGenerator.orderItem(order, i)); }
+	public int getMood() { return(mood); }
+
+	/** Return the index in the order of an unserved held_item, or -1 if held_item isn't (or no longer) wanted */
+	public int indexOfWanted(int held_item) {
+		for(int i = 0; i < getOrderSize(); i++) {
+			if((satisfied_mask & (1 << i)) == 0 && menuHeldItems[getMenuItem(i)] == held_item) return(i);
+		}
+		return(-1);
+	}
+
+	public boolean wants(int held_item) {
+		return(indexOfWanted(held_item) >= 0);
+	}
+
+	/** Return the held item of the first item of the order that hasn't been served yet, or ShopRules.HELD_NOTHING */
+	public int nextWantedItem() {
+		for(int i = 0; i < getOrderSize(); i++) {
+			if((satisfied_mask & (1 << i)) == 0) return(menuHeldItems[getMenuItem(i)]);
+		}
+		return(ShopRules.HELD_NOTHING);
+	}
+
+	/** Serve the customer held_item, if they still want it
+	 * @return The menu index of the item that was served, or -1 if held_item wasn't on the order
+	 */
+	public int serve(int held_item) {
+		int i = indexOfWanted(held_item);
+		if(i < 0) return(-1);
+
+		satisfied_mask |= (1 << i);
+		return(getMenuItem(i));
+	}
+
+	/** Return the points that serving an item worth points (before this customer's multiplier) gets */
+	public int points(int points) {
+		return((int) (points_multiplier * ((float) points)));
+	}
+
+	/** Return the money that serving an item worth money (before this customer's multiplier) gets */
+	public int money(int money) {
+		return((int) (money_multiplier * ((float) money)));
+	}
+
+	/** Return true once every item of the order has been served */
+	public boolean isSatisfied() {
+		return(satisfied_mask == (1 << getOrderSize()) - 1);
+	}
+
+	/** Start (or re-start) the countdown until this customer's mood gets worse. Only customers at the front of the
+	 * line get impatient; the DeadlineQueue calls onTimer() when the countdown runs out.
+	 */
+	public void startMoodTimer() {
+		mood_deadline_ms = clock.currentTimeMillis() + (seconds_between_pissed_off * 1000L);
+		deadlines.schedule(this, mood_deadline_ms);
+	}
+
+	/** Stop the countdown, e.g. once the customer leaves the line */
+	public void stopMoodTimer() {
+		mood_deadline_ms = DeadlineQueue.NO_DEADLINE;
+	}
+
+	/** Called by the DeadlineQueue when the mood countdown (see startMoodTimer()) may have run out. If the customer is
+	 * still waiting at the front of the line their mood gets worse. */
+	public void onTimer(long now_ms) {
+		if(now_ms < mood_deadline_ms || !isWaitingAtFront()) return;
+		mood_deadline_ms = DeadlineQueue.NO_DEADLINE;
+
+		//Customers don't get worse than OK (yet)
+		if(mood == MOOD_HAPPY) {
+			mood = MOOD_OK;
+			onMoodChanged(mood);
+			startMoodTimer();
+		}
+	}
+
+	/** Return true if the customer is waiting in line at its front; only then does their mood get worse. Overridden by
+	 * whoever knows where the customer is. */
+	protected boolean isWaitingAtFront() {
+		return(true);
+	}
+
+	/** Called when the customer's mood has got worse (on the DeadlineQueue's thread); does nothing by default */
+	protected void onMoodChanged(int new_mood) {
+		;
+	}
+}
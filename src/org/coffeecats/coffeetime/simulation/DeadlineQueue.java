@@ -0,0 +1,173 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** DeadlineQueue is a discrete-event queue keyed on time: things schedule a deadline and are called back (via
+ * onTimer()) once the queue is run past that deadline. The deadlines are kept in a binary min-heap backed by arrays,
+ * so scheduling a deadline doesn't allocate (unless the heap has to grow). Deadlines can't be cancelled; whoever gets
+ * called back must check that the deadline is still relevant.
+ *
+ * Deadlines may be scheduled from any thread, so the heap is guarded by a lock; however the check whether anything is
+ * due at all is a single volatile read, so running the queue when no deadline has passed never takes it.
+ *
+ * This is the engine behind GameScheduler on the device, and is used directly by the headless LevelSimulation.
+ *
+ * @author ivany
+ *
+ */
+public class DeadlineQueue {
+	/** Implemented by anything that schedules deadlines on a DeadlineQueue */
+	public interface Timed {
+		/** Called once a deadline scheduled by this object has passed.
+		 * @param now_ms The time that the queue was run up to, in ms
+		 */
+		public void onTimer(long now_ms);
+	}
+
+	//Returned by getNextDeadline() when nothing has been scheduled
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	private static final int INITIAL_CAPACITY = 32;
+
+	//The heap; entry i has children 2i+1 and 2i+2
+	private long [] deadlines = new long[INITIAL_CAPACITY];
+	private Timed [] timers = new Timed[INITIAL_CAPACITY];
+	private int size = 0;
+
+	//Deadlines with equal times are called back in the order they were scheduled, so that a run is repeatable
+	private long [] sequence = new long[INITIAL_CAPACITY];
+	private long next_sequence = 0;
+
+	private final Object lock = new Object();
+
+	//The earliest deadline in the heap, readable without taking the lock
+	private volatile long next_deadline_ms = NO_DEADLINE;
+
+	/** Schedule timer.onTimer() to be called once the queue is run up to deadline_ms
+	 *
+	 * @param timer The object to call back
+	 * @param deadline_ms The time to call back at
+	 */
+	public void schedule(Timed timer, long deadline_ms) {
+		if(timer == null) return;
+
+		synchronized(lock) {
+			if(size == deadlines.length) grow();
+
+			long seq = next_sequence++;
+
+			//Sift the new entry up from the bottom of the heap
+			int i = size++;
+			while(i > 0) {
+				int parent = (i - 1) >>> 1;
+				if(!before(deadline_ms, seq, deadlines[parent], sequence[parent])) break;
+				deadlines[i] = deadlines[parent];
+				sequence[i] = sequence[parent];
+				timers[i] = timers[parent];
+				i = parent;
+			}
+			deadlines[i] = deadline_ms;
+			sequence[i] = seq;
+			timers[i] = timer;
+
+			next_deadline_ms = deadlines[0];
+		}
+	}
+
+	/** Call back everything whose deadline is at or before now_ms, earliest deadline first. Anything that a callback
+	 * schedules at or before now_ms is called back too.
+	 * @param now_ms The current time, in ms
+	 * @return The number of callbacks made
+	 */
+	public int runDueTimers(long now_ms) {
+		int callbacks = 0;
+
+		while(next_deadline_ms <= now_ms) {
+			Timed due;
+
+			synchronized(lock) {
+				if(size == 0 || deadlines[0] > now_ms) break;
+				due = removeHead();
+			}
+
+			//Call back outside of the lock, since the callback will likely schedule another deadline
+			due.onTimer(now_ms);
+			callbacks++;
+		}
+
+		return(callbacks);
+	}
+
+	/** Remove every deadline */
+	public void clear() {
+		synchronized(lock) {
+			for(int i = 0; i < size; i++) timers[i] = null;
+			size = 0;
+			next_deadline_ms = NO_DEADLINE;
+		}
+	}
+
+	/** Return the earliest scheduled deadline, or NO_DEADLINE if nothing is scheduled */
+	public long getNextDeadline() {
+		return(next_deadline_ms);
+	}
+
+	/** Return how many deadlines are currently scheduled */
+	public int getScheduledCount() {
+		synchronized(lock) {
+			return(size);
+		}
+	}
+
+	/** Return true if deadline (d_a, seq_a) comes before deadline (d_b, seq_b) */
+	private static boolean before(long d_a, long seq_a, long d_b, long seq_b) {
+		return( d_a < d_b || (d_a == d_b && seq_a < seq_b) );
+	}
+
+	/** Remove and return the Timed with the earliest deadline. Caller must hold the lock and check that the heap isn't
+	 * empty. */
+	private Timed removeHead() {
+		Timed head = timers[0];
+
+		size--;
+		long last_deadline = deadlines[size];
+		long last_sequence = sequence[size];
+		Timed last_timer = timers[size];
+		timers[size] = null;
+
+		//Sift the last entry down from the top of the heap
+		if(size > 0) {
+			int i = 0;
+			while(true) {
+				int child = 2*i + 1;
+				if(child >= size) break;
+				if(child + 1 < size && before(deadlines[child + 1], sequence[child + 1], deadlines[child], sequence[child])) child++;
+				if(!before(deadlines[child], sequence[child], last_deadline, last_sequence)) break;
+				deadlines[i] = deadlines[child];
+				sequence[i] = sequence[child];
+				timers[i] = timers[child];
+				i = child;
+			}
+			deadlines[i] = last_deadline;
+			sequence[i] = last_sequence;
+			timers[i] = last_timer;
+		}
+
+		next_deadline_ms = (size > 0) ? deadlines[0] : NO_DEADLINE;
+
+		return(head);
+	}
+
+	/** Double the capacity of the heap. Caller must hold the lock. */
+	private void grow() {
+		int new_capacity = deadlines.length * 2;
+
+		long [] newDeadlines = new long[new_capacity];
+		long [] newSequence = new long[new_capacity];
+		Timed [] newTimers = new Timed[new_capacity];
+		System.arraycopy(deadlines, 0, newDeadlines, 0, size);
+		System.arraycopy(sequence, 0, newSequence, 0, size);
+		System.arraycopy(timers, 0, newTimers, 0, size);
+		deadlines = newDeadlines;
+		sequence = newSequence;
+		timers = newTimers;
+	}
+}
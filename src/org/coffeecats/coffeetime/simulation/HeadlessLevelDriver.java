@@ -0,0 +1,142 @@
+package org.coffeecats.coffeetime.simulation;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+
+/** HeadlessLevelDriver sets up a LevelSimulation the same way GameLevel_n.loadLevel() sets up the game threads (same
+ * machines, same timings, same menu, same customer parameters) and plays it on a plain JVM, e.g.
+ *
+ *   java -cp bin org.coffeecats.coffeetime.simulation.HeadlessLevelDriver 20 1234 5 quickbrewing,secondblender
+ *
+ * plays level 20 five times with seed 1234 and the two upgrades bought, and reports the result and how long each run
+ * took. Every run with the same seed must give the same result (and the same checksum); the driver says so if one
+ * doesn't. The level is only seen through LevelParameters, and everything else comes from ShopRules. The machines,
+ * customers and lines run on the same classes in this package as the game's GameItems, Customers and CustomerQueues
+ * (see LevelSimulation). Out of the rest of the game, only InteractionTable and GameGrid are used, and neither of them
+ * imports anything from Android, so the driver compiles and runs without android.jar:
+ *
+ *   javac -d bin simulation/*.java gamelogic/InteractionTable.java gamelogic/GameGrid.java
+ *
+ * The counter top upgrade is left out, since CoffeeGirl's bot never uses it.
+ *
+ * @author ivany
+ *
+ */
+public class HeadlessLevelDriver {
+	public static final int DEFAULT_LEVEL = 20;
+	public static final long DEFAULT_SEED = 1L;
+	public static final int DEFAULT_RUNS = 3;
+
+	public static void main(String [] args) {
+		int level_number = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_LEVEL;
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_SEED;
+		int runs = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_RUNS;
+		Set<String> upgrades = new HashSet<String>();
+		if(args.length > 3) upgrades.addAll(Arrays.asList(args[3].split(",")));
+
+		LevelParameters level = LevelDefinition.endless(level_number);
+		LevelSimulation.LevelResult first = null;
+		boolean deterministic = true;
+
+		for(int run = 0; run < runs; run++) {
+			long start_ns = System.nanoTime();
+			LevelSimulation.LevelResult result = createSimulation(level, upgrades, seed).run();
+			long elapsed_us = (System.nanoTime() - start_ns) / 1000L;
+
+			int bonus_points = result.finished_in_time ? level.getBonusPoints(result.customers_served) : 0;
+			int bonus_money = result.finished_in_time ? level.getBonusMoney(result.customers_served) : 0;
+
+			System.out.println("Level " + level_number + " seed " + seed + " run " + run + ": " + result +
+					", bonus points/money=" + bonus_points + "/" + bonus_money + " (" + elapsed_us + "us)");
+
+			if(first == null) first = result;
+			else if(first.checksum != result.checksum || first.points != result.points || first.money != result.money)
+				deterministic = false;
+		}
+
+		if(!deterministic) {
+			System.out.println("Runs with the same seed gave DIFFERENT results!");
+			System.exit(1);
+		}
+	}
+
+	/** Set up a LevelSimulation of level with the same stations, menu and customers as GameLevel_n.loadLevel()
+	 *
+	 * @param level The level to simulate
+	 * @param upgrades The names of the upgrades that have been bought (GameUpgrade names, e.g. "quickbrewing")
+	 * @param seed The seed for the simulation
+	 * @return The LevelSimulation, ready to run()
+	 */
+	public static LevelSimulation createSimulation(LevelParameters level, Set<String> upgrades, long seed) {
+		int queue_count = level.getQueueCount();
+		LevelSimulation sim = new LevelSimulation(seed, level.numberOfCustomers(), level.getPointMult(),
+				level.getMoneyMult(), level.getCustomerImpatience(), level.getCustomerMaxOrderSize(), level.getLevelTime());
+		sim.setQueuePolicy(level.getQueuePolicy());
+		sim.setCoffeeGirlMoveRate(ShopRules.coffeeGirlMoveRate(upgrades.contains("fastshoes"), upgrades.contains("fastershoes")));
+
+		//Stations (UPDATE FOR NEW GAMEITEM)
+		int brew_time = ShopRules.COFFEEMACHINE_BREW_TIME_MS;
+		if(upgrades.contains("quickbrewing")) brew_time -= ShopRules.COFFEEMACHINE_QUICK_BREW_SAVING_MS;
+
+		addMachine(sim, InteractionTable.KIND_COFFEEMACHINE, ShopRules.COFFEEMACHINE_X, ShopRules.COFFEEMACHINE_Y,
+				LevelSimulation.INPUT_ANY, brew_time, ShopRules.COFFEEMACHINE_DONE_TIME_MS);
+		if(upgrades.contains("secondcoffeemachine"))
+			addMachine(sim, InteractionTable.KIND_COFFEEMACHINE, ShopRules.COFFEEMACHINE_X,
+					ShopRules.COFFEEMACHINE_Y + ShopRules.COFFEEMACHINE_SECOND_DY,
+					LevelSimulation.INPUT_ANY, brew_time, ShopRules.COFFEEMACHINE_DONE_TIME_MS);
+
+		sim.addStation(InteractionTable.KIND_TRASHCAN, ShopRules.TRASHCAN_X, ShopRules.TRASHCAN_Y);
+		sim.addStation(InteractionTable.KIND_CUPCAKETRAY, ShopRules.CUPCAKETRAY_X, ShopRules.CUPCAKETRAY_Y);
+		sim.addStation(InteractionTable.KIND_PIETRAY, ShopRules.PIETRAY_X, ShopRules.PIETRAY_Y);
+
+		addMachine(sim, InteractionTable.KIND_BLENDER, ShopRules.BLENDER_X, ShopRules.BLENDER_Y,
+				ShopRules.HELD_COFFEE, ShopRules.BLENDER_BLEND_TIME_MS, ShopRules.BLENDER_DONE_TIME_MS);
+		if(upgrades.contains("secondblender"))
+			addMachine(sim, InteractionTable.KIND_BLENDER, ShopRules.BLENDER_X, ShopRules.BLENDER_Y + ShopRules.BLENDER_SECOND_DY,
+					ShopRules.HELD_COFFEE, ShopRules.BLENDER_BLEND_TIME_MS, ShopRules.BLENDER_DONE_TIME_MS);
+
+		addMachine(sim, InteractionTable.KIND_MICROWAVE, ShopRules.MICROWAVE_X, ShopRules.MICROWAVE_Y,
+				LevelSimulation.INPUT_ANY, ShopRules.MICROWAVE_BAKE_TIME_MS, ShopRules.MICROWAVE_DONE_TIME_MS);
+
+		if(upgrades.contains("espressomachine"))
+			addMachine(sim, InteractionTable.KIND_ESPRESSOMACHINE, ShopRules.ESPRESSOMACHINE_X, ShopRules.ESPRESSOMACHINE_Y,
+					LevelSimulation.INPUT_ANY, ShopRules.ESPRESSOMACHINE_BREW_TIME_MS, ShopRules.ESPRESSOMACHINE_DONE_TIME_MS);
+
+		//Menu (UPDATE FOR NEW FOODITEM)
+		addFoodItem(sim, ShopRules.HELD_NOTHING);
+		addFoodItem(sim, ShopRules.HELD_COFFEE);
+		addFoodItem(sim, ShopRules.HELD_CUPCAKE);
+		addFoodItem(sim, ShopRules.HELD_BLENDEDDRINK);
+		addFoodItem(sim, ShopRules.HELD_PIESLICE);
+		addFoodItem(sim, ShopRules.HELD_SANDWICH);
+		if(upgrades.contains("espressomachine"))
+			addFoodItem(sim, ShopRules.HELD_ESPRESSO);
+
+		//Customer queues
+		for(int i = 0; i < queue_count; i++)
+			sim.addCustomerQueue(ShopRules.queueX(i, queue_count), ShopRules.QUEUE_Y);
+
+		return(sim);
+	}
+
+	/** Add a machine with the usual three states: idle (waits for required_input), working, and done (waits for
+	 * CoffeeGirl's hands to be empty, or goes back to idle after done_ms). Headless runs draw nothing, so the states
+	 * have no assets. */
+	private static void addMachine(LevelSimulation sim, int kind, int x, int y, int required_input, int work_ms,
+			int done_ms) {
+		int station = sim.addStation(kind, x, y);
+		sim.addStationState(station, 0, LevelSimulation.NO_ASSET, true, required_input, false);
+		sim.addStationState(station, work_ms, LevelSimulation.NO_ASSET, false, LevelSimulation.INPUT_ANY, true);
+		sim.addStationState(station, done_ms, LevelSimulation.NO_ASSET, true, ShopRules.HELD_NOTHING, true);
+	}
+
+	/** Add an item to the simulation's menu, with the points and money it is worth */
+	private static void addFoodItem(LevelSimulation sim, int held_item) {
+		sim.addFoodItem(held_item, ShopRules.orderProbability(held_item),
+				ShopRules.servePoints(held_item), ShopRules.serveMoney(held_item),
+				ShopRules.trashPoints(held_item), ShopRules.trashMoney(held_item));
+	}
+}
@@ -0,0 +1,229 @@
+package org.coffeecats.coffeetime.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** ItemStateMachine is the state machine of a machine, tray or trash can: the states of a GameItem, without anything
+ * to draw them with. It only knows about time through a SimulationClock and only schedules its time-based
+ * transitions on a DeadlineQueue, so the same rules run in the game (GameItem, on the GameClock and the
+ * GameScheduler's queue) and in the headless LevelSimulation (on a ManualClock and its own DeadlineQueue).
+ *
+ * A state machine only advances from state n to state (n+1) (or wraps): once a time-sensitive state's delay has passed,
+ * or when CoffeeGirl interacts with an input-sensitive state while holding its required input. Items with different
+ * rules (like CounterTop) override nextState(). Every state has an asset handle (an R.drawable id) that whoever draws
+ * the item resolves through an AssetSource; the state machine never does.
+ *
+ * The state machine is advanced from two places: by its own deadlines (onTimer()) and by CoffeeGirl's interactions
+ * (tryChangeState()). The current state is packed together with the time that it was entered into a single
+ * AtomicLong, and a transition only takes effect if the state hasn't changed since it was computed, so neither path
+ * needs a lock and neither allocates anything. States are only added while the item is being built.
+ *
+ * @author ivany
+ *
+ */
+public class ItemStateMachine implements DeadlineQueue.Timed {
+	//Used as the required input of a state if CoffeeGirl may hold anything at all
+	public static final int INPUT_ANY = -1;
+	//Returned by nextState() if the state should not change
+	public static final int NO_STATE_CHANGE = -1;
+
+	//The low bits of the state word hold the current state index, the rest hold the time of the last state transition
+	private static final int STATE_IDX_BITS = 8;
+	private static final long STATE_IDX_MASK = (1L << STATE_IDX_BITS) - 1;
+	private static final int INITIAL_STATE_CAPACITY = 4;
+
+	private final SimulationClock clock;
+	private final DeadlineQueue deadlines;
+
+	//Valid states; state i is described by entry i of each array
+	private int state_count = 0;
+	private int [] stateDelayMs = new int[INITIAL_STATE_CAPACITY];
+	private int [] stateAsset = new int[INITIAL_STATE_CAPACITY];
+	private boolean [] stateInputSensitive = new boolean[INITIAL_STATE_CAPACITY];
+	private boolean [] stateTimeSensitive = new boolean[INITIAL_STATE_CAPACITY];
+	private int [] stateRequiredInput = new int[INITIAL_STATE_CAPACITY];
+
+	//The index of the current state and the time (from clock, in ms) that it was entered; see packStateWord()
+	private final AtomicLong state_word = new AtomicLong(0L);
+
+	/** Create a state machine without any states (a "stateless" item, like the trash can, until states are added)
+	 *
+	 * @param clock Where the time that states are entered comes from
+	 * @param deadlines Where the time-based transitions are scheduled
+	 */
+	public ItemStateMachine(SimulationClock clock, DeadlineQueue deadlines) {
+		this.clock = clock;
+		this.deadlines = deadlines;
+	}
+
+	/** Add a state; the first state added is entered right away.
+	 *
+	 * @param state_delay_ms The delay until this state may be exited, ignored unless time_sensitive is set to true
+	 * @param asset_handle The asset (R.drawable id) that the item is drawn with in this state
+	 * @param input_sensitive Whether interactions with CoffeeGirl must occur to exit this state
+	 * @param required_input What CoffeeGirl must be holding when she interacts with this state, as the CoffeeGirl state
+	 * associated with it (ShopRules.HELD_*), or INPUT_ANY
+	 * @param time_sensitive Whether this State requires that some amount of time elapse before we can exit it
+	 * @return The index of the new state
+	 */
+	public int addState(int state_delay_ms, int asset_handle, boolean input_sensitive, int required_input, boolean time_sensitive) {
+		if(state_count == stateDelayMs.length) {
+			int new_capacity = stateDelayMs.length * 2;
+			stateDelayMs = Arrays.copyOf(stateDelayMs, new_capacity);
+			stateAsset = Arrays.copyOf(stateAsset, new_capacity);
+			stateInputSensitive = Arrays.copyOf(stateInputSensitive, new_capacity);
+			stateTimeSensitive = Arrays.copyOf(stateTimeSensitive, new_capacity);
+			stateRequiredInput = Arrays.copyOf(stateRequiredInput, new_capacity);
+		}
+
+		int state_idx = state_count;
+		stateDelayMs[state_idx] = state_delay_ms;
+		stateAsset[state_idx] = asset_handle;
+		stateInputSensitive[state_idx] = input_sensitive;
+		stateTimeSensitive[state_idx] = time_sensitive;
+		stateRequiredInput[state_idx] = required_input;
+		state_count++;
+
+		if(state_idx == 0) setState(0);
+
+		return(state_idx);
+	}
+
+	/** Used to (try) to transition states. If enough time has passed and/or an interaction has occured the state may change.
+	 * @param has_interacted true if tryChangeState() was called as a response to a user interaction else false
+	 * @param held_item What CoffeeGirl is holding (as a CoffeeGirl state), INPUT_ANY if there was no interaction
+	 * @return The previous state if state changed, otherwise NO_STATE_CHANGE
+	 */
+	public int tryChangeState(boolean has_interacted, int held_item) {
+		//If we haven't even added any states, return that state changed from 0 to 0
+		//This is for "stateless" things like TrashCan
+		if(state_count == 0) return(0);
+
+		while(true) {
+			long word = state_word.get();
+			int state_idx = (int) (word & STATE_IDX_MASK);
+			long now = clock.currentTimeMillis();
+			long time_since_state_transition = now - (word >>> STATE_IDX_BITS);
+
+			int next_state = nextState(state_idx, time_since_state_transition, has_interacted, held_item);
+			if(next_state == NO_STATE_CHANGE) return(NO_STATE_CHANGE);
+
+			//If the other path changed our state in the meantime, try again from the new state
+			if(state_word.compareAndSet(word, packStateWord(next_state, now))) {
+				scheduleStateDeadline(next_state, now);
+				onStateChanged(state_idx, next_state);
+				return(state_idx);
+			}
+		}
+	}
+
+	/** Determine what state we go to next, if any; by default this is defaultNextState(). Must not change any state
+	 * itself.
+	 *
+	 * @param state_idx The current state
+	 * @param time_since_state_transition How long (in ms) we've been in the current state
+	 * @param has_interacted true if this is a response to a user interaction else false
+	 * @param held_item What CoffeeGirl is holding (as a CoffeeGirl state), INPUT_ANY if there was no interaction
+	 * @return The next state, or NO_STATE_CHANGE
+	 */
+	protected int nextState(int state_idx, long time_since_state_transition, boolean has_interacted, int held_item) {
+		return(defaultNextState(state_idx, time_since_state_transition, has_interacted, held_item));
+	}
+
+	/** The usual rules: advance from state n to state (n+1) (or wrap) once the delay has passed (if time-sensitive) or
+	 * once CoffeeGirl has interacted while holding the required input (if input-sensitive). See nextState() for the
+	 * arguments. */
+	public final int defaultNextState(int state_idx, long time_since_state_transition, boolean has_interacted, int held_item) {
+		int next_state = (state_idx+1 < state_count) ? state_idx+1 : 0;
+
+		if(stateTimeSensitive[state_idx] && (time_since_state_transition > stateDelayMs[state_idx])) return(next_state);
+
+		if(stateInputSensitive[state_idx] && has_interacted) {
+			//If the current state requires an input item and the provided item is what is required
+			//OR no input is required, the change state
+			int required_input = stateRequiredInput[state_idx];
+			if(required_input == INPUT_ANY || required_input == held_item) return(next_state);
+		}
+
+		return(NO_STATE_CHANGE);
+	}
+
+	/** Called after every state change, from whichever path made it; does nothing by default (GameItems play their
+	 * sound effects here).
+	 * @param old_state The state idx we transitioned from.
+	 * @param next_state The state idx we transitioned to.
+	 */
+	protected void onStateChanged(int old_state, int next_state) {
+		;
+	}
+
+	/** Change the state to something else, unconditionally.
+	 * @param new_state The index of the new state
+	 */
+	public void setState(int new_state) {
+		long now = clock.currentTimeMillis();
+		state_word.set(packStateWord(new_state, now));
+		scheduleStateDeadline(new_state, now);
+	}
+
+	/** Called by the DeadlineQueue once the deadline for leaving a time-sensitive state has passed. If we've left that
+	 * state in the meantime this does nothing.
+	 */
+	public void onTimer(long now_ms) {
+		tryChangeState(false, INPUT_ANY);
+	}
+
+	/** If state_idx is time-sensitive, schedule a call-back for when it may be exited
+	 * @param state_idx The state that was just entered
+	 * @param time_of_state_transition The time (in ms) that it was entered
+	 */
+	private void scheduleStateDeadline(int state_idx, long time_of_state_transition) {
+		//The state may be exited once MORE than state_delay_ms have passed, see defaultNextState()
+		if(stateTimeSensitive[state_idx])
+			deadlines.schedule(this, time_of_state_transition + stateDelayMs[state_idx] + 1);
+	}
+
+	/** Return the index of the current state (0 if there are no states) */
+	public int getState() {
+		return((int) (state_word.get() & STATE_IDX_MASK));
+	}
+
+	/** Return how many states have been added */
+	public int getStateCount() {
+		return(state_count);
+	}
+
+	/** Return the asset handle of state state_idx */
+	public int getStateAsset(int state_idx) {
+		return(stateAsset[state_idx]);
+	}
+
+	/** Return what CoffeeGirl must hold to leave the current state by interacting, or INPUT_ANY (also if there are no
+	 * states) */
+	public int getRequiredInput() {
+		if(state_count == 0) return(INPUT_ANY);
+		return(stateRequiredInput[getState()]);
+	}
+
+	/** Return true if an interaction while CoffeeGirl holds held_item would change the current state under the usual
+	 * rules; an item without states accepts anything */
+	public boolean acceptsInput(int held_item) {
+		if(state_count == 0) return(true);
+		int state_idx = getState();
+		return( stateInputSensitive[state_idx] &&
+				(stateRequiredInput[state_idx] == INPUT_ANY || stateRequiredInput[state_idx] == held_item) );
+	}
+
+	/** Return the time at which the current state will be left by itself, or DeadlineQueue.NO_DEADLINE */
+	public long nextTransitionMs() {
+		if(state_count == 0) return(DeadlineQueue.NO_DEADLINE);
+		long word = state_word.get();
+		int state_idx = (int) (word & STATE_IDX_MASK);
+		if(!stateTimeSensitive[state_idx]) return(DeadlineQueue.NO_DEADLINE);
+		return((word >>> STATE_IDX_BITS) + stateDelayMs[state_idx] + 1);
+	}
+
+	private static long packStateWord(int state_idx, long time_of_state_transition) {
+		return((time_of_state_transition << STATE_IDX_BITS) | (state_idx & STATE_IDX_MASK));
+	}
+}
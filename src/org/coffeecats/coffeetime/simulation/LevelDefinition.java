@@ -0,0 +1,118 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** LevelDefinition holds the per-level parameters (see LevelParameters) and the rules that only depend on them, like
+ * the end-of-level bonus. The GameLevel classes extend it and fill the parameters in from their constructors; a
+ * headless run can create one directly, e.g. endless() for the levels past the last hand-made one, which are
+ * defined by formula.
+ *
+ * @author ivany
+ *
+ */
+public class LevelDefinition implements LevelParameters {
+	//What level number is this
+	protected int level_number;
+
+	//How long is the customer queue for this level
+	protected int customerQueue_length;
+	//How many lines the customers are split over
+	protected int customer_queue_count = 1;
+	//Which line arriving customers join (ShopRules.QUEUE_POLICY_*)
+	protected int customer_queue_policy = ShopRules.QUEUE_POLICY_SEPARATE_LINES;
+	//what is the time limit for the level (in seconds)
+	protected int time_limit_sec;
+
+	//multipliers for money and points for this level
+	protected float point_mult,money_mult;
+	//bonus money/points for clearing the level within the alotted time
+	protected int point_bonus, money_bonus;
+	//If we don't clear it in time, what is the bonus then?
+	protected float point_bonus_derating, money_bonus_derating;
+
+	//how impatient are the customers
+	//2.0 will cause their "patience" to tick down twice as fast
+	protected float customer_impatience;
+	//what is the maximum number of items a customer can order
+	//should never be greater than 3
+	protected int customer_max_order_size;
+
+	protected int customer_dissatisfaction_penalty = 10;
+
+	protected float proportion_customers_until_cleared = 0.7f;
+	protected float proportion_customers_until_bonus = 0.85f;
+
+	protected float customer_impatience_modifier_for_2_lines = 1.1f;
+
+	/** Return the definition of level n past the hand-made levels (GameLevel_n) */
+	public static LevelDefinition endless(int n) {
+		LevelDefinition level = new LevelDefinition();
+		level.defineEndless(n);
+		return(level);
+	}
+
+	/** Set the parameters of level n past the hand-made levels; they get harder with every level */
+	protected void defineEndless(int n) {
+		this.level_number = n;
+		this.customerQueue_length = 40 + 5*n;
+		this.customer_queue_count = 2;
+		this.customer_queue_policy = ShopRules.QUEUE_POLICY_SHORTEST_QUEUE;
+		this.point_mult = 1.6f + 0.2f*n;
+		this.money_mult = 1.6f + 0.1f*n;
+		this.customer_impatience = (.3f + 0.05f*n) * customer_impatience_modifier_for_2_lines;
+		this.time_limit_sec = 3 * 60 + (4*5*n) ;
+		this.customer_max_order_size = 3;
+
+		this.point_bonus = 125+ 15*n;
+		this.money_bonus = 100 + 10*n;
+		this.point_bonus_derating = 0.3f - 0.05f*n;
+		this.money_bonus_derating = 0.3f - 0.05f*n;
+	}
+
+	/** Return the number of clock ticks that should be alloted for completing this level.
+	 *
+	 * @return The number of clock ticks that should be alloted for completing this level.
+	 */
+	public int getLevelTime() {
+		return this.time_limit_sec;
+	}
+
+	/** Return the bonus point total for this level, given that the level was cleared in time (iff
+	 * cleared_level_in_time was true)
+	 * @param cleared_level_in_time Was the level cleared in time?
+	 * @return Level end bonus points
+	 */
+	public int getBonusPoints(int customers_served) {
+		return ((customers_served >= customersUntilBonus()) ? point_bonus : ((int) (point_bonus * point_bonus_derating) ));
+	}
+
+	/** Return the bonus money total for this level, given that the level was cleared in time (iff
+	 * cleared_level_in_time was true)
+	 * @param cleared_level_in_time Was the level cleared in time?
+	 * @return Level end bonus money
+	 */
+	public int getBonusMoney(int customers_served) {
+		return ((customers_served >= customersUntilBonus()) ? money_bonus : ((int) (money_bonus * money_bonus_derating) ));
+	}
+
+	public int getCustomerDissatisfactionPenalty(int customers_unsatisfied) {
+		return (-1 * customers_unsatisfied * customer_dissatisfaction_penalty);
+	}
+
+	public int customersUntilBonus() {
+		return ((int)(proportion_customers_until_bonus * customerQueue_length));
+	}
+
+	public int customersUntilCleared() {
+		return ((int)(proportion_customers_until_cleared * customerQueue_length));
+	}
+
+	public int numberOfCustomers() { return customerQueue_length; }
+
+	/** These return the per-level customer parameters, e.g. for setting up a headless LevelSimulation of this level */
+	public int getLevelNumber() { return level_number; }
+	public int getQueueCount() { return customer_queue_count; }
+	public int getQueuePolicy() { return customer_queue_policy; }
+	public float getPointMult() { return point_mult; }
+	public float getMoneyMult() { return money_mult; }
+	public float getCustomerImpatience() { return customer_impatience; }
+	public int getCustomerMaxOrderSize() { return customer_max_order_size; }
+}
@@ -0,0 +1,39 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** The per-level parameters of Coffee Time: how many customers there are and how they behave, how long the level
+ * lasts and what clearing it is worth. GameLevel provides them to the game threads; LevelSimulation and
+ * HeadlessLevelDriver only ever see a level through this interface, so they don't need any of the game's classes.
+ *
+ * @author ivany
+ *
+ */
+public interface LevelParameters {
+	/** Return the level number */
+	public int getLevelNumber();
+
+	/** Return how many customers the level has in total */
+	public int numberOfCustomers();
+
+	/** Return how many customer lines the level's customers are split over */
+	public int getQueueCount();
+
+	/** Return which line arriving customers join (ShopRules.QUEUE_POLICY_*) */
+	public int getQueuePolicy();
+
+	/** Return the time limit of the level, in seconds */
+	public int getLevelTime();
+
+	/** Return the level's point and money multipliers for customer order completions */
+	public float getPointMult();
+	public float getMoneyMult();
+
+	/** Return how quickly the customers' mood degrades as they wait */
+	public float getCustomerImpatience();
+
+	/** Return the largest number of items a customer may order */
+	public int getCustomerMaxOrderSize();
+
+	/** Return the end-of-level bonus points and money, given how many customers were served */
+	public int getBonusPoints(int customers_served);
+	public int getBonusMoney(int customers_served);
+}
@@ -0,0 +1,637 @@
+package org.coffeecats.coffeetime.simulation;
+
+import java.util.ArrayList;
+
+import org.coffeecats.coffeetime.gamelogic.GameGrid;
+import org.coffeecats.coffeetime.gamelogic.InteractionTable;
+
+/** LevelSimulation plays a whole level of Coffee Time without any of the Android machinery - no Handlers, no
+ * SystemClock, no Bitmaps, no Context. Time comes from a ManualClock that jumps straight from one event to the next,
+ * every time-based transition goes through a DeadlineQueue, and everything random is drawn from SimulationRandoms
+ * seeded from one level seed, so a level runs in milliseconds and the same seed always gives exactly the same result.
+ *
+ * The level is described the same way that the GameLevel classes describe it to the game threads: stations (machines,
+ * trays, the trash can) are added with their states (the same delay / input-sensitive / required input /
+ * time-sensitive description that GameItem.addState() takes), the menu is added item by item, and the customer queues
+ * are described by the level parameters, split over the lines by the same policy as CustomerQueueLayout.
+ *
+ * The rules themselves are the game's own: the stations run on the ItemStateMachine that every GameItem runs on, the
+ * customers are served by the CustomerOrder that every Customer keeps its order and mood in, the lines are filled by
+ * the CustomerLine behind every CustomerQueue, and with QUEUE_POLICY_SHORTEST_QUEUE the customers are sent to them by
+ * the CustomerArrivals of CustomerQueueLayout. What CoffeeGirl ends up holding after an interaction is looked up in the
+ * same InteractionTable that the GameLogicThread uses, and customers are generated by the same OrderGenerator as in
+ * CustomerQueue, so with the same level seed the customers are exactly the ones the game would generate. All that the
+ * simulation adds is where things are, and CoffeeGirl.
+ *
+ * CoffeeGirl is played by a simple greedy bot: she serves the customer who has been waiting at the front of a line the
+ * longest, fetching (and if need be, starting) whatever the customer ordered next.
+ *
+ * A LevelSimulation is not thread-safe and can only be run once.
+ *
+ * @author ivany
+ *
+ */
+public class LevelSimulation {
+	//The item CoffeeGirl holds when her hands are empty (CoffeeGirl.STATE_NORMAL)
+	public static final int HELD_NOTHING = ShopRules.HELD_NOTHING;
+	//Used as the required input of a station state if CoffeeGirl may hold anything at all (GameItem.INPUT_ANY)
+	public static final int INPUT_ANY = ItemStateMachine.INPUT_ANY;
+	//The asset handle of a station state that has nothing to draw (no R.drawable id is 0)
+	public static final int NO_ASSET = 0;
+
+	//How long CoffeeGirl waits before looking for something to do again when there is nothing to do
+	public static final int IDLE_POLL_MS = 100;
+
+	//Customer moods
+	public static final int MOOD_HAPPY = CustomerOrder.MOOD_HAPPY;
+	public static final int MOOD_OK = CustomerOrder.MOOD_OK;
+
+	private final ManualClock clock;
+	private final long seed;
+	private final DeadlineQueue deadlines;
+
+	//Level parameters
+	private final int customer_count;
+	private int queue_policy = ShopRules.QUEUE_POLICY_SEPARATE_LINES;
+	private final float point_mult, money_mult, customer_impatience;
+	private final int max_order_size;
+	private final long time_limit_ms;
+	//How fast CoffeeGirl walks (see ShopRules.coffeeGirlMoveRate())
+	private int coffeegirl_move_rate = ShopRules.COFFEEGIRL_MOVE_RATE;
+
+	//The menu; entry i describes menu item i, entry 0 must be "nothing"
+	private int menu_count = 0;
+	private int [] menuHeldItem = new int[8];
+	private float [] menuOrderProbability = new float[8];
+	private int [] menuPoints = new int[8];
+	private int [] menuMoney = new int[8];
+	private int [] menuTrashPoints = new int[8];
+	private int [] menuTrashMoney = new int[8];
+
+	private final ArrayList<Station> stations = new ArrayList<Station>();
+	private final ArrayList<Queue> queues = new ArrayList<Queue>();
+	//Sends the customers to the lines (QUEUE_POLICY_SHORTEST_QUEUE only, null otherwise)
+	private CustomerArrivals arrivals = null;
+	//How many customers the lines have between them, and how many of them have left their line so far
+	private int customers_total = 0;
+	private int customers_departed = 0;
+	private final Bot coffeeGirl = new Bot();
+
+	private boolean has_run = false;
+	private final LevelResult result = new LevelResult();
+
+	/** Create a new LevelSimulation
+	 *
+	 * @param seed The seed for everything random in this level
+	 * @param customer_count How many customers the level has in total; they are split over the customer queues like
+	 * CustomerQueueLayout splits them
+	 * @param point_mult The level's point multiplier
+	 * @param money_mult The level's money multiplier
+	 * @param customer_impatience How quickly the customers' mood degrades
+	 * @param max_order_size The largest number of items a customer may order (at most 3)
+	 * @param time_limit_sec The level's time limit
+	 */
+	public LevelSimulation(long seed, int customer_count, float point_mult, float money_mult,
+			float customer_impatience, int max_order_size, int time_limit_sec) {
+		this.clock = new ManualClock();
+		this.seed = seed;
+		this.deadlines = new DeadlineQueue();
+
+		this.customer_count = customer_count;
+		this.point_mult = point_mult;
+		this.money_mult = money_mult;
+		this.customer_impatience = customer_impatience;
+		this.max_order_size = max_order_size;
+		this.time_limit_ms = time_limit_sec * 1000L;
+	}
+
+	/** Set how fast CoffeeGirl walks, in GameGrid units per ShopRules.MOVE_RATE_INTERVAL_MS; by default she walks
+	 * as fast as she does without any shoe upgrades */
+	public void setCoffeeGirlMoveRate(int move_rate) {
+		this.coffeegirl_move_rate = move_rate;
+	}
+
+	/** Set which line arriving customers join (ShopRules.QUEUE_POLICY_*); by default every line gets its own
+	 * customers (QUEUE_POLICY_SEPARATE_LINES) */
+	public void setQueuePolicy(int policy) {
+		this.queue_policy = policy;
+	}
+
+	/** Add an item to the menu, like GameLogicThread.addNewFoodItem(). The first item added must be "nothing".
+	 *
+	 * @param held_item The CoffeeGirl state that corresponds to carrying this item
+	 * @param order_probability How likely customers are to order this item (GameFoodItem.getOrderProbability())
+	 * @param points Points for serving this item to a customer, before the customer's multiplier
+	 * @param money Money for serving this item to a customer, before the customer's multiplier
+	 * @param trash_points Points for throwing this item away
+	 * @param trash_money Money for throwing this item away
+	 */
+	public void addFoodItem(int held_item, float order_probability, int points, int money, int trash_points, int trash_money) {
+		if(menu_count == menuHeldItem.length) {
+			int new_length = menu_count * 2;
+			menuHeldItem = java.util.Arrays.copyOf(menuHeldItem, new_length);
+			menuOrderProbability = java.util.Arrays.copyOf(menuOrderProbability, new_length);
+			menuPoints = java.util.Arrays.copyOf(menuPoints, new_length);
+			menuMoney = java.util.Arrays.copyOf(menuMoney, new_length);
+			menuTrashPoints = java.util.Arrays.copyOf(menuTrashPoints, new_length);
+			menuTrashMoney = java.util.Arrays.copyOf(menuTrashMoney, new_length);
+		}
+
+		menuHeldItem[menu_count] = held_item;
+		menuOrderProbability[menu_count] = order_probability;
+		menuPoints[menu_count] = points;
+		menuMoney[menu_count] = money;
+		menuTrashPoints[menu_count] = trash_points;
+		menuTrashMoney[menu_count] = trash_money;
+		menu_count++;
+	}
+
+	/** Add a station (a machine, tray or trash can) to the level, like GameLogicThread.addGameItem()
+	 *
+	 * @param kind The kind of GameItem (InteractionTable.KIND_*)
+	 * @param x The GameGrid x position CoffeeGirl walks to in order to use this station
+	 * @param y The GameGrid y position CoffeeGirl walks to in order to use this station
+	 * @return The index of the new station, for addStationState()
+	 */
+	public int addStation(int kind, int x, int y) {
+		stations.add(new Station(kind, x, y));
+		return(stations.size() - 1);
+	}
+
+	/** Add a state to a station; takes the same arguments as GameItem.addState(), except that the bitmap is an asset
+	 * handle (an R.drawable id) that the simulation never resolves.
+	 *
+	 * @return The index of the new state
+	 */
+	public int addStationState(int station, int delay_ms, int asset_handle, boolean input_sensitive, int required_input,
+			boolean time_sensitive) {
+		return(stations.get(station).states.addState(delay_ms, asset_handle, input_sensitive, required_input, time_sensitive));
+	}
+
+	/** Return the asset for the current state of a station, resolved through assets (e.g. Bitmaps, when drawing a
+	 * replay of the level). Returns null for stations without states, and for states without an asset (NO_ASSET).
+	 */
+	public <T> T getStationAsset(int station, AssetSource<T> assets) {
+		ItemStateMachine states = stations.get(station).states;
+		if(states.getStateCount() == 0 || states.getStateAsset(states.getState()) == NO_ASSET) return(null);
+		return(assets.load(states.getStateAsset(states.getState())));
+	}
+
+	/** Add a customer queue to the level; CoffeeGirl walks to (x, y) to serve its customers. Its customers are
+	 * generated as they show up, like in CustomerQueue, out of the menu as it is when run() is called. */
+	public void addCustomerQueue(int x, int y) {
+		queues.add(new Queue(x, y));
+	}
+
+	/** Play the level until every customer has left or the time limit has been reached
+	 * @return The result of the level
+	 */
+	public LevelResult run() {
+		if(has_run) return(result);
+		has_run = true;
+
+		//CoffeeGirl starts out in the middle of the GameGrid, like any GameActor
+		coffeeGirl.x = GameGrid.GAMEGRID_WIDTH/2;
+		coffeeGirl.y = GameGrid.GAMEGRID_HEIGHT/2;
+		deadlines.schedule(coffeeGirl, 0);
+		int [] menuHeldItems = java.util.Arrays.copyOf(menuHeldItem, menu_count);
+		for(int i = 0; i < queues.size(); i++) {
+			queues.get(i).start(lineCustomers(i), menuHeldItems);
+			customers_total += lineCustomers(i);
+		}
+		if(queue_policy == ShopRules.QUEUE_POLICY_SHORTEST_QUEUE) {
+			arrivals = new CustomerArrivals(clock, deadlines, queues.size(), customers_total) {
+				@Override
+				protected void onAdmit(int line, long now_ms) {
+					queues.get(line).line.admit(now_ms);
+				}
+			};
+			arrivals.start();
+		}
+
+		while(!allQueuesFinished()) {
+			long next = deadlines.getNextDeadline();
+			if(next == DeadlineQueue.NO_DEADLINE || next > time_limit_ms) break;
+
+			clock.advanceTo(next);
+			result.events += deadlines.runDueTimers(next);
+		}
+
+		result.time_ms = allQueuesFinished() ? clock.currentTimeMillis() : time_limit_ms;
+		result.finished_in_time = allQueuesFinished();
+		for(Queue q : queues) result.customers_served += q.line.getServed();
+		result.customers_left = customers_total - customers_departed;
+		checkAccounts();
+
+		return(result);
+	}
+
+	/** Return how many customers line index has, the same way CustomerQueueLayout splits them: separate lines drop
+	 * the remainder, one shop-wide stream of customers spreads it over the first lines */
+	private int lineCustomers(int index) {
+		int line_customers = customer_count / queues.size();
+		if(queue_policy == ShopRules.QUEUE_POLICY_SHORTEST_QUEUE && index < customer_count % queues.size()) line_customers++;
+		return(line_customers);
+	}
+
+	private boolean allQueuesFinished() {
+		return(customers_departed >= customers_total);
+	}
+
+	/** Check that every customer is accounted for: each one that showed up in a line is either still in it or has
+	 * left it, and with QUEUE_POLICY_SHORTEST_QUEUE no more customers showed up than the level has */
+	private void checkAccounts() {
+		int shown = 0, waiting = 0;
+		for(Queue q : queues) {
+			if(q.line.getDeparted() > q.line.getShown() || q.customers.size() != q.line.getShown())
+				throw new IllegalStateException("Line " + q.index + " lost track of its customers: " + q.line.getDeparted() +
+						" left, " + q.line.getShown() + " showed up, " + q.customers.size() + " were generated");
+			shown += q.line.getShown();
+			waiting += q.line.getWaiting();
+		}
+		if(shown != customers_departed + waiting || shown > customers_total)
+			throw new IllegalStateException(shown + " customers showed up, " + customers_departed + " left and " + waiting +
+					" are waiting, out of " + customers_total);
+		if(queue_policy == ShopRules.QUEUE_POLICY_SHORTEST_QUEUE && shown != arrivals.getCustomersAdmitted())
+			throw new IllegalStateException(shown + " customers showed up, but " + arrivals.getCustomersAdmitted() +
+					" were sent to a line");
+	}
+
+	/** Fold an event into the result's checksum, so that two runs can be compared cheaply */
+	private void record(int what, int a, int b) {
+		long h = result.checksum;
+		h = (h ^ clock.currentTimeMillis()) * 0x100000001B3L;
+		h = (h ^ what) * 0x100000001B3L;
+		h = (h ^ a) * 0x100000001B3L;
+		h = (h ^ b) * 0x100000001B3L;
+		result.checksum = h;
+	}
+
+	private int menuIndexOf(int held_item) {
+		for(int i = 0; i < menu_count; i++) if(menuHeldItem[i] == held_item) return(i);
+		return(-1);
+	}
+
+	/** A machine, tray or trash can: where CoffeeGirl walks to in order to use it, what kind of GameItem it is, and
+	 * its states, which run on the same ItemStateMachine as the GameItem's */
+	private class Station {
+		final int kind, x, y, index;
+		final ItemStateMachine states = new ItemStateMachine(clock, deadlines);
+
+		Station(int kind, int x, int y) {
+			this.kind = kind;
+			this.x = x;
+			this.y = y;
+			this.index = stations.size();
+		}
+
+		/** Return what CoffeeGirl would be holding after interacting with this station in its current state */
+		int product(int held_item) {
+			if(!states.acceptsInput(held_item)) return(InteractionTable.NO_CHANGE);
+			return(InteractionTable.nextHeldItem(kind, states.getState(), held_item));
+		}
+
+		/** Return true if this station can (eventually, by running through its states) hand out item_wanted */
+		boolean canProduce(int item_wanted) {
+			if(states.getStateCount() == 0) return(InteractionTable.nextHeldItem(kind, 0, HELD_NOTHING) == item_wanted);
+			for(int s = 0; s < states.getStateCount(); s++) {
+				if(InteractionTable.nextHeldItem(kind, s, HELD_NOTHING) == item_wanted) return(true);
+			}
+			return(false);
+		}
+	}
+
+	/** A customer queue: where CoffeeGirl walks to in order to serve it, and its customers, who show up by the same
+	 * CustomerLine rules and are served by the same CustomerOrder rules as in CustomerQueue */
+	private class Queue {
+		final int x, y, index;
+		//The customers that have shown up so far; customers[line.getDeparted()] is at the front of the line
+		final ArrayList<CustomerOrder> customers = new ArrayList<CustomerOrder>();
+		OrderGenerator orderGenerator;
+		int [] menuHeldItems;
+		CustomerLine line;
+		//When the customer at the front of the line got there
+		long head_since_ms = 0;
+
+		Queue(int x, int y) {
+			this.x = x;
+			this.y = y;
+			this.index = queues.size();
+		}
+
+		/** Get ready to run, with line_customers customers in this line (its share of the level's); if they show up
+		 * on their own, the first one does right away
+		 * @param n_menuHeldItems The held item of every menu entry
+		 */
+		void start(int line_customers, int [] n_menuHeldItems) {
+			menuHeldItems = n_menuHeldItems;
+
+			//Same as CustomerQueue: each queue gets its own OrderGenerator, seeded from the level seed
+			orderGenerator = new OrderGenerator(new SeededRandom(OrderGenerator.queueSeed(seed, index+1)),
+					java.util.Arrays.copyOf(menuOrderProbability, menu_count), max_order_size, line_customers);
+
+			line = new CustomerLine(clock, deadlines, line_customers, queue_policy == ShopRules.QUEUE_POLICY_SEPARATE_LINES) {
+				@Override
+				protected void onCustomerArrived(int customer_index) {
+					showCustomer(customer_index);
+				}
+
+				@Override
+				protected void onCustomerLeft(boolean was_served) {
+					advance();
+				}
+			};
+			line.start();
+		}
+
+		/** Return the customer at the front of the line if they have shown up, else null */
+		CustomerOrder head() {
+			int idx = line.getDeparted();
+			if(idx >= customers.size()) return(null);
+			return(customers.get(idx));
+		}
+
+		/** Customer number customer_index shows up at the end of the line (called by the line) */
+		private void showCustomer(int customer_index) {
+			CustomerOrder customer = new CustomerOrder(clock, deadlines, menuHeldItems) {
+				@Override
+				protected boolean isWaitingAtFront() {
+					return(head() == this);
+				}
+
+				@Override
+				protected void onMoodChanged(int new_mood) {
+					record(3, Queue.this.index, 0);
+				}
+			};
+			customer.respawn(orderGenerator, point_mult, money_mult, customer_impatience);
+			customers.add(customer);
+			record(1, index, customer_index + 1);
+
+			if(customer_index == line.getDeparted()) {
+				head_since_ms = clock.currentTimeMillis();
+				customer.startMoodTimer();
+			}
+		}
+
+		/** The customer at the front of the line has left it (called by the line) */
+		private void advance() {
+			record(2, index, line.getDeparted());
+			customers_departed++;
+
+			head_since_ms = clock.currentTimeMillis();
+			if(head() != null) head().startMoodTimer();
+			if(queue_policy == ShopRules.QUEUE_POLICY_SHORTEST_QUEUE) arrivals.customerLeft(index);
+		}
+
+		/** Serve the head of the line held_item, like Customer.onInteraction(); the line advances if their order is now
+		 * complete. Returns true if held_item was on the order. */
+		boolean serve(int held_item) {
+			CustomerOrder head = head();
+			if(head == null) return(false);
+
+			int item = head.serve(held_item);
+			if(item < 0) return(false);
+
+			result.points += head.points(menuPoints[item]);
+			result.money += head.money(menuMoney[item]);
+
+			if(head.isSatisfied()) {
+				head.stopMoodTimer();
+				line.customerLeft(true);
+			}
+			return(true);
+		}
+	}
+
+	/** CoffeeGirl, played by a greedy bot. Each onTimer() she either arrives somewhere and interacts with it, or
+	 * decides where to go next. */
+	private class Bot implements DeadlineQueue.Timed {
+		int x, y;
+		int held = HELD_NOTHING;
+
+		//Where she is walking to; exactly one of these is set while she is walking
+		Station targetStation = null;
+		Queue targetQueue = null;
+		boolean arrived = false;
+
+		public void onTimer(long now_ms) {
+			if(arrived) {
+				arrived = false;
+				if(targetStation != null) interact(targetStation);
+				else if(targetQueue != null) serve(targetQueue);
+			}
+			decide();
+		}
+
+		private void interact(Station station) {
+			int previous_state = station.states.tryChangeState(true, held);
+			result.interactions++;
+
+			int next_held = InteractionTable.nextHeldItem(station.kind, previous_state, held);
+			int effect = InteractionTable.effect(station.kind, previous_state, held);
+
+			if(effect == InteractionTable.EFFECT_DISPOSE) {
+				int item = menuIndexOf(held);
+				if(item >= 0) {
+					result.points += menuTrashPoints[item];
+					result.money += menuTrashMoney[item];
+				}
+				result.items_trashed++;
+			}
+
+			record(4, station.index, next_held);
+			if(next_held != InteractionTable.NO_CHANGE) held = next_held;
+		}
+
+		private void serve(Queue queue) {
+			result.interactions++;
+			if(held != HELD_NOTHING && queue.serve(held)) held = HELD_NOTHING;
+		}
+
+		/** Figure out what to do next and start walking there (or wait a little) */
+		private void decide() {
+			targetStation = null;
+			targetQueue = null;
+
+			//Serve the customer who has been waiting at the front of a line the longest
+			Queue servedQueue = null;
+			for(Queue q : queues) {
+				if(q.head() == null) continue;
+				if(servedQueue == null || q.head_since_ms < servedQueue.head_since_ms) servedQueue = q;
+			}
+
+			//Nobody to serve; get rid of anything we're holding so that our hands are free
+			if(servedQueue == null) {
+				dropOrIdle();
+				return;
+			}
+
+			int wanted = servedQueue.head().nextWantedItem();
+
+			//If we hold something a customer at the front of a line wants, bring it over
+			if(held != HELD_NOTHING) {
+				if(servedQueue.head().wants(held)) { walkTo(null, servedQueue); return; }
+				for(Queue q : queues) {
+					if(q.head() != null && q.head().wants(held)) { walkTo(null, q); return; }
+				}
+			}
+
+			fetch(wanted, 2);
+		}
+
+		/** Go towards getting hold of item_wanted; needs_depth limits how many intermediate items (e.g. a coffee for
+		 * the blender) may be fetched first */
+		private void fetch(int item_wanted, int needs_depth) {
+			Station best = null;
+			int best_rank = Integer.MAX_VALUE;
+
+			for(Station s : stations) {
+				if(!s.canProduce(item_wanted)) continue;
+
+				//Prefer stations that have the item ready, then ones that are getting it ready, then idle ones
+				int rank;
+				if(s.product(HELD_NOTHING) == item_wanted) rank = 0;
+				else if(s.states.nextTransitionMs() != DeadlineQueue.NO_DEADLINE) rank = 1;
+				else rank = 2;
+				rank = rank * 100000 + distanceTo(s.x, s.y);
+
+				if(rank < best_rank) {
+					best = s;
+					best_rank = rank;
+				}
+			}
+
+			//Nothing makes what is wanted
+			if(best == null) {
+				dropOrIdle();
+				return;
+			}
+
+			//The item is ready; our hands have to be empty to take it
+			if(best.product(HELD_NOTHING) == item_wanted) {
+				if(held == HELD_NOTHING) walkTo(best, null);
+				else dropOrIdle();
+				return;
+			}
+
+			//The station can be started (or fed) with what we hold, e.g. an idle coffee machine or an idle blender and
+			//a coffee
+			if(best.states.getStateCount() > 0 && best.states.acceptsInput(held)) {
+				walkTo(best, null);
+				return;
+			}
+
+			//The station is busy; walk over and wait for it, with our hands empty so we can take the item
+			if(best.states.nextTransitionMs() != DeadlineQueue.NO_DEADLINE) {
+				if(held == HELD_NOTHING) waitAt(best, best.states.nextTransitionMs());
+				else dropOrIdle();
+				return;
+			}
+
+			//The station needs something we don't hold (e.g. the blender needs a coffee); fetch that first
+			int needed_input = best.states.getRequiredInput();
+			if(needed_input != INPUT_ANY && needs_depth > 0) {
+				if(held == HELD_NOTHING) fetch(needed_input, needs_depth - 1);
+				else dropOrIdle();
+				return;
+			}
+
+			idle();
+		}
+
+		/** Throw away whatever we hold; if we hold nothing, wait a little */
+		private void dropOrIdle() {
+			if(held != HELD_NOTHING) walkTo(findStation(InteractionTable.KIND_TRASHCAN), null);
+			else idle();
+		}
+
+		private Station findStation(int kind) {
+			for(Station s : stations) if(s.kind == kind) return(s);
+			return(null);
+		}
+
+		private int distanceTo(int to_x, int to_y) {
+			long dx = to_x - x, dy = to_y - y;
+			return((int) Math.ceil(Math.sqrt((double) (dx*dx + dy*dy))));
+		}
+
+		/** Return how long it takes CoffeeGirl to walk distance GameGrid units */
+		private long walkTime(int distance) {
+			return((distance * (long) ShopRules.MOVE_RATE_INTERVAL_MS) / coffeegirl_move_rate);
+		}
+
+		private void walkTo(Station station, Queue queue) {
+			if(station == null && queue == null) { idle(); return; }
+
+			int to_x = (station != null) ? station.x : queue.x;
+			int to_y = (station != null) ? station.y : queue.y;
+			int distance = distanceTo(to_x, to_y);
+			long walk_ms = walkTime(distance);
+
+			x = to_x;
+			y = to_y;
+			targetStation = station;
+			targetQueue = queue;
+			arrived = true;
+			result.distance_walked += distance;
+			deadlines.schedule(this, clock.currentTimeMillis() + walk_ms);
+		}
+
+		/** Walk to station and then do nothing until ready_ms, when we decide again (and the item will be ready) */
+		private void waitAt(Station station, long ready_ms) {
+			long walk_ms = walkTime(distanceTo(station.x, station.y));
+			x = station.x;
+			y = station.y;
+			deadlines.schedule(this, Math.max(ready_ms, clock.currentTimeMillis() + walk_ms));
+		}
+
+		private void idle() {
+			deadlines.schedule(this, clock.currentTimeMillis() + IDLE_POLL_MS);
+		}
+	}
+
+	/** The outcome of a LevelSimulation run; a struct-like container like Interaction */
+	public static class LevelResult {
+		public int customers_served;
+		public int customers_left;
+		public int points;
+		public int money;
+		public int items_trashed;
+		public int interactions;
+		public long distance_walked;
+		public long events;
+		public long time_ms;
+		public boolean finished_in_time;
+		//A hash over every customer arrival, mood change, service and interaction (and when it happened)
+		public long checksum = 0xCBF29CE484222325L;
+
+		/** Returns a simple string representation of this LevelResult */
+		public String toString() {
+			StringBuilder retvalBuilder = new StringBuilder();
+
+			retvalBuilder.append("served=");
+			retvalBuilder.append(customers_served);
+			retvalBuilder.append(", left=");
+			retvalBuilder.append(customers_left);
+			retvalBuilder.append(", points=");
+			retvalBuilder.append(points);
+			retvalBuilder.append(", money=");
+			retvalBuilder.append(money);
+			retvalBuilder.append(", trashed=");
+			retvalBuilder.append(items_trashed);
+			retvalBuilder.append(", interactions=");
+			retvalBuilder.append(interactions);
+			retvalBuilder.append(", time=");
+			retvalBuilder.append(time_ms);
+			retvalBuilder.append("ms");
+			retvalBuilder.append(finished_in_time ? " (in time)" : " (out of time)");
+			retvalBuilder.append(", events=");
+			retvalBuilder.append(events);
+			retvalBuilder.append(", checksum=");
+			retvalBuilder.append(Long.toHexString(checksum));
+
+			return(retvalBuilder.toString());
+		}
+	}
+}
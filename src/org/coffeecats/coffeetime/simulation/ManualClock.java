@@ -0,0 +1,37 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** A SimulationClock that is only advanced explicitly, so that a simulation driven by it is completely
+ * independent of how fast the machine running it is.
+ *
+ * @author ivany
+ *
+ */
+public class ManualClock implements SimulationClock {
+	private long now_ms;
+
+	/** Create a new ManualClock starting at time 0 */
+	public ManualClock() {
+		this(0L);
+	}
+
+	/** Create a new ManualClock starting at start_ms */
+	public ManualClock(long start_ms) {
+		this.now_ms = start_ms;
+	}
+
+	public long currentTimeMillis() {
+		return(now_ms);
+	}
+
+	/** Move the clock forward to t_ms; moving it backwards is ignored
+	 * @param t_ms The new time, in milliseconds
+	 */
+	public void advanceTo(long t_ms) {
+		if(t_ms > now_ms) now_ms = t_ms;
+	}
+
+	/** Move the clock forward by delta_ms */
+	public void advanceBy(long delta_ms) {
+		if(delta_ms > 0) now_ms += delta_ms;
+	}
+}
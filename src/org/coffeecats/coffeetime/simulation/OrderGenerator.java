@@ -0,0 +1,176 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** OrderGenerator generates the orders for the customers of one customer queue. Each queue gets a fixed budget of
+ * every menu item (proportional to the item's order probability, see the constructor) and customers draw their
+ * items out of that budget without replacement, so that over a whole level the customers order roughly the mix of
+ * items that the order probabilities describe.
+ *
+ * The remaining budget is kept in a Fenwick (binary indexed) tree, so drawing an item and taking it out of the budget
+ * is O(log menu size) and nothing is allocated per customer. All randomness comes from a SimulationRandom; the game
+ * seeds it from the level seed (see GameInfo.getLevelSeed() and queueSeed()), so a level's customers can be replayed
+ * exactly, and the headless LevelSimulation uses the very same generator.
+ *
+ * Orders are packed into a single int: the low ORDER_SIZE_BITS hold the number of items, and each item's menu index
+ * takes ITEM_BITS above that (use orderSize() and orderItem() to unpack).
+ *
+ * @author ivany
+ *
+ */
+public class OrderGenerator {
+	//The largest number of items in one order
+	public static final int MAX_ORDER_SIZE = 3;
+
+	//Layout of a packed order
+	private static final int ORDER_SIZE_BITS = 2;
+	private static final int ITEM_BITS = 8;
+	private static final int ITEM_MASK = (1 << ITEM_BITS) - 1;
+	//The largest menu that a packed order can describe
+	public static final int MAX_MENU_SIZE = 1 << ITEM_BITS;
+
+	//How likely an order is to have 1, 2 or 3 items
+	private static final int [] order_weights = {3,2,1};
+
+	private final SimulationRandom random;
+	private final int max_order_size;
+	private final int order_weight_sum;
+
+	//The budget each item started out with, and the Fenwick tree over the budget that's left; tree[i] (1-based) holds
+	//the sum of the budget of items (i - lowbit(i), i]
+	private final int [] initialCounts;
+	private final int [] tree;
+	private int remaining;
+
+	/** Create a new OrderGenerator.
+	 *
+	 * @param random Where the randomness comes from
+	 * @param order_probabilities The order probability of each menu item (GameFoodItem.getOrderProbability()); items
+	 * with a probability of 0 (like "nothing") are never ordered
+	 * @param max_order_size The largest number of items in one order (at most MAX_ORDER_SIZE)
+	 * @param customer_count How many customers will be generated; used to size the budget of each item
+	 */
+	public OrderGenerator(SimulationRandom random, float [] order_probabilities, int max_order_size, int customer_count) {
+		this.random = random;
+		this.max_order_size = Math.max(1, Math.min(max_order_size, MAX_ORDER_SIZE));
+
+		int weight_sum = 0;
+		for(int i = 0; i < this.max_order_size; i++) weight_sum += order_weights[i];
+		this.order_weight_sum = weight_sum;
+
+		int menu_size = Math.min(order_probabilities.length, MAX_MENU_SIZE);
+
+		float total_probability = 0.0f;
+		for(int i = 0; i < menu_size; i++) {
+			if(order_probabilities[i] > 0.0f) total_probability += order_probabilities[i];
+		}
+
+		//Each item gets its share of (max_order_size * customer_count) items, plus one
+		initialCounts = new int[menu_size];
+		for(int i = 0; i < menu_size; i++) {
+			if(order_probabilities[i] <= 0.0f) continue;
+			initialCounts[i] = ((int) ((order_probabilities[i]/total_probability) *
+					((float) (this.max_order_size * customer_count)))) + 1;
+		}
+
+		tree = new int[menu_size + 1];
+		refill();
+	}
+
+	/** Return a seed for the OrderGenerator of one customer queue, derived from the level seed, so that every queue
+	 * gets different customers but the whole level is still described by one seed.
+	 *
+	 * @param level_seed The level seed
+	 * @param queue_number The queue's number (1 for the first queue)
+	 */
+	public static long queueSeed(long level_seed, int queue_number) {
+		long s = level_seed + (queue_number * 0x9E3779B97F4A7C15L);
+		s = (s ^ (s >>> 33)) * 0xFF51AFD7ED558CCDL;
+		return(s ^ (s >>> 33));
+	}
+
+	/** Generate the next customer's order
+	 * @return The packed order (see orderSize() and orderItem())
+	 */
+	public int nextOrder() {
+		//Pick the order size
+		int order_bin = random.nextInt(order_weight_sum);
+		int order_size = max_order_size;
+		int order_cumulative_size = 0;
+		for(int i = 0; i < max_order_size; i++) {
+			order_cumulative_size += order_weights[i];
+			if(order_bin < order_cumulative_size) {
+				order_size = i+1;
+				break;
+			}
+		}
+
+		//Pick the items out of what's left in the budget
+		int order = order_size;
+		for(int i = 0; i < order_size; i++) {
+			//Everything has been ordered (can only happen with very unlucky order sizes); start a fresh budget
+			if(remaining <= 0) refill();
+			if(remaining <= 0) return((order & ~((1 << ORDER_SIZE_BITS) - 1)) | i);
+
+			int item = take(random.nextInt(remaining));
+			order |= item << (ORDER_SIZE_BITS + i*ITEM_BITS);
+		}
+
+		return(order);
+	}
+
+	/** Return a random float in [0.0, 1.0), from the same sequence as the orders; used for the rest of a customer's
+	 * randomness (multipliers, impatience) so that it is replayed along with the orders */
+	public float nextFloat() {
+		return(random.nextFloat());
+	}
+
+	/** Reset the budget to the initial item counts */
+	private void refill() {
+		java.util.Arrays.fill(tree, 0);
+		remaining = 0;
+		for(int i = 0; i < initialCounts.length; i++) {
+			add(i, initialCounts[i]);
+			remaining += initialCounts[i];
+		}
+	}
+
+	/** Add delta to the budget of item */
+	private void add(int item, int delta) {
+		for(int i = item + 1; i < tree.length; i += i & (-i)) tree[i] += delta;
+	}
+
+	/** Find the item that the target-th (0-based) remaining unit of budget belongs to, and take that unit out of the
+	 * budget */
+	private int take(int target) {
+		int pos = 0;
+		int step = Integer.highestOneBit(tree.length - 1);
+
+		//Descend the tree, finding the largest prefix whose budget is <= target
+		for(; step > 0; step >>= 1) {
+			int next = pos + step;
+			if(next < tree.length && tree[next] <= target) {
+				pos = next;
+				target -= tree[next];
+			}
+		}
+
+		//pos is the 1-based index of the last item before the one we want, i.e. the 0-based index of the one we want
+		add(pos, -1);
+		remaining--;
+		return(pos);
+	}
+
+	/** Return the number of items in a packed order */
+	public static int orderSize(int order) {
+		return(order & ((1 << ORDER_SIZE_BITS) - 1));
+	}
+
+	/** Return the menu index of item i of a packed order */
+	public static int orderItem(int order, int i) {
+		return((order >>> (ORDER_SIZE_BITS + i*ITEM_BITS)) & ITEM_MASK);
+	}
+
+	/** Return a packed order for a single menu item */
+	public static int singleItemOrder(int item) {
+		return(1 | ((item & ITEM_MASK) << ORDER_SIZE_BITS));
+	}
+}
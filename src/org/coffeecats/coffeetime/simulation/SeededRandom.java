@@ -0,0 +1,49 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** A small, fast SimulationRandom (xorshift64*) that produces exactly the same sequence for the same seed on every
+ * platform and every run. It is not thread-safe; each simulation keeps its own.
+ *
+ * @author ivany
+ *
+ */
+public class SeededRandom implements SimulationRandom {
+	private long state;
+
+	/** Create a new SeededRandom
+	 * @param seed The seed; any value is fine, including 0
+	 */
+	public SeededRandom(long seed) {
+		setSeed(seed);
+	}
+
+	/** Restart the sequence from seed */
+	public void setSeed(long seed) {
+		//Scramble the seed so that similar seeds give unrelated sequences; the state must never be 0
+		long s = seed ^ 0x9E3779B97F4A7C15L;
+		s = (s ^ (s >>> 30)) * 0xBF58476D1CE4E5B9L;
+		s = (s ^ (s >>> 27)) * 0x94D049BB133111EBL;
+		s = s ^ (s >>> 31);
+		state = (s == 0) ? 0x9E3779B97F4A7C15L : s;
+	}
+
+	private long nextLong() {
+		state ^= state >>> 12;
+		state ^= state << 25;
+		state ^= state >>> 27;
+		return(state * 0x2545F4914F6CDD1DL);
+	}
+
+	public int nextInt(int bound) {
+		if(bound <= 0) return(0);
+		//Use the high 31 bits, and reject the values that would make the result biased
+		while(true) {
+			int bits = (int) (nextLong() >>> 33);
+			int val = bits % bound;
+			if(bits - val + (bound-1) >= 0) return(val);
+		}
+	}
+
+	public float nextFloat() {
+		return( ((int) (nextLong() >>> 40)) / ((float) (1 << 24)) );
+	}
+}
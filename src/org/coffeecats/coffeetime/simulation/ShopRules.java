@@ -0,0 +1,159 @@
+package org.coffeecats.coffeetime.simulation;
+
+import org.coffeecats.coffeetime.gamelogic.GameGrid;
+
+/** ShopRules holds the rules of the coffee shop that don't need any of the Android machinery: what CoffeeGirl can
+ * hold, what each food item is worth, how long the machines take and where everything stands on the GameGrid. The
+ * game objects take their constants from here (CoffeeMachine.BREW_TIME_MS is COFFEEMACHINE_BREW_TIME_MS, and so on),
+ * and so do LevelSimulation and HeadlessLevelDriver, so a headless level plays by exactly the rules of the game
+ * without loading any of the game's classes.
+ *
+ * @author ivany
+ *
+ */
+public class ShopRules {
+	//What CoffeeGirl holds; these are also her states (CoffeeGirl.STATE_*) (UPDATE FOR NEW FOODITEM)
+	public static final int HELD_NOTHING = 0;
+	public static final int HELD_COFFEE = 1;
+	public static final int HELD_CUPCAKE = 2;
+	public static final int HELD_BLENDEDDRINK = 3;
+	public static final int HELD_PIESLICE = 4;
+	public static final int HELD_SANDWICH = 5;
+	public static final int HELD_ESPRESSO = 6;
+	public static final int HELD_ITEM_COUNT = 7;
+
+	//The states of the machines (CoffeeMachine.STATE_*, Blender.STATE_*, and so on): waiting to be started, making
+	//something, and done, waiting for CoffeeGirl to pick it up (UPDATE FOR NEW GAMEITEM)
+	public static final int MACHINE_IDLE = 0;
+	public static final int MACHINE_WORKING = 1;
+	public static final int MACHINE_DONE = 2;
+
+	//The states of the counter top (CounterTop.STATE_*): empty, or holding one of the items
+	public static final int COUNTERTOP_IDLE = 0;
+	public static final int COUNTERTOP_HOLDING_COFFEE = 1;
+	public static final int COUNTERTOP_HOLDING_CUPCAKE = 2;
+	public static final int COUNTERTOP_HOLDING_BLENDEDDRINK = 3;
+	public static final int COUNTERTOP_HOLDING_ESPRESSO = 4;
+	public static final int COUNTERTOP_HOLDING_PIE = 5;
+	public static final int COUNTERTOP_HOLDING_SANDWICH = 6;
+
+	//What each item (indexed by HELD_*) is worth when it is served to a customer and when it is thrown away, before
+	//any multipliers, and how likely customers are to order it, relative to each other (UPDATE FOR NEW FOODITEM)
+	private static final int [] servePoints = { 0, 10, 5, 10, 8, 15, 25 };
+	private static final int [] serveMoney = { 0, 10, 5, 15, 8, 15, 12 };
+	private static final int [] trashPoints = { 0, -5, -5, -10, -5, -5, -10 };
+	private static final int [] trashMoney = { 0, 0, 0, 0, 0, 0, 0 };
+	private static final float [] orderProbability = { 0.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f, 1.0f };
+
+	//How long the machines take to make something, and how long it waits to be picked up (UPDATE FOR NEW GAMEITEM)
+	public static final int COFFEEMACHINE_BREW_TIME_MS = 2500;
+	public static final int COFFEEMACHINE_QUICK_BREW_SAVING_MS = 1000;
+	public static final int COFFEEMACHINE_DONE_TIME_MS = 10000;
+	public static final int BLENDER_BLEND_TIME_MS = 1000;
+	public static final int BLENDER_DONE_TIME_MS = 7500;
+	public static final int MICROWAVE_BAKE_TIME_MS = 4000;
+	public static final int MICROWAVE_DONE_TIME_MS = 10000;
+	public static final int ESPRESSOMACHINE_BREW_TIME_MS = 2500;
+	public static final int ESPRESSOMACHINE_DONE_TIME_MS = 10000;
+
+	//How fast CoffeeGirl walks, in GameGrid units per MOVE_RATE_INTERVAL_MS (every GameActor's move rate is in these
+	//units), and how much faster each pair of shoes makes her
+	public static final int MOVE_RATE_INTERVAL_MS = 200;
+	public static final int COFFEEGIRL_MOVE_RATE = 8;
+	public static final double FAST_SHOES_FACTOR = 1.11;
+	public static final double FASTER_SHOES_FACTOR = 1.21;
+
+	//How many of a line's customers are in it at once (INLINE to SERVED), how far apart customers show up, and how
+	//many seconds a customer waits before their mood gets worse, before their impatience
+	public static final int QUEUE_VISIBLE_LENGTH = 2;
+	public static final int TIME_BETWEEN_CUSTOMERS_MS = 2000;
+	public static final int SECONDS_BW_PO_STARTING = 15;
+
+	//Where the stations stand on the GameGrid; the second coffee machine and blender stand below the first one
+	public static final int COFFEEMACHINE_X = GameGrid.GAMEGRID_PADDING_LEFT - 14;
+	public static final int COFFEEMACHINE_Y = GameGrid.GAMEGRID_PADDING_TOP;
+	public static final int COFFEEMACHINE_SECOND_DY = 20;
+	public static final int BLENDER_X = GameGrid.GAMEGRID_PADDING_LEFT - 14;
+	public static final int BLENDER_Y = GameGrid.GAMEGRID_PADDING_TOP + 40;
+	public static final int BLENDER_SECOND_DY = 20;
+	public static final int MICROWAVE_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13;
+	public static final int MICROWAVE_Y = GameGrid.GAMEGRID_PADDING_TOP + 2;
+	public static final int ESPRESSOMACHINE_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT - 20;
+	public static final int ESPRESSOMACHINE_Y = GameGrid.GAMEGRID_HEIGHT - GameGrid.GAMEGRID_PADDING_BOTTOM + 8;
+	public static final int TRASHCAN_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 10;
+	public static final int TRASHCAN_Y = GameGrid.GAMEGRID_PADDING_TOP + 60;
+	public static final int CUPCAKETRAY_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13;
+	public static final int CUPCAKETRAY_Y = GameGrid.GAMEGRID_PADDING_TOP + 20;
+	public static final int PIETRAY_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT + 13;
+	public static final int PIETRAY_Y = GameGrid.GAMEGRID_PADDING_TOP + 40;
+	public static final int COUNTERTOP_X = GameGrid.GAMEGRID_PADDING_LEFT + 20;
+	public static final int COUNTERTOP_Y = GameGrid.GAMEGRID_HEIGHT - GameGrid.GAMEGRID_PADDING_BOTTOM + 8;
+
+	//Where the customer counters go: the first one at (QUEUE_X, QUEUE_Y), any others to the right of it, QUEUE_SPACING
+	//apart if there's room for it (that is how far apart the two lines of the later levels have always been)
+	public static final int QUEUE_X = 33;
+	public static final int QUEUE_Y = 32;
+	public static final int COUNTER_WIDTH = 20;
+	public static final int COUNTER_HEIGHT = 17;
+	public static final int QUEUE_SPACING = 41;
+	//Which line an arriving customer joins: every line gets its own share of the customers, or the customers arrive
+	//at the shop one at a time and join the shortest line (see CustomerQueueLayout)
+	public static final int QUEUE_POLICY_SEPARATE_LINES = 0;
+	public static final int QUEUE_POLICY_SHORTEST_QUEUE = 1;
+	//The most lines a level can have (a line is a bit in an int mask, and more than this don't fit on the GameGrid)
+	public static final int MAX_QUEUES = 8;
+	//The counters' centers go between QUEUE_X and this; past three lines they are closer together than COUNTER_WIDTH,
+	//so they are narrowed to fit (see counterWidth())
+	private static final int MAX_QUEUE_X = GameGrid.GAMEGRID_WIDTH - GameGrid.GAMEGRID_PADDING_RIGHT - COUNTER_WIDTH/2;
+
+	/** Return the GameGrid X position of the counter of line index (0 for the left-most) out of queue_count lines */
+	public static int queueX(int index, int queue_count) {
+		return(QUEUE_X + index*queueSpacing(queue_count));
+	}
+
+	/** Return the GameGrid width of each counter out of queue_count lines: COUNTER_WIDTH, or if the counters stand
+	 * closer together than that, one less than the distance between them, so that neighbouring counters (and their
+	 * sensitivity areas, which are as wide as the counter) never overlap */
+	public static int counterWidth(int queue_count) {
+		if(queue_count <= 1) return(COUNTER_WIDTH);
+		return(Math.min(COUNTER_WIDTH, queueSpacing(queue_count) - 1));
+	}
+
+	/** Return how far apart the counters of queue_count lines are */
+	private static int queueSpacing(int queue_count) {
+		if(queue_count <= 1) return(0);
+		return(Math.min(QUEUE_SPACING, (MAX_QUEUE_X - QUEUE_X) / (queue_count - 1)));
+	}
+
+	/** Return CoffeeGirl's move rate, given which of the shoe upgrades have been bought; like the game, this rounds
+	 * down after each pair of shoes */
+	public static int coffeeGirlMoveRate(boolean fast_shoes, boolean faster_shoes) {
+		int move_rate = COFFEEGIRL_MOVE_RATE;
+		if(fast_shoes) move_rate = (int) (((double) move_rate) * FAST_SHOES_FACTOR);
+		if(faster_shoes) move_rate = (int) (((double) move_rate) * FASTER_SHOES_FACTOR);
+		return(move_rate);
+	}
+
+	/** Return a customer's point (or money) multiplier, given the level's multiplier and a random number in [0, 1) */
+	public static float customerMultiplier(float level_mult, float random) {
+		return(level_mult * random + 1.0f);
+	}
+
+	/** Return how many seconds a customer waits before their mood gets worse, given the level's customer impatience
+	 * and a random number in [0, 1) */
+	public static int secondsBetweenPissedOff(float impatience, float random) {
+		float seconds_between_po_divisor = (random + 1.0f) * impatience;
+		return((int) (((float) SECONDS_BW_PO_STARTING) / seconds_between_po_divisor));
+	}
+
+	/** Return the points for serving held_item (HELD_*) to a customer, before the customer's multiplier */
+	public static int servePoints(int held_item) { return(servePoints[held_item]); }
+	/** Return the money for serving held_item (HELD_*) to a customer, before the customer's multiplier */
+	public static int serveMoney(int held_item) { return(serveMoney[held_item]); }
+	/** Return the points for throwing held_item (HELD_*) away */
+	public static int trashPoints(int held_item) { return(trashPoints[held_item]); }
+	/** Return the money for throwing held_item (HELD_*) away */
+	public static int trashMoney(int held_item) { return(trashMoney[held_item]); }
+	/** Return how likely customers are to order held_item (HELD_*), relative to the other items */
+	public static float orderProbability(int held_item) { return(orderProbability[held_item]); }
+}
@@ -0,0 +1,12 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** A source of time for the simulation. On the device this is backed by SystemClock (see GameClock), in the
+ * headless simulation by a ManualClock that only moves when the simulation says so.
+ *
+ * @author ivany
+ *
+ */
+public interface SimulationClock {
+	/** Return the current time, in milliseconds. Must never go backwards. */
+	public long currentTimeMillis();
+}
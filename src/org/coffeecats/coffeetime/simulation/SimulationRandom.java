@@ -0,0 +1,16 @@
+package org.coffeecats.coffeetime.simulation;
+
+/** A source of random numbers for the simulation. Everything random about a level (customer orders, moods,
+ * multipliers) draws from one of these rather than creating its own java.util.Random, so that a level can be
+ * replayed exactly by re-using the same seed.
+ *
+ * @author ivany
+ *
+ */
+public interface SimulationRandom {
+	/** Return a uniformly distributed int in [0, bound); bound must be positive */
+	public int nextInt(int bound);
+
+	/** Return a uniformly distributed float in [0.0, 1.0) */
+	public float nextFloat();
+}
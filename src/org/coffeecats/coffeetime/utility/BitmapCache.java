@@ -0,0 +1,218 @@
+package org.coffeecats.coffeetime.utility;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.coffeecats.coffeetime.simulation.AssetSource;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+/** BitmapCache is the one place where game art gets decoded. Bitmaps are keyed by resource id and decode options,
+ * so every drawable is decoded once per process no matter how many GameItems, Customers or levels use it.
+ *
+ * Each acquire() takes a reference to the Bitmap, and each release() gives one back. Bitmaps that nobody holds a
+ * reference to stay cached (so the next level load is mostly hits) until the cache is over its memory budget, at
+ * which point the least recently used of them are dropped. Bitmaps that are still referenced are never dropped,
+ * even if that puts the cache over budget.
+ *
+ * Dropped Bitmaps are not recycle()d; something that never took a reference (e.g. a DirectionBitmapMap that was
+ * built out of a GameItem's bitmaps) may still be drawing them, so they are left for the garbage collector.
+ *
+ * Levels get loaded (and prefetched) on one thread while another one is drawing, so the cache's books are guarded by
+ * the class lock. Decoding is slow though, so acquire() only takes the lock to look the Bitmap up and, on a miss, to
+ * put it in once it has been decoded; the decode itself runs outside of the lock, and never holds up a thread that
+ * only wants a cache hit.
+ *
+ * @author ivany
+ *
+ */
+public class BitmapCache {
+	private static final String activitynametag = "BitmapCache";
+
+	//By default the unreferenced part of the cache may use up to this fraction of the VM's heap
+	private static final int DEFAULT_BUDGET_HEAP_DIVISOR = 8;
+
+	private static class Entry {
+		long key;
+		Bitmap bitmap;
+		int bytes;
+		int ref_count;
+	}
+
+	//All cached Bitmaps, least recently used first
+	private static final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<Long, Entry>(64, 0.75f, true);
+	//The same entries, looked up by Bitmap for release()
+	private static final IdentityHashMap<Bitmap, Entry> entriesByBitmap = new IdentityHashMap<Bitmap, Entry>();
+
+	private static long budget_bytes = Runtime.getRuntime().maxMemory() / DEFAULT_BUDGET_HEAP_DIVISOR;
+
+	//Metrics
+	private static long hits = 0;
+	private static long misses = 0;
+	private static long evictions = 0;
+	private static long bytes_cached = 0;
+	private static long bytes_decoded = 0;
+
+	/** Return the Bitmap for resource r_id, decoded with the default options, and take a reference to it
+	 *
+	 * @param res The Resources to decode out of
+	 * @param r_id The resource id of the drawable
+	 * @return The Bitmap, or null if it couldn't be decoded
+	 */
+	public static Bitmap acquire(Resources res, int r_id) {
+		return(acquire(res, r_id, 1, null));
+	}
+
+	/** Return the Bitmap for resource r_id, decoded with the given options, and take a reference to it
+	 *
+	 * @param res The Resources to decode out of
+	 * @param r_id The resource id of the drawable
+	 * @param sample_size The BitmapFactory.Options.inSampleSize to decode with (1 for full size)
+	 * @param config The BitmapFactory.Options.inPreferredConfig to decode with, or null for the default
+	 * @return The Bitmap, or null if it couldn't be decoded
+	 */
+	public static Bitmap acquire(Resources res, int r_id, int sample_size, Bitmap.Config config) {
+		long key = makeKey(r_id, sample_size, config);
+
+		Bitmap bitmap = acquireCached(key);
+		if(bitmap != null) return(bitmap);
+
+		BitmapFactory.Options opts = new BitmapFactory.Options();
+		opts.inSampleSize = Math.max(1, sample_size);
+		if(config != null) opts.inPreferredConfig = config;
+
+		bitmap = BitmapFactory.decodeResource(res, r_id, opts);
+		if(bitmap == null) {
+			Log.w(activitynametag, "Could not decode resource " + r_id);
+			return(null);
+		}
+
+		return(insert(key, bitmap));
+	}
+
+	/** Take a reference to the cached Bitmap for key, if there is one
+	 * @return The Bitmap, or null on a miss
+	 */
+	private static synchronized Bitmap acquireCached(long key) {
+		Entry entry = entries.get(key);
+		if(entry == null) {
+			misses++;
+			return(null);
+		}
+
+		hits++;
+		entry.ref_count++;
+		return(entry.bitmap);
+	}
+
+	/** Put a freshly decoded Bitmap into the cache and take a reference to it. If another thread decoded the same
+	 * Bitmap in the meantime, theirs is kept (and returned), and ours is left for the garbage collector.
+	 */
+	private static synchronized Bitmap insert(long key, Bitmap bitmap) {
+		int bytes = bitmap.getRowBytes() * bitmap.getHeight();
+		bytes_decoded += bytes;
+
+		Entry entry = entries.get(key);
+		if(entry != null) {
+			entry.ref_count++;
+			return(entry.bitmap);
+		}
+
+		entry = new Entry();
+		entry.key = key;
+		entry.bitmap = bitmap;
+		entry.bytes = bytes;
+		entry.ref_count = 1;
+
+		entries.put(key, entry);
+		entriesByBitmap.put(bitmap, entry);
+		bytes_cached += entry.bytes;
+
+		trimToBudget();
+
+		return(bitmap);
+	}
+
+	/** Give back a reference taken by acquire(). Once nobody holds a reference the Bitmap may be dropped to stay
+	 * within the memory budget. Releasing a Bitmap that didn't come from the cache (or null) does nothing.
+	 *
+	 * @param bitmap The Bitmap that was returned by acquire()
+	 */
+	public static synchronized void release(Bitmap bitmap) {
+		if(bitmap == null) return;
+
+		Entry entry = entriesByBitmap.get(bitmap);
+		if(entry == null) return;
+
+		if(entry.ref_count > 0) entry.ref_count--;
+		if(entry.ref_count == 0) trimToBudget();
+	}
+
+	/** Set the memory budget of the cache; unreferenced Bitmaps are dropped (least recently used first) while the
+	 * cache is using more than this.
+	 *
+	 * @param n_budget_bytes The budget, in bytes
+	 */
+	public static synchronized void setMemoryBudget(long n_budget_bytes) {
+		budget_bytes = n_budget_bytes;
+		trimToBudget();
+	}
+
+	/** Drop every unreferenced Bitmap, e.g. when the system is low on memory */
+	public static synchronized void trimUnreferenced() {
+		trim(0);
+	}
+
+	/** Return an AssetSource that loads Bitmaps out of this cache (each load() takes a reference) */
+	public static AssetSource<Bitmap> assetSource(final Resources res) {
+		return(new AssetSource<Bitmap>() {
+			public Bitmap load(int handle) {
+				return(acquire(res, handle));
+			}
+		});
+	}
+
+	public static synchronized long getHits() { return(hits); }
+	public static synchronized long getMisses() { return(misses); }
+	public static synchronized long getEvictions() { return(evictions); }
+	public static synchronized long getBytesCached() { return(bytes_cached); }
+	public static synchronized long getBytesDecoded() { return(bytes_decoded); }
+
+	/** Return a one-line summary of the cache metrics, for the log */
+	public static synchronized String getStats() {
+		long lookups = hits + misses;
+		int hit_percent = (lookups == 0) ? 0 : (int) ((hits * 100L) / lookups);
+
+		return("hits=" + hits + " misses=" + misses + " (" + hit_percent + "% hits), evictions=" + evictions +
+				", cached=" + entries.size() + " bitmaps/" + (bytes_cached/1024) + "KB, decoded total=" +
+				(bytes_decoded/1024) + "KB, budget=" + (budget_bytes/1024) + "KB");
+	}
+
+	/** Drop unreferenced Bitmaps, least recently used first, until we're within the memory budget */
+	private static void trimToBudget() {
+		trim(budget_bytes);
+	}
+
+	private static void trim(long max_bytes) {
+		Iterator<Entry> it = entries.values().iterator();
+		while(bytes_cached > max_bytes && it.hasNext()) {
+			Entry entry = it.next();
+			if(entry.ref_count > 0) continue;
+
+			it.remove();
+			entriesByBitmap.remove(entry.bitmap);
+			bytes_cached -= entry.bytes;
+			evictions++;
+		}
+	}
+
+	/** Pack the resource id and decode options into the cache key */
+	private static long makeKey(int r_id, int sample_size, Bitmap.Config config) {
+		long config_bits = (config == null) ? 0 : (config.ordinal() + 1);
+		return((((long) r_id) << 32) | ((Math.max(1, sample_size) & 0xFFFFFFL) << 8) | config_bits);
+	}
+}
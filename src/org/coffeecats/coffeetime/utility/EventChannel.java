@@ -0,0 +1,188 @@
+/** EventChannel is a single-producer / single-consumer queue of primitive events between two stages of the
+ * game (for example the render Looper and the audio Looper). Events are stored in pre-allocated arrays in a
+ * ring buffer, so publishing and consuming an event never allocates and never takes a lock. The consumer
+ * side is driven by a Handler on the consumer's Looper; at most one drain callback is outstanding at a time,
+ * no matter how many events are published.
+ *
+ * Exactly one thread may call publish() and exactly one thread (the consumer Looper's) drains the channel;
+ * the caller is responsible for that (see EventBus).
+ *
+ * The channel also keeps simple statistics about itself - current and maximum queue depth, events
+ * published and consumed, publishes that were rejected because the channel was full, and the latency between
+ * publishing and consuming an event - so that back-pressure between the stages can be observed.
+ */
+
+package org.coffeecats.coffeetime.utility;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.os.Handler;
+import android.os.Looper;
+
+public class EventChannel {
+
+	/** Implemented by whatever consumes the events of an EventChannel. Called on the consumer Looper. */
+	public interface EventConsumer {
+		public void onEvent(int what, int arg1, int arg2);
+	}
+
+	private final String name;
+	private final int capacity;
+	private final int mask;
+
+	//The ring buffer itself; one slot per event
+	private final int [] whatRing;
+	private final int [] arg1Ring;
+	private final int [] arg2Ring;
+	private final long [] publishTimeRing;
+
+	//head is the sequence number of the next event to consume, tail the sequence number of the next event
+	//to publish. head is only written by the consumer and tail only by the producer.
+	private final AtomicLong head = new AtomicLong(0L);
+	private final AtomicLong tail = new AtomicLong(0L);
+
+	//Used to schedule draining of the channel on the consumer Looper
+	private final Handler consumerHandler;
+	private final EventConsumer consumer;
+	private final AtomicBoolean drain_scheduled = new AtomicBoolean(false);
+	private final Runnable drainRunnable = new Runnable() {
+		public void run() { drain(); }
+	};
+
+	//Statistics; each of these is only ever written by one side (producer or consumer)
+	private volatile long events_published = 0;
+	private volatile long events_rejected = 0;
+	private volatile int max_depth = 0;
+	private volatile long events_consumed = 0;
+	private volatile long total_latency_ns = 0;
+	private volatile long max_latency_ns = 0;
+
+	/** Create a new EventChannel.
+	 *
+	 * @param name A name for this channel, used when reporting statistics
+	 * @param capacity How many events may be waiting in this channel; rounded up to a power of two
+	 * @param consumerLooper The Looper that the events will be consumed on
+	 * @param consumer The EventConsumer that gets called for each event, on consumerLooper
+	 */
+	public EventChannel(String name, int capacity, Looper consumerLooper, EventConsumer consumer) {
+		this.name = name;
+
+		int rounded_capacity = 1;
+		while(rounded_capacity < capacity) rounded_capacity <<= 1;
+		this.capacity = rounded_capacity;
+		this.mask = rounded_capacity - 1;
+
+		whatRing = new int[rounded_capacity];
+		arg1Ring = new int[rounded_capacity];
+		arg2Ring = new int[rounded_capacity];
+		publishTimeRing = new long[rounded_capacity];
+
+		this.consumerHandler = new Handler(consumerLooper);
+		this.consumer = consumer;
+	}
+
+	/** Publish an event into this channel. Must only be called from this channel's (single) producer thread.
+	 *
+	 * @return true if the event was queued, false if the channel was full (the event is NOT queued in this case
+	 * and the caller should fall back to some other way of delivering it)
+	 */
+	public boolean publish(int what, int arg1, int arg2) {
+		long current_tail = tail.get();
+		int depth = (int) (current_tail - head.get());
+
+		if(depth >= capacity) {
+			events_rejected++;
+			return(false);
+		}
+
+		int slot = (int) (current_tail & mask);
+		whatRing[slot] = what;
+		arg1Ring[slot] = arg1;
+		arg2Ring[slot] = arg2;
+		publishTimeRing[slot] = System.nanoTime();
+
+		//Release the slot to the consumer
+		tail.lazySet(current_tail + 1);
+
+		events_published++;
+		if(depth + 1 > max_depth) max_depth = depth + 1;
+
+		//Wake the consumer up, unless a drain is already pending
+		if(drain_scheduled.compareAndSet(false, true)) consumerHandler.post(drainRunnable);
+
+		return(true);
+	}
+
+	/** Consume all of the events currently in this channel. Called on the consumer Looper. */
+	private void drain() {
+		//Clear the flag before draining so that an event published while we drain schedules another drain
+		drain_scheduled.set(false);
+
+		long current_head = head.get();
+		long current_tail = tail.get();
+		long now_ns = System.nanoTime();
+
+		while(current_head < current_tail) {
+			int slot = (int) (current_head & mask);
+			int what = whatRing[slot];
+			int arg1 = arg1Ring[slot];
+			int arg2 = arg2Ring[slot];
+
+			long latency_ns = now_ns - publishTimeRing[slot];
+			total_latency_ns += latency_ns;
+			if(latency_ns > max_latency_ns) max_latency_ns = latency_ns;
+
+			//Free the slot before handing the event off, so the producer can re-use it
+			current_head++;
+			head.lazySet(current_head);
+			events_consumed++;
+
+			consumer.onEvent(what, arg1, arg2);
+		}
+	}
+
+	/** Return the name of this EventChannel */
+	public String getName() { return(name); }
+	/** Return the number of events currently waiting in this channel */
+	public int getDepth() { return((int) (tail.get() - head.get())); }
+	/** Return the largest number of events that have been waiting in this channel at once */
+	public int getMaxDepth() { return(max_depth); }
+	/** Return the total number of events published into this channel */
+	public long getEventsPublished() { return(events_published); }
+	/** Return the total number of events consumed from this channel */
+	public long getEventsConsumed() { return(events_consumed); }
+	/** Return the number of publish() calls that were rejected because this channel was full */
+	public long getEventsRejected() { return(events_rejected); }
+	/** Return the largest publish-to-consume latency seen, in nanoseconds */
+	public long getMaxLatencyNanos() { return(max_latency_ns); }
+	/** Return the average publish-to-consume latency, in nanoseconds */
+	public long getAverageLatencyNanos() {
+		long consumed = events_consumed;
+		return( (consumed == 0) ? 0 : (total_latency_ns / consumed) );
+	}
+
+	/** Returns a simple string representation of this EventChannel's statistics */
+	public String toString() {
+		StringBuilder retvalBuilder = new StringBuilder();
+
+		retvalBuilder.append(name);
+		retvalBuilder.append(": depth=");
+		retvalBuilder.append(getDepth());
+		retvalBuilder.append(" (max ");
+		retvalBuilder.append(getMaxDepth());
+		retvalBuilder.append("), published=");
+		retvalBuilder.append(getEventsPublished());
+		retvalBuilder.append(", consumed=");
+		retvalBuilder.append(getEventsConsumed());
+		retvalBuilder.append(", rejected=");
+		retvalBuilder.append(getEventsRejected());
+		retvalBuilder.append(", latency avg/max=");
+		retvalBuilder.append(getAverageLatencyNanos() / 1000);
+		retvalBuilder.append("/");
+		retvalBuilder.append(getMaxLatencyNanos() / 1000);
+		retvalBuilder.append("us");
+
+		return(retvalBuilder.toString());
+	}
+}
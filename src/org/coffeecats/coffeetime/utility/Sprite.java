@@ -0,0 +1,76 @@
+package org.coffeecats.coffeetime.utility;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/** A Sprite is a handle to one piece of game art: the Bitmap it lives in (usually a TextureAtlas sheet shared with
+ * lots of other art), where in that Bitmap it is, and its anchor, the point that is put on the position it is drawn
+ * at (the center, like everywhere else in the game).
+ *
+ * Sprites are made by TextureAtlas.sprite() and given back with TextureAtlas.release().
+ *
+ * @author ivany
+ *
+ */
+public class Sprite {
+	//The Bitmap this Sprite is in, and where in it
+	private final Bitmap bitmap;
+	private final Rect src;
+	private final int width, height;
+	private final int anchor_x, anchor_y;
+	//Whether bitmap is this Sprite's own (acquired from the BitmapCache) rather than a TextureAtlas sheet
+	final boolean from_cache;
+
+	//Re-used by draw(); Sprites are only drawn on the render Looper
+	private final Rect dst = new Rect();
+
+	/** Make a Sprite out of a region of a TextureAtlas sheet, anchored at its center */
+	Sprite(Bitmap sheet, int left, int top, int width, int height) {
+		this.bitmap = sheet;
+		this.src = new Rect(left, top, left + width, top + height);
+		this.width = width;
+		this.height = height;
+		this.anchor_x = width / 2;
+		this.anchor_y = height / 2;
+		this.from_cache = false;
+	}
+
+	/** Make a Sprite out of a whole Bitmap that was acquired from the BitmapCache, anchored at its center */
+	Sprite(Bitmap bitmap) {
+		this.bitmap = bitmap;
+		this.width = bitmap.getWidth();
+		this.height = bitmap.getHeight();
+		this.src = new Rect(0, 0, width, height);
+		this.anchor_x = width / 2;
+		this.anchor_y = height / 2;
+		this.from_cache = true;
+	}
+
+	/** Draw this Sprite with its anchor at (x, y) on the canvas */
+	public void draw(Canvas canvas, int x, int y) {
+		int left = x - anchor_x;
+		int top = y - anchor_y;
+
+		if(from_cache) {
+			canvas.drawBitmap(bitmap, left, top, null);
+		} else {
+			dst.set(left, top, left + width, top + height);
+			canvas.drawBitmap(bitmap, src, dst, null);
+		}
+	}
+
+	/** Set out to the area of the canvas that draw(canvas, x, y) covers */
+	public void getBounds(int x, int y, Rect out) {
+		out.set(x - anchor_x, y - anchor_y, x - anchor_x + width, y - anchor_y + height);
+	}
+
+	public int getWidth() { return(width); }
+	public int getHeight() { return(height); }
+
+	/** Return the Bitmap this Sprite is in; for a Sprite in a TextureAtlas sheet that is the whole sheet */
+	public Bitmap getBitmap() { return(bitmap); }
+
+	/** Return where in getBitmap() this Sprite is */
+	public Rect getSource() { return(src); }
+}
@@ -0,0 +1,157 @@
+package org.coffeecats.coffeetime.utility;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+
+/** SpriteCompositor flattens the layers of a GameActor (body, head, hair, feet and hands, see GameSprite) into a
+ * single Bitmap, so that the actor can be drawn with one drawBitmap() instead of one per layer.
+ *
+ * A composite is made the first time a particular combination of layer Bitmaps is drawn; since every layer Bitmap
+ * already stands for one hair/body/arms style, heading and animation frame, the combination of layer Bitmaps is
+ * the key. Composites are kept in a bounded cache, least recently used ones are dropped first.
+ *
+ * Each layer is centered in the composite, which is as large as the largest layer, so drawing the composite
+ * centered on the actor puts every layer exactly where drawing it on its own would have.
+ *
+ * The composites are only ever drawn on the render Looper, right after they are returned by getComposite() (which
+ * is also only called there), so composites evicted by getComposite() are recycle()d straight away.
+ *
+ * @author ivany
+ *
+ */
+public class SpriteCompositor {
+	private static final String activitynametag = "SpriteCompositor";
+
+	//The most layers that a composite can be made of
+	public static final int MAX_LAYERS = 5;
+	//The most composites that are kept around; a busy level with two queues needs about half of these
+	private static final int MAX_COMPOSITES = 96;
+
+	/** The layer Bitmaps that a composite is made of; compared by identity */
+	private static class Key {
+		final Bitmap [] layers = new Bitmap[MAX_LAYERS];
+		int hash;
+
+		void set(Bitmap [] n_layers, int layer_count) {
+			hash = 1;
+			for(int i = 0; i < MAX_LAYERS; i++) {
+				layers[i] = (i < layer_count) ? n_layers[i] : null;
+				hash = 31 * hash + System.identityHashCode(layers[i]);
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return(hash);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return(false);
+			Key other = (Key) o;
+			if(other.hash != hash) return(false);
+			for(int i = 0; i < MAX_LAYERS; i++) if(other.layers[i] != layers[i]) return(false);
+			return(true);
+		}
+	}
+
+	private static final LinkedHashMap<Key, Bitmap> composites = new LinkedHashMap<Key, Bitmap>(MAX_COMPOSITES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Bitmap> eldest) {
+			if(size() <= MAX_COMPOSITES) return(false);
+
+			eldest.getValue().recycle();
+			evictions++;
+			return(true);
+		}
+	};
+
+	//Re-used to look composites up, so that a cache hit doesn't allocate anything
+	private static final Key probe = new Key();
+
+	//Metrics
+	private static long hits = 0;
+	private static long misses = 0;
+	private static long evictions = 0;
+
+	/** Return the composite of the first layer_count Bitmaps of layers, drawn in that order (null layers are
+	 * skipped), making it if it hasn't been made yet.
+	 *
+	 * @param layers The layer Bitmaps, bottom-most first
+	 * @param layer_count How many of layers to use, at most MAX_LAYERS
+	 * @return The composite, or null if there is nothing to draw
+	 */
+	public static synchronized Bitmap getComposite(Bitmap [] layers, int layer_count) {
+		layer_count = Math.min(layer_count, MAX_LAYERS);
+
+		probe.set(layers, layer_count);
+		Bitmap composite = composites.get(probe);
+		if(composite != null) {
+			hits++;
+			return(composite);
+		}
+
+		misses++;
+
+		composite = makeComposite(layers, layer_count);
+		if(composite == null) return(null);
+
+		Key key = new Key();
+		key.set(layers, layer_count);
+		composites.put(key, composite);
+
+		return(composite);
+	}
+
+	/** Drop every composite, e.g. when the system is low on memory. This may be called from any thread, so unlike 
+	 * evicted composites these are left for the garbage collector rather than recycle()d; one of them may be 
+	 * being drawn right now. 
+	 */
+	public static synchronized void clear() {
+		composites.clear();
+	}
+
+	public static synchronized long getHits() { return(hits); }
+	public static synchronized long getMisses() { return(misses); }
+	public static synchronized long getEvictions() { return(evictions); }
+
+	/** Return a one-line summary of the compositor metrics, for the log */
+	public static synchronized String getStats() {
+		return("hits=" + hits + " misses=" + misses + ", evictions=" + evictions + ", cached=" + composites.size());
+	}
+
+	private static Bitmap makeComposite(Bitmap [] layers, int layer_count) {
+		int width = 0, height = 0;
+		for(int i = 0; i < layer_count; i++) {
+			if(layers[i] == null) continue;
+			width = Math.max(width, layers[i].getWidth());
+			height = Math.max(height, layers[i].getHeight());
+		}
+
+		if(width == 0 || height == 0) return(null);
+
+		Bitmap composite;
+		try {
+			composite = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+		} catch (OutOfMemoryError e) {
+			Log.w(activitynametag, "Out of memory making a " + width + "x" + height + " composite");
+			return(null);
+		}
+
+		//Same rounding as GameActor.draw(), so that each layer lands on the same pixel as when drawn on its own
+		Canvas canvas = new Canvas(composite);
+		for(int i = 0; i < layer_count; i++) {
+			if(layers[i] == null) continue;
+			canvas.drawBitmap(layers[i], (width / 2) - (layers[i].getWidth() / 2),
+					(height / 2) - (layers[i].getHeight() / 2), null);
+		}
+
+		return(composite);
+	}
+}
@@ -0,0 +1,165 @@
+package org.coffeecats.coffeetime.utility;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+
+/** A TextLabel is one line of text on the HUD (see Hud) that is rendered into a Bitmap once, when it changes, and
+ * then drawn with a single drawBitmap() every frame. A TextLabel either shows a String (setText()) or a number
+ * between a fixed prefix and one of a few fixed suffixes (setValue(), e.g. "Money: $" 120, or setValues() for two
+ * numbers); setting it to what it shows already does nothing at all, so a HUD that doesn't change doesn't allocate anything.
+ *
+ * The label is drawn with the alignment of its Paint (LEFT, CENTER or RIGHT) relative to its position, and with
+ * its position on the text baseline, just like Canvas.drawText().
+ *
+ * TextLabels are only used on the render Looper.
+ *
+ * @author ivany
+ *
+ */
+public class TextLabel {
+	private static final String activitynametag = "TextLabel";
+
+	private final Paint paint;
+	private final String prefix;
+	private final String [] suffixes;
+
+	//What this label shows: either the text set by setText() or prefix + value + suffixes[variant]
+	private String text = null;
+	private int value = 0, value2 = 0;
+	private int variant = -1;
+
+	//The rendered text; null if nothing has been rendered yet, or if it couldn't be (then it is drawn with drawText())
+	private Bitmap bitmap = null;
+	private Canvas bitmapCanvas = null;
+	//The size of the rendered text, and where in the Bitmap the text's origin is
+	private int width, height;
+	private int origin_x, origin_y;
+
+	//Where on the canvas the label is drawn (on the baseline, see above)
+	private int x, y;
+	//Where the label was drawn last (empty if it wasn't), and whether it has changed since
+	private final Rect drawnRect = new Rect();
+	private boolean changed = true;
+
+	/** Make a label that shows the text set with setText()
+	 * @param paint The Paint to render the text with
+	 */
+	public TextLabel(Paint paint) {
+		this(paint, "", "");
+	}
+
+	/** Make a label that shows a number set with setValue()
+	 * @param paint The Paint to render the text with
+	 * @param prefix The text before the number
+	 * @param suffixes The text after the number, one for each variant that can be passed to setValue()
+	 */
+	public TextLabel(Paint paint, String prefix, String... suffixes) {
+		this.paint = paint;
+		this.prefix = prefix;
+		this.suffixes = suffixes;
+	}
+
+	/** Set where on the canvas this label is drawn */
+	public void setPosition(int x, int y) {
+		if(x == this.x && y == this.y) return;
+		this.x = x;
+		this.y = y;
+		changed = true;
+	}
+
+	/** Show text; the text is compared by identity, so it is only rendered again when a different String is set
+	 * @param n_text The text to show, or null to show nothing
+	 */
+	public void setText(String n_text) {
+		if(n_text == text) return;
+		render(n_text);
+	}
+
+	/** Show prefix, n_value and suffix n_variant (see the constructor)
+	 * @param n_value The number to show
+	 * @param n_variant Which of the suffixes to show after it
+	 */
+	public void setValue(int n_value, int n_variant) {
+		if(n_value == value && n_variant == variant) return;
+		value = n_value;
+		variant = n_variant;
+		render(prefix + Integer.toString(n_value) + suffixes[n_variant]);
+	}
+
+	/** Show prefix, n_value, "/", n_value2 and the first suffix (e.g. "Active: 3/12")
+	 * @param n_value The number before the slash
+	 * @param n_value2 The number after it
+	 */
+	public void setValues(int n_value, int n_value2) {
+		if(n_value == value && n_value2 == value2 && variant == 0) return;
+		value = n_value;
+		value2 = n_value2;
+		variant = 0;
+		render(prefix + Integer.toString(n_value) + "/" + Integer.toString(n_value2) + suffixes[0]);
+	}
+
+	/** Add the area that this label has to be redrawn in to dirty, if the label has changed since it was last
+	 * drawn: where it was drawn, and where it will be drawn now
+	 */
+	public void addDirtyRect(Rect dirty) {
+		if(!changed) return;
+		dirty.union(drawnRect);
+		if(text != null) dirty.union(x - origin_x, y - origin_y, x - origin_x + width, y - origin_y + height);
+	}
+
+	public void draw(Canvas canvas) {
+		changed = false;
+		if(text == null) {
+			drawnRect.setEmpty();
+			return;
+		}
+
+		drawnRect.set(x - origin_x, y - origin_y, x - origin_x + width, y - origin_y + height);
+		if(bitmap != null) canvas.drawBitmap(bitmap, x - origin_x, y - origin_y, null);
+		else canvas.drawText(text, x, y, paint);
+	}
+
+	/** Render n_text into the Bitmap, re-using the Bitmap if it is large enough */
+	private void render(String n_text) {
+		text = n_text;
+		changed = true;
+		if(text == null) return;
+
+		Paint.FontMetricsInt metrics = paint.getFontMetricsInt();
+		//Skewed (italic) text leans out of the width that measureText() gives us
+		int skew_padding = (int) Math.ceil(Math.abs(paint.getTextSkewX()) * -metrics.top) + 1;
+		int text_width = (int) Math.ceil(paint.measureText(text));
+		width = text_width + 2 * skew_padding;
+		height = metrics.bottom - metrics.top;
+		origin_y = -metrics.top;
+
+		switch(paint.getTextAlign()) {
+			case CENTER: origin_x = skew_padding + text_width / 2; break;
+			case RIGHT: origin_x = skew_padding + text_width; break;
+			default: origin_x = skew_padding; break;
+		}
+
+		if(width <= 0 || height <= 0) return;
+
+		if(bitmap == null || bitmap.getWidth() < width || bitmap.getHeight() < height) {
+			if(bitmap != null) bitmap.recycle();
+			try {
+				bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+				bitmapCanvas = new Canvas(bitmap);
+			} catch (OutOfMemoryError e) {
+				Log.w(activitynametag, "Out of memory rendering \"" + text + "\"; drawing it as text");
+				bitmap = null;
+				bitmapCanvas = null;
+				return;
+			}
+		} else {
+			bitmap.eraseColor(Color.TRANSPARENT);
+		}
+
+		bitmapCanvas.drawText(text, origin_x, origin_y, paint);
+	}
+}
@@ -0,0 +1,191 @@
+package org.coffeecats.coffeetime.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import org.coffeecats.coffeetime.R;
+import org.coffeecats.coffeetime.simulation.AssetSource;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.util.Log;
+
+/** TextureAtlas packs the small in-game art (the machines in all of their states, the food icons, the speakers and
+ * such; see PACKED_DRAWABLES) into a few large sheets, and hands out Sprites that point into them. Instead of
+ * dozens of separate Bitmaps the level is drawn out of one or two, which saves the per-Bitmap overhead and keeps the
+ * art that is drawn every frame close together in memory.
+ *
+ * The sheets are built the first time they are needed (or ahead of time on the prefetch Looper, see
+ * LevelPrefetcher) and then kept for as long as the process lives. Art that isn't in the atlas, or that couldn't
+ * be packed (e.g. because we ran out of memory), gets a Sprite of its own out of the BitmapCache, so sprite() never
+ * fails where BitmapCache.acquire() wouldn't.
+ *
+ * The layers of the CoffeeGirl and Customer sprites aren't packed; they are only ever drawn into composites (see
+ * SpriteCompositor), never straight onto the screen.
+ *
+ * @author ivany
+ *
+ */
+public class TextureAtlas {
+	private static final String activitynametag = "TextureAtlas";
+
+	//The width and height of each sheet; all of the packed art fits in one sheet up to xhdpi
+	private static final int SHEET_SIZE = 512;
+	//Space left between packed art
+	private static final int PADDING = 1;
+
+	//UPDATE FOR NEW GAMEITEM
+	private static final int [] PACKED_DRAWABLES = {
+		R.drawable.countertop, R.drawable.trashcan, R.drawable.cupcake_tray, R.drawable.cake_tray,
+		R.drawable.coffeemachine_idle, R.drawable.coffeemachine, R.drawable.coffeemachine_done,
+		R.drawable.blender_idle, R.drawable.blender, R.drawable.blender_done,
+		R.drawable.microwave_inactive, R.drawable.microwave_active, R.drawable.microwave_done,
+		R.drawable.espresso_machine_inactive, R.drawable.espresso_machine_active, R.drawable.espresso_machine_done,
+		R.drawable.countertop_grey, R.drawable.countertop_grey_w_coffee, R.drawable.countertop_grey_w_cupcake,
+		R.drawable.countertop_grey_w_blendeddrink, R.drawable.countertop_grey_w_espresso,
+		R.drawable.countertop_grey_w_pie, R.drawable.countertop_grey_w_sandwich,
+		R.drawable.speaker_left_f0, R.drawable.speaker_left_f1, R.drawable.speaker_right_f0, R.drawable.speaker_right_f1,
+		R.drawable.fooditem_nothing, R.drawable.fooditem_coffee, R.drawable.fooditem_coffee_grey,
+		R.drawable.fooditem_cupcake, R.drawable.fooditem_cupcake_grey, R.drawable.fooditem_blendeddrink,
+		R.drawable.fooditem_blendeddrink_grey, R.drawable.fooditem_espresso, R.drawable.fooditem_espresso_grey,
+		R.drawable.fooditem_cake_slice, R.drawable.fooditem_cake_slice_grey, R.drawable.fooditem_sandwich,
+		R.drawable.fooditem_sandwich_grey, R.drawable.customer_tear_drop
+	};
+
+	//Resource id -> Sprite in a sheet; null until the atlas has been built, never changed after that
+	private static volatile HashMap<Integer, Sprite> packed = null;
+	private static final ArrayList<Bitmap> sheets = new ArrayList<Bitmap>();
+
+	/** Return a Sprite for resource r_id, out of the atlas if it is in there. The Sprite should be given back with
+	 * release() once it is no longer drawn.
+	 *
+	 * @param res The Resources to decode out of
+	 * @param r_id The resource id of the drawable
+	 * @return The Sprite, or null if the drawable couldn't be decoded
+	 */
+	public static Sprite sprite(Resources res, int r_id) {
+		build(res);
+
+		Sprite sprite = packed.get(r_id);
+		if(sprite != null) return(sprite);
+
+		Bitmap bitmap = BitmapCache.acquire(res, r_id);
+		if(bitmap == null) return(null);
+		return(new Sprite(bitmap));
+	}
+
+	/** Return true if resource r_id has been packed into the atlas (false if the atlas hasn't been built yet) */
+	public static boolean isPacked(int r_id) {
+		HashMap<Integer, Sprite> current_packed = packed;
+		return(current_packed != null && current_packed.containsKey(r_id));
+	}
+	
+	/** Give back a Sprite returned by sprite(); Sprites in the atlas stay, Sprites of their own give their Bitmap
+	 * back to the BitmapCache. Releasing null does nothing.
+	 */
+	public static void release(Sprite sprite) {
+		if(sprite != null && sprite.from_cache) BitmapCache.release(sprite.getBitmap());
+	}
+
+	/** Return an AssetSource that loads Sprites with sprite(); each one should be given back with release() */
+	public static AssetSource<Sprite> assetSource(final Resources res) {
+		return(new AssetSource<Sprite>() {
+			public Sprite load(int handle) {
+				return(sprite(res, handle));
+			}
+		});
+	}
+
+	/** Build the atlas, unless it has been built already. Levels call this through sprite(); LevelPrefetcher calls
+	 * it ahead of time so that the first level doesn't have to wait for it.
+	 *
+	 * @param res The Resources to decode out of
+	 */
+	public static void build(Resources res) {
+		if(packed != null) return;
+
+		synchronized(TextureAtlas.class) {
+			if(packed != null) return;
+
+			long start_time = System.currentTimeMillis();
+			HashMap<Integer, Sprite> n_packed = new HashMap<Integer, Sprite>();
+
+			try {
+				pack(res, n_packed);
+			} catch (OutOfMemoryError e) {
+				//Everything that didn't make it into a sheet will get a Sprite of its own
+				Log.w(activitynametag, "Out of memory building the atlas; packed " + n_packed.size() + " drawables");
+			}
+
+			packed = n_packed;
+			Log.i(activitynametag, "Packed " + n_packed.size() + " drawables into " + sheets.size() + " sheets in " +
+					(System.currentTimeMillis() - start_time) + "ms");
+		}
+	}
+
+	/** Decode everything in PACKED_DRAWABLES and pack it into sheets, tallest first, in rows ("shelves") as tall as
+	 * the first piece of art in them
+	 */
+	private static void pack(Resources res, HashMap<Integer, Sprite> n_packed) {
+		ArrayList<Integer> r_ids = new ArrayList<Integer>();
+		final HashMap<Integer, Bitmap> decoded = new HashMap<Integer, Bitmap>();
+
+		for(int r_id : PACKED_DRAWABLES) {
+			if(decoded.containsKey(r_id)) continue;
+
+			Bitmap bitmap = BitmapFactory.decodeResource(res, r_id);
+			if(bitmap == null || bitmap.getWidth() + PADDING > SHEET_SIZE || bitmap.getHeight() + PADDING > SHEET_SIZE) {
+				Log.w(activitynametag, "Not packing resource " + r_id);
+				continue;
+			}
+
+			decoded.put(r_id, bitmap);
+			r_ids.add(r_id);
+		}
+
+		Collections.sort(r_ids, new Comparator<Integer>() {
+			public int compare(Integer lhs, Integer rhs) {
+				return(decoded.get(rhs).getHeight() - decoded.get(lhs).getHeight());
+			}
+		});
+
+		Bitmap sheet = null;
+		Canvas canvas = null;
+		int shelf_x = 0, shelf_y = 0, shelf_height = 0;
+
+		for(int r_id : r_ids) {
+			Bitmap bitmap = decoded.get(r_id);
+			int width = bitmap.getWidth();
+			int height = bitmap.getHeight();
+
+			//Start a new shelf if this one is full, and a new sheet if there is no room for another shelf
+			if(sheet != null && shelf_x + width + PADDING > SHEET_SIZE) {
+				shelf_x = 0;
+				shelf_y += shelf_height;
+				shelf_height = 0;
+			}
+			if(sheet == null || shelf_y + height + PADDING > SHEET_SIZE) {
+				sheet = Bitmap.createBitmap(SHEET_SIZE, SHEET_SIZE, Bitmap.Config.ARGB_8888);
+				//The art has been scaled for the screen already when it was decoded; draw it into the sheet as-is
+				sheet.setDensity(Bitmap.DENSITY_NONE);
+				canvas = new Canvas(sheet);
+				sheets.add(sheet);
+				shelf_x = 0;
+				shelf_y = 0;
+				shelf_height = 0;
+			}
+
+			canvas.drawBitmap(bitmap, shelf_x, shelf_y, null);
+			n_packed.put(r_id, new Sprite(sheet, shelf_x, shelf_y, width, height));
+
+			shelf_x += width + PADDING;
+			shelf_height = Math.max(shelf_height, height + PADDING);
+
+			bitmap.recycle();
+		}
+	}
+}